@@ -0,0 +1,217 @@
+package com.lum1nar.junior_card;
+
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.reactive.ReactiveCardReadApplication;
+import com.lum1nar.junior_card.service.CardService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Нагрузочное сравнение режимов обработки запросов: пул платформенных потоков Tomcat,
+ * виртуальные потоки (профиль vthreads) и реактивный API чтения (WebFlux + R2DBC, {@link ReactiveCardReadApplication}).
+ * Для каждого режима приложение поднимается на встроенной H2 и случайном порту,
+ * после чего заданное число клиентов параллельно запрашивает страницы детских карт
+ * (каждый запрос - обращение к БД в обход кэша). Печатаются пропускная способность и перцентили задержки.
+ * В реактивном режиме основное приложение только создает схему и данные, а запросы обслуживает
+ * реактивное приложение, которое читает ту же БД H2 через R2DBC с пулом того же размера.
+ * <p>
+ * Запуск: {@code mvn -P benchmark test-compile exec:exec@load-test}
+ * <p>
+ * Параметры (системные свойства): {@code load.clients} (5000), {@code load.warmupSeconds} (10),
+ * {@code load.durationSeconds} (30), {@code load.poolSize} (20), {@code load.parents} (1000).
+ */
+public final class ThreadModeLoadRunner {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 5000);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmupSeconds", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.durationSeconds", 30);
+    private static final int POOL_SIZE = Integer.getInteger("load.poolSize", 20);
+    private static final int PARENTS = Integer.getInteger("load.parents", 1000);
+    private static final int CARDS_PER_PARENT = 3;
+    private static final int PAGE_SIZE = 20;
+
+    private ThreadModeLoadRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(run("platform", false));
+        results.add(run("virtual", true));
+        results.add(runReactive());
+
+        System.out.printf("%nКлиентов: %d, замер: %d с, пул соединений: %d%n", CLIENTS, DURATION_SECONDS, POOL_SIZE);
+        System.out.printf("%-10s %12s %10s %10s %10s %10s%n", "Режим", "запр/с", "p50, мс", "p99, мс", "p99.9, мс", "ошибок");
+        for (Result result : results) {
+            System.out.printf("%-10s %12.1f %10.1f %10.1f %10.1f %10d%n", result.mode(), result.throughput(),
+                    result.p50Millis(), result.p99Millis(), result.p999Millis(), result.errors());
+        }
+    }
+
+    /**
+     * Поднимает приложение в заданном режиме, наполняет его картами и выполняет нагрузку.
+     */
+    private static Result run(String mode, boolean virtualThreads) throws Exception {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                "--logging.level.root=WARN"));
+        if (virtualThreads) {
+            args.add("--spring.profiles.active=vthreads");
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JuniorCardApplication.class)
+                .run(args.toArray(String[]::new))) {
+            seed(context.getBean(CardService.class));
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            return load(mode, baseUrl);
+        }
+    }
+
+    /**
+     * Поднимает основное приложение для схемы и данных, а нагрузку подает на реактивное приложение.
+     */
+    private static Result runReactive() throws Exception {
+        String database = "load-reactive";
+        try (ConfigurableApplicationContext servletContext = new SpringApplicationBuilder(JuniorCardApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN")) {
+            seed(servletContext.getBean(CardService.class));
+
+            try (ConfigurableApplicationContext context = ReactiveCardReadApplication.builder()
+                    .run("--server.port=0",
+                            "--spring.r2dbc.url=r2dbc:h2:mem:///" + database + ";DB_CLOSE_DELAY=-1",
+                            "--spring.r2dbc.username=sa",
+                            "--spring.r2dbc.password=",
+                            "--spring.r2dbc.pool.initial-size=" + POOL_SIZE,
+                            "--spring.r2dbc.pool.max-size=" + POOL_SIZE,
+                            "--logging.level.root=WARN")) {
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                return load("reactive", baseUrl);
+            }
+        }
+    }
+
+    private static void seed(CardService cardService) {
+        List<CreateCardDto> cards = new ArrayList<>(PARENTS * CARDS_PER_PARENT);
+        for (int i = 0; i < PARENTS; i++) {
+            Long parentId = cardService.createParentCard(new CreateParentCardDto("Родитель", 35)).getId();
+            for (int j = 0; j < CARDS_PER_PARENT; j++) {
+                cards.add(new CreateCardDto("Ребенок", 10, parentId));
+            }
+        }
+        cardService.createJuniorCards(cards);
+    }
+
+    /**
+     * Запускает клиентов в виртуальных потоках (одинаково для всех режимов сервера):
+     * каждый клиент отправляет запросы последовательно, задержки учитываются только после прогрева.
+     */
+    private static Result load(String mode, String baseUrl) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        long maxCursor = (long) PARENTS * CARDS_PER_PARENT;
+        long measureFrom = System.nanoTime() + Duration.ofSeconds(WARMUP_SECONDS).toNanos();
+        long deadline = measureFrom + Duration.ofSeconds(DURATION_SECONDS).toNanos();
+        AtomicLong errors = new AtomicLong();
+        List<LatencyRecorder> recorders = new ArrayList<>(CLIENTS);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                LatencyRecorder recorder = new LatencyRecorder();
+                recorders.add(recorder);
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        long afterId = ThreadLocalRandom.current().nextLong(maxCursor);
+                        HttpRequest request = HttpRequest.newBuilder(
+                                        URI.create(baseUrl + "/api/cards/junior?afterId=" + afterId + "&limit=" + PAGE_SIZE))
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        long start = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long end = System.nanoTime();
+                        if (start >= measureFrom && end <= deadline) {
+                            if (ok) {
+                                recorder.add(end - start);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        httpClient.close();
+
+        long[] latencies = LatencyRecorder.merge(recorders);
+        Arrays.sort(latencies);
+        return new Result(mode, (double) latencies.length / DURATION_SECONDS,
+                percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99),
+                percentileMillis(latencies, 0.999), errors.get());
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /** Задержки успешных запросов одного клиента */
+    private static final class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        static long[] merge(List<LatencyRecorder> recorders) {
+            long[] merged = new long[recorders.stream().mapToInt(recorder -> recorder.size).sum()];
+            int offset = 0;
+            for (LatencyRecorder recorder : recorders) {
+                System.arraycopy(recorder.values, 0, merged, offset, recorder.size);
+                offset += recorder.size;
+            }
+            return merged;
+        }
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis,
+                          double p999Millis, long errors) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.lum1nar.junior_card.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lum1nar.junior_card.dto.ErrorResponseDto;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardSummaryDto;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.JuniorCard;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-бенчмарки JSON-сериализации ответов API.
+ * ObjectMapper настраивается так же, как в Spring Boot (Jackson2ObjectMapperBuilder).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private JuniorCard juniorCard;
+    private JuniorCardDto juniorCardDto;
+    private ErrorResponseDto errorResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusYears(3);
+        juniorCard = JuniorCard.builder()
+                .id(1L).name("Вася").childAge(10).status(CardStatus.ACTIVE).expiresAt(expiresAt).build();
+        juniorCardDto = new JuniorCardDto(1L, "Вася", CardStatus.ACTIVE, 10, 1L, expiresAt, 0L);
+
+        // Ответ на превышение лимита - самый тяжелый ответ об ошибке
+        errorResponse = ErrorResponseDto.builder()
+                .status(400)
+                .message("Достигнут лимит карт для родителя с ID: 1")
+                .errorCode("ACCOUNT_LIMIT_CARDS")
+                .timestamp(LocalDateTime.now())
+                .path("/api/cards/junior")
+                .existingCards(List.of(
+                        new JuniorCardSummaryDto(1L, "Вася", CardStatus.ACTIVE),
+                        new JuniorCardSummaryDto(2L, "Петя", CardStatus.PENDING),
+                        new JuniorCardSummaryDto(3L, "Маша", CardStatus.SUSPENDED)))
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serializeJuniorCard() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(juniorCard);
+    }
+
+    @Benchmark
+    public byte[] serializeJuniorCardDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(juniorCardDto);
+    }
+
+    @Benchmark
+    public byte[] serializeErrorResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(errorResponse);
+    }
+}
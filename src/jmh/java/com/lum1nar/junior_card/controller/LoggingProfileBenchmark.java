@@ -0,0 +1,109 @@
+package com.lum1nar.junior_card.controller;
+
+import com.lum1nar.junior_card.JuniorCardApplication;
+import com.lum1nar.junior_card.dto.ChangeStatusDto;
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.service.CardService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-бенчмарк стоимости логирования на горячем пути (контроллер, сервис, SQL).
+ * <ul>
+ *     <li>{@code verbose} - как было раньше: SQL с форматированием в stdout, логи каждого запроса
+ *     в контроллере и сервисе, синхронный консольный вывод;</li>
+ *     <li>{@code prod} - профиль prod: SQL выключен, логи запросов на уровне DEBUG, асинхронный appender.</li>
+ * </ul>
+ * Стандартный вывод на время замера направляется в пустой поток: измеряется стоимость
+ * форматирования и синхронизации, без стоимости самого терминала.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class LoggingProfileBenchmark {
+
+    private static final int CARDS = 300;
+
+    @Param({"verbose", "prod"})
+    public String logging;
+
+    private PrintStream originalOut;
+    private ConfigurableApplicationContext context;
+    private CardController cardController;
+    private final List<Long> cardIds = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:logging-" + logging + ";DB_CLOSE_DELAY=-1",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--card.expiry.enabled=false"));
+        if ("verbose".equals(logging)) {
+            args.add("--spring.jpa.show-sql=true");
+            args.add("--spring.jpa.properties.hibernate.format_sql=true");
+            args.add("--logging.level.com.lum1nar.junior_card=DEBUG");
+        } else {
+            args.add("--spring.profiles.active=prod");
+        }
+        context = new SpringApplicationBuilder(JuniorCardApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(String[]::new));
+        cardController = context.getBean(CardController.class);
+
+        CardService cardService = context.getBean(CardService.class);
+        for (int i = 0; i < CARDS / 3; i++) {
+            Long parentId = cardService.createParentCard(new CreateParentCardDto("Родитель", 35)).getId();
+            for (int j = 0; j < 3; j++) {
+                cardIds.add(cardService.createJuniorCard(new CreateCardDto("Вася", 10, parentId)).getId());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+        System.setOut(originalOut);
+    }
+
+    /** Чтение страницы: SQL-запрос и логи контроллера и сервиса */
+    @Benchmark
+    public ResponseEntity<List<JuniorCardDto>> getJuniorCardsPage() {
+        long afterId = cardIds.get(ThreadLocalRandom.current().nextInt(cardIds.size() - 20));
+        return cardController.getAllJuniorCards(afterId, 20);
+    }
+
+    /** Запись: несколько SQL-запросов и логов на один вызов */
+    @Benchmark
+    public ResponseEntity<JuniorCard> changeJuniorStatus() {
+        Long cardId = cardIds.get(ThreadLocalRandom.current().nextInt(cardIds.size()));
+        CardStatus status = ThreadLocalRandom.current().nextBoolean() ? CardStatus.ACTIVE : CardStatus.SUSPENDED;
+        try {
+            return cardController.changeJuniorStatus(cardId, null, new ChangeStatusDto(status));
+        } catch (RuntimeException e) {
+            // Переход в тот же статус запрещен - это тоже типичный путь с логированием ошибки
+            return null;
+        }
+    }
+}
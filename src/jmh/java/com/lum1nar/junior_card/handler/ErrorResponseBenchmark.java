@@ -0,0 +1,96 @@
+package com.lum1nar.junior_card.handler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lum1nar.junior_card.dto.ErrorResponseDto;
+import com.lum1nar.junior_card.exception.ApplicationException;
+import com.lum1nar.junior_card.exception.CardNotFoundException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-бенчмарк стоимости одного ответа 404 (карта не найдена): создание исключения и тело ответа.
+ * <ul>
+ *     <li>{@code stackTraceAndDto} - как было раньше: исключение со стеком вызовов,
+ *     новый ErrorResponseDto с LocalDateTime.now() и сериализация через ObjectMapper;</li>
+ *     <li>{@code stacklessAndTemplate} - исключение без стека и тело из заранее сериализованного шаблона.</li>
+ * </ul>
+ * Исключение создается на глубине {@code stackDepth} кадров: в реальном запросе между контроллером
+ * и сервисом стоят фильтры, прокси и интерцепторы, и стоимость стека растет с глубиной.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ErrorResponseBenchmark {
+
+    private static final String PATH = "/api/cards/junior/";
+
+    @Param({"20", "120"})
+    public int stackDepth;
+
+    private ObjectMapper objectMapper;
+    private ErrorResponseTemplates templates;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        templates = new ErrorResponseTemplates();
+    }
+
+    @Benchmark
+    public byte[] stackTraceAndDto() throws JsonProcessingException {
+        long cardId = ThreadLocalRandom.current().nextLong(1_000_000);
+        ApplicationException exception = throwAtDepth(stackDepth, () -> new StackTraceCardNotFoundException(cardId));
+        ErrorResponseDto response = ErrorResponseDto.builder()
+                .status(HttpStatus.NOT_FOUND.value())
+                .message(exception.getMessage())
+                .errorCode(exception.getErrorCode())
+                .timestamp(LocalDateTime.now())
+                .path(("uri=" + PATH + cardId).replace("uri=", ""))
+                .build();
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] stacklessAndTemplate() {
+        long cardId = ThreadLocalRandom.current().nextLong(1_000_000);
+        ApplicationException exception = throwAtDepth(stackDepth, () -> new CardNotFoundException(cardId));
+        return templates.render(HttpStatus.NOT_FOUND, exception.getMessage(), exception.getErrorCode(), PATH + cardId);
+    }
+
+    /**
+     * Создает и перехватывает исключение на заданной глубине стека.
+     */
+    private static ApplicationException throwAtDepth(int depth, ExceptionFactory factory) {
+        if (depth > 0) {
+            return throwAtDepth(depth - 1, factory);
+        }
+        try {
+            throw factory.create();
+        } catch (ApplicationException e) {
+            return e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ExceptionFactory {
+        ApplicationException create();
+    }
+
+    /**
+     * CardNotFoundException в прежнем виде: со стеком вызовов.
+     */
+    private static final class StackTraceCardNotFoundException extends ApplicationException {
+        StackTraceCardNotFoundException(long id) {
+            super("Card with ID " + id + " not found", "CARD_NOT_FOUND", true);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.lum1nar.junior_card.metrics;
+
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.repository.CardRepository;
+import com.lum1nar.junior_card.service.CardService;
+import com.lum1nar.junior_card.service.CardStatusTransitions;
+import com.lum1nar.junior_card.sharding.CardShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.*;
+import com.lum1nar.junior_card.config.MetricsConfig;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-бенчмарк накладных расходов таймеров сервисов ({@link CardServiceMetricsInterceptor}).
+ * Сравнивается вызов {@code CardService.getJuniorCardById} напрямую, через прокси с пустым
+ * перехватчиком (стоимость самого прокси) и через прокси с таймерами. Репозиторий - заглушка без БД,
+ * поэтому разница показывает чистую стоимость инструментирования на горячем пути.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    private CardService direct;
+    private CardService proxied;
+    private CardService instrumented;
+
+    @Setup
+    public void setUp() {
+        JuniorCardDto card = new JuniorCardDto(1L, "Вася", CardStatus.ACTIVE, 10, 1L, LocalDateTime.now(), 0L);
+        CardRepository cardRepository = (CardRepository) Proxy.newProxyInstance(
+                CardRepository.class.getClassLoader(), new Class<?>[]{CardRepository.class},
+                (proxy, method, args) -> Optional.of(card));
+        direct = new CardService(cardRepository, null, null, null, null,
+                CardStatusTransitions.withDefaultRules(), null, CardShards.single());
+
+        // В приложении CardService и так проксируется (транзакции, кэш), поэтому базовая линия -
+        // прокси с пустым перехватчиком, а разница с ней - стоимость таймеров
+        ProxyFactory plainFactory = new ProxyFactory(direct);
+        plainFactory.setProxyTargetClass(true);
+        plainFactory.addAdvice((MethodInterceptor) MethodInvocation::proceed);
+        proxied = (CardService) plainFactory.getProxy();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(MetricsConfig.CARD_SERVICE_METHODS);
+        ProxyFactory instrumentedFactory = new ProxyFactory(direct);
+        instrumentedFactory.setProxyTargetClass(true);
+        instrumentedFactory.addAdvisor(new DefaultPointcutAdvisor(pointcut,
+                new CardServiceMetricsInterceptor(() -> meterRegistry)));
+        instrumented = (CardService) instrumentedFactory.getProxy();
+    }
+
+    @Benchmark
+    public JuniorCardDto direct() {
+        return direct.getJuniorCardById(1L);
+    }
+
+    @Benchmark
+    public JuniorCardDto proxiedWithoutMetrics() {
+        return proxied.getJuniorCardById(1L);
+    }
+
+    @Benchmark
+    public JuniorCardDto proxiedWithMetrics() {
+        return instrumented.getJuniorCardById(1L);
+    }
+}
@@ -0,0 +1,98 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.JuniorCardApplication;
+import com.lum1nar.junior_card.dto.ChangeStatusDto;
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.JuniorCard;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-бенчмарки операций записи CardService.
+ * Сервис поднимается в полном Spring-контексте (без веб-сервера) на встроенной H2,
+ * поэтому в замер входят транзакции, Hibernate, кэш и SQL.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardServiceBenchmark {
+
+    /** Лимит детских карт на родителя (см. CardService) */
+    private static final int MAX_CARDS_PER_PARENT = 3;
+
+    private ConfigurableApplicationContext context;
+    private CardService cardService;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        // Аргументы командной строки имеют приоритет над application.properties (PostgreSQL)
+        context = new SpringApplicationBuilder(JuniorCardApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN");
+        cardService = context.getBean(CardService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    /**
+     * Родитель текущего потока, у которого еще есть место под детскую карту.
+     * Новый родитель создается вне замера, когда лимит карт текущего исчерпан.
+     */
+    @State(Scope.Thread)
+    public static class ParentSlot {
+        Long parentId;
+        int freeSlots;
+
+        @Setup(Level.Invocation)
+        public void ensureFreeSlot(CardServiceBenchmark benchmark) {
+            if (freeSlots == 0) {
+                parentId = benchmark.cardService.createParentCard(new CreateParentCardDto("Родитель", 35)).getId();
+                freeSlots = MAX_CARDS_PER_PARENT;
+            }
+            freeSlots--;
+        }
+    }
+
+    /**
+     * Детская карта текущего потока, статус которой переключается между ACTIVE и SUSPENDED.
+     */
+    @State(Scope.Thread)
+    public static class StatusCard {
+        Long cardId;
+        CardStatus status;
+
+        @Setup(Level.Trial)
+        public void createCard(CardServiceBenchmark benchmark) {
+            Long parentId = benchmark.cardService.createParentCard(new CreateParentCardDto("Родитель", 35)).getId();
+            cardId = benchmark.cardService.createJuniorCard(new CreateCardDto("Вася", 10, parentId)).getId();
+            status = CardStatus.PENDING;
+        }
+    }
+
+    @Benchmark
+    public JuniorCard createJuniorCard(ParentSlot slot) {
+        return cardService.createJuniorCard(new CreateCardDto("Вася", 10, slot.parentId));
+    }
+
+    @Benchmark
+    public JuniorCard changeJuniorStatus(StatusCard card) {
+        card.status = card.status == CardStatus.ACTIVE ? CardStatus.SUSPENDED : CardStatus.ACTIVE;
+        return cardService.changeJuniorStatus(card.cardId, new ChangeStatusDto(card.status), null);
+    }
+}
@@ -0,0 +1,66 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.config.FraudProperties;
+import com.lum1nar.junior_card.exception.SuspiciousTransactionException;
+import com.lum1nar.junior_card.repository.CardRepository;
+import com.lum1nar.junior_card.repository.CardTransactionRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-бенчмарк проверки списания на подозрительность: задержка одной проверки
+ * при параллельных списаниях по случайным картам. Возраст ребенка загружается
+ * заглушкой репозитория, поэтому измеряется только работа в памяти.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class FraudScoringBenchmark {
+
+    private static final int CARDS = 50_000;
+
+    private FraudScoringStage fraudScoringStage;
+
+    @Setup
+    public void setUp() {
+        CardRepository cardRepository = (CardRepository) Proxy.newProxyInstance(
+                CardRepository.class.getClassLoader(), new Class<?>[]{CardRepository.class},
+                (proxy, method, args) -> Optional.of(12));
+        CardTransactionRepository cardTransactionRepository = (CardTransactionRepository) Proxy.newProxyInstance(
+                CardTransactionRepository.class.getClassLoader(), new Class<?>[]{CardTransactionRepository.class},
+                (proxy, method, args) -> method.getReturnType() == List.class ? List.of() : BigDecimal.ZERO);
+        FraudProperties properties = new FraudProperties();
+        // Все правила выполняются, но не срабатывают: измеряется путь одобрения без логирования отказов
+        properties.setMaxAuthorizationsPerWindow(Integer.MAX_VALUE);
+        properties.setMinHistoryForAmountCheck(Integer.MAX_VALUE);
+        properties.setAgeLimits(Map.of(6, new FraudProperties.AgeLimit(
+                new BigDecimal("1000000"), new BigDecimal("1000000000000"))));
+        fraudScoringStage = new FraudScoringStage(properties, cardRepository, cardTransactionRepository);
+    }
+
+    @Benchmark
+    public boolean scoreAndRecord() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long cardId = random.nextLong(1, CARDS);
+        long amountCents = random.nextLong(1_00, 500_00);
+        long now = System.currentTimeMillis();
+        try {
+            fraudScoringStage.score(cardId, amountCents, now);
+            fraudScoringStage.recordApproved(cardId, amountCents, now);
+            return true;
+        } catch (SuspiciousTransactionException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.exception.InvalidStatusTransitionException;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.CardType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH-бенчмарк проверки перехода статуса карты.
+ * Одна операция - проверка одной пары статусов, перебираются все пары.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatusTransitionBenchmark {
+
+    private static final CardStatus[] STATUSES = CardStatus.values();
+
+    private final CardStatusTransitions statusTransitions = CardStatusTransitions.withDefaultRules();
+
+    @Benchmark
+    @OperationsPerInvocation(25)
+    public void isAllowed(Blackhole blackhole) {
+        for (CardStatus fromStatus : STATUSES) {
+            for (CardStatus toStatus : STATUSES) {
+                blackhole.consume(statusTransitions.isAllowed(CardType.JUNIOR, fromStatus, toStatus));
+            }
+        }
+    }
+
+    /** Отклонение недопустимого перехода: путь, по которому бьют клиенты с неверными запросами */
+    @Benchmark
+    public Object rejectInvalidTransition() {
+        try {
+            statusTransitions.check(CardType.JUNIOR, CardStatus.CANCELLED, CardStatus.ACTIVE);
+            return null;
+        } catch (InvalidStatusTransitionException e) {
+            return e;
+        }
+    }
+}
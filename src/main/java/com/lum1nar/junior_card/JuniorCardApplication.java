@@ -2,8 +2,10 @@ package com.lum1nar.junior_card;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class JuniorCardApplication {
 
 	public static void main(String[] args) {
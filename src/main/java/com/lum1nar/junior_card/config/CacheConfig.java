@@ -0,0 +1,88 @@
+package com.lum1nar.junior_card.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.lum1nar.junior_card.datasource.ReplicaLagCacheManager;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import java.net.URI;
+
+/**
+ * Конфигурация in-process кэша карт.
+ * Параметры кэшей (размер, TTL, статистика) задаются в application.properties ({@code spring.cache.*}).
+ * Кэш второго уровня Hibernate настраивается отдельно: {@code spring.jpa.properties.hibernate.cache.*}
+ * и регионы в {@value #SECOND_LEVEL_CACHE_CONFIG}.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties({CacheProperties.class, ReplicaRoutingProperties.class})
+public class CacheConfig {
+
+    /** Кэш детских карт по ID */
+    public static final String JUNIOR_CARDS_CACHE = "juniorCards";
+
+    /** Кэш родительских карт (вместе с детскими картами) по ID */
+    public static final String PARENT_CARDS_CACHE = "parentCards";
+
+    /**
+     * Пространство запросов Hibernate для нативных однострочных UPDATE (балансы, счетчики, статус по версии).
+     * Оно не совпадает ни с одной таблицей, поэтому такие UPDATE не очищают регионы кэша второго уровня целиком -
+     * измененная запись инвалидируется точечно через {@link com.lum1nar.junior_card.service.SecondLevelCacheInvalidator}.
+     */
+    public static final String SINGLE_ROW_UPDATES_QUERY_SPACE = "card_single_row_updates";
+
+    /** Настройки регионов кэша второго уровня Hibernate (Caffeine JCache) */
+    public static final String SECOND_LEVEL_CACHE_CONFIG = "classpath:hibernate-cache.conf";
+
+    /**
+     * ClassLoader менеджера кэшей второго уровня. Провайдер JCache держит его по слабой ссылке,
+     * поэтому ссылка хранится здесь, пока жив контекст приложения.
+     */
+    private final ClassLoader secondLevelCacheClassLoader = new ClassLoader(CacheConfig.class.getClassLoader()) { };
+
+    /**
+     * Менеджер кэшей на Caffeine (ограниченный размер, TTL, вытеснение W-TinyLFU).
+     * Кэш транзакционный: инвалидация выполняется только после коммита,
+     * поэтому чтение между инвалидацией и коммитом не вернет в кэш старые данные.
+     * При чтении с реплик инвалидация повторяется, когда реплики получат изменение ({@link ReplicaLagCacheManager}).
+     *
+     * @param cacheProperties настройки {@code spring.cache.*}
+     * @param replicaRoutingProperties настройки чтения с реплик
+     * @return менеджер кэшей
+     */
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties, ReplicaRoutingProperties replicaRoutingProperties) {
+        CaffeineCacheManager caffeineCacheManager = replicaRoutingProperties.isEnabled()
+                ? new ReplicaLagCacheManager(replicaRoutingProperties.getMaxLag()
+                        .plus(replicaRoutingProperties.getLagCheckInterval()))
+                : new CaffeineCacheManager();
+        caffeineCacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        caffeineCacheManager.setCacheNames(cacheProperties.getCacheNames());
+        return new TransactionAwareCacheManagerProxy(caffeineCacheManager);
+    }
+
+    /**
+     * Менеджер кэшей JCache (Caffeine) для кэша второго уровня Hibernate.
+     * Провайдер JCache хранит менеджеры по паре (URI, ClassLoader), поэтому менеджер создается со своим
+     * ClassLoader: у каждого контекста приложения (например, у нескольких контекстов в тестах) свои регионы.
+     * Hibernate закрывает менеджер вместе с SessionFactory.
+     *
+     * @return настройка Hibernate с менеджером кэшей
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer() {
+        javax.cache.CacheManager cacheManager = Caching
+                .getCachingProvider(CaffeineCachingProvider.class.getName(), secondLevelCacheClassLoader)
+                .getCacheManager(URI.create(SECOND_LEVEL_CACHE_CONFIG), secondLevelCacheClassLoader);
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+}
@@ -0,0 +1,63 @@
+package com.lum1nar.junior_card.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Настройка проверки подозрительных списаний с детских карт.
+ * Пример: {@code card.fraud.max-authorizations-per-window=5},
+ * {@code card.fraud.age-limits.14.daily-limit=5000}.
+ */
+@Data
+@ConfigurationProperties(prefix = "card.fraud")
+public class FraudProperties {
+
+    /** Включена ли проверка */
+    private boolean enabled = true;
+
+    /** Количество карт, состояние которых хранится в памяти (округляется вверх до степени двойки) */
+    private int capacity = 65_536;
+
+    /** Окно подсчета частоты списаний */
+    private Duration velocityWindow = Duration.ofMinutes(1);
+
+    /** Максимальное количество попыток списания с карты за окно */
+    private int maxAuthorizationsPerWindow = 10;
+
+    /** Минимальное количество успешных списаний, после которого сумма сравнивается с обычными для карты */
+    private int minHistoryForAmountCheck = 20;
+
+    /** Во сколько раз (степень двойки) сумма может превышать обычные суммы карты: 3 - в 8 раз */
+    private int amountOutlierBuckets = 3;
+
+    /**
+     * Лимиты по возрасту ребенка: минимальный возраст -> лимиты.
+     * Действует лимит с наибольшим минимальным возрастом, не превышающим возраст ребенка.
+     */
+    private Map<Integer, AgeLimit> ageLimits = new TreeMap<>(Map.of(
+            6, new AgeLimit(new BigDecimal("1000"), new BigDecimal("3000")),
+            10, new AgeLimit(new BigDecimal("3000"), new BigDecimal("10000")),
+            14, new AgeLimit(new BigDecimal("10000"), new BigDecimal("30000"))));
+
+    /**
+     * Лимиты списаний для возрастной группы.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AgeLimit {
+
+        /** Максимальная сумма одного списания */
+        private BigDecimal maxTransaction;
+
+        /** Максимальная сумма списаний за календарный день (UTC) */
+        private BigDecimal dailyLimit;
+    }
+}
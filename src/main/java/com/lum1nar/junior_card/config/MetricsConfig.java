@@ -0,0 +1,44 @@
+package com.lum1nar.junior_card.config;
+
+import com.lum1nar.junior_card.metrics.CardServiceMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Конфигурация метрик сервисов карт.
+ * Запросы репозиториев ({@code spring.data.repository.invocations}), пул соединений
+ * ({@code hikaricp.connections.*}) и HTTP-запросы ({@code http.server.requests})
+ * измеряются автоконфигурацией Spring Boot Actuator.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /** Публичные методы сервисов карт, для которых ведутся таймеры */
+    public static final String CARD_SERVICE_METHODS =
+            "execution(public * com.lum1nar.junior_card.service.CardService.*(..)) || " +
+            "execution(public * com.lum1nar.junior_card.service.CardLedgerService.*(..))";
+
+    /**
+     * Подключает таймеры к методам сервисов карт.
+     * Advice выполняется раньше транзакций и кэша, поэтому время включает коммит,
+     * а попадания в кэш тоже учитываются.
+     *
+     * @param meterRegistry реестр метрик (запрашивается при первом вызове сервиса)
+     * @return advisor таймеров
+     */
+    @Bean
+    public Advisor cardServiceMetricsAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(CARD_SERVICE_METHODS);
+        DefaultPointcutAdvisor advisor =
+                new DefaultPointcutAdvisor(pointcut, new CardServiceMetricsInterceptor(meterRegistry::getObject));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
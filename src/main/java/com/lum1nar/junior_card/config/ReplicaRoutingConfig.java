@@ -0,0 +1,140 @@
+package com.lum1nar.junior_card.config;
+
+import com.lum1nar.junior_card.datasource.ReadYourWrites;
+import com.lum1nar.junior_card.datasource.ReadYourWritesFilter;
+import com.lum1nar.junior_card.datasource.ReplicaAwareTransactionManager;
+import com.lum1nar.junior_card.datasource.ReplicaLagMonitor;
+import com.lum1nar.junior_card.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Чтение с реплик БД ({@code card.datasource.routing.enabled=true}).
+ * Транзакции {@code @Transactional(readOnly = true)} выполняются на доступной реплике, остальные - на primary
+ * ({@code spring.datasource.*}). Реплика с отставанием больше {@code max-lag} или недоступная исключается
+ * из чтения до следующей проверки; после коммита изменений клиент читает с primary
+ * в течение {@code read-your-writes-window}.
+ * Без этой настройки используется один источник данных из автоконфигурации Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(name = "card.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    /**
+     * Пул соединений primary; настройки пула - {@code spring.datasource.hikari.*}, как и без реплик.
+     *
+     * @param dataSourceProperties настройки {@code spring.datasource.*}
+     * @return пул соединений primary
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Монитор отставания реплик вместе с их пулами соединений.
+     *
+     * @param properties настройки реплик
+     * @param dataSourceProperties настройки primary (учетные данные по умолчанию)
+     * @param meterRegistry реестр метрик
+     * @return монитор отставания реплик
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingProperties properties,
+                                               DataSourceProperties dataSourceProperties,
+                                               ObjectProvider<MeterRegistry> meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicaRoutingProperties.Replica replica : properties.getReplicas()) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + replicas.size());
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null
+                    ? replica.getUsername() : dataSourceProperties.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null
+                    ? replica.getPassword() : dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+        }
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replicas, properties.getLagQuery(), properties.getMaxLag());
+        meterRegistry.ifAvailable(monitor::bindTo);
+        monitor.checkLag();
+        ReadYourWrites.setWindow(properties.getReadYourWritesWindow());
+        return monitor;
+    }
+
+    /**
+     * Источник данных приложения (JPA, Flyway, JDBC). Соединение открывается при первом запросе к БД
+     * и берется с реплики или с primary в зависимости от режима текущей транзакции.
+     *
+     * @param primaryDataSource пул соединений primary
+     * @param replicaLagMonitor монитор отставания реплик
+     * @return маршрутизирующий источник данных
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor));
+    }
+
+    /**
+     * Hibernate отпускает соединение после каждой транзакции, в том числе у EntityManager, открытого
+     * на весь HTTP-запрос (open-in-view): иначе запись после чтения в том же запросе пошла бы
+     * через соединение, полученное для чтения с реплики.
+     *
+     * @return настройка Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandlingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Менеджер транзакций JPA с учетом чтения с реплик (read-your-writes, кэш второго уровня).
+     *
+     * @param transactionManagerCustomizers настройки {@code spring.transaction.*}
+     * @return менеджер транзакций
+     */
+    @Bean
+    public JpaTransactionManager transactionManager(
+            ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+        ReplicaAwareTransactionManager transactionManager = new ReplicaAwareTransactionManager();
+        transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+        return transactionManager;
+    }
+
+    /**
+     * Переносит окно read-your-writes между HTTP-запросами клиента.
+     *
+     * @return регистрация фильтра
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
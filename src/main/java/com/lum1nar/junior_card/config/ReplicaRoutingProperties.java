@@ -0,0 +1,63 @@
+package com.lum1nar.junior_card.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройка чтения с реплик БД.
+ * Пример: {@code card.datasource.routing.enabled=true},
+ * {@code card.datasource.routing.replicas[0].url=jdbc:postgresql://replica-1:5432/junior_card}.
+ */
+@Data
+@ConfigurationProperties(prefix = "card.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    /** Включена ли маршрутизация транзакций только для чтения на реплики */
+    private boolean enabled = false;
+
+    /** Реплики; транзакции только для чтения распределяются между доступными репликами по очереди */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /** Максимальное отставание реплики, при котором с нее еще читают */
+    private Duration maxLag = Duration.ofSeconds(1);
+
+    /**
+     * Запрос отставания реплики в секундах (одно число). NULL или ошибка - реплика недоступна.
+     * По умолчанию - для потоковой репликации PostgreSQL: если все полученные изменения применены, отставание 0.
+     */
+    private String lagQuery = "SELECT CASE WHEN NOT pg_is_in_recovery() "
+            + "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    /** Интервал проверки отставания реплик */
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    /** Сколько после коммита изменений запросы того же клиента читают с primary (read-your-writes) */
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+
+    /**
+     * Подключение к реплике.
+     */
+    @Data
+    public static class Replica {
+
+        /** JDBC URL реплики */
+        private String url;
+
+        /** Пользователь (по умолчанию - как у primary) */
+        private String username;
+
+        /** Пароль (по умолчанию - как у primary) */
+        private String password;
+
+        /** Размер пула соединений */
+        private int maximumPoolSize = 10;
+
+        /** Сколько ждать соединения с репликой, прежде чем читать с primary */
+        private Duration connectionTimeout = Duration.ofSeconds(1);
+    }
+}
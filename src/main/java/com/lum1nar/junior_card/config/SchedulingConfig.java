@@ -0,0 +1,12 @@
+package com.lum1nar.junior_card.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Включает фоновые задачи по расписанию (например, перевод истекших карт в EXPIRED).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
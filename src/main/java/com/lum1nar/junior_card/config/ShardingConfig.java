@@ -0,0 +1,184 @@
+package com.lum1nar.junior_card.config;
+
+import com.lum1nar.junior_card.sharding.CardShards;
+import com.lum1nar.junior_card.sharding.ShardContextFilter;
+import com.lum1nar.junior_card.sharding.ShardRoutingDataSource;
+import com.lum1nar.junior_card.sharding.ShardRoutingInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import db.migration.V5__ShardSequenceRanges;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayProperties;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Шардирование хранилища карт ({@code card.sharding.enabled=true}).
+ * Каждая родительская карта вместе с детскими картами, операциями и событиями хранится в одном шарде,
+ * номер шарда записан в ее ID (см. {@link CardShards}). Методы сервисов карт выполняются в шарде
+ * своих карт ({@link ShardRoutingInterceptor}), общие списки собираются из всех шардов.
+ * Схема дополнительных шардов создается теми же миграциями Flyway при запуске.
+ * Без этой настройки используется один источник данных из автоконфигурации Spring Boot.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "card.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    /**
+     * Пул соединений шарда 0; настройки пула - {@code spring.datasource.hikari.*}, как и без шардирования.
+     *
+     * @param dataSourceProperties настройки {@code spring.datasource.*}
+     * @return пул соединений шарда 0
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource shardZeroDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Маршрутизация соединений по шардам вместе с пулами дополнительных шардов (закрываются вместе с ней).
+     * Схема дополнительных шардов приводится к актуальной версии до того, как с ними начнет работать JPA.
+     *
+     * @param shardZeroDataSource пул соединений шарда 0
+     * @param properties настройки шардов
+     * @param replicaRoutingProperties настройки чтения с реплик (с шардированием не поддерживается)
+     * @param dataSourceProperties настройки шарда 0 (учетные данные по умолчанию)
+     * @param flywayProperties настройки миграций {@code spring.flyway.*}
+     * @param meterRegistry реестр метрик пулов соединений
+     * @return маршрутизирующий источник данных
+     */
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(HikariDataSource shardZeroDataSource,
+                                                         ShardingProperties properties,
+                                                         ReplicaRoutingProperties replicaRoutingProperties,
+                                                         DataSourceProperties dataSourceProperties,
+                                                         ObjectProvider<FlywayProperties> flywayProperties,
+                                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        if (replicaRoutingProperties.isEnabled()) {
+            throw new IllegalStateException("Чтение с реплик (card.datasource.routing) и шардирование (card.sharding) "
+                    + "одновременно не поддерживаются");
+        }
+        Map<Object, Object> shards = new HashMap<>();
+        shards.put(0, shardZeroDataSource);
+        List<ShardingProperties.Shard> extraShards = properties.getShards();
+        for (int i = 0; i < extraShards.size(); i++) {
+            int shard = i + 1;
+            ShardingProperties.Shard settings = extraShards.get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("shard-" + shard);
+            dataSource.setJdbcUrl(settings.getUrl());
+            dataSource.setUsername(settings.getUsername() != null
+                    ? settings.getUsername() : dataSourceProperties.determineUsername());
+            dataSource.setPassword(settings.getPassword() != null
+                    ? settings.getPassword() : dataSourceProperties.determinePassword());
+            dataSource.setMaximumPoolSize(settings.getMaximumPoolSize());
+            meterRegistry.ifAvailable(registry ->
+                    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            flywayProperties.ifAvailable(flyway -> migrate(dataSource, settings.getUrl(), shard, flyway));
+            shards.put(shard, dataSource);
+        }
+
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        routingDataSource.setTargetDataSources(shards);
+        routingDataSource.setDefaultTargetDataSource(shardZeroDataSource);
+        routingDataSource.setLenientFallback(false);
+        log.info("Шардирование хранилища карт включено: шардов {}", shards.size());
+        return routingDataSource;
+    }
+
+    /**
+     * Источник данных приложения (JPA, Flyway, JDBC). Соединение открывается при первом запросе к БД
+     * и берется с шарда, текущего в этот момент.
+     *
+     * @param shardRoutingDataSource маршрутизация по шардам
+     * @return источник данных приложения
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Hibernate отпускает соединение после каждой транзакции, в том числе у EntityManager, открытого
+     * на весь HTTP-запрос (open-in-view): следующая транзакция того же запроса может относиться к другому шарду.
+     *
+     * @return настройка Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardConnectionHandlingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    /**
+     * Выбирает шард для методов сервисов карт. Advice выполняется после таймеров метрик,
+     * но раньше транзакций и кэша: транзакция открывается уже в нужном шарде.
+     *
+     * @param cardShards шарды хранилища
+     * @return advisor выбора шарда
+     */
+    @Bean
+    public Advisor shardRoutingAdvisor(CardShards cardShards) {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(MetricsConfig.CARD_SERVICE_METHODS);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new ShardRoutingInterceptor(cardShards));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+
+    /**
+     * Сбрасывает выбранный шард в конце HTTP-запроса.
+     *
+     * @return регистрация фильтра
+     */
+    @Bean
+    public FilterRegistrationBean<ShardContextFilter> shardContextFilter() {
+        FilterRegistrationBean<ShardContextFilter> registration = new FilterRegistrationBean<>(new ShardContextFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Приводит схему дополнительного шарда к актуальной версии теми же миграциями, что и шард 0.
+     * Миграция V5 сдвигает последовательности шарда в его диапазон ID.
+     */
+    private static void migrate(DataSource dataSource, String url, int shard, FlywayProperties flywayProperties) {
+        String vendor = DatabaseDriver.fromJdbcUrl(url).getId();
+        String[] locations = flywayProperties.getLocations().stream()
+                .map(location -> location.replace("{vendor}", vendor))
+                .toArray(String[]::new);
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations(locations)
+                .baselineOnMigrate(flywayProperties.isBaselineOnMigrate())
+                .baselineVersion(flywayProperties.getBaselineVersion())
+                .placeholders(Map.of(V5__ShardSequenceRanges.SHARD_PLACEHOLDER, String.valueOf(shard)))
+                .load()
+                .migrate();
+    }
+}
@@ -0,0 +1,50 @@
+package com.lum1nar.junior_card.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройка шардирования хранилища карт.
+ * Шард 0 - основная БД ({@code spring.datasource.*}), шарды 1..N-1 задаются списком, например
+ * {@code card.sharding.enabled=true}, {@code card.sharding.shards[0].url=jdbc:postgresql://cards-1:5432/junior_card}.
+ * Шарды можно только добавлять в конец списка: номер шарда записан в ID его карт.
+ */
+@Data
+@ConfigurationProperties(prefix = "card.sharding")
+public class ShardingProperties {
+
+    /** Включено ли шардирование */
+    private boolean enabled = false;
+
+    /** Дополнительные шарды (1..N-1) */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * @return количество шардов с учетом основной БД (1 без шардирования)
+     */
+    public int shardCount() {
+        return enabled ? shards.size() + 1 : 1;
+    }
+
+    /**
+     * Подключение к шарду.
+     */
+    @Data
+    public static class Shard {
+
+        /** JDBC URL шарда */
+        private String url;
+
+        /** Пользователь (по умолчанию - как у основной БД) */
+        private String username;
+
+        /** Пароль (по умолчанию - как у основной БД) */
+        private String password;
+
+        /** Размер пула соединений */
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,26 @@
+package com.lum1nar.junior_card.config;
+
+import com.lum1nar.junior_card.model.CardStatus;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Настройка допустимых переходов статусов по типам карт.
+ * Пример: {@code card.status-transitions.parent.ACTIVE=SUSPENDED,CANCELLED}.
+ * Если для типа карты правила не заданы, используются правила по умолчанию
+ * (см. {@link com.lum1nar.junior_card.service.CardStatusTransitions#DEFAULT_RULES}).
+ */
+@Data
+@ConfigurationProperties(prefix = "card.status-transitions")
+public class StatusTransitionProperties {
+
+    /** Переходы для детских карт: текущий статус -> допустимые целевые статусы */
+    private Map<CardStatus, Set<CardStatus>> junior = new EnumMap<>(CardStatus.class);
+
+    /** Переходы для родительских карт: текущий статус -> допустимые целевые статусы */
+    private Map<CardStatus, Set<CardStatus>> parent = new EnumMap<>(CardStatus.class);
+}
@@ -1,17 +1,33 @@
 package com.lum1nar.junior_card.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.lum1nar.junior_card.dto.*;
+import com.lum1nar.junior_card.exception.PreconditionFailedException;
 import com.lum1nar.junior_card.model.JuniorCard;
 import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.service.CardChangeFeedService;
+import com.lum1nar.junior_card.service.CardLedgerService;
 import com.lum1nar.junior_card.service.CardService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToLongFunction;
 
 /**
  * REST контроллер для управления детскими и родительскими картами.
@@ -23,7 +39,19 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CardController {
 
+    /** Заголовок с курсором следующей страницы (отсутствует на последней странице) */
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    /** Заголовок ответа на PATCH, если данные карты не изменились (значение "true") */
+    public static final String UNCHANGED_HEADER = "X-Card-Unchanged";
+
+    /** Размер страницы по умолчанию */
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
     private final CardService cardService;
+    private final CardLedgerService cardLedgerService;
+    private final CardChangeFeedService cardChangeFeedService;
+    private final ObjectMapper objectMapper;
 
     // ==================== ДЕТСКИЕ КАРТЫ (JUNIOR CARD CRUD) ====================
 
@@ -35,66 +63,240 @@ public class CardController {
      */
     @PostMapping("/junior")
     public ResponseEntity<JuniorCard> createJuniorCard(@Valid @RequestBody CreateCardDto createCardRequest) {
-        log.info("Получен запрос на создание детской карты");
+        log.debug("Получен запрос на создание детской карты");
         JuniorCard createdCard = cardService.createJuniorCard(createCardRequest);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdCard);
     }
 
     /**
-     * GET /api/cards/junior - Получение всех детских карт
+     * POST /api/cards/junior/batch - Пакетное создание детских карт
+     * Все карты создаются в одной транзакции: при ошибке не создается ни одна.
+     *
+     * @param createCardBatchRequest DTO со списком карт для создания
+     * @return количество и ID созданных карт (HTTP 201 CREATED)
+     */
+    @PostMapping("/junior/batch")
+    public ResponseEntity<CreateCardBatchResultDto> createJuniorCards(
+            @Valid @RequestBody CreateCardBatchDto createCardBatchRequest) {
+        log.debug("Получен запрос на пакетное создание {} детских карт", createCardBatchRequest.getCards().size());
+        List<Long> createdIds = cardService.createJuniorCards(createCardBatchRequest.getCards());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new CreateCardBatchResultDto(createdIds.size(), createdIds));
+    }
+
+    /**
+     * GET /api/cards/junior?afterId=&limit= - Получение страницы детских карт (keyset-пагинация)
+     * Курсор следующей страницы возвращается в заголовке {@value #NEXT_CURSOR_HEADER}.
      *
-     * @return список всех детских карт (HTTP 200 OK)
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit   размер страницы
+     * @return страница детских карт (HTTP 200 OK)
      */
     @GetMapping("/junior")
-    public ResponseEntity<List<JuniorCard>> getAllJuniorCards() {
-        log.info("Получен запрос на получение всех детских карт");
-        List<JuniorCard> allCards = cardService.getAllJuniorCards();
-        return ResponseEntity.ok(allCards);
+    public ResponseEntity<List<JuniorCardDto>> getAllJuniorCards(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        log.debug("Получен запрос на получение страницы детских карт после ID: {}", afterId);
+        List<JuniorCardDto> page = cardService.getJuniorCardsPage(afterId, limit);
+        return pageResponse(page, limit, JuniorCardDto::id);
+    }
+
+    /**
+     * GET /api/cards/junior/stream - Потоковая выгрузка всех детских карт в формате NDJSON
+     * (одна карта в строке). Память сервера не зависит от размера таблицы.
+     *
+     * @return поток детских карт (HTTP 200 OK)
+     */
+    @GetMapping(value = "/junior/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllJuniorCards() {
+        log.debug("Получен запрос на потоковую выгрузку детских карт");
+        ObjectWriter writer = ndjsonWriter();
+        StreamingResponseBody body = outputStream ->
+                cardService.streamAllJuniorCards(card -> writeNdjsonLine(writer, outputStream, card));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * GET /api/cards/junior/search?status=&minAge=&maxAge=&parentCardId=&namePrefix=&parentStatus=&afterId=&limit=
+     * - Поиск детских карт по фильтрам (keyset-пагинация)
+     * Статусы перечисляются через запятую или повтором параметра; фильтры объединяются через AND.
+     * Курсор следующей страницы возвращается в заголовке {@value #NEXT_CURSOR_HEADER}.
+     *
+     * @param filter  фильтры поиска
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit   размер страницы
+     * @return страница найденных детских карт (HTTP 200 OK)
+     */
+    @GetMapping("/junior/search")
+    public ResponseEntity<List<JuniorCardDto>> searchJuniorCards(
+            @Valid @ModelAttribute JuniorCardSearchDto filter,
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        log.debug("Получен запрос на поиск детских карт: {}", filter);
+        List<JuniorCardDto> page = cardService.searchJuniorCards(filter, afterId, limit);
+        return pageResponse(page, limit, JuniorCardDto::id);
     }
 
     /**
      * GET /api/cards/junior/{id} - Получение детской карты по ID
+     * Версия карты возвращается в заголовке ETag; при совпадении с If-None-Match - HTTP 304.
      *
      * @param cardId ID карты
      * @return найденная детская карта (HTTP 200 OK)
      */
     @GetMapping("/junior/{cardId}")
-    public ResponseEntity<JuniorCard> getJuniorCardById(@PathVariable Long cardId) {
-        log.info("Получен запрос на получение детской карты с ID: {}", cardId);
-        JuniorCard foundCard = cardService.getJuniorCardById(cardId);
-        return ResponseEntity.ok(foundCard);
+    public ResponseEntity<JuniorCardDto> getJuniorCardById(@PathVariable Long cardId) {
+        log.debug("Получен запрос на получение детской карты с ID: {}", cardId);
+        JuniorCardDto foundCard = cardService.getJuniorCardById(cardId);
+        return versioned(versionTag(foundCard.version())).body(foundCard);
     }
 
     /**
      * PUT /api/cards/junior/{id} - Обновление данных детской карты
      *
      * @param cardId            ID карты для обновления
+     * @param ifMatch           ETag карты, которую видел клиент (необязательно)
      * @param updateCardRequest DTO с новыми данными
-     * @return обновленная детская карта (HTTP 200 OK)
+     * @return обновленная детская карта (HTTP 200 OK), HTTP 412 если карта изменилась
      */
     @PutMapping("/junior/{cardId}")
     public ResponseEntity<JuniorCard> updateJuniorCard(
             @PathVariable Long cardId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UpdateCardDto updateCardRequest) {
+        log.debug("Получен запрос на обновление детской карты с ID: {}", cardId);
+        JuniorCard updatedCard = cardService.updateJuniorCard(cardId, updateCardRequest,
+                expectedVersion(cardId, ifMatch)).card();
+        return versioned(versionTag(updatedCard.getVersion())).body(updatedCard);
+    }
+
+    /**
+     * PATCH /api/cards/junior/{id} - Изменение данных детской карты без записи при отсутствии изменений
+     * Если переданные данные совпадают с текущими, в БД ничего не пишется, а ответ содержит текущую карту
+     * и заголовок {@value #UNCHANGED_HEADER}.
+     *
+     * @param cardId            ID карты для обновления
+     * @param ifMatch           ETag карты, которую видел клиент (необязательно)
+     * @param updateCardRequest DTO с изменяемыми полями
+     * @return обновленная или неизмененная детская карта (HTTP 200 OK)
+     */
+    @PatchMapping("/junior/{cardId}")
+    public ResponseEntity<JuniorCard> patchJuniorCard(
+            @PathVariable Long cardId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateCardDto updateCardRequest) {
-        log.info("Получен запрос на обновление детской карты с ID: {}", cardId);
-        JuniorCard updatedCard = cardService.updateJuniorCard(cardId, updateCardRequest);
-        return ResponseEntity.ok(updatedCard);
+        log.debug("Получен запрос на изменение детской карты с ID: {}", cardId);
+        CardUpdateResultDto<JuniorCard> result = cardService.updateJuniorCard(cardId, updateCardRequest,
+                expectedVersion(cardId, ifMatch));
+        return patchResponse(result, versionTag(result.card().getVersion()));
     }
 
     /**
      * PUT /api/cards/junior/{id}/status - Изменение статуса детской карты
      *
-     * @param id              ID карты
+     * @param id                  ID карты
+     * @param ifMatch             ETag карты, которую видел клиент (необязательно)
      * @param changeStatusRequest DTO с новым статусом
-     * @return карта с обновленным статусом (HTTP 200 OK)
+     * @return карта с обновленным статусом (HTTP 200 OK), HTTP 412 если карта изменилась
      */
     @PutMapping("/junior/{id}/status")
     public ResponseEntity<JuniorCard> changeJuniorStatus(
             @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ChangeStatusDto changeStatusRequest) {
-        log.info("Получен запрос на изменение статуса детской карты с ID: {}", id);
-        JuniorCard updatedCard = cardService.changeJuniorStatus(id, changeStatusRequest);
-        return ResponseEntity.ok(updatedCard);
+        log.debug("Получен запрос на изменение статуса детской карты с ID: {}", id);
+        JuniorCard updatedCard = cardService.changeJuniorStatus(id, changeStatusRequest,
+                expectedVersion(id, ifMatch));
+        return versioned(versionTag(updatedCard.getVersion())).body(updatedCard);
+    }
+
+    /**
+     * PUT /api/cards/junior/status:bulk - Массовое изменение статуса детских карт
+     * Правила перехода проверяются для каждой карты; недопустимые переходы не прерывают операцию.
+     *
+     * @param bulkChangeStatusRequest DTO со списком ID карт и новым статусом
+     * @return результат по каждому ID (HTTP 200 OK)
+     */
+    @PutMapping("/junior/status:bulk")
+    public ResponseEntity<BulkChangeStatusResultDto> changeJuniorStatuses(
+            @Valid @RequestBody BulkChangeStatusDto bulkChangeStatusRequest) {
+        log.debug("Получен запрос на массовое изменение статуса {} детских карт",
+                bulkChangeStatusRequest.getIds().size());
+        return ResponseEntity.ok(cardService.changeJuniorStatuses(bulkChangeStatusRequest));
+    }
+
+    /**
+     * POST /api/cards/junior/{id}/debit - Списание средств с детской карты
+     *
+     * @param cardId        ID карты
+     * @param amountRequest DTO с суммой и описанием операции
+     * @return запись журнала операций (HTTP 200 OK)
+     */
+    @PostMapping("/junior/{cardId}/debit")
+    public ResponseEntity<CardTransactionDto> debitJuniorCard(
+            @PathVariable Long cardId,
+            @Valid @RequestBody AmountDto amountRequest) {
+        return ResponseEntity.ok(cardLedgerService.debitJuniorCard(cardId, amountRequest));
+    }
+
+    /**
+     * POST /api/cards/junior/{id}/credit - Зачисление средств на детскую карту
+     *
+     * @param cardId        ID карты
+     * @param amountRequest DTO с суммой и описанием операции
+     * @return запись журнала операций (HTTP 200 OK)
+     */
+    @PostMapping("/junior/{cardId}/credit")
+    public ResponseEntity<CardTransactionDto> creditJuniorCard(
+            @PathVariable Long cardId,
+            @Valid @RequestBody AmountDto amountRequest) {
+        return ResponseEntity.ok(cardLedgerService.creditJuniorCard(cardId, amountRequest));
+    }
+
+    /**
+     * POST /api/cards/junior/{id}/top-up - Пополнение детской карты с родительской карты
+     *
+     * @param cardId        ID карты
+     * @param amountRequest DTO с суммой и описанием операции
+     * @return запись журнала операций (HTTP 200 OK)
+     */
+    @PostMapping("/junior/{cardId}/top-up")
+    public ResponseEntity<CardTransactionDto> topUpJuniorCard(
+            @PathVariable Long cardId,
+            @Valid @RequestBody AmountDto amountRequest) {
+        log.debug("Получен запрос на пополнение детской карты с ID: {}", cardId);
+        return ResponseEntity.ok(cardLedgerService.topUpJuniorCard(cardId, amountRequest));
+    }
+
+    /**
+     * GET /api/cards/junior/{id}/balance - Текущий баланс детской карты
+     *
+     * @param cardId ID карты
+     * @return баланс карты (HTTP 200 OK)
+     */
+    @GetMapping("/junior/{cardId}/balance")
+    public ResponseEntity<CardBalanceDto> getJuniorCardBalance(@PathVariable Long cardId) {
+        return ResponseEntity.ok(cardLedgerService.getJuniorCardBalance(cardId));
+    }
+
+    /**
+     * GET /api/cards/junior/{id}/transactions?beforeId=&limit= - История операций детской карты
+     * от новых к старым (keyset-пагинация). Курсор следующей страницы возвращается
+     * в заголовке {@value #NEXT_CURSOR_HEADER}.
+     *
+     * @param cardId   ID карты
+     * @param beforeId ID последней операции предыдущей страницы (не задан для первой страницы)
+     * @param limit    размер страницы
+     * @return страница операций (HTTP 200 OK)
+     */
+    @GetMapping("/junior/{cardId}/transactions")
+    public ResponseEntity<List<CardTransactionDto>> getJuniorCardTransactions(
+            @PathVariable Long cardId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        log.debug("Получен запрос на историю операций детской карты с ID: {}", cardId);
+        List<CardTransactionDto> page = cardLedgerService.getJuniorCardTransactions(cardId, beforeId, limit);
+        return pageResponse(page, limit, CardTransactionDto::id);
     }
 
     /**
@@ -105,7 +307,7 @@ public class CardController {
      */
     @DeleteMapping("/junior/{cardId}")
     public ResponseEntity<Void> deleteJuniorCard(@PathVariable Long cardId) {
-        log.info("Получен запрос на удаление детской карты с ID: {}", cardId);
+        log.debug("Получен запрос на удаление детской карты с ID: {}", cardId);
         cardService.deleteJuniorCard(cardId);
         return ResponseEntity.noContent().build();
     }
@@ -120,66 +322,141 @@ public class CardController {
      */
     @PostMapping("/parent")
     public ResponseEntity<ParentCard> createParentCard(@Valid @RequestBody CreateParentCardDto createParentCardRequest) {
-        log.info("Получен запрос на создание родительской карты");
+        log.debug("Получен запрос на создание родительской карты");
         ParentCard createdCard = cardService.createParentCard(createParentCardRequest);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdCard);
     }
 
     /**
-     * GET /api/cards/parent - Получение всех родительских карт
+     * GET /api/cards/parent?afterId=&limit= - Получение страницы родительских карт (keyset-пагинация)
+     * Курсор следующей страницы возвращается в заголовке {@value #NEXT_CURSOR_HEADER}.
      *
-     * @return список всех родительских карт (HTTP 200 OK)
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit   размер страницы
+     * @return страница родительских карт (HTTP 200 OK)
      */
     @GetMapping("/parent")
-    public ResponseEntity<List<ParentCard>> getAllParentCards() {
-        log.info("Получен запрос на получение всех родительских карт");
-        List<ParentCard> allCards = cardService.getAllParentCards();
-        return ResponseEntity.ok(allCards);
+    public ResponseEntity<List<ParentCardDto>> getAllParentCards(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        log.debug("Получен запрос на получение страницы родительских карт после ID: {}", afterId);
+        List<ParentCardDto> page = cardService.getParentCardsPage(afterId, limit);
+        return pageResponse(page, limit, ParentCardDto::id);
+    }
+
+    /**
+     * GET /api/cards/parent/stream - Потоковая выгрузка всех родительских карт в формате NDJSON.
+     *
+     * @return поток родительских карт (HTTP 200 OK)
+     */
+    @GetMapping(value = "/parent/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllParentCards() {
+        log.debug("Получен запрос на потоковую выгрузку родительских карт");
+        ObjectWriter writer = ndjsonWriter();
+        StreamingResponseBody body = outputStream ->
+                cardService.streamAllParentCards(parentCard -> writeNdjsonLine(writer, outputStream, parentCard));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
      * GET /api/cards/parent/{id} - Получение родительской карты по ID
+     * ETag включает версию родителя и версии его детских карт; при совпадении с If-None-Match - HTTP 304.
      *
      * @param parentId ID родительской карты
      * @return найденная родительская карта (HTTP 200 OK)
      */
     @GetMapping("/parent/{parentId}")
-    public ResponseEntity<ParentCard> getParentCardById(@PathVariable Long parentId) {
-        log.info("Получен запрос на получение родительской карты с ID: {}", parentId);
-        ParentCard foundCard = cardService.getParentCardById(parentId);
-        return ResponseEntity.ok(foundCard);
+    public ResponseEntity<ParentCardDto> getParentCardById(@PathVariable Long parentId) {
+        log.debug("Получен запрос на получение родительской карты с ID: {}", parentId);
+        ParentCardDto foundCard = cardService.getParentCardById(parentId);
+        return versioned(foundCard.entityTag()).body(foundCard);
     }
 
     /**
      * PUT /api/cards/parent/{id} - Обновление данных родительской карты
+     * ETag ответа в том же формате, что и при чтении карты ({@link ParentCardDto#entityTag()}).
      *
      * @param parentId                ID карты для обновления
+     * @param ifMatch                 ETag карты, которую видел клиент (необязательно)
      * @param updateParentCardRequest DTO с новыми данными
-     * @return обновленная родительская карта (HTTP 200 OK)
+     * @return обновленная родительская карта (HTTP 200 OK), HTTP 412 если карта изменилась
      */
     @PutMapping("/parent/{parentId}")
     public ResponseEntity<ParentCard> updateParentCard(
             @PathVariable Long parentId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Valid @RequestBody UpdateParentCardDto updateParentCardRequest) {
+        log.debug("Получен запрос на обновление родительской карты с ID: {}", parentId);
+        CardUpdateResultDto<ParentCard> result = cardService.updateParentCard(parentId, updateParentCardRequest,
+                expectedVersion(parentId, ifMatch));
+        return versioned(result.entityTag()).body(result.card());
+    }
+
+    /**
+     * PATCH /api/cards/parent/{id} - Изменение данных родительской карты без записи при отсутствии изменений
+     * Если переданные данные совпадают с текущими, в БД ничего не пишется, а ответ содержит текущую карту
+     * и заголовок {@value #UNCHANGED_HEADER}.
+     *
+     * @param parentId                ID карты для обновления
+     * @param ifMatch                 ETag карты, которую видел клиент (необязательно)
+     * @param updateParentCardRequest DTO с изменяемыми полями
+     * @return обновленная или неизмененная родительская карта (HTTP 200 OK)
+     */
+    @PatchMapping("/parent/{parentId}")
+    public ResponseEntity<ParentCard> patchParentCard(
+            @PathVariable Long parentId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateParentCardDto updateParentCardRequest) {
-        log.info("Получен запрос на обновление родительской карты с ID: {}", parentId);
-        ParentCard updatedCard = cardService.updateParentCard(parentId, updateParentCardRequest);
-        return ResponseEntity.ok(updatedCard);
+        log.debug("Получен запрос на изменение родительской карты с ID: {}", parentId);
+        CardUpdateResultDto<ParentCard> result = cardService.updateParentCard(parentId, updateParentCardRequest,
+                expectedVersion(parentId, ifMatch));
+        return patchResponse(result, result.entityTag());
     }
 
     /**
      * PUT /api/cards/parent/{id}/status - Изменение статуса родительской карты
+     * ETag ответа в том же формате, что и при чтении карты ({@link ParentCardDto#entityTag()}).
      *
      * @param parentId            ID карты
+     * @param ifMatch             ETag карты, которую видел клиент (необязательно)
      * @param changeStatusRequest DTO с новым статусом
-     * @return карта с обновленным статусом (HTTP 200 OK)
+     * @return карта с обновленным статусом (HTTP 200 OK), HTTP 412 если карта изменилась
      */
     @PutMapping("/parent/{parentId}/status")
     public ResponseEntity<ParentCard> changeParentStatus(
             @PathVariable Long parentId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ChangeStatusDto changeStatusRequest) {
-        log.info("Получен запрос на изменение статуса родительской карты с ID: {}", parentId);
-        ParentCard updatedCard = cardService.changeParentStatus(parentId, changeStatusRequest);
-        return ResponseEntity.ok(updatedCard);
+        log.debug("Получен запрос на изменение статуса родительской карты с ID: {}", parentId);
+        CardUpdateResultDto<ParentCard> result = cardService.changeParentStatus(parentId, changeStatusRequest,
+                expectedVersion(parentId, ifMatch));
+        return versioned(result.entityTag()).body(result.card());
+    }
+
+    /**
+     * POST /api/cards/parent/{id}/deposit - Зачисление средств на родительскую карту
+     *
+     * @param parentId      ID родительской карты
+     * @param amountRequest DTO с суммой и описанием операции
+     * @return запись журнала операций (HTTP 200 OK)
+     */
+    @PostMapping("/parent/{parentId}/deposit")
+    public ResponseEntity<CardTransactionDto> depositParentCard(
+            @PathVariable Long parentId,
+            @Valid @RequestBody AmountDto amountRequest) {
+        log.debug("Получен запрос на зачисление средств на родительскую карту с ID: {}", parentId);
+        return ResponseEntity.ok(cardLedgerService.depositParentCard(parentId, amountRequest));
+    }
+
+    /**
+     * GET /api/cards/parent/{id}/balance - Текущий баланс родительской карты
+     *
+     * @param parentId ID родительской карты
+     * @return баланс карты (HTTP 200 OK)
+     */
+    @GetMapping("/parent/{parentId}/balance")
+    public ResponseEntity<CardBalanceDto> getParentCardBalance(@PathVariable Long parentId) {
+        return ResponseEntity.ok(cardLedgerService.getParentCardBalance(parentId));
     }
 
     /**
@@ -190,8 +467,146 @@ public class CardController {
      */
     @DeleteMapping("/parent/{parentId}")
     public ResponseEntity<Void> deleteParentCard(@PathVariable Long parentId) {
-        log.info("Получен запрос на удаление родительской карты с ID: {}", parentId);
+        log.debug("Получен запрос на удаление родительской карты с ID: {}", parentId);
         cardService.deleteParentCard(parentId);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    // ==================== ЛЕНТА ИЗМЕНЕНИЙ (CHANGE FEED) ====================
+
+    /**
+     * GET /api/cards/changes?since=&limit=&wait= - Изменения карт после смещения потребителя (long-poll)
+     * Возвращаются только события после since. Если их нет, запрос ждет публикации новых событий
+     * до wait (не больше {@link CardChangeFeedService#MAX_WAIT}) и без удержания потока.
+     * Смещение для следующего запроса возвращается в заголовке {@value #NEXT_CURSOR_HEADER}.
+     *
+     * @param since смещение последнего прочитанного события (0 - с начала ленты)
+     * @param limit размер страницы
+     * @param wait  время ожидания новых событий (ISO-8601, например PT20S; по умолчанию без ожидания)
+     * @return события по возрастанию смещения (HTTP 200 OK, пустой список - новых событий нет)
+     */
+    @GetMapping("/changes")
+    public CompletableFuture<ResponseEntity<List<CardChangeEventDto>>> getCardChanges(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(defaultValue = "PT0S") Duration wait) {
+        log.debug("Получен запрос на получение изменений карт после смещения: {}", since);
+        return cardChangeFeedService.awaitChanges(since, limit, wait)
+                .thenApply(changes -> ResponseEntity.ok()
+                        .header(NEXT_CURSOR_HEADER, String.valueOf(
+                                changes.isEmpty() ? Math.max(since, 0) : changes.get(changes.size() - 1).offset()))
+                        .body(changes));
+    }
+
+    // ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
+
+    /**
+     * Начинает ответ HTTP 200 OK с ETag карты.
+     *
+     * @param eTag ETag карты (null - без заголовка)
+     * @return builder ответа
+     */
+    private static ResponseEntity.BodyBuilder versioned(String eTag) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response;
+    }
+
+    /**
+     * Формирует ETag детской карты по ее версии.
+     *
+     * @param version версия карты
+     * @return версия в кавычках (сильный ETag) или null, если версии нет
+     */
+    private static String versionTag(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Формирует ответ на PATCH: карта с HTTP 200 OK; если данные не изменились -
+     * с заголовком {@value #UNCHANGED_HEADER}.
+     *
+     * @param result результат обновления
+     * @param eTag   ETag карты после обновления
+     * @return ответ с ETag карты
+     */
+    private static <T> ResponseEntity<T> patchResponse(CardUpdateResultDto<T> result, String eTag) {
+        ResponseEntity.BodyBuilder response = versioned(eTag);
+        if (!result.modified()) {
+            response.header(UNCHANGED_HEADER, "true");
+        }
+        return response.body(result.card());
+    }
+
+    /**
+     * Извлекает ожидаемую версию карты из заголовка If-Match.
+     *
+     * @param cardId  ID карты
+     * @param ifMatch значение заголовка (ETag из ответа на чтение или изменение карты)
+     * @return версия или null, если заголовок не передан или равен "*"
+     * @throws PreconditionFailedException если значение не является ETag карты
+     */
+    private static Long expectedVersion(Long cardId, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        int separator = tag.indexOf('-');
+        try {
+            return Long.parseLong(separator < 0 ? tag : tag.substring(0, separator));
+        } catch (NumberFormatException exception) {
+            throw new PreconditionFailedException(cardId);
+        }
+    }
+
+    /**
+     * Формирует ответ со страницей и курсором следующей страницы.
+     * Курсор выставляется только для полной страницы - неполная страница считается последней.
+     *
+     * @param page  элементы страницы
+     * @param limit запрошенный размер страницы
+     * @param idOf  функция получения ID элемента
+     * @return ответ HTTP 200 OK
+     */
+    private <T> ResponseEntity<List<T>> pageResponse(List<T> page, int limit, ToLongFunction<T> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty() && page.size() >= Math.min(limit, CardService.MAX_PAGE_SIZE)) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(idOf.applyAsLong(page.get(page.size() - 1))));
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Записывает объект в поток одной строкой NDJSON.
+     *
+     * @param writer       writer, полученный из {@link #ndjsonWriter()}
+     * @param outputStream поток ответа
+     * @param value        сериализуемый объект
+     */
+    private static void writeNdjsonLine(ObjectWriter writer, OutputStream outputStream, Object value) {
+        try {
+            writer.writeValue(outputStream, value);
+            outputStream.write('\n');
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Создает writer для NDJSON: он не закрывает и не сбрасывает поток после каждой записи,
+     * буферизацию ответа выполняет контейнер.
+     *
+     * @return writer для построчной сериализации
+     */
+    private ObjectWriter ndjsonWriter() {
+        return objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+}
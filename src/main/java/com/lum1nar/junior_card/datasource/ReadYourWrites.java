@@ -0,0 +1,77 @@
+package com.lum1nar.junior_card.datasource;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.time.Duration;
+
+/**
+ * Привязка чтения к primary сразу после изменений (read-your-writes).
+ * После коммита транзакции с изменениями транзакции только для чтения в том же потоке
+ * в течение окна выполняются на primary, а не на реплике, которая могла еще не получить изменения.
+ * Для HTTP-запросов окно передается между запросами клиента в cookie ({@link ReadYourWritesFilter}).
+ */
+public final class ReadYourWrites {
+
+    /** Cookie с моментом (epoch millis), до которого запросы клиента читают с primary */
+    public static final String COOKIE_NAME = "card-primary-until";
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private static volatile Duration window = Duration.ofSeconds(2);
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * Задает окно чтения с primary после изменений.
+     *
+     * @param readYourWritesWindow окно
+     */
+    public static void setWindow(Duration readYourWritesWindow) {
+        window = readYourWritesWindow;
+    }
+
+    /**
+     * Начинает HTTP-запрос: окно берется из cookie клиента, новое окно будет записано в ответ.
+     *
+     * @param primaryUntil момент (epoch millis), до которого клиент читает с primary (0 - не читает)
+     * @param response ответ, в который записывается cookie после изменений
+     */
+    public static void begin(long primaryUntil, HttpServletResponse response) {
+        State state = STATE.get();
+        state.primaryUntil = primaryUntil;
+        state.response = response;
+    }
+
+    /**
+     * Завершает HTTP-запрос и сбрасывает состояние потока.
+     */
+    public static void clear() {
+        STATE.remove();
+    }
+
+    /**
+     * Отмечает коммит изменений: следующие чтения потока (и клиента) в течение окна идут на primary.
+     */
+    public static void markWritten() {
+        State state = STATE.get();
+        state.primaryUntil = System.currentTimeMillis() + window.toMillis();
+        HttpServletResponse response = state.response;
+        if (response != null && !response.isCommitted()) {
+            response.addHeader("Set-Cookie", COOKIE_NAME + "=" + state.primaryUntil
+                    + "; Max-Age=" + (window.toMillis() + 999) / 1000 + "; Path=/; HttpOnly; SameSite=Lax");
+        }
+    }
+
+    /**
+     * @return true, если чтение должно идти на primary
+     */
+    public static boolean isPrimaryRequired() {
+        return STATE.get().primaryUntil > System.currentTimeMillis();
+    }
+
+    private static final class State {
+        private long primaryUntil;
+        private HttpServletResponse response;
+    }
+}
@@ -0,0 +1,35 @@
+package com.lum1nar.junior_card.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Менеджер транзакций JPA при чтении с реплик.
+ * Коммит транзакции с изменениями открывает окно {@link ReadYourWrites}. Транзакции только для чтения
+ * не кладут сущности и результаты запросов в кэш второго уровня, а только читают из него:
+ * данные с отстающей реплики не должны попасть в кэш, общий для всех запросов.
+ */
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        EntityManagerHolder holder =
+                (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        holder.getEntityManager().unwrap(SessionImplementor.class)
+                .setCacheMode(definition.isReadOnly() ? CacheMode.GET : CacheMode.NORMAL);
+    }
+
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        super.doCommit(status);
+        if (!status.isReadOnly()) {
+            ReadYourWrites.markWritten();
+        }
+    }
+}
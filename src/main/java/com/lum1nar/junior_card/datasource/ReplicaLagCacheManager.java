@@ -0,0 +1,71 @@
+package com.lum1nar.junior_card.datasource;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Менеджер кэшей Caffeine при чтении с реплик: каждая инвалидация повторяется через время, за которое
+ * реплики гарантированно получают изменение. Без повтора промах кэша сразу после коммита мог прочитать
+ * с отстающей реплики старые данные и вернуть их в кэш до истечения TTL.
+ * Кэши остаются {@link CaffeineCache}, поэтому метрики кэшей публикуются как обычно.
+ */
+public class ReplicaLagCacheManager extends CaffeineCacheManager {
+
+    private final Executor delayedExecutor;
+
+    /**
+     * @param evictionDelay задержка повторной инвалидации (не меньше допустимого отставания реплик)
+     */
+    public ReplicaLagCacheManager(Duration evictionDelay) {
+        this.delayedExecutor = CompletableFuture.delayedExecutor(evictionDelay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        return new ReevictingCache(name, cache, isAllowNullValues(), delayedExecutor);
+    }
+
+    /**
+     * Кэш, повторяющий инвалидацию с задержкой.
+     */
+    private static final class ReevictingCache extends CaffeineCache {
+
+        private final Executor delayedExecutor;
+
+        private ReevictingCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                boolean allowNullValues, Executor delayedExecutor) {
+            super(name, cache, allowNullValues);
+            this.delayedExecutor = delayedExecutor;
+        }
+
+        @Override
+        public void evict(Object key) {
+            super.evict(key);
+            delayedExecutor.execute(() -> super.evict(key));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            delayedExecutor.execute(() -> super.evict(key));
+            return super.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            delayedExecutor.execute(super::clear);
+        }
+
+        @Override
+        public boolean invalidate() {
+            delayedExecutor.execute(super::clear);
+            return super.invalidate();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.lum1nar.junior_card.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Следит за отставанием реплик и выбирает реплику для чтения.
+ * Реплика доступна, пока ее отставание не превышает допустимое; при ошибке проверки
+ * или ошибке получения соединения она исключается до следующей успешной проверки,
+ * а чтение идет на другие реплики или на primary.
+ * Отставание публикуется в метрике {@value #LAG_METRIC} (NaN - реплика недоступна).
+ */
+@Slf4j
+public class ReplicaLagMonitor implements DisposableBean {
+
+    /** Метрика отставания реплики в секундах */
+    public static final String LAG_METRIC = "card.datasource.replica.lag";
+
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /** Реплики, с которых сейчас можно читать */
+    private volatile List<Replica> available = List.of();
+
+    /**
+     * @param dataSources пулы соединений реплик (закрываются вместе с монитором)
+     * @param lagQuery запрос отставания реплики в секундах
+     * @param maxLag максимальное допустимое отставание
+     */
+    public ReplicaLagMonitor(List<HikariDataSource> dataSources, String lagQuery, Duration maxLag) {
+        this.replicas = dataSources.stream().map(Replica::new).toList();
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    }
+
+    /**
+     * Регистрирует метрики отставания реплик.
+     *
+     * @param meterRegistry реестр метрик
+     */
+    public void bindTo(MeterRegistry meterRegistry) {
+        for (Replica replica : replicas) {
+            Gauge.builder(LAG_METRIC, replica, r -> r.lagSeconds)
+                    .tag("replica", replica.name)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Проверяет отставание всех реплик и обновляет список доступных.
+     */
+    @Scheduled(fixedDelayString = "${card.datasource.routing.lag-check-interval:PT1S}")
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            replica.lagSeconds = measureLag(replica);
+        }
+        List<Replica> nowAvailable = replicas.stream().filter(replica -> replica.lagSeconds <= maxLagSeconds).toList();
+        if (!nowAvailable.equals(available)) {
+            log.info("Доступные для чтения реплики: {} из {}",
+                    nowAvailable.stream().map(replica -> replica.name).toList(), replicas.size());
+        }
+        available = nowAvailable;
+    }
+
+    /**
+     * Выбирает реплику для чтения (по очереди среди доступных).
+     *
+     * @return пул соединений реплики или null, если доступных реплик нет
+     */
+    public DataSource nextAvailable() {
+        List<Replica> candidates = available;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size())).dataSource;
+    }
+
+    /**
+     * Исключает реплику из чтения до следующей успешной проверки отставания.
+     *
+     * @param dataSource пул соединений реплики
+     */
+    public void markUnavailable(DataSource dataSource) {
+        for (Replica replica : replicas) {
+            if (replica.dataSource == dataSource) {
+                replica.lagSeconds = Double.NaN;
+            }
+        }
+        available = available.stream().filter(replica -> replica.dataSource != dataSource).toList();
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    private double measureLag(Replica replica) {
+        try {
+            Double lag = replica.jdbcTemplate.queryForObject(lagQuery, Double.class);
+            return lag == null ? Double.NaN : lag;
+        } catch (RuntimeException e) {
+            log.warn("Не удалось проверить отставание реплики {}: {}", replica.name, e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(HikariDataSource dataSource) {
+            this.name = dataSource.getPoolName();
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.jdbcTemplate.setQueryTimeout((int) Math.max(1, dataSource.getConnectionTimeout() / 1000));
+        }
+    }
+}
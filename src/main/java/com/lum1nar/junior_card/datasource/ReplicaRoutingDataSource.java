@@ -0,0 +1,51 @@
+package com.lum1nar.junior_card.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Маршрутизация соединений между primary и репликами.
+ * Транзакции только для чтения ({@code @Transactional(readOnly = true)}) получают соединение с доступной
+ * репликой; остальные транзакции и работа вне транзакций - с primary. На primary идут и транзакции
+ * только для чтения, если реплик нет, все они отстают или недавно были изменения ({@link ReadYourWrites}).
+ * Решение принимается при первом запросе к БД, поэтому источник оборачивается
+ * в {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: к этому моменту
+ * режим транзакции уже известен.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor replicaLagMonitor;
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReadYourWrites.isPrimaryRequired()) {
+            return primary.getConnection();
+        }
+        DataSource replica = replicaLagMonitor.nextAvailable();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            log.warn("Реплика недоступна, чтение с primary: {}", e.getMessage());
+            replicaLagMonitor.markUnavailable(replica);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Соединения открываются с учетными данными из настроек");
+    }
+}
@@ -0,0 +1,32 @@
+package com.lum1nar.junior_card.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Запрос на операцию с балансом карты (списание, зачисление, пополнение).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AmountDto {
+
+    @NotNull(message = "Сумма обязательна")
+    @DecimalMin(value = "0.01", message = "Минимальная сумма 0.01")
+    @Digits(integer = 17, fraction = 2, message = "Не более 17 знаков до запятой и 2 после")
+    private BigDecimal amount;
+
+    @Size(max = 100, message = "Описание не длиннее 100 символов")
+    private String description;
+
+    public AmountDto(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
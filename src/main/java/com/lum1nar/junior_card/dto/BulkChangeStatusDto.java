@@ -0,0 +1,35 @@
+package com.lum1nar.junior_card.dto;
+
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.sharding.ShardKeyed;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * DTO для массового изменения статуса детских карт.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkChangeStatusDto implements ShardKeyed {
+
+    /** ID карт (от 1 до 50000 за запрос, повторы игнорируются) */
+    @NotEmpty(message = "Список ID не может быть пустым")
+    @Size(max = 50_000, message = "Не более 50000 карт за один запрос")
+    private List<@NotNull Long> ids;
+
+    @NotNull(message = "Статус обязателен")
+    private CardStatus status;
+
+    @Override
+    public Collection<Long> shardKeys() {
+        return ids;
+    }
+}
@@ -0,0 +1,33 @@
+package com.lum1nar.junior_card.dto;
+
+import com.lum1nar.junior_card.model.CardStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Результат массового изменения статуса детских карт.
+ * Каждый ID из запроса попадает ровно в один из списков.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkChangeStatusResultDto {
+
+    /** Целевой статус */
+    private CardStatus status;
+
+    /** Количество карт, переведенных в целевой статус */
+    private int updatedCount;
+
+    /** ID карт, переведенных в целевой статус */
+    private List<Long> updated;
+
+    /** ID несуществующих карт */
+    private List<Long> notFound;
+
+    /** ID карт, из текущего статуса которых переход в целевой запрещен */
+    private List<Long> invalidTransition;
+}
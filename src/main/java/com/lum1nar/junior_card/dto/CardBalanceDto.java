@@ -0,0 +1,9 @@
+package com.lum1nar.junior_card.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Баланс карты.
+ */
+public record CardBalanceDto(Long cardId, BigDecimal balance) {
+}
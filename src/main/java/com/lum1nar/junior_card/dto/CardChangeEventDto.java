@@ -0,0 +1,28 @@
+package com.lum1nar.junior_card.dto;
+
+import com.lum1nar.junior_card.model.CardChangeType;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.CardType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Опубликованное событие ленты изменений карт.
+ *
+ * @param offset       смещение в ленте (возрастает без пропусков)
+ * @param cardType     тип карты
+ * @param cardId       ID карты
+ * @param parentCardId ID родительской карты (для детской карты)
+ * @param changeType   тип изменения
+ * @param status       статус карты после изменения (null для удаления)
+ * @param occurredAt   время изменения
+ */
+public record CardChangeEventDto(
+        long offset,
+        CardType cardType,
+        Long cardId,
+        Long parentCardId,
+        CardChangeType changeType,
+        CardStatus status,
+        LocalDateTime occurredAt) {
+}
@@ -0,0 +1,18 @@
+package com.lum1nar.junior_card.dto;
+
+import com.lum1nar.junior_card.model.CardTransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Представление записи журнала операций по карте.
+ */
+public record CardTransactionDto(
+        Long id,
+        CardTransactionType type,
+        BigDecimal amount,
+        BigDecimal balanceAfter,
+        String description,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,17 @@
+package com.lum1nar.junior_card.dto;
+
+/**
+ * Результат обновления данных карты.
+ *
+ * @param card      карта после обновления
+ * @param modified  изменились ли данные карты (false - запрос совпал с текущими данными, SQL не выполнялся)
+ * @param entityTag ETag карты после обновления, сформированный в транзакции обновления
+ *                  (родительская карта, {@link ParentCardDto#entityTag()}); null - ETag по версии карты
+ * @param <T>       тип карты
+ */
+public record CardUpdateResultDto<T>(T card, boolean modified, String entityTag) {
+
+    public CardUpdateResultDto(T card, boolean modified) {
+        this(card, modified, null);
+    }
+}
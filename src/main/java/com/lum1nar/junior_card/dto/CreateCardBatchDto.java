@@ -0,0 +1,26 @@
+package com.lum1nar.junior_card.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO для пакетного создания детских карт.
+ * Каждая карта валидируется по тем же правилам, что и при одиночном создании.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateCardBatchDto {
+
+    /** Карты для создания (от 1 до 50000 за запрос) */
+    @NotEmpty(message = "Список карт не может быть пустым")
+    @Size(max = 50_000, message = "Не более 50000 карт за один запрос")
+    private List<@Valid @NotNull CreateCardDto> cards;
+}
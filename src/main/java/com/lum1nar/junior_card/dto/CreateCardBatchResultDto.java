@@ -0,0 +1,22 @@
+package com.lum1nar.junior_card.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Результат пакетного создания детских карт.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateCardBatchResultDto {
+
+    /** Количество созданных карт */
+    private int createdCount;
+
+    /** ID созданных карт в порядке следования в запросе */
+    private List<Long> ids;
+}
@@ -1,10 +1,15 @@
 package com.lum1nar.junior_card.dto;
 
+import com.lum1nar.junior_card.sharding.ShardKeyed;
 import jakarta.validation.constraints.*;
 import lombok.*;
+
+import java.util.Collection;
+import java.util.List;
+
 @Data
 @NoArgsConstructor
-public class CreateCardDto {
+public class CreateCardDto implements ShardKeyed {
 
     @NotBlank(message = "Имя должно быть обязательно")
     @Size(min = 2 , max = 15 , message = "Имя от 2 до 15 символов")
@@ -24,4 +29,10 @@ public class CreateCardDto {
         this.childAge = childAge;
         this.parentCardId = parentCardId;
     }
+
+    /** Детская карта создается в шарде родительской карты */
+    @Override
+    public Collection<Long> shardKeys() {
+        return parentCardId == null ? List.of() : List.of(parentCardId);
+    }
 }
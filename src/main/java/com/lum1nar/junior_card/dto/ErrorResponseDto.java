@@ -1,5 +1,4 @@
 package com.lum1nar.junior_card.dto;
-import com.lum1nar.junior_card.model.JuniorCard;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -31,6 +30,6 @@ public class ErrorResponseDto {
     // Дополнительные детали (например, список field errors)
     private String details;
 
-    // Для вывода карт на id родителя
-    private List<JuniorCard> existingCards;
+    // Для вывода карт на id родителя (ID, имя, статус)
+    private List<JuniorCardSummaryDto> existingCards;
 }
@@ -0,0 +1,28 @@
+package com.lum1nar.junior_card.dto;
+
+import com.lum1nar.junior_card.model.CardStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Представление детской карты для ответов на чтение.
+ * Заполняется напрямую конструктором в JPQL-запросе: выбираются только нужные колонки,
+ * без загрузки сущности и ее ленивых связей.
+ *
+ * @param id           ID карты
+ * @param name         имя ребенка
+ * @param status       статус карты
+ * @param childAge     возраст ребенка
+ * @param parentCardId ID родительской карты
+ * @param expiresAt    окончание срока действия карты
+ * @param version      версия карты (значение ETag)
+ */
+public record JuniorCardDto(
+        Long id,
+        String name,
+        CardStatus status,
+        Integer childAge,
+        Long parentCardId,
+        LocalDateTime expiresAt,
+        long version) {
+}
@@ -0,0 +1,62 @@
+package com.lum1nar.junior_card.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.sharding.ShardKeyed;
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * DTO фильтров поиска детских карт (параметры запроса GET /api/cards/junior/search).
+ * Все фильтры необязательны и объединяются через AND; пустой фильтр не ограничивает выборку.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JuniorCardSearchDto implements ShardKeyed {
+
+    /** Статусы карты (любой из перечисленных) */
+    private Set<CardStatus> status;
+
+    /** Минимальный возраст ребенка включительно */
+    @Min(value = 6, message = "Минимальный возраст 6 лет")
+    @Max(value = 17, message = "Максимальный возраст 17 лет")
+    private Integer minAge;
+
+    /** Максимальный возраст ребенка включительно */
+    @Min(value = 6, message = "Минимальный возраст 6 лет")
+    @Max(value = 17, message = "Максимальный возраст 17 лет")
+    private Integer maxAge;
+
+    /** ID родительской карты */
+    @Min(value = 1, message = "ID должен быть положительным")
+    private Long parentCardId;
+
+    /** Начало имени ребенка (с учетом регистра) */
+    @Size(min = 1, max = 15, message = "Начало имени от 1 до 15 символов")
+    private String namePrefix;
+
+    /** Статусы родительской карты (любой из перечисленных) */
+    private Set<CardStatus> parentStatus;
+
+    @JsonIgnore
+    @AssertTrue(message = "Минимальный возраст не может быть больше максимального")
+    public boolean isAgeRangeValid() {
+        return minAge == null || maxAge == null || minAge <= maxAge;
+    }
+
+    /** Поиск по родительской карте выполняется только в ее шарде */
+    @Override
+    public Collection<Long> shardKeys() {
+        return parentCardId == null ? List.of() : List.of(parentCardId);
+    }
+}
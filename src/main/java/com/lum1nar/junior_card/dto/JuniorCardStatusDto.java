@@ -0,0 +1,14 @@
+package com.lum1nar.junior_card.dto;
+
+import com.lum1nar.junior_card.model.CardStatus;
+
+/**
+ * Текущий статус и версия детской карты (для смены статусов).
+ *
+ * @param id           ID карты
+ * @param status       текущий статус
+ * @param parentCardId ID родительской карты
+ * @param version      версия карты
+ */
+public record JuniorCardStatusDto(Long id, CardStatus status, Long parentCardId, long version) {
+}
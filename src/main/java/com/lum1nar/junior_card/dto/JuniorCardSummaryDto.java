@@ -0,0 +1,25 @@
+package com.lum1nar.junior_card.dto;
+
+import com.lum1nar.junior_card.model.CardStatus;
+
+/**
+ * Краткое представление детской карты для ответа о превышении лимита карт.
+ * Выбирается конструктором в JPQL-запросе (три колонки, без загрузки сущности)
+ * или строится из закэшированного представления родителя.
+ *
+ * @param id     ID карты
+ * @param name   имя ребенка
+ * @param status статус карты
+ */
+public record JuniorCardSummaryDto(Long id, String name, CardStatus status) {
+
+    /**
+     * Краткое представление из полного представления карты.
+     *
+     * @param juniorCard представление детской карты
+     * @return краткое представление
+     */
+    public static JuniorCardSummaryDto of(JuniorCardDto juniorCard) {
+        return new JuniorCardSummaryDto(juniorCard.id(), juniorCard.name(), juniorCard.status());
+    }
+}
@@ -0,0 +1,77 @@
+package com.lum1nar.junior_card.dto;
+
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.model.UserStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Представление родительской карты с ее детскими картами для ответов на чтение.
+ * Родитель выбирается конструктором в JPQL-запросе, детские карты догружаются
+ * одним запросом сразу для всех родителей страницы.
+ *
+ * @param id          ID родительской карты
+ * @param name        имя родителя
+ * @param status      роль пользователя
+ * @param age         возраст родителя
+ * @param cardStatus  статус карты
+ * @param expiresAt   окончание срока действия карты
+ * @param version     версия родительской карты
+ * @param juniorCards детские карты родителя
+ */
+public record ParentCardDto(
+        long id,
+        String name,
+        UserStatus status,
+        int age,
+        CardStatus cardStatus,
+        LocalDateTime expiresAt,
+        long version,
+        List<JuniorCardDto> juniorCards) {
+
+    /**
+     * Конструктор для JPQL-проекции: детские карты добавляются позже через {@link #withJuniorCards(List)}.
+     */
+    public ParentCardDto(long id, String name, UserStatus status, int age, CardStatus cardStatus,
+                         LocalDateTime expiresAt, long version) {
+        this(id, name, status, age, cardStatus, expiresAt, version, List.of());
+    }
+
+    /**
+     * Представление родительской карты из сущности без детских карт.
+     *
+     * @param parentCard родительская карта
+     * @return представление родительской карты
+     */
+    public static ParentCardDto of(ParentCard parentCard) {
+        return new ParentCardDto(parentCard.getId(), parentCard.getName(), parentCard.getStatus(), parentCard.getAge(),
+                parentCard.getCardStatus(), parentCard.getExpiresAt(), parentCard.getVersion());
+    }
+
+    /**
+     * Возвращает копию представления с указанными детскими картами.
+     *
+     * @param juniorCards детские карты родителя
+     * @return новое представление родительской карты
+     */
+    public ParentCardDto withJuniorCards(List<JuniorCardDto> juniorCards) {
+        return new ParentCardDto(id, name, status, age, cardStatus, expiresAt, version, List.copyOf(juniorCards));
+    }
+
+    /**
+     * Формирует ETag родительской карты: версия родителя и свертка ID и версий детских карт.
+     * Изменение детской карты не меняет версию родителя, но меняет представление с детскими картами.
+     * Для If-Match значима только версия родителя (часть до дефиса).
+     *
+     * @return значение ETag
+     */
+    public String entityTag() {
+        long digest = 1;
+        for (JuniorCardDto juniorCard : juniorCards) {
+            digest = 31 * (31 * digest + juniorCard.id()) + juniorCard.version();
+        }
+        return "\"" + version + "-" + Long.toHexString(digest) + "\"";
+    }
+}
@@ -0,0 +1,13 @@
+package com.lum1nar.junior_card.dto;
+
+import com.lum1nar.junior_card.model.CardStatus;
+
+/**
+ * Текущий статус и версия родительской карты (для смены статуса).
+ *
+ * @param id         ID родительской карты
+ * @param cardStatus текущий статус карты
+ * @param version    версия карты
+ */
+public record ParentCardStatusDto(Long id, CardStatus cardStatus, long version) {
+}
@@ -1,6 +1,6 @@
 package com.lum1nar.junior_card.exception;
 
-import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.dto.JuniorCardSummaryDto;
 import lombok.Getter;
 
 import java.util.List;
@@ -10,13 +10,13 @@ public class AccountLimitCards extends ApplicationException {
 
     private String errorCode;
 
-    private List<JuniorCard> existingCards;  // ← ДОБАВЬ
+    // Краткие представления существующих карт родителя (ID, имя, статус), без сущностей
+    private List<JuniorCardSummaryDto> existingCards;
 
-    public AccountLimitCards(String message, String errorCode, List<JuniorCard> existingCards) {
+    public AccountLimitCards(String message, String errorCode, List<JuniorCardSummaryDto> existingCards) {
         super(message , errorCode);
         this.errorCode = errorCode;
         this.existingCards = existingCards;
     }
 
 }
-
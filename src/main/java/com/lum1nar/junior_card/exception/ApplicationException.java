@@ -1,15 +1,30 @@
 package com.lum1nar.junior_card.exception;
 
+/**
+ * Базовое бизнес-исключение приложения.
+ * Бизнес-ошибки (карта не найдена, лимит карт, недопустимый переход) - ожидаемый результат запроса,
+ * а не сбой, поэтому по умолчанию исключение создается без стека вызовов и подавленных исключений:
+ * заполнение стека - самая дорогая часть создания исключения, а в ответ и в лог он не попадает.
+ * Причина (cause), если передана, сохраняет свой стек.
+ */
 public class ApplicationException extends RuntimeException{
     private final String errorCode;
     
     public ApplicationException(String message, String errorCode) {
-        super(message);
-        this.errorCode = errorCode;
+        this(message, errorCode, false);
     }
     
     public ApplicationException(String message, String errorCode, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Конструктор для исключений, которым нужен стек вызовов (writableStackTrace = true),
+     * а также для исключений, которые создаются заранее и переиспользуются.
+     */
+    protected ApplicationException(String message, String errorCode, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
         this.errorCode = errorCode;
     }
     
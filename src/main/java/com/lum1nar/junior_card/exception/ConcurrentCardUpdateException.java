@@ -0,0 +1,11 @@
+package com.lum1nar.junior_card.exception;
+
+/**
+ * Исключение, когда карту не удалось изменить из-за параллельных изменений
+ * (исчерпаны повторные попытки смены статуса).
+ */
+public class ConcurrentCardUpdateException extends ApplicationException {
+    public ConcurrentCardUpdateException(Long cardId) {
+        super("Карта с ID " + cardId + " изменяется параллельно. Повторите запрос", "CONCURRENT_MODIFICATION");
+    }
+}
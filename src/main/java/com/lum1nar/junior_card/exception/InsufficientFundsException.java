@@ -0,0 +1,7 @@
+package com.lum1nar.junior_card.exception;
+
+public class InsufficientFundsException extends ApplicationException {
+    public InsufficientFundsException(Long cardId) {
+        super("Недостаточно средств на карте с ID " + cardId, "INSUFFICIENT_FUNDS");
+    }
+}
@@ -0,0 +1,54 @@
+package com.lum1nar.junior_card.exception;
+
+import com.lum1nar.junior_card.model.CardStatus;
+
+/**
+ * Исключение при недопустимом переходе статуса карты.
+ * Экземпляры создаются заранее для каждой пары статусов и не содержат стека вызовов,
+ * поэтому отказ в переходе не выделяет память и не собирает stack trace.
+ */
+public class InvalidStatusTransitionException extends ApplicationException {
+
+    private static final CardStatus[] STATUSES = CardStatus.values();
+
+    private static final InvalidStatusTransitionException[][] INSTANCES =
+            new InvalidStatusTransitionException[STATUSES.length][STATUSES.length];
+
+    static {
+        for (CardStatus fromStatus : STATUSES) {
+            for (CardStatus toStatus : STATUSES) {
+                INSTANCES[fromStatus.ordinal()][toStatus.ordinal()] =
+                        new InvalidStatusTransitionException(fromStatus, toStatus);
+            }
+        }
+    }
+
+    private final CardStatus fromStatus;
+    private final CardStatus toStatus;
+
+    private InvalidStatusTransitionException(CardStatus fromStatus, CardStatus toStatus) {
+        super("Невозможно изменить статус с " + fromStatus + " на " + toStatus,
+                "INVALID_STATUS_TRANSITION", false);
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+    }
+
+    /**
+     * Возвращает заранее созданное исключение для перехода.
+     *
+     * @param fromStatus текущий статус
+     * @param toStatus целевой статус
+     * @return исключение для пары статусов
+     */
+    public static InvalidStatusTransitionException of(CardStatus fromStatus, CardStatus toStatus) {
+        return INSTANCES[fromStatus.ordinal()][toStatus.ordinal()];
+    }
+
+    public CardStatus getFromStatus() {
+        return fromStatus;
+    }
+
+    public CardStatus getToStatus() {
+        return toStatus;
+    }
+}
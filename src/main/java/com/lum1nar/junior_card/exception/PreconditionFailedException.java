@@ -0,0 +1,12 @@
+package com.lum1nar.junior_card.exception;
+
+/**
+ * Исключение, когда версия карты не совпадает с версией из заголовка If-Match
+ * (клиент изменяет карту по устаревшему представлению).
+ */
+public class PreconditionFailedException extends ApplicationException {
+    public PreconditionFailedException(Long cardId) {
+        super("Карта с ID " + cardId + " была изменена. Получите актуальную версию и повторите запрос",
+                "PRECONDITION_FAILED");
+    }
+}
@@ -1,9 +1,17 @@
 package com.lum1nar.junior_card.exception;
 
-public class SuspiciousTransactionException extends RuntimeException {
+/**
+ * Списание отклонено проверкой на подозрительность (частота, сумма, возрастные лимиты).
+ * Исключение создается на пути авторизации, поэтому стек вызовов не заполняется.
+ */
+public class SuspiciousTransactionException extends ApplicationException {
 
     public SuspiciousTransactionException(String message) {
-        super(message);
+        super(message, "SUSPICIOUS_TRANSACTION", false);
+    }
+
+    public SuspiciousTransactionException(Long cardId, String reason) {
+        this("Операция по карте с ID " + cardId + " отклонена: " + reason);
     }
 
 }
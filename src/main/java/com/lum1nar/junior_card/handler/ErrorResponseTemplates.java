@@ -0,0 +1,145 @@
+package com.lum1nar.junior_card.handler;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Заранее сериализованные JSON-шаблоны ответов об ошибках.
+ * Для каждого кода ошибки постоянные части ответа ({@code status}, {@code errorCode}, имена полей)
+ * переводятся в UTF-8 один раз; на каждый ответ экранируются только сообщение и путь,
+ * а время берется из кэша, который обновляется не чаще раза в миллисекунду.
+ * Формат ответа совпадает с сериализацией {@link com.lum1nar.junior_card.dto.ErrorResponseDto}
+ * без деталей и списка карт, но без создания DTO и без ObjectMapper.
+ */
+final class ErrorResponseTemplates {
+
+    private static final byte[] MESSAGE_FIELD = ascii(",\"message\":");
+    private static final byte[] ERROR_CODE_FIELD = ascii(",\"errorCode\":");
+    private static final byte[] TIMESTAMP_FIELD = ascii(",\"timestamp\":\"");
+    private static final byte[] PATH_FIELD = ascii("\",\"path\":");
+    private static final byte[] SUFFIX = ascii(",\"details\":null,\"existingCards\":null}");
+    private static final byte[] NULL = ascii("null");
+
+    private final JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+
+    /** Шаблоны по коду ошибки */
+    private final ConcurrentHashMap<String, Template> templates = new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
+
+    /** Последнее отформатированное время (миллисекунда и строка ISO в UTF-8) */
+    private volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, null);
+
+    ErrorResponseTemplates() {
+        this(ZoneId.systemDefault());
+    }
+
+    ErrorResponseTemplates(ZoneId zone) {
+        this.zone = zone;
+    }
+
+    /**
+     * Формирует тело ответа об ошибке.
+     *
+     * @param status HTTP статус
+     * @param message сообщение об ошибке
+     * @param errorCode код ошибки
+     * @param path путь запроса
+     * @return JSON ответа в UTF-8
+     */
+    byte[] render(HttpStatus status, String message, String errorCode, String path) {
+        Template template = templateFor(status, errorCode);
+        byte[] messageJson = quote(message);
+        byte[] time = currentTimestamp(System.currentTimeMillis());
+        byte[] pathJson = quote(path);
+
+        byte[] body = new byte[template.head.length + messageJson.length + template.middle.length
+                + time.length + PATH_FIELD.length + pathJson.length + SUFFIX.length];
+        int position = 0;
+        position = append(body, position, template.head);
+        position = append(body, position, messageJson);
+        position = append(body, position, template.middle);
+        position = append(body, position, time);
+        position = append(body, position, PATH_FIELD);
+        position = append(body, position, pathJson);
+        append(body, position, SUFFIX);
+        return body;
+    }
+
+    /**
+     * Возвращает шаблон для кода ошибки. Один код ошибки всегда отдается с одним статусом;
+     * если статус другой, шаблон строится без кэширования.
+     */
+    private Template templateFor(HttpStatus status, String errorCode) {
+        String key = errorCode == null ? "" : errorCode;
+        Template template = templates.computeIfAbsent(key, code -> Template.of(status, errorCode, encoder));
+        return template.status == status ? template : Template.of(status, errorCode, encoder);
+    }
+
+    /**
+     * Возвращает отформатированное время с точностью до миллисекунды.
+     * Строка пересоздается только при смене миллисекунды, поэтому при потоке ошибок
+     * форматирование даты выполняется один раз на множество ответов.
+     */
+    byte[] currentTimestamp(long millis) {
+        Timestamp cached = timestamp;
+        if (cached.millis != millis) {
+            LocalDateTime now = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+            cached = new Timestamp(millis, ascii(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(now)));
+            timestamp = cached;
+        }
+        return cached.utf8;
+    }
+
+    private byte[] quote(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        byte[] escaped = encoder.quoteAsUTF8(value);
+        byte[] quoted = new byte[escaped.length + 2];
+        quoted[0] = '"';
+        System.arraycopy(escaped, 0, quoted, 1, escaped.length);
+        quoted[quoted.length - 1] = '"';
+        return quoted;
+    }
+
+    private static int append(byte[] target, int position, byte[] part) {
+        System.arraycopy(part, 0, target, position, part.length);
+        return position + part.length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Постоянные части ответа для пары (статус, код ошибки):
+     * {@code head} - до значения message, {@code middle} - от message до значения timestamp.
+     */
+    private record Template(HttpStatus status, byte[] head, byte[] middle) {
+
+        static Template of(HttpStatus status, String errorCode, JsonStringEncoder encoder) {
+            byte[] head = concat(ascii("{\"status\":" + status.value()), MESSAGE_FIELD);
+            byte[] code = errorCode == null ? NULL : concat(concat(ascii("\""), encoder.quoteAsUTF8(errorCode)), ascii("\""));
+            byte[] middle = concat(concat(ERROR_CODE_FIELD, code), TIMESTAMP_FIELD);
+            return new Template(status, head, middle);
+        }
+
+        private static byte[] concat(byte[] first, byte[] second) {
+            byte[] result = new byte[first.length + second.length];
+            System.arraycopy(first, 0, result, 0, first.length);
+            System.arraycopy(second, 0, result, first.length, second.length);
+            return result;
+        }
+    }
+
+    private record Timestamp(long millis, byte[] utf8) {
+    }
+}
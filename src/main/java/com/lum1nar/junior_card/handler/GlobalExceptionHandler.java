@@ -1,18 +1,26 @@
 package com.lum1nar.junior_card.handler;
 
 import com.lum1nar.junior_card.dto.ErrorResponseDto;
+import com.lum1nar.junior_card.dto.JuniorCardSummaryDto;
 import com.lum1nar.junior_card.exception.AccountLimitCards;
 import com.lum1nar.junior_card.exception.ApplicationException;
 import com.lum1nar.junior_card.exception.CardNotFoundException;
+import com.lum1nar.junior_card.exception.ConcurrentCardUpdateException;
 import com.lum1nar.junior_card.exception.InsufficientPermissionsException;
-import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.exception.PreconditionFailedException;
+import com.lum1nar.junior_card.exception.SuspiciousTransactionException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.NoHandlerFoundException;
@@ -25,13 +33,50 @@ import java.util.Map;
 /**
  * Глобальный обработчик исключений для всего приложения.
  * Перехватывает исключения и возвращает унифицированный формат ошибки.
+ * Ответы без деталей и списка карт (большинство ошибок, в том числе частые 404)
+ * пишутся из заранее сериализованных шаблонов {@link ErrorResponseTemplates}, без DTO и ObjectMapper.
  */
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final ErrorResponseTemplates templates = new ErrorResponseTemplates();
+
     // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
 
+    /**
+     * Формирует ответ об ошибке из заранее сериализованного шаблона.
+     * Тело совпадает с сериализацией ErrorResponseDto без деталей и списка карт.
+     *
+     * @param status HTTP статус
+     * @param message сообщение об ошибке
+     * @param errorCode код ошибки
+     * @param request веб-запрос
+     * @return ответ с ошибкой в формате JSON
+     */
+    private ResponseEntity<byte[]> jsonError(
+            HttpStatus status,
+            String message,
+            String errorCode,
+            WebRequest request) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(templates.render(status, message, errorCode, pathOf(request)));
+    }
+
+    /**
+     * Путь запроса без префикса "uri=" из описания запроса.
+     *
+     * @param request веб-запрос
+     * @return путь запроса
+     */
+    private static String pathOf(WebRequest request) {
+        if (request instanceof ServletWebRequest servletRequest) {
+            return servletRequest.getRequest().getRequestURI();
+        }
+        return request.getDescription(false).replace("uri=", "");
+    }
+
     /**
      * Вспомогательный метод для создания ошибки без списка карт.
      *
@@ -57,7 +102,7 @@ public class GlobalExceptionHandler {
      * @param message сообщение об ошибке
      * @param errorCode код ошибки
      * @param request веб-запрос
-     * @param existingCards список существующих карт (если применимо)
+     * @param existingCards краткие представления существующих карт (если применимо)
      * @return объект ошибки
      */
     private ErrorResponseDto buildError(
@@ -65,14 +110,14 @@ public class GlobalExceptionHandler {
             String message,
             String errorCode,
             WebRequest request,
-            List<JuniorCard> existingCards) {
+            List<JuniorCardSummaryDto> existingCards) {
 
         return ErrorResponseDto.builder()
                 .status(status.value())
                 .message(message)
                 .errorCode(errorCode)
                 .timestamp(LocalDateTime.now())
-                .path(request.getDescription(false).replace("uri=", ""))
+                .path(pathOf(request))
                 .existingCards(existingCards)
                 .build();
     }
@@ -88,18 +133,17 @@ public class GlobalExceptionHandler {
      * @return ответ с ошибкой (HTTP 404)
      */
     @ExceptionHandler(CardNotFoundException.class)
-    public ResponseEntity<ErrorResponseDto> handleCardNotFoundException(
+    public ResponseEntity<byte[]> handleCardNotFoundException(
             CardNotFoundException exception, WebRequest request) {
         log.warn("Карта не найдена: {}", exception.getMessage());
-        return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(buildError(HttpStatus.NOT_FOUND, exception.getMessage(),
-                        exception.getErrorCode(), request));
+        return jsonError(HttpStatus.NOT_FOUND, exception.getMessage(), exception.getErrorCode(), request);
     }
 
     /**
      * Обработчик для AccountLimitCards.
      * Возникает при попытке создать 4-ю карту у родителя (лимит = 3).
-     * В ответе возвращает список существующих карт.
+     * В ответе возвращает краткий список существующих карт (ID, имя, статус):
+     * сущности и их ленивые связи на этом пути не сериализуются.
      *
      * @param exception исключение
      * @param request веб-запрос
@@ -123,12 +167,55 @@ public class GlobalExceptionHandler {
      * @return ответ с ошибкой (HTTP 403)
      */
     @ExceptionHandler(InsufficientPermissionsException.class)
-    public ResponseEntity<ErrorResponseDto> handleInsufficientPermissionsException(
+    public ResponseEntity<byte[]> handleInsufficientPermissionsException(
             InsufficientPermissionsException exception, WebRequest request) {
         log.warn("Недостаточно прав: {}", exception.getMessage());
-        return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                .body(buildError(HttpStatus.FORBIDDEN, exception.getMessage(),
-                        exception.getErrorCode(), request));
+        return jsonError(HttpStatus.FORBIDDEN, exception.getMessage(), exception.getErrorCode(), request);
+    }
+
+    /**
+     * Обработчик для SuspiciousTransactionException.
+     * Возникает когда списание отклонено проверкой на подозрительность
+     * (частота операций, нетипичная сумма, возрастные лимиты).
+     *
+     * @param exception исключение
+     * @param request веб-запрос
+     * @return ответ с ошибкой (HTTP 403)
+     */
+    @ExceptionHandler(SuspiciousTransactionException.class)
+    public ResponseEntity<byte[]> handleSuspiciousTransactionException(
+            SuspiciousTransactionException exception, WebRequest request) {
+        return jsonError(HttpStatus.FORBIDDEN, exception.getMessage(), exception.getErrorCode(), request);
+    }
+
+    /**
+     * Обработчик для PreconditionFailedException.
+     * Возникает когда версия карты не совпадает с версией из заголовка If-Match.
+     *
+     * @param exception исключение
+     * @param request веб-запрос
+     * @return ответ с ошибкой (HTTP 412)
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<byte[]> handlePreconditionFailedException(
+            PreconditionFailedException exception, WebRequest request) {
+        return jsonError(HttpStatus.PRECONDITION_FAILED, exception.getMessage(), exception.getErrorCode(), request);
+    }
+
+    /**
+     * Обработчик для ConcurrentCardUpdateException.
+     * Возникает когда статус карты не удалось изменить за допустимое число попыток
+     * из-за параллельных изменений.
+     *
+     * @param exception исключение
+     * @param request веб-запрос
+     * @return ответ с ошибкой (HTTP 409)
+     */
+    @ExceptionHandler(ConcurrentCardUpdateException.class)
+    public ResponseEntity<byte[]> handleConcurrentCardUpdateException(
+            ConcurrentCardUpdateException exception, WebRequest request) {
+        log.warn("Конфликт параллельных изменений: {}", exception.getMessage());
+        return jsonError(HttpStatus.CONFLICT, exception.getMessage(), exception.getErrorCode(), request);
     }
 
     /**
@@ -140,12 +227,10 @@ public class GlobalExceptionHandler {
      * @return ответ с ошибкой (HTTP 400)
      */
     @ExceptionHandler(ApplicationException.class)
-    public ResponseEntity<ErrorResponseDto> handleApplicationException(
+    public ResponseEntity<byte[]> handleApplicationException(
             ApplicationException exception, WebRequest request) {
         log.warn("Ошибка приложения: {}", exception.getMessage());
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(buildError(HttpStatus.BAD_REQUEST, exception.getMessage(),
-                        exception.getErrorCode(), request));
+        return jsonError(HttpStatus.BAD_REQUEST, exception.getMessage(), exception.getErrorCode(), request);
     }
 
     // ========== SPRING VALIDATION ИСКЛЮЧЕНИЯ ==========
@@ -189,7 +274,7 @@ public class GlobalExceptionHandler {
      * @return ответ с ошибкой (HTTP 400)
      */
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<ErrorResponseDto> handleTypeMismatch(
+    public ResponseEntity<byte[]> handleTypeMismatch(
             MethodArgumentTypeMismatchException exception, WebRequest request) {
         log.warn("Несоответствие типа для параметра '{}': получено '{}', ожидается '{}'",
                 exception.getName(), exception.getValue(),
@@ -201,8 +286,7 @@ public class GlobalExceptionHandler {
                 exception.getRequiredType().getSimpleName()
         );
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(buildError(HttpStatus.BAD_REQUEST, message, "TYPE_MISMATCH", request));
+        return jsonError(HttpStatus.BAD_REQUEST, message, "TYPE_MISMATCH", request);
     }
 
     /**
@@ -214,17 +298,16 @@ public class GlobalExceptionHandler {
      * @return ответ с ошибкой (HTTP 400)
      */
     @ExceptionHandler(HttpMessageNotReadableException.class)
-    public ResponseEntity<ErrorResponseDto> handleHttpMessageNotReadable(
+    public ResponseEntity<byte[]> handleHttpMessageNotReadable(
             HttpMessageNotReadableException exception, WebRequest request) {
         log.warn("Некорректный JSON в запросе: {}", request.getDescription(false));
 
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(buildError(
-                        HttpStatus.BAD_REQUEST,
-                        "Неверный формат JSON или отсутствует тело запроса",
-                        "INVALID_JSON",
-                        request
-                ));
+        return jsonError(
+                HttpStatus.BAD_REQUEST,
+                "Неверный формат JSON или отсутствует тело запроса",
+                "INVALID_JSON",
+                request
+        );
     }
 
     /**
@@ -236,16 +319,65 @@ public class GlobalExceptionHandler {
      * @return ответ с ошибкой (HTTP 404)
      */
     @ExceptionHandler(NoHandlerFoundException.class)
-    public ResponseEntity<ErrorResponseDto> handleNoHandlerFound(
+    public ResponseEntity<byte[]> handleNoHandlerFound(
             NoHandlerFoundException exception, WebRequest request) {
         log.warn("Эндпоинт не найден: {} {}", exception.getHttpMethod(), exception.getRequestURL());
 
-        return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                .body(buildError(
-                        HttpStatus.NOT_FOUND,
-                        "Эндпоинт не найден: " + exception.getHttpMethod() + " " + exception.getRequestURL(),
-                        "ENDPOINT_NOT_FOUND",
-                        request
+        return jsonError(
+                HttpStatus.NOT_FOUND,
+                "Эндпоинт не найден: " + exception.getHttpMethod() + " " + exception.getRequestURL(),
+                "ENDPOINT_NOT_FOUND",
+                request
+        );
+    }
+
+    /**
+     * Обработчик для OptimisticLockingFailureException.
+     * Возникает когда UPDATE с проверкой версии не нашел строку: карту изменили
+     * параллельно между чтением и записью. Клиенту предлагается перечитать карту и повторить запрос.
+     *
+     * @param exception исключение
+     * @param request веб-запрос
+     * @return ответ с ошибкой (HTTP 409)
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<byte[]> handleOptimisticLockingFailure(
+            OptimisticLockingFailureException exception, WebRequest request) {
+        log.warn("Конфликт параллельных изменений для {}: {}",
+                request.getDescription(false), exception.getMessage());
+
+        return jsonError(
+                HttpStatus.CONFLICT,
+                "Карта была изменена параллельно. Получите актуальную версию и повторите запрос",
+                "CONCURRENT_MODIFICATION",
+                request
+        );
+    }
+
+    /**
+     * Обработчик для CannotCreateTransactionException.
+     * Возникает когда за время ожидания не удалось получить соединение с БД
+     * (пул соединений исчерпан или БД недоступна).
+     * Клиенту предлагается повторить запрос позже.
+     *
+     * @param exception исключение
+     * @param request веб-запрос
+     * @return ответ с ошибкой (HTTP 503)
+     */
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    public ResponseEntity<byte[]> handleCannotCreateTransaction(
+            CannotCreateTransactionException exception, WebRequest request) {
+        log.warn("Нет свободного соединения с БД для {}: {}",
+                request.getDescription(false), exception.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(templates.render(
+                        HttpStatus.SERVICE_UNAVAILABLE,
+                        "Сервис временно перегружен. Повторите запрос позже",
+                        "DATABASE_UNAVAILABLE",
+                        pathOf(request)
                 ));
     }
 
@@ -258,17 +390,16 @@ public class GlobalExceptionHandler {
      * @return ответ с ошибкой (HTTP 500)
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponseDto> handleGenericException(
+    public ResponseEntity<byte[]> handleGenericException(
             Exception exception, WebRequest request) {
         log.error("Неожиданная ошибка произошла в {}: {}",
                 request.getDescription(false), exception.getMessage(), exception);
 
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(buildError(
-                        HttpStatus.INTERNAL_SERVER_ERROR,
-                        "Внутренняя ошибка сервера. Обратитесь к администратору",
-                        "INTERNAL_SERVER_ERROR",
-                        request
-                ));
+        return jsonError(
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                "Внутренняя ошибка сервера. Обратитесь к администратору",
+                "INTERNAL_SERVER_ERROR",
+                request
+        );
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.lum1nar.junior_card.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Журнал HTTP-запросов с выборкой: на уровне INFO пишется только заданная доля запросов
+ * (метод, путь, статус, время), а ответы 5xx - всегда. Для остальных запросов
+ * строка лога не форматируется. Полный журнал всех запросов - уровень DEBUG этого логгера.
+ */
+@Slf4j
+@Component
+public class SampledRequestLoggingFilter extends OncePerRequestFilter {
+
+    /** Доля запросов, попадающих в журнал (0 - только ошибки, 1 - все) */
+    @Value("${card.logging.request-sample-rate:0.01}")
+    private double sampleRate = 0.01;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int status = response.getStatus();
+            if (status >= 500 || log.isDebugEnabled()
+                    || (log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+                log.info("{} {} -> {} за {} мс", request.getMethod(), request.getRequestURI(), status,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.lum1nar.junior_card.metrics;
+
+import com.lum1nar.junior_card.exception.ApplicationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Таймеры публичных методов сервисов карт.
+ * <p>
+ * Метрика {@value #METRIC_NAME} с тегами {@code class}, {@code method}, {@code outcome}
+ * ({@code success} / {@code error}) и {@code error_code} (код {@link ApplicationException},
+ * имя класса для остальных исключений, {@code none} при успехе). Количество вызовов
+ * по исходу и коду ошибки - это счетчик того же таймера ({@code card_service_seconds_count}).
+ * <p>
+ * Таймеры создаются один раз на метод и код ошибки: на пути вызова нет поиска в реестре
+ * и построения тегов. Перехватчик подключается как обычный Spring AOP advice
+ * (см. {@link com.lum1nar.junior_card.config.MetricsConfig}), без join point AspectJ на каждый вызов.
+ */
+@RequiredArgsConstructor
+public class CardServiceMetricsInterceptor implements MethodInterceptor {
+
+    /** Имя метрики времени выполнения методов сервисов */
+    public static final String METRIC_NAME = "card.service";
+
+    private static final String NO_ERROR = "none";
+
+    /**
+     * Реестр запрашивается при создании первого таймера, а не при создании перехватчика:
+     * advisor создается на раннем этапе запуска, и ранний запрос реестра помешал бы его настройке
+     * (например, регистрации метрик пула соединений).
+     */
+    private final Supplier<MeterRegistry> meterRegistry;
+
+    private final ConcurrentMap<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        MethodTimers methodTimers = timers.get(method);
+        if (methodTimers == null) {
+            methodTimers = timers.computeIfAbsent(method, MethodTimers::new);
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            methodTimers.success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable throwable) {
+            methodTimers.error(errorCode(throwable)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw throwable;
+        }
+    }
+
+    private static String errorCode(Throwable throwable) {
+        if (throwable instanceof ApplicationException applicationException
+                && applicationException.getErrorCode() != null) {
+            return applicationException.getErrorCode();
+        }
+        return throwable.getClass().getSimpleName();
+    }
+
+    /**
+     * Таймеры одного метода: успешные вызовы и вызовы, завершившиеся ошибкой, по кодам ошибок.
+     */
+    private final class MethodTimers {
+
+        private final String className;
+        private final String methodName;
+        private final Timer success;
+        private final ConcurrentMap<String, Timer> errors = new ConcurrentHashMap<>();
+
+        MethodTimers(Method method) {
+            className = method.getDeclaringClass().getSimpleName();
+            methodName = method.getName();
+            success = timer("success", NO_ERROR);
+        }
+
+        Timer error(String errorCode) {
+            return errors.computeIfAbsent(errorCode, code -> timer("error", code));
+        }
+
+        private Timer timer(String outcome, String errorCode) {
+            return Timer.builder(METRIC_NAME)
+                    .description("Время выполнения методов сервисов карт")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("outcome", outcome)
+                    .tag("error_code", errorCode)
+                    .register(meterRegistry.get());
+        }
+    }
+}
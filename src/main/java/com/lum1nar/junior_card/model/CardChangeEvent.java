@@ -0,0 +1,66 @@
+package com.lum1nar.junior_card.model;
+
+import com.lum1nar.junior_card.sharding.ShardAwareSequenceGenerator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.time.LocalDateTime;
+
+/**
+ * Событие изменения карты (transactional outbox).
+ * Записывается в той же транзакции, что и само изменение, поэтому событие есть тогда и только тогда,
+ * когда изменение закоммичено. Смещение в ленте назначает релей после коммита.
+ * Событие компактное: какая карта, что произошло и статус после изменения, без остальных данных карты.
+ */
+@Entity
+@Table(name = "card_change_events", indexes = {
+        // Чтение ленты: WHERE feed_offset > ? ORDER BY feed_offset; неопубликованные: WHERE feed_offset IS NULL
+        @Index(name = "idx_card_change_events_feed_offset", columnList = "feed_offset", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CardChangeEvent {
+
+    @Id
+    @GeneratedValue(generator = "card_change_events_seq")
+    @GenericGenerator(name = "card_change_events_seq", type = ShardAwareSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "card_change_events_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
+    private Long id;
+
+    /** Смещение в ленте изменений (null, пока событие не опубликовано релеем) */
+    @Column(name = "feed_offset")
+    private Long feedOffset;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "card_type", nullable = false, updatable = false, length = 10)
+    private CardType cardType;
+
+    @Column(name = "card_id", nullable = false, updatable = false)
+    private Long cardId;
+
+    /** Родительская карта (для детской карты) */
+    @Column(name = "parent_card_id", updatable = false)
+    private Long parentCardId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, updatable = false, length = 20)
+    private CardChangeType changeType;
+
+    /** Статус карты после изменения (null для удаления) */
+    @Enumerated(EnumType.STRING)
+    @Column(updatable = false, length = 20)
+    private CardStatus status;
+
+    @Column(name = "occurred_at", nullable = false, updatable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,8 @@
+package com.lum1nar.junior_card.model;
+
+/**
+ * Тип изменения карты в ленте изменений.
+ */
+public enum CardChangeType {
+    CREATED, UPDATED, STATUS_CHANGED, DELETED
+}
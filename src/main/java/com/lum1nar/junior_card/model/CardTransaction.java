@@ -0,0 +1,67 @@
+package com.lum1nar.junior_card.model;
+
+import com.lum1nar.junior_card.sharding.ShardAwareSequenceGenerator;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Запись журнала движения средств по картам. Журнал только дополняется:
+ * записи не изменяются и не удаляются, а баланс карты равен сумме ее операций.
+ * Карты хранятся как ID без внешних ключей, чтобы история переживала удаление карты
+ * и вставка записи не блокировала строку карты повторно.
+ */
+@Entity
+@Table(name = "card_transactions", indexes = {
+        // История операций детской карты: WHERE junior_card_id = ? AND id < ? ORDER BY id DESC
+        @Index(name = "idx_card_transactions_junior_card_id_id", columnList = "junior_card_id, id"),
+        @Index(name = "idx_card_transactions_parent_card_id_id", columnList = "parent_card_id, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CardTransaction {
+
+    @Id
+    @GeneratedValue(generator = "card_transactions_seq")
+    @GenericGenerator(name = "card_transactions_seq", type = ShardAwareSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "card_transactions_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
+    private Long id;
+
+    /** Детская карта операции (null для зачисления на родительскую карту) */
+    @Column(name = "junior_card_id", updatable = false)
+    private Long juniorCardId;
+
+    /** Родительская карта операции (источник пополнения или получатель зачисления) */
+    @Column(name = "parent_card_id", updatable = false)
+    private Long parentCardId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private CardTransactionType type;
+
+    /** Сумма операции (всегда положительная, направление задается типом) */
+    @Column(nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    /** Баланс карты после операции (для TOP_UP - баланс детской карты) */
+    @Column(name = "balance_after", nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal balanceAfter;
+
+    @Column(length = 100, updatable = false)
+    private String description;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,15 @@
+package com.lum1nar.junior_card.model;
+
+/**
+ * Тип операции в журнале движения средств по картам.
+ */
+public enum CardTransactionType {
+    /** Списание с детской карты (оплата) */
+    DEBIT,
+    /** Зачисление на детскую карту (возврат, начисление) */
+    CREDIT,
+    /** Пополнение детской карты с баланса родительской */
+    TOP_UP,
+    /** Зачисление на родительскую карту */
+    DEPOSIT
+}
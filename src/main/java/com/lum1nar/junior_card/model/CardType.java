@@ -0,0 +1,8 @@
+package com.lum1nar.junior_card.model;
+
+/**
+ * Тип карты. Используется, например, для выбора правил перехода статусов.
+ */
+public enum CardType {
+    JUNIOR, PARENT
+}
@@ -6,22 +6,48 @@ import lombok.*;
 
 
 
+import com.lum1nar.junior_card.sharding.ShardAwareSequenceGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "junior_cards")
-@Data
+@Table(name = "junior_cards", indexes = {
+        // Поиск истекших карт планировщиком: WHERE status = 'ACTIVE' AND expires_at <= ? ORDER BY expires_at
+        @Index(name = "idx_junior_cards_status_expires_at", columnList = "status, expires_at"),
+        // Карты родителя: WHERE parent_card_id = ? [AND status = ?]
+        @Index(name = "idx_junior_cards_parent_card_id_status", columnList = "parent_card_id, status"),
+        // Поиск по началу имени: WHERE name LIKE 'Ва%' (в PostgreSQL - с varchar_pattern_ops, см. миграцию V3)
+        @Index(name = "idx_junior_cards_name", columnList = "name")
+})
+@DynamicUpdate
+// Кэш второго уровня: элементы коллекции детских карт родителя берутся отсюда без SELECT (см. hibernate-cache.conf)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "junior-card")
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class JuniorCard {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "junior_cards_seq")
+    @GenericGenerator(name = "junior_cards_seq", type = ShardAwareSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "junior_cards_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     private Long id;
 
     @NotBlank
@@ -33,6 +59,7 @@ public class JuniorCard {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parent_card_id" , nullable = false)
     @JsonBackReference
+    @ToString.Exclude
     private ParentCard parentCard;
 
     @Enumerated(EnumType.STRING)
@@ -46,7 +73,47 @@ public class JuniorCard {
     @Column(name = "child_age", nullable = false)
     private Integer childAge;
 
+    /** Дата и время окончания срока действия карты (после нее активная карта переводится в EXPIRED) */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
 
+    /**
+     * Баланс карты. Изменяется только атомарными UPDATE из CardRepository
+     * (через CardLedgerService), поэтому не обновляется при сохранении сущности.
+     */
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
 
+    /**
+     * Версия строки для оптимистической блокировки: увеличивается при каждом изменении данных
+     * или статуса карты (в том числе массовыми UPDATE), но не при движении средств по балансу.
+     * Передается клиенту в заголовке ETag и проверяется по заголовку If-Match.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    /**
+     * Карты равны, если у них одинаковый ID (новые несохраненные карты равны только самим себе).
+     * Сравнение не обращается к остальным полям и ленивым связям.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof JuniorCard other && id != null && id.equals(other.getId());
+    }
+
+    /**
+     * Хэш не зависит от ID, поэтому не меняется при сохранении карты.
+     */
+    @Override
+    public int hashCode() {
+        return JuniorCard.class.hashCode();
+    }
 
 }
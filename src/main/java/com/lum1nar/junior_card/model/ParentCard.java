@@ -1,6 +1,7 @@
 package com.lum1nar.junior_card.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.lum1nar.junior_card.sharding.ShardAwareSequenceGenerator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -8,21 +9,45 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "parent_cards")
-@Data
+@Table(name = "parent_cards", indexes = {
+        // Поиск истекших карт планировщиком: WHERE card_status = 'ACTIVE' AND expires_at <= ? ORDER BY expires_at
+        @Index(name = "idx_parent_cards_card_status_expires_at", columnList = "card_status, expires_at")
+})
+@DynamicUpdate
+// Кэш второго уровня: родитель меняется редко, а читается при каждой операции с его картами (см. hibernate-cache.conf)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "parent-card")
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class ParentCard {
 
+    /** ID из диапазона шарда карты: старшие биты - номер шарда (см. CardShards) */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "parent_cards_seq")
+    @GenericGenerator(name = "parent_cards_seq", type = ShardAwareSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "parent_cards_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")
+    })
     long id;
 
     @Size(min = 2, max = 15)
@@ -41,12 +66,62 @@ public class ParentCard {
 
     @Enumerated(EnumType.STRING)
     @NotNull
-    @Column(nullable = false)
+    @Column(name = "card_status", nullable = false)
     CardStatus cardStatus;
 
+    /**
+     * Количество детских карт родителя (денормализованный счетчик для проверки лимита).
+     * Изменяется только атомарными UPDATE из ParentCardRepository, поэтому не обновляется при сохранении сущности.
+     */
+    @ColumnDefault("0")
+    @Column(name = "junior_card_count", nullable = false, updatable = false)
+    int juniorCardCount;
+
+    /** Дата и время окончания срока действия карты (после нее активная карта переводится в EXPIRED) */
+    @Column(name = "expires_at")
+    LocalDateTime expiresAt;
+
+    /**
+     * Баланс родительской карты (источник пополнения детских карт).
+     * Изменяется только атомарными UPDATE из ParentCardRepository, поэтому не обновляется при сохранении сущности.
+     */
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, updatable = false, precision = 19, scale = 2)
+    BigDecimal balance = BigDecimal.ZERO;
+
+    /**
+     * Версия строки для оптимистической блокировки (см. {@link JuniorCard#getVersion()}).
+     * Изменения детских карт и счетчика карт версию родителя не меняют.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    Long version;
+
+    /**
+     * Детские карты родителя. Коллекция (список ID) кэшируется во втором уровне и вытесняется
+     * при добавлении и удалении детской карты (hibernate.cache.auto_evict_collection_cache).
+     */
     @OneToMany(mappedBy = "parentCard", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "parent-card-junior-cards")
     @JsonManagedReference
+    @ToString.Exclude
     List<JuniorCard> juniorCards;
 
+    /**
+     * Карты равны, если у них одинаковый ID (см. {@link JuniorCard#equals(Object)}).
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof ParentCard other && id != 0 && id == other.getId();
+    }
 
+    @Override
+    public int hashCode() {
+        return ParentCard.class.hashCode();
+    }
 }
@@ -0,0 +1,35 @@
+package com.lum1nar.junior_card.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+/**
+ * Реактивный API чтения карт: WebFlux на Netty и R2DBC, без JPA и пула потоков сервлетов.
+ * Запускается отдельно от основного приложения (профиль reactive, порт {@code CARD_REACTIVE_PORT})
+ * и читает ту же БД. Сканирует только пакет reactive; основное приложение эти классы пропускает,
+ * так как оно не реактивное.
+ */
+@SpringBootApplication
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCardReadApplication {
+
+    /** Профиль с настройками реактивного приложения (application-reactive.properties) */
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        builder().run(args);
+    }
+
+    /**
+     * Создает builder реактивного приложения с нужным типом веб-приложения и профилем.
+     *
+     * @return builder приложения
+     */
+    public static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(ReactiveCardReadApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE);
+    }
+}
@@ -0,0 +1,144 @@
+package com.lum1nar.junior_card.reactive;
+
+import com.lum1nar.junior_card.controller.CardController;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.ParentCardDto;
+import com.lum1nar.junior_card.service.CardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Реактивный REST контроллер чтения карт.
+ * Эндпоинты и ответы совпадают с эндпоинтами чтения {@link CardController}; запросы обрабатываются
+ * на event loop Netty без блокировки потока на время обращения к БД.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/cards")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCardReadController {
+
+    /** Размер страницы по умолчанию */
+    private static final String DEFAULT_PAGE_SIZE = "100";
+
+    private final ReactiveCardReadService reactiveCardReadService;
+
+    // ==================== ДЕТСКИЕ КАРТЫ ====================
+
+    /**
+     * GET /api/cards/junior?afterId=&limit= - Получение страницы детских карт (keyset-пагинация)
+     * Курсор следующей страницы возвращается в заголовке {@value CardController#NEXT_CURSOR_HEADER}.
+     *
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit   размер страницы
+     * @return страница детских карт (HTTP 200 OK)
+     */
+    @GetMapping("/junior")
+    public Mono<ResponseEntity<List<JuniorCardDto>>> getAllJuniorCards(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        log.debug("Получен запрос на получение страницы детских карт после ID: {}", afterId);
+        return reactiveCardReadService.getJuniorCardsPage(afterId, limit)
+                .collectList()
+                .map(page -> pageResponse(page, limit, JuniorCardDto::id));
+    }
+
+    /**
+     * GET /api/cards/junior/stream - Потоковая выгрузка всех детских карт в формате NDJSON.
+     * Карты читаются из БД по мере того, как клиент их принимает (backpressure).
+     *
+     * @return поток детских карт (HTTP 200 OK)
+     */
+    @GetMapping(value = "/junior/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<JuniorCardDto> streamAllJuniorCards() {
+        log.debug("Получен запрос на потоковую выгрузку детских карт");
+        return reactiveCardReadService.streamAllJuniorCards();
+    }
+
+    /**
+     * GET /api/cards/junior/{id} - Получение детской карты по ID
+     * Версия карты возвращается в заголовке ETag; при совпадении с If-None-Match - HTTP 304.
+     *
+     * @param cardId ID карты
+     * @return найденная детская карта (HTTP 200 OK)
+     */
+    @GetMapping("/junior/{cardId}")
+    public Mono<ResponseEntity<JuniorCardDto>> getJuniorCardById(@PathVariable long cardId) {
+        log.debug("Получен запрос на получение детской карты с ID: {}", cardId);
+        return reactiveCardReadService.getJuniorCardById(cardId)
+                .map(card -> ResponseEntity.ok().eTag("\"" + card.version() + "\"").body(card));
+    }
+
+    // ==================== РОДИТЕЛЬСКИЕ КАРТЫ ====================
+
+    /**
+     * GET /api/cards/parent?afterId=&limit= - Получение страницы родительских карт (keyset-пагинация)
+     *
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit   размер страницы
+     * @return страница родительских карт с детскими картами (HTTP 200 OK)
+     */
+    @GetMapping("/parent")
+    public Mono<ResponseEntity<List<ParentCardDto>>> getAllParentCards(
+            @RequestParam(defaultValue = "0") long afterId,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        log.debug("Получен запрос на получение страницы родительских карт после ID: {}", afterId);
+        return reactiveCardReadService.getParentCardsPage(afterId, limit)
+                .collectList()
+                .map(page -> pageResponse(page, limit, ParentCardDto::id));
+    }
+
+    /**
+     * GET /api/cards/parent/stream - Потоковая выгрузка всех родительских карт в формате NDJSON
+     *
+     * @return поток родительских карт с детскими картами (HTTP 200 OK)
+     */
+    @GetMapping(value = "/parent/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ParentCardDto> streamAllParentCards() {
+        log.debug("Получен запрос на потоковую выгрузку родительских карт");
+        return reactiveCardReadService.streamAllParentCards();
+    }
+
+    /**
+     * GET /api/cards/parent/{id} - Получение родительской карты по ID
+     * ETag включает версию родителя и версии его детских карт; при совпадении с If-None-Match - HTTP 304.
+     *
+     * @param parentId ID родительской карты
+     * @return найденная родительская карта (HTTP 200 OK)
+     */
+    @GetMapping("/parent/{parentId}")
+    public Mono<ResponseEntity<ParentCardDto>> getParentCardById(@PathVariable long parentId) {
+        log.debug("Получен запрос на получение родительской карты с ID: {}", parentId);
+        return reactiveCardReadService.getParentCardById(parentId)
+                .map(parentCard -> ResponseEntity.ok().eTag(parentCard.entityTag()).body(parentCard));
+    }
+
+    // ==================== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ====================
+
+    /**
+     * Формирует ответ со страницей и курсором следующей страницы (только для полной страницы).
+     *
+     * @param page  элементы страницы
+     * @param limit запрошенный размер страницы
+     * @param idOf  функция получения ID элемента
+     * @return ответ HTTP 200 OK
+     */
+    private static <T> ResponseEntity<List<T>> pageResponse(List<T> page, int limit, ToLongFunction<T> idOf) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!page.isEmpty() && page.size() >= Math.min(limit, CardService.MAX_PAGE_SIZE)) {
+            response.header(CardController.NEXT_CURSOR_HEADER,
+                    String.valueOf(idOf.applyAsLong(page.get(page.size() - 1))));
+        }
+        return response.body(page);
+    }
+}
@@ -0,0 +1,153 @@
+package com.lum1nar.junior_card.reactive;
+
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.ParentCardDto;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.UserStatus;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Неблокирующее чтение карт через R2DBC.
+ * Запросы те же, что у JPA-проекций {@code CardRepository} / {@code ParentCardRepository}:
+ * выбираются только колонки представлений, строки сразу отображаются в DTO.
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCardReadRepository {
+
+    /** Сколько строк драйвер запрашивает у БД за раз при потоковом чтении */
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final String JUNIOR_COLUMNS =
+            "SELECT id, name, status, child_age, parent_card_id, expires_at, version FROM junior_cards ";
+
+    private static final String PARENT_COLUMNS =
+            "SELECT id, name, status, age, card_status, expires_at, version FROM parent_cards ";
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * Получает страницу детских карт после заданного ID.
+     *
+     * @param afterId ID последней карты предыдущей страницы
+     * @param limit размер страницы
+     * @return представления детских карт по возрастанию ID
+     */
+    public Flux<JuniorCardDto> findJuniorPageAfter(long afterId, int limit) {
+        return databaseClient.sql(JUNIOR_COLUMNS + "WHERE id > :afterId ORDER BY id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveCardReadRepository::juniorCard)
+                .all();
+    }
+
+    /**
+     * Получает детскую карту по ID.
+     *
+     * @param cardId ID карты
+     * @return представление карты или пустой результат
+     */
+    public Mono<JuniorCardDto> findJuniorById(long cardId) {
+        return databaseClient.sql(JUNIOR_COLUMNS + "WHERE id = :id")
+                .bind("id", cardId)
+                .map(ReactiveCardReadRepository::juniorCard)
+                .one();
+    }
+
+    /**
+     * Потоково читает все детские карты. Строки запрашиваются у БД по мере спроса подписчика.
+     *
+     * @return представления детских карт по возрастанию ID
+     */
+    public Flux<JuniorCardDto> streamAllJuniors() {
+        return databaseClient.sql(JUNIOR_COLUMNS + "ORDER BY id")
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .map(ReactiveCardReadRepository::juniorCard)
+                .all();
+    }
+
+    /**
+     * Получает детские карты заданных родителей.
+     *
+     * @param parentIds ID родительских карт
+     * @return представления детских карт по возрастанию ID
+     */
+    public Flux<JuniorCardDto> findJuniorsByParentIds(Collection<Long> parentIds) {
+        return databaseClient.sql(JUNIOR_COLUMNS + "WHERE parent_card_id IN (:parentIds) ORDER BY id")
+                .bind("parentIds", parentIds)
+                .map(ReactiveCardReadRepository::juniorCard)
+                .all();
+    }
+
+    /**
+     * Получает страницу родительских карт после заданного ID (без детских карт).
+     *
+     * @param afterId ID последней карты предыдущей страницы
+     * @param limit размер страницы
+     * @return представления родительских карт по возрастанию ID
+     */
+    public Flux<ParentCardDto> findParentPageAfter(long afterId, int limit) {
+        return databaseClient.sql(PARENT_COLUMNS + "WHERE id > :afterId ORDER BY id LIMIT :limit")
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .map(ReactiveCardReadRepository::parentCard)
+                .all();
+    }
+
+    /**
+     * Получает родительскую карту по ID (без детских карт).
+     *
+     * @param parentId ID родительской карты
+     * @return представление карты или пустой результат
+     */
+    public Mono<ParentCardDto> findParentById(long parentId) {
+        return databaseClient.sql(PARENT_COLUMNS + "WHERE id = :id")
+                .bind("id", parentId)
+                .map(ReactiveCardReadRepository::parentCard)
+                .one();
+    }
+
+    /**
+     * Потоково читает все родительские карты (без детских карт).
+     *
+     * @return представления родительских карт по возрастанию ID
+     */
+    public Flux<ParentCardDto> streamAllParents() {
+        return databaseClient.sql(PARENT_COLUMNS + "ORDER BY id")
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .map(ReactiveCardReadRepository::parentCard)
+                .all();
+    }
+
+    private static JuniorCardDto juniorCard(Readable row) {
+        return new JuniorCardDto(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                CardStatus.valueOf(row.get("status", String.class)),
+                row.get("child_age", Integer.class),
+                row.get("parent_card_id", Long.class),
+                row.get("expires_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+
+    private static ParentCardDto parentCard(Readable row) {
+        return new ParentCardDto(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                UserStatus.valueOf(row.get("status", String.class)),
+                row.get("age", Integer.class),
+                CardStatus.valueOf(row.get("card_status", String.class)),
+                row.get("expires_at", LocalDateTime.class),
+                row.get("version", Long.class));
+    }
+}
@@ -0,0 +1,137 @@
+package com.lum1nar.junior_card.reactive;
+
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.ParentCardDto;
+import com.lum1nar.junior_card.exception.CardNotFoundException;
+import com.lum1nar.junior_card.service.CardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неблокирующее чтение детских и родительских карт.
+ * Повторяет поведение методов чтения {@link CardService} (keyset-пагинация, детские карты родителей
+ * догружаются одним запросом на страницу или часть потока), но без блокировки потоков на ожидании БД.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCardReadService {
+
+    /** Количество родителей, для которых детские карты догружаются одним запросом при потоковой выдаче */
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    private final ReactiveCardReadRepository reactiveCardReadRepository;
+
+    /**
+     * Получает страницу детских карт (keyset-пагинация по ID).
+     *
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit размер страницы (ограничивается диапазоном 1..{@value CardService#MAX_PAGE_SIZE})
+     * @return представления детских карт по возрастанию ID
+     */
+    public Flux<JuniorCardDto> getJuniorCardsPage(long afterId, int limit) {
+        log.debug("Получение страницы детских карт после ID: {}, размер: {}", afterId, limit);
+        return reactiveCardReadRepository.findJuniorPageAfter(Math.max(afterId, 0), pageSize(limit));
+    }
+
+    /**
+     * Потоково выдает все детские карты. Карты читаются из БД по мере того, как клиент их принимает.
+     *
+     * @return представления детских карт по возрастанию ID
+     */
+    public Flux<JuniorCardDto> streamAllJuniorCards() {
+        log.debug("Потоковое получение всех детских карт");
+        return reactiveCardReadRepository.streamAllJuniors();
+    }
+
+    /**
+     * Получает детскую карту по ID.
+     *
+     * @param cardId ID карты
+     * @return представление карты или ошибка {@link CardNotFoundException}
+     */
+    public Mono<JuniorCardDto> getJuniorCardById(long cardId) {
+        log.debug("Получение детской карты с ID: {}", cardId);
+        return reactiveCardReadRepository.findJuniorById(cardId)
+                .switchIfEmpty(Mono.error(() -> new CardNotFoundException(cardId)));
+    }
+
+    /**
+     * Получает страницу родительских карт вместе с детскими картами.
+     *
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit размер страницы (ограничивается диапазоном 1..{@value CardService#MAX_PAGE_SIZE})
+     * @return представления родительских карт по возрастанию ID
+     */
+    public Flux<ParentCardDto> getParentCardsPage(long afterId, int limit) {
+        log.debug("Получение страницы родительских карт после ID: {}, размер: {}", afterId, limit);
+        return reactiveCardReadRepository.findParentPageAfter(Math.max(afterId, 0), pageSize(limit))
+                .collectList()
+                .flatMapMany(this::withJuniorCards);
+    }
+
+    /**
+     * Потоково выдает все родительские карты. Родители читаются частями по {@value #STREAM_CHUNK_SIZE},
+     * детские карты каждой части загружаются одним запросом; следующая часть читается,
+     * только когда клиент принял предыдущую.
+     *
+     * @return представления родительских карт по возрастанию ID
+     */
+    public Flux<ParentCardDto> streamAllParentCards() {
+        log.debug("Потоковое получение всех родительских карт");
+        return reactiveCardReadRepository.streamAllParents()
+                .buffer(STREAM_CHUNK_SIZE)
+                .concatMap(this::withJuniorCards);
+    }
+
+    /**
+     * Получает родительскую карту по ID вместе с детскими картами.
+     *
+     * @param parentId ID родительской карты
+     * @return представление карты или ошибка {@link CardNotFoundException}
+     */
+    public Mono<ParentCardDto> getParentCardById(long parentId) {
+        log.debug("Получение родительской карты с ID: {}", parentId);
+        return reactiveCardReadRepository.findParentById(parentId)
+                .switchIfEmpty(Mono.error(() -> new CardNotFoundException(parentId)))
+                .flatMap(parentCard -> reactiveCardReadRepository.findJuniorsByParentIds(List.of(parentId))
+                        .collectList()
+                        .map(parentCard::withJuniorCards));
+    }
+
+    /**
+     * Добавляет к представлениям родителей их детские карты одним запросом.
+     *
+     * @param parentCards представления родительских карт без детских карт
+     * @return представления с детскими картами в исходном порядке
+     */
+    private Flux<ParentCardDto> withJuniorCards(List<ParentCardDto> parentCards) {
+        if (parentCards.isEmpty()) {
+            return Flux.empty();
+        }
+        List<Long> parentIds = parentCards.stream().map(ParentCardDto::id).toList();
+        return reactiveCardReadRepository.findJuniorsByParentIds(parentIds)
+                .collectMultimap(JuniorCardDto::parentCardId)
+                .flatMapIterable(cardsByParent -> parentCards.stream()
+                        .map(parentCard -> parentCard.withJuniorCards(juniorCardsOf(cardsByParent, parentCard.id())))
+                        .toList());
+    }
+
+    private static List<JuniorCardDto> juniorCardsOf(Map<Long, Collection<JuniorCardDto>> cardsByParent, long parentId) {
+        Collection<JuniorCardDto> juniorCards = cardsByParent.get(parentId);
+        return juniorCards == null ? List.of() : List.copyOf(juniorCards);
+    }
+
+    private static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), CardService.MAX_PAGE_SIZE);
+    }
+}
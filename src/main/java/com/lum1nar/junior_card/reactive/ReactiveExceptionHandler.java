@@ -0,0 +1,43 @@
+package com.lum1nar.junior_card.reactive;
+
+import com.lum1nar.junior_card.dto.ErrorResponseDto;
+import com.lum1nar.junior_card.exception.CardNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.time.LocalDateTime;
+
+/**
+ * Обработчик исключений реактивного API чтения.
+ * Формат ответа совпадает с ответами {@code GlobalExceptionHandler} основного приложения.
+ */
+@Slf4j
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    /**
+     * Обработчик для CardNotFoundException.
+     *
+     * @param exception исключение
+     * @param exchange текущий запрос
+     * @return ответ с ошибкой (HTTP 404)
+     */
+    @ExceptionHandler(CardNotFoundException.class)
+    public ResponseEntity<ErrorResponseDto> handleCardNotFoundException(
+            CardNotFoundException exception, ServerWebExchange exchange) {
+        log.warn("Карта не найдена: {}", exception.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorResponseDto.builder()
+                .status(HttpStatus.NOT_FOUND.value())
+                .message(exception.getMessage())
+                .errorCode(exception.getErrorCode())
+                .timestamp(LocalDateTime.now())
+                .path(exchange.getRequest().getPath().value())
+                .build());
+    }
+}
@@ -0,0 +1,114 @@
+package com.lum1nar.junior_card.repository;
+
+import com.lum1nar.junior_card.dto.CardChangeEventDto;
+import com.lum1nar.junior_card.model.CardChangeEvent;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Репозиторий outbox-событий изменений карт и состояния ленты.
+ * Нативные запросы объявляют свое пространство запросов (таблицу, которую они затрагивают),
+ * чтобы Hibernate не сбрасывал из-за них кэш второго уровня карт.
+ */
+@Repository
+public interface CardChangeEventRepository extends JpaRepository<CardChangeEvent, Long> {
+
+    /** Пространство запросов таблицы состояния ленты */
+    String FEED_STATE_QUERY_SPACE = "card_change_feed_state";
+
+    /** Пространство запросов таблицы событий */
+    String EVENTS_QUERY_SPACE = "card_change_events";
+
+    /**
+     * Получает порцию еще не опубликованных событий в порядке записи.
+     *
+     * @param limit максимальный размер порции
+     * @return неопубликованные события
+     */
+    @Query("SELECT e FROM CardChangeEvent e WHERE e.feedOffset IS NULL ORDER BY e.id")
+    List<CardChangeEvent> findUnpublished(Limit limit);
+
+    /**
+     * Получает опубликованные события после заданного смещения.
+     *
+     * @param since смещение последнего прочитанного события (0 - с начала ленты)
+     * @param limit максимальное количество событий
+     * @return события по возрастанию смещения
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.CardChangeEventDto(e.feedOffset, e.cardType, e.cardId, " +
+            "e.parentCardId, e.changeType, e.status, e.occurredAt) " +
+            "FROM CardChangeEvent e WHERE e.feedOffset > :since ORDER BY e.feedOffset")
+    List<CardChangeEventDto> findPublishedAfter(@Param("since") long since, Limit limit);
+
+    /**
+     * Блокирует строку состояния ленты до конца транзакции и возвращает последнее выданное смещение.
+     * Релеи на разных узлах публикуют порции по очереди.
+     *
+     * @return последнее выданное смещение
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = FEED_STATE_QUERY_SPACE))
+    @Query(value = "SELECT last_offset FROM card_change_feed_state WHERE id = 1 FOR UPDATE", nativeQuery = true)
+    long lockLastOffset();
+
+    /**
+     * Получает последнее выданное смещение без блокировки.
+     *
+     * @return последнее выданное смещение
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = FEED_STATE_QUERY_SPACE))
+    @Query(value = "SELECT last_offset FROM card_change_feed_state WHERE id = 1", nativeQuery = true)
+    long findLastOffset();
+
+    /**
+     * Сохраняет последнее выданное смещение (строка должна быть заблокирована {@link #lockLastOffset()}).
+     *
+     * @param lastOffset новое последнее смещение
+     * @return количество обновленных строк
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = FEED_STATE_QUERY_SPACE))
+    @Query(value = "UPDATE card_change_feed_state SET last_offset = :lastOffset WHERE id = 1", nativeQuery = true)
+    int updateLastOffset(@Param("lastOffset") long lastOffset);
+
+    /**
+     * Получает ID событий из заданного списка, которые уже есть в таблице.
+     *
+     * @param ids ID событий
+     * @return ID найденных событий
+     */
+    @Query("SELECT e.id FROM CardChangeEvent e WHERE e.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") List<Long> ids);
+
+    /**
+     * Вставляет событие, перенесенное из другого шарда, с его исходным ID (ID событий уникальны между шардами).
+     *
+     * @param event неопубликованное событие
+     * @return количество вставленных строк
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = EVENTS_QUERY_SPACE))
+    @Query(value = "INSERT INTO card_change_events (id, card_type, card_id, parent_card_id, change_type, status, occurred_at) "
+            + "VALUES (:#{#event.id}, :#{#event.cardType.name()}, :#{#event.cardId}, :#{#event.parentCardId}, "
+            + ":#{#event.changeType.name()}, :#{#event.status?.name()}, :#{#event.occurredAt})", nativeQuery = true)
+    int insertForwarded(@Param("event") CardChangeEvent event);
+
+    /**
+     * Удаляет опубликованные события старше заданного времени.
+     *
+     * @param before граница хранения
+     * @return количество удаленных событий
+     */
+    @Modifying
+    @Query("DELETE FROM CardChangeEvent e WHERE e.feedOffset IS NOT NULL AND e.occurredAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
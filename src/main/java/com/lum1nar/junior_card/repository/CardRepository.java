@@ -1,28 +1,51 @@
 package com.lum1nar.junior_card.repository;
 
+import com.lum1nar.junior_card.config.CacheConfig;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardStatusDto;
+import com.lum1nar.junior_card.dto.JuniorCardSummaryDto;
+import com.lum1nar.junior_card.model.CardStatus;
 import com.lum1nar.junior_card.model.JuniorCard;
-import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с детскими картами (JuniorCard).
  * Предоставляет методы для CRUD операций и специализированные запросы.
+ * Атомарные UPDATE одной карты написаны на нативном SQL в пространстве запросов
+ * {@link CacheConfig#SINGLE_ROW_UPDATES_QUERY_SPACE}: после них вызывающий код инвалидирует
+ * запись кэша второго уровня сам, а не весь регион.
+ * Поиск по набору фильтров - во фрагменте {@link JuniorCardSearchRepository}.
  */
 @Repository
-public interface CardRepository extends JpaRepository<JuniorCard, Long> {
+public interface CardRepository extends JpaRepository<JuniorCard, Long>, JuniorCardSearchRepository {
 
     /**
      * Подсчитывает количество детских карт у родителя.
+     * Результат кэшируется в кэше запросов Hibernate и сбрасывается при любом изменении таблицы детских карт
+     * через Hibernate (кроме нативных UPDATE баланса и статуса, которые не меняют количество).
      *
      * @param parentCardId ID родительской карты
      * @return количество детских карт
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "junior-card-counts")
+    })
     long countByParentCard_Id(Long parentCardId);
 
     /**
@@ -34,13 +57,206 @@ public interface CardRepository extends JpaRepository<JuniorCard, Long> {
     List<JuniorCard> findByParentCard_Id(Long parentCardId);
 
     /**
-     * Подсчитывает количество детских карт у родителя с пессимистической блокировкой.
-     * Используется для потокобезопасного подсчета при создании новой карты.
+     * Получает краткие представления детских карт родителя (ID, имя, статус) одним запросом
+     * без загрузки сущностей - для ответа о превышении лимита карт.
      *
-     * @param parentId ID родительской карты
-     * @return количество детских карт (с блокировкой)
+     * @param parentCardId ID родительской карты
+     * @return краткие представления карт, отсортированные по возрастанию ID
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.JuniorCardSummaryDto(c.id, c.name, c.status) " +
+            "FROM JuniorCard c WHERE c.parentCard.id = :parentCardId ORDER BY c.id")
+    List<JuniorCardSummaryDto> findSummariesByParentCardId(@Param("parentCardId") Long parentCardId);
+
+    /**
+     * Получает представление детской карты по ID (только нужные для ответа колонки).
+     *
+     * @param cardId ID карты
+     * @return представление карты
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.JuniorCardDto(c.id, c.name, c.status, c.childAge, c.parentCard.id, c.expiresAt, c.version) " +
+            "FROM JuniorCard c WHERE c.id = :cardId")
+    Optional<JuniorCardDto> findDtoById(@Param("cardId") Long cardId);
+
+    /**
+     * Получает страницу представлений детских карт с ID больше заданного (keyset-пагинация).
+     * В отличие от OFFSET не деградирует на дальних страницах - используется индекс по первичному ключу.
+     *
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit максимальный размер страницы
+     * @return представления карт, отсортированные по возрастанию ID
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.JuniorCardDto(c.id, c.name, c.status, c.childAge, c.parentCard.id, c.expiresAt, c.version) " +
+            "FROM JuniorCard c WHERE c.id > :afterId ORDER BY c.id")
+    List<JuniorCardDto> findDtoPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Получает представления детских карт сразу для нескольких родителей одним запросом.
+     *
+     * @param parentCardIds ID родительских карт
+     * @return представления карт, отсортированные по возрастанию ID
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.JuniorCardDto(c.id, c.name, c.status, c.childAge, c.parentCard.id, c.expiresAt, c.version) " +
+            "FROM JuniorCard c WHERE c.parentCard.id IN :parentCardIds ORDER BY c.id")
+    List<JuniorCardDto> findDtosByParentCardIds(@Param("parentCardIds") Collection<Long> parentCardIds);
+
+    /**
+     * Потоково читает представления всех детских карт по возрастанию ID.
+     * Fetch size включает серверный курсор JDBC, поэтому таблица не загружается в память целиком,
+     * а представления не попадают в контекст сохранения.
+     * Должен вызываться внутри транзакции, а Stream - закрываться после использования.
+     *
+     * @return поток представлений детских карт
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.lum1nar.junior_card.dto.JuniorCardDto(c.id, c.name, c.status, c.childAge, c.parentCard.id, c.expiresAt, c.version) " +
+            "FROM JuniorCard c ORDER BY c.id")
+    Stream<JuniorCardDto> streamAllDtos();
+
+    /**
+     * Получает текущие статусы детских карт одним запросом.
+     *
+     * @param cardIds ID карт
+     * @return статусы найденных карт (несуществующие ID отсутствуют)
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.JuniorCardStatusDto(c.id, c.status, c.parentCard.id, c.version) " +
+            "FROM JuniorCard c WHERE c.id IN :cardIds")
+    List<JuniorCardStatusDto> findStatusesByIdIn(@Param("cardIds") Collection<Long> cardIds);
+
+    /**
+     * Получает текущий статус и версию детской карты.
+     *
+     * @param cardId ID карты
+     * @return статус и версия карты
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.JuniorCardStatusDto(c.id, c.status, c.parentCard.id, c.version) " +
+            "FROM JuniorCard c WHERE c.id = :cardId")
+    Optional<JuniorCardStatusDto> findStatusDtoById(@Param("cardId") Long cardId);
+
+    /**
+     * Переводит карту в новый статус, если ее версия не изменилась с момента чтения
+     * (оптимистическая блокировка без удержания блокировок между чтением и записью).
+     *
+     * @param cardId ID карты
+     * @param version версия, прочитанная вместе со статусом
+     * @param status новый статус
+     * @return 1 если статус изменен, 0 если карта удалена или изменена параллельно
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.SINGLE_ROW_UPDATES_QUERY_SPACE))
+    @Query(value = "UPDATE junior_cards SET status = :#{#status.name()}, version = version + 1 " +
+            "WHERE id = :cardId AND version = :version", nativeQuery = true)
+    int updateStatusIfVersion(@Param("cardId") Long cardId,
+                              @Param("version") long version,
+                              @Param("status") CardStatus status);
+
+    /**
+     * Переводит детские карты в новый статус одним UPDATE.
+     * Правила перехода проверяются в самом запросе: обновляются только карты,
+     * текущий статус которых входит в список допустимых исходных. Версия обновленных карт увеличивается.
+     *
+     * @param cardIds ID карт
+     * @param sourceStatuses статусы, из которых разрешен переход в новый статус
+     * @param status новый статус
+     * @return количество обновленных карт
      */
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("SELECT COUNT(c) FROM JuniorCard c WHERE c.parentCard.id = :parentId")
-    long countByParentCardIdWithLock(@Param("parentId") Long parentId);
-}
\ No newline at end of file
+    @Modifying
+    @Query("UPDATE JuniorCard c SET c.status = :status, c.version = c.version + 1 " +
+            "WHERE c.id IN :cardIds AND c.status IN :sourceStatuses")
+    int updateStatusWhereStatusIn(@Param("cardIds") Collection<Long> cardIds,
+                                  @Param("sourceStatuses") Collection<CardStatus> sourceStatuses,
+                                  @Param("status") CardStatus status);
+
+    /**
+     * Получает текущий статус детской карты.
+     *
+     * @param cardId ID карты
+     * @return статус карты
+     */
+    @Query("SELECT c.status FROM JuniorCard c WHERE c.id = :cardId")
+    Optional<CardStatus> findStatusById(@Param("cardId") Long cardId);
+
+    /**
+     * Получает ID родительской карты, к которой привязана детская карта.
+     *
+     * @param cardId ID карты
+     * @return ID родительской карты
+     */
+    @Query("SELECT c.parentCard.id FROM JuniorCard c WHERE c.id = :cardId")
+    Optional<Long> findParentCardIdById(@Param("cardId") Long cardId);
+
+    /**
+     * Получает возраст ребенка - владельца детской карты.
+     *
+     * @param cardId ID карты
+     * @return возраст ребенка
+     */
+    @Query("SELECT c.childAge FROM JuniorCard c WHERE c.id = :cardId")
+    Optional<Integer> findChildAgeById(@Param("cardId") Long cardId);
+
+    /**
+     * Получает текущий баланс детской карты.
+     *
+     * @param cardId ID карты
+     * @return баланс карты
+     */
+    @Query("SELECT c.balance FROM JuniorCard c WHERE c.id = :cardId")
+    Optional<BigDecimal> findBalanceById(@Param("cardId") Long cardId);
+
+    /**
+     * Атомарно списывает средства с карты: проверка статуса и остатка выполняется в том же UPDATE,
+     * поэтому баланс не уходит в минус при параллельных списаниях.
+     * Блокируется только строка карты до конца транзакции.
+     *
+     * @param cardId ID карты
+     * @param amount сумма списания
+     * @param status статус, в котором карта должна находиться
+     * @return 1 если средства списаны, 0 если карта не найдена, в другом статусе или средств недостаточно
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.SINGLE_ROW_UPDATES_QUERY_SPACE))
+    @Query(value = "UPDATE junior_cards SET balance = balance - :amount " +
+            "WHERE id = :cardId AND status = :#{#status.name()} AND balance >= :amount", nativeQuery = true)
+    int debitBalance(@Param("cardId") Long cardId,
+                     @Param("amount") BigDecimal amount,
+                     @Param("status") CardStatus status);
+
+    /**
+     * Атомарно зачисляет средства на карту.
+     *
+     * @param cardId ID карты
+     * @param amount сумма зачисления
+     * @param status статус, в котором карта должна находиться
+     * @return 1 если средства зачислены, 0 если карта не найдена или в другом статусе
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.SINGLE_ROW_UPDATES_QUERY_SPACE))
+    @Query(value = "UPDATE junior_cards SET balance = balance + :amount " +
+            "WHERE id = :cardId AND status = :#{#status.name()}", nativeQuery = true)
+    int creditBalance(@Param("cardId") Long cardId,
+                      @Param("amount") BigDecimal amount,
+                      @Param("status") CardStatus status);
+
+    /**
+     * Захватывает порцию истекших активных карт для перевода в EXPIRED.
+     * Строки блокируются до конца транзакции, а уже заблокированные другими узлами пропускаются
+     * (SKIP LOCKED), поэтому несколько экземпляров приложения обрабатывают разные карты.
+     * Запрос идет по индексу (status, expires_at).
+     *
+     * @param now текущее время
+     * @param limit максимальный размер порции
+     * @return ID захваченных карт и их родителей
+     */
+    @Query(value = "SELECT id AS id, parent_card_id AS parentCardId FROM junior_cards " +
+            "WHERE status = 'ACTIVE' AND expires_at <= :now " +
+            "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<ExpiredCard> claimExpiredActiveCards(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Истекшая детская карта, захваченная для перевода в EXPIRED.
+     */
+    interface ExpiredCard {
+        Long getId();
+
+        Long getParentCardId();
+    }
+}
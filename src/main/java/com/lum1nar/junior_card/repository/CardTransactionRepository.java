@@ -0,0 +1,69 @@
+package com.lum1nar.junior_card.repository;
+
+import com.lum1nar.junior_card.dto.CardTransactionDto;
+import com.lum1nar.junior_card.model.CardTransaction;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Репозиторий журнала операций по картам (CardTransaction).
+ * Журнал только дополняется, поэтому методов изменения записей нет.
+ */
+public interface CardTransactionRepository extends JpaRepository<CardTransaction, Long> {
+
+    /**
+     * Получает страницу операций детской карты от новых к старым (keyset-пагинация по ID).
+     *
+     * @param juniorCardId ID детской карты
+     * @param beforeId ID последней операции предыдущей страницы (Long.MAX_VALUE для первой страницы)
+     * @param limit максимальный размер страницы
+     * @return операции, отсортированные по убыванию ID
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.CardTransactionDto(" +
+            "t.id, t.type, t.amount, t.balanceAfter, t.description, t.createdAt) " +
+            "FROM CardTransaction t WHERE t.juniorCardId = :juniorCardId AND t.id < :beforeId ORDER BY t.id DESC")
+    List<CardTransactionDto> findJuniorCardPageBefore(@Param("juniorCardId") Long juniorCardId,
+                                                      @Param("beforeId") Long beforeId,
+                                                      Limit limit);
+
+    /**
+     * Получает последние списания с детской карты от новых к старым.
+     * По ним восстанавливается состояние проверки подозрительных списаний, когда карта заново
+     * занимает слот в памяти ({@link com.lum1nar.junior_card.service.FraudScoringStage}).
+     *
+     * @param juniorCardId ID детской карты
+     * @param limit максимальное количество списаний
+     * @return суммы и время списаний, отсортированные по убыванию ID
+     */
+    @Query("SELECT t.amount AS amount, t.createdAt AS createdAt FROM CardTransaction t " +
+            "WHERE t.juniorCardId = :juniorCardId AND t.type = com.lum1nar.junior_card.model.CardTransactionType.DEBIT " +
+            "ORDER BY t.id DESC")
+    List<Debit> findRecentJuniorCardDebits(@Param("juniorCardId") Long juniorCardId, Limit limit);
+
+    /**
+     * Сумма списаний с детской карты начиная с заданного момента.
+     *
+     * @param juniorCardId ID детской карты
+     * @param since начало периода
+     * @return сумма списаний (0, если их не было)
+     */
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM CardTransaction t " +
+            "WHERE t.juniorCardId = :juniorCardId AND t.type = com.lum1nar.junior_card.model.CardTransactionType.DEBIT " +
+            "AND t.createdAt >= :since")
+    BigDecimal sumJuniorCardDebitsSince(@Param("juniorCardId") Long juniorCardId, @Param("since") LocalDateTime since);
+
+    /**
+     * Списание с детской карты: сумма и время.
+     */
+    interface Debit {
+        BigDecimal getAmount();
+
+        LocalDateTime getCreatedAt();
+    }
+}
@@ -0,0 +1,26 @@
+package com.lum1nar.junior_card.repository;
+
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardSearchDto;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+/**
+ * Фрагмент репозитория детских карт для поиска по набору необязательных фильтров.
+ * Запрос собирается через Criteria API только из заданных фильтров, поэтому для каждой
+ * комбинации получается один параметризованный SQL-запрос без условий вида "? IS NULL OR ...",
+ * которые мешают БД выбрать индекс.
+ */
+public interface JuniorCardSearchRepository {
+
+    /**
+     * Ищет представления детских карт по фильтрам с keyset-пагинацией.
+     *
+     * @param filter фильтры поиска
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit максимальный размер страницы
+     * @return представления найденных карт, отсортированные по возрастанию ID
+     */
+    List<JuniorCardDto> searchDtos(JuniorCardSearchDto filter, Long afterId, Limit limit);
+}
@@ -0,0 +1,94 @@
+package com.lum1nar.junior_card.repository;
+
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardSearchDto;
+import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.model.ParentCard;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реализация поиска детских карт через Criteria API (подключается к {@link CardRepository} как фрагмент).
+ * <ul>
+ *     <li>статусы и ID родителя - по индексам (status, expires_at) и (parent_card_id, status);</li>
+ *     <li>начало имени - LIKE 'префикс%' по индексу idx_junior_cards_name;</li>
+ *     <li>статус родителя - соединение с parent_cards по первичному ключу (только если фильтр задан);</li>
+ *     <li>возраст - без отдельного индекса: 12 возможных значений, условие проверяется на отобранных строках.</li>
+ * </ul>
+ */
+class JuniorCardSearchRepositoryImpl implements JuniorCardSearchRepository {
+
+    /** Символ экранирования спецсимволов LIKE в начале имени */
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<JuniorCardDto> searchDtos(JuniorCardSearchDto filter, Long afterId, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<JuniorCardDto> query = cb.createQuery(JuniorCardDto.class);
+        Root<JuniorCard> card = query.from(JuniorCard.class);
+        // ID родителя берется из внешнего ключа junior_cards, без соединения с parent_cards
+        Path<Long> parentCardId = card.get("parentCard").get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.greaterThan(card.get("id"), afterId));
+        if (filter.getStatus() != null && !filter.getStatus().isEmpty()) {
+            predicates.add(card.get("status").in(filter.getStatus()));
+        }
+        if (filter.getMinAge() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(card.get("childAge"), filter.getMinAge()));
+        }
+        if (filter.getMaxAge() != null) {
+            predicates.add(cb.lessThanOrEqualTo(card.get("childAge"), filter.getMaxAge()));
+        }
+        if (filter.getParentCardId() != null) {
+            predicates.add(cb.equal(parentCardId, filter.getParentCardId()));
+        }
+        if (filter.getNamePrefix() != null && !filter.getNamePrefix().isEmpty()) {
+            predicates.add(cb.like(card.get("name"), escapeLike(filter.getNamePrefix()) + "%", LIKE_ESCAPE));
+        }
+        if (filter.getParentStatus() != null && !filter.getParentStatus().isEmpty()) {
+            Join<JuniorCard, ParentCard> parent = card.join("parentCard");
+            predicates.add(parent.get("cardStatus").in(filter.getParentStatus()));
+        }
+
+        query.select(cb.construct(JuniorCardDto.class,
+                        card.get("id"), card.get("name"), card.get("status"), card.get("childAge"),
+                        parentCardId, card.get("expiresAt"), card.get("version")))
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(card.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit.max())
+                .getResultList();
+    }
+
+    /**
+     * Экранирует спецсимволы LIKE, чтобы начало имени сравнивалось буквально.
+     *
+     * @param prefix начало имени из запроса
+     * @return экранированная строка
+     */
+    private static String escapeLike(String prefix) {
+        StringBuilder escaped = new StringBuilder(prefix.length() + 4);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -1,16 +1,243 @@
 package com.lum1nar.junior_card.repository;
 
+import com.lum1nar.junior_card.config.CacheConfig;
+import com.lum1nar.junior_card.dto.ParentCardDto;
+import com.lum1nar.junior_card.dto.ParentCardStatusDto;
+import com.lum1nar.junior_card.model.CardStatus;
 import com.lum1nar.junior_card.model.ParentCard;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * Репозиторий для работы с родительскими картами (ParentCard).
  * Предоставляет методы для CRUD операций и специализированные запросы.
+ * Атомарные UPDATE одной карты написаны на нативном SQL в пространстве запросов
+ * {@link CacheConfig#SINGLE_ROW_UPDATES_QUERY_SPACE}: после них вызывающий код инвалидирует
+ * запись кэша второго уровня сам, а не весь регион.
  */
 public interface ParentCardRepository extends JpaRepository<ParentCard, Long> {
-    // Пустой интерфейс - наследует все CRUD методы от JpaRepository
-}
\ No newline at end of file
+
+    /**
+     * Атомарно резервирует место под новые детские карты: увеличивает счетчик,
+     * только если после увеличения лимит не будет превышен.
+     * Проверка и изменение выполняются одним UPDATE, а строка родителя остается заблокированной
+     * до конца транзакции, поэтому параллельные создания не могут превысить лимит.
+     *
+     * @param parentId ID родительской карты
+     * @param count на сколько увеличить счетчик
+     * @param maxCards максимально допустимое количество карт
+     * @return 1 если место зарезервировано, 0 если лимит исчерпан или родитель не найден
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.SINGLE_ROW_UPDATES_QUERY_SPACE))
+    @Query(value = "UPDATE parent_cards SET junior_card_count = junior_card_count + :count " +
+            "WHERE id = :parentId AND junior_card_count + :count <= :maxCards", nativeQuery = true)
+    int incrementJuniorCardCount(@Param("parentId") Long parentId,
+                                 @Param("count") int count,
+                                 @Param("maxCards") int maxCards);
+
+    /**
+     * Увеличивает счетчик детских карт сразу у нескольких родителей.
+     * Лимит не проверяется - строки родителей должны быть заранее заблокированы
+     * через {@link #findAllByIdForUpdate(Collection)} и проверены.
+     *
+     * @param parentIds ID родительских карт
+     * @param count на сколько увеличить счетчик
+     * @return количество обновленных родителей
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.SINGLE_ROW_UPDATES_QUERY_SPACE))
+    @Query(value = "UPDATE parent_cards SET junior_card_count = junior_card_count + :count " +
+            "WHERE id IN (:parentIds)", nativeQuery = true)
+    int addJuniorCardCount(@Param("parentIds") Collection<Long> parentIds, @Param("count") int count);
+
+    /**
+     * Атомарно уменьшает счетчик детских карт после удаления карты.
+     *
+     * @param parentId ID родительской карты
+     * @param count на сколько уменьшить счетчик
+     * @return количество обновленных родителей
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.SINGLE_ROW_UPDATES_QUERY_SPACE))
+    @Query(value = "UPDATE parent_cards SET junior_card_count = junior_card_count - :count " +
+            "WHERE id = :parentId AND junior_card_count >= :count", nativeQuery = true)
+    int decrementJuniorCardCount(@Param("parentId") Long parentId, @Param("count") int count);
+
+    /**
+     * Получает родительские карты с пессимистической блокировкой строк.
+     * Строки блокируются по возрастанию ID, чтобы параллельные пакетные операции не приводили к взаимоблокировкам.
+     *
+     * @param parentIds ID родительских карт
+     * @return найденные родительские карты
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM ParentCard p WHERE p.id IN :parentIds ORDER BY p.id")
+    List<ParentCard> findAllByIdForUpdate(@Param("parentIds") Collection<Long> parentIds);
+
+    /**
+     * Получает представление родительской карты по ID (без детских карт).
+     *
+     * @param parentId ID родительской карты
+     * @return представление родительской карты
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.ParentCardDto(p.id, p.name, p.status, p.age, p.cardStatus, p.expiresAt, p.version) " +
+            "FROM ParentCard p WHERE p.id = :parentId")
+    Optional<ParentCardDto> findDtoById(@Param("parentId") Long parentId);
+
+    /**
+     * Получает страницу представлений родительских карт с ID больше заданного (keyset-пагинация).
+     * Детские карты в представления не загружаются.
+     *
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit максимальный размер страницы
+     * @return представления родительских карт, отсортированные по возрастанию ID
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.ParentCardDto(p.id, p.name, p.status, p.age, p.cardStatus, p.expiresAt, p.version) " +
+            "FROM ParentCard p WHERE p.id > :afterId ORDER BY p.id")
+    List<ParentCardDto> findDtoPageAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Потоково читает представления всех родительских карт по возрастанию ID через серверный курсор JDBC.
+     * Должен вызываться внутри транзакции, а Stream - закрываться после использования.
+     *
+     * @return поток представлений родительских карт
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.lum1nar.junior_card.dto.ParentCardDto(p.id, p.name, p.status, p.age, p.cardStatus, p.expiresAt, p.version) " +
+            "FROM ParentCard p ORDER BY p.id")
+    Stream<ParentCardDto> streamAllDtos();
+
+    /**
+     * Получает текущий статус родительской карты.
+     *
+     * @param parentId ID родительской карты
+     * @return статус карты
+     */
+    @Query("SELECT p.cardStatus FROM ParentCard p WHERE p.id = :parentId")
+    Optional<CardStatus> findCardStatusById(@Param("parentId") Long parentId);
+
+    /**
+     * Получает текущий статус и версию родительской карты.
+     *
+     * @param parentId ID родительской карты
+     * @return статус и версия карты
+     */
+    @Query("SELECT new com.lum1nar.junior_card.dto.ParentCardStatusDto(p.id, p.cardStatus, p.version) " +
+            "FROM ParentCard p WHERE p.id = :parentId")
+    Optional<ParentCardStatusDto> findStatusDtoById(@Param("parentId") Long parentId);
+
+    /**
+     * Переводит родительскую карту в новый статус, если ее версия не изменилась с момента чтения.
+     *
+     * @param parentId ID родительской карты
+     * @param version версия, прочитанная вместе со статусом
+     * @param cardStatus новый статус
+     * @return 1 если статус изменен, 0 если карта удалена или изменена параллельно
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.SINGLE_ROW_UPDATES_QUERY_SPACE))
+    @Query(value = "UPDATE parent_cards SET card_status = :#{#cardStatus.name()}, version = version + 1 " +
+            "WHERE id = :parentId AND version = :version", nativeQuery = true)
+    int updateCardStatusIfVersion(@Param("parentId") Long parentId,
+                                  @Param("version") long version,
+                                  @Param("cardStatus") CardStatus cardStatus);
+
+    /**
+     * Получает текущий баланс родительской карты.
+     *
+     * @param parentId ID родительской карты
+     * @return баланс карты
+     */
+    @Query("SELECT p.balance FROM ParentCard p WHERE p.id = :parentId")
+    Optional<BigDecimal> findBalanceById(@Param("parentId") Long parentId);
+
+    /**
+     * Атомарно списывает средства с родительской карты (для пополнения детской),
+     * если карта в нужном статусе и средств достаточно.
+     *
+     * @param parentId ID родительской карты
+     * @param amount сумма списания
+     * @param cardStatus статус, в котором карта должна находиться
+     * @return 1 если средства списаны, 0 если карта не найдена, в другом статусе или средств недостаточно
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.SINGLE_ROW_UPDATES_QUERY_SPACE))
+    @Query(value = "UPDATE parent_cards SET balance = balance - :amount " +
+            "WHERE id = :parentId AND card_status = :#{#cardStatus.name()} AND balance >= :amount", nativeQuery = true)
+    int debitBalance(@Param("parentId") Long parentId,
+                     @Param("amount") BigDecimal amount,
+                     @Param("cardStatus") CardStatus cardStatus);
+
+    /**
+     * Атомарно зачисляет средства на родительскую карту.
+     *
+     * @param parentId ID родительской карты
+     * @param amount сумма зачисления
+     * @param cardStatus статус, в котором карта должна находиться
+     * @return 1 если средства зачислены, 0 если карта не найдена или в другом статусе
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CacheConfig.SINGLE_ROW_UPDATES_QUERY_SPACE))
+    @Query(value = "UPDATE parent_cards SET balance = balance + :amount " +
+            "WHERE id = :parentId AND card_status = :#{#cardStatus.name()}", nativeQuery = true)
+    int creditBalance(@Param("parentId") Long parentId,
+                      @Param("amount") BigDecimal amount,
+                      @Param("cardStatus") CardStatus cardStatus);
+
+    /**
+     * Захватывает порцию истекших активных родительских карт для перевода в EXPIRED.
+     * Строки блокируются до конца транзакции, уже заблокированные другими узлами пропускаются (SKIP LOCKED).
+     * Запрос идет по индексу (card_status, expires_at).
+     *
+     * @param now текущее время
+     * @param limit максимальный размер порции
+     * @return ID захваченных родительских карт
+     */
+    @Query(value = "SELECT id FROM parent_cards " +
+            "WHERE card_status = 'ACTIVE' AND expires_at <= :now " +
+            "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> claimExpiredActiveCardIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Переводит захваченные родительские карты в новый статус, если они все еще в исходном.
+     * Версия обновленных карт увеличивается.
+     *
+     * @param parentIds ID родительских карт
+     * @param fromStatus ожидаемый текущий статус
+     * @param toStatus новый статус
+     * @return количество обновленных карт
+     */
+    @Modifying
+    @Query("UPDATE ParentCard p SET p.cardStatus = :toStatus, p.version = p.version + 1 " +
+            "WHERE p.id IN :parentIds AND p.cardStatus = :fromStatus")
+    int updateCardStatus(@Param("parentIds") Collection<Long> parentIds,
+                         @Param("fromStatus") CardStatus fromStatus,
+                         @Param("toStatus") CardStatus toStatus);
+
+    /**
+     * Получает ID родительских карт из списка, находящихся в заданном статусе.
+     *
+     * @param parentIds ID родительских карт
+     * @param cardStatus статус карты
+     * @return ID карт в этом статусе
+     */
+    @Query("SELECT p.id FROM ParentCard p WHERE p.id IN :parentIds AND p.cardStatus = :cardStatus")
+    List<Long> findIdsByIdInAndCardStatus(@Param("parentIds") Collection<Long> parentIds,
+                                          @Param("cardStatus") CardStatus cardStatus);
+}
@@ -0,0 +1,253 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.dto.CardChangeEventDto;
+import com.lum1nar.junior_card.model.CardChangeEvent;
+import com.lum1nar.junior_card.repository.CardChangeEventRepository;
+import com.lum1nar.junior_card.sharding.ShardContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Лента изменений карт: публикация событий outbox и их чтение потребителями.
+ * <ul>
+ *     <li>публикация - релей назначает неопубликованным событиям смещения по порядку
+ *     под блокировкой строки состояния ленты;</li>
+ *     <li>чтение - только события после смещения потребителя (дельта), по индексу смещений;</li>
+ *     <li>long-poll - если новых событий нет, запрос ждет публикации до заданного времени
+ *     без удержания потока и соединения с БД.</li>
+ * </ul>
+ * Лента ведется в шарде 0; события остальных шардов релей сначала переносит туда
+ * ({@link #forwardPending(int, int)}), и смещения им назначаются там же.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardChangeFeedService {
+
+    /** Максимальное время ожидания новых событий в одном запросе (меньше таймаута асинхронного запроса Tomcat, 30 с) */
+    public static final Duration MAX_WAIT = Duration.ofSeconds(25);
+
+    private final CardChangeEventRepository cardChangeEventRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Ожидающие запросы потребителей, которые уже прочитали ленту до конца */
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    /** Последнее известное этому узлу смещение ленты (обновляется после каждой публикации) */
+    private volatile long lastKnownOffset;
+
+    /**
+     * Получает события ленты после смещения потребителя.
+     *
+     * @param since смещение последнего прочитанного события (0 - с начала ленты)
+     * @param limit размер страницы (ограничивается диапазоном 1..{@value CardService#MAX_PAGE_SIZE})
+     * @return события по возрастанию смещения
+     */
+    @Transactional(readOnly = true)
+    public List<CardChangeEventDto> getChanges(long since, int limit) {
+        log.debug("Получение изменений карт после смещения: {}, размер: {}", since, limit);
+        return cardChangeEventRepository.findPublishedAfter(Math.max(since, 0), pageLimit(limit));
+    }
+
+    /**
+     * Получает события после смещения потребителя, а если их нет - ждет публикации новых событий.
+     * Ожидание не занимает поток: результат завершается релеем при публикации
+     * или пустым списком по истечении времени ожидания.
+     *
+     * @param since смещение последнего прочитанного события
+     * @param limit размер страницы
+     * @param wait время ожидания (ограничивается {@link #MAX_WAIT}; 0 - без ожидания)
+     * @return события по возрастанию смещения (пустой список, если за время ожидания ничего не опубликовано)
+     */
+    public CompletableFuture<List<CardChangeEventDto>> awaitChanges(long since, int limit, Duration wait) {
+        int pageSize = pageLimit(limit).max();
+        List<CardChangeEventDto> changes = getChanges(since, pageSize);
+        if (!changes.isEmpty() || wait.isZero() || wait.isNegative()) {
+            return CompletableFuture.completedFuture(changes);
+        }
+
+        Waiter waiter = new Waiter(Math.max(since, 0), pageSize, new CompletableFuture<>());
+        waiters.add(waiter);
+        waiter.result.whenComplete((result, error) -> waiters.remove(waiter));
+        waiter.result.completeOnTimeout(List.of(), Math.min(wait.toMillis(), MAX_WAIT.toMillis()), TimeUnit.MILLISECONDS);
+        // События могли опубликовать между чтением и регистрацией - тогда релей уже не увидит этот запрос
+        if (lastKnownOffset > waiter.since) {
+            waiter.result.complete(getChanges(waiter.since, pageSize));
+        }
+        return waiter.result;
+    }
+
+    /**
+     * Публикует порцию неопубликованных событий: назначает им смещения по порядку записи.
+     * Строка состояния ленты блокируется до коммита, поэтому смещения непрерывны, а порция
+     * становится видна потребителям целиком и только после всех предыдущих.
+     *
+     * @param batchSize максимальный размер порции
+     * @return опубликованные события по возрастанию смещения
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<CardChangeEventDto> publishPending(int batchSize) {
+        long lastOffset = cardChangeEventRepository.lockLastOffset();
+        List<CardChangeEvent> pending = cardChangeEventRepository.findUnpublished(Limit.of(batchSize));
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+
+        List<CardChangeEventDto> published = new ArrayList<>(pending.size());
+        for (CardChangeEvent event : pending) {
+            event.setFeedOffset(++lastOffset);
+            published.add(new CardChangeEventDto(event.getFeedOffset(), event.getCardType(), event.getCardId(),
+                    event.getParentCardId(), event.getChangeType(), event.getStatus(), event.getOccurredAt()));
+        }
+        cardChangeEventRepository.updateLastOffset(lastOffset);
+        log.debug("Опубликовано {} изменений карт, последнее смещение: {}", published.size(), lastOffset);
+        return published;
+    }
+
+    /**
+     * Переносит порцию неопубликованных событий дополнительного шарда в ленту (шард 0).
+     * Вставка в ленту и удаление из шарда - разные транзакции в разных БД: если удаление не выполнилось,
+     * следующий запуск перенесет те же события снова, и уже перенесенные (по ID) будут пропущены,
+     * поэтому событие попадает в ленту ровно один раз.
+     *
+     * @param shard номер шарда (больше 0)
+     * @param batchSize максимальный размер порции
+     * @return количество перенесенных событий
+     */
+    public int forwardPending(int shard, int batchSize) {
+        List<CardChangeEvent> pending = ShardContext.call(shard, () -> transactionTemplate.execute(status ->
+                cardChangeEventRepository.findUnpublished(Limit.of(batchSize))));
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = pending.stream().map(CardChangeEvent::getId).toList();
+        ShardContext.run(0, () -> transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> forwarded = new HashSet<>(cardChangeEventRepository.findIdsByIdIn(ids));
+            pending.stream()
+                    .filter(event -> !forwarded.contains(event.getId()))
+                    .forEach(cardChangeEventRepository::insertForwarded);
+        }));
+        ShardContext.run(shard, () -> transactionTemplate.executeWithoutResult(status ->
+                cardChangeEventRepository.deleteAllByIdInBatch(ids)));
+        log.debug("Перенесено {} изменений карт из шарда {} в ленту", pending.size(), shard);
+        return pending.size();
+    }
+
+    /**
+     * Будит ожидающие запросы после публикации (вызывается релеем после коммита).
+     * Запросы, чья страница целиком есть среди опубликованных событий, получают ответ из них
+     * без обращения к БД; остальные (например, если часть событий опубликовал другой узел) читают ленту.
+     *
+     * @param published события, опубликованные этим узлом за последний запуск релея, по возрастанию смещения
+     *                  (могут быть пустыми; между порциями возможны пропуски смещений)
+     */
+    public void onPublished(List<CardChangeEventDto> published) {
+        if (published.isEmpty() && waiters.isEmpty()) {
+            return;
+        }
+        long lastOffset = published.isEmpty()
+                ? cardChangeEventRepository.findLastOffset()
+                : published.get(published.size() - 1).offset();
+        if (lastOffset <= lastKnownOffset) {
+            return;
+        }
+        lastKnownOffset = lastOffset;
+
+        Map<Long, List<CardChangeEventDto>> readBySince = new HashMap<>();
+        for (Waiter waiter : waiters) {
+            if (waiter.since >= lastOffset || waiter.result.isDone()) {
+                continue;
+            }
+            List<CardChangeEventDto> page = publishedPage(published, waiter.since, waiter.limit);
+            if (page != null) {
+                waiter.result.complete(page);
+            } else {
+                waiter.result.complete(readBySince.computeIfAbsent(waiter.since,
+                        since -> getChanges(since, CardService.MAX_PAGE_SIZE)).stream().limit(waiter.limit).toList());
+            }
+        }
+    }
+
+    /**
+     * Выбирает страницу после since из опубликованных этим узлом событий.
+     * Релей публикует несколько порций за запуск, и между ними порции могут публиковать другие узлы,
+     * поэтому страница берется из списка, только если ее смещения идут подряд начиная с since + 1.
+     *
+     * @param published опубликованные события по возрастанию смещения
+     * @param since смещение последнего прочитанного события
+     * @param limit размер страницы
+     * @return страница или null, если ее нужно читать из ленты
+     */
+    private static List<CardChangeEventDto> publishedPage(List<CardChangeEventDto> published, long since, int limit) {
+        int from = 0;
+        int high = published.size();
+        while (from < high) {
+            int mid = (from + high) >>> 1;
+            if (published.get(mid).offset() <= since) {
+                from = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (from == published.size() || published.get(from).offset() != since + 1) {
+            return null;
+        }
+        int to = Math.min(published.size(), from + limit);
+        if (published.get(to - 1).offset() - published.get(from).offset() != to - from - 1) {
+            return null;
+        }
+        return List.copyOf(published.subList(from, to));
+    }
+
+    /**
+     * Удаляет опубликованные события старше срока хранения.
+     *
+     * @param retention срок хранения событий
+     * @return количество удаленных событий
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int purgePublishedBefore(Duration retention) {
+        int deleted = cardChangeEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Удалено {} опубликованных изменений карт старше {}", deleted, retention);
+        }
+        return deleted;
+    }
+
+    /**
+     * Количество запросов, ожидающих новых событий.
+     *
+     * @return количество ожидающих запросов
+     */
+    public int waitingCount() {
+        return waiters.size();
+    }
+
+    private static Limit pageLimit(int limit) {
+        return Limit.of(Math.min(Math.max(limit, 1), CardService.MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Запрос потребителя, ожидающий событий после смещения since.
+     */
+    private record Waiter(long since, int limit, CompletableFuture<List<CardChangeEventDto>> result) {
+    }
+}
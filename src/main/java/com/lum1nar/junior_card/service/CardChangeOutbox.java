@@ -0,0 +1,94 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.model.CardChangeEvent;
+import com.lum1nar.junior_card.model.CardChangeType;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.CardType;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись событий изменений карт в outbox (таблица card_change_events).
+ * Вызывается только внутри транзакции изменения карты: событие коммитится или откатывается
+ * вместе с самим изменением. Публикацию событий в ленту выполняет {@link CardChangeRelay}.
+ */
+@Component
+@RequiredArgsConstructor
+public class CardChangeOutbox {
+
+    private final EntityManager entityManager;
+
+    /** Размер пакета JDBC: массовые события сбрасываются в БД пакетами такого размера */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize = 50;
+
+    /**
+     * Записывает событие изменения одной карты.
+     *
+     * @param cardType тип карты
+     * @param cardId ID карты
+     * @param parentCardId ID родительской карты (для детской карты)
+     * @param changeType тип изменения
+     * @param status статус карты после изменения (null для удаления)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(CardType cardType, Long cardId, Long parentCardId, CardChangeType changeType, CardStatus status) {
+        entityManager.persist(event(cardType, cardId, parentCardId, changeType, status, LocalDateTime.now()));
+    }
+
+    /**
+     * Записывает события изменения множества карт (пакетное создание, массовая смена статуса, истечение срока).
+     * События вставляются пакетами JDBC; после каждого пакета они отсоединяются от контекста сохранения,
+     * чтобы массовая операция не накапливала в нем десятки тысяч сущностей. Другие сущности контекста не затрагиваются.
+     *
+     * @param cardType тип карты
+     * @param parentCardIdByCardId ID карт и их родителей (для родительских карт значение - null)
+     * @param changeType тип изменения
+     * @param status статус карт после изменения
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(CardType cardType, Map<Long, Long> parentCardIdByCardId,
+                          CardChangeType changeType, CardStatus status) {
+        LocalDateTime occurredAt = LocalDateTime.now();
+        List<CardChangeEvent> batch = new ArrayList<>(jdbcBatchSize);
+        for (Map.Entry<Long, Long> card : parentCardIdByCardId.entrySet()) {
+            CardChangeEvent event = event(cardType, card.getKey(), card.getValue(), changeType, status, occurredAt);
+            entityManager.persist(event);
+            batch.add(event);
+            if (batch.size() >= jdbcBatchSize) {
+                flushAndDetach(batch);
+            }
+        }
+        flushAndDetach(batch);
+    }
+
+    private void flushAndDetach(List<CardChangeEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        entityManager.flush();
+        batch.forEach(entityManager::detach);
+        batch.clear();
+    }
+
+    private static CardChangeEvent event(CardType cardType, Long cardId, Long parentCardId,
+                                         CardChangeType changeType, CardStatus status, LocalDateTime occurredAt) {
+        return CardChangeEvent.builder()
+                .cardType(cardType)
+                .cardId(cardId)
+                .parentCardId(parentCardId)
+                .changeType(changeType)
+                .status(status)
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.dto.CardChangeEventDto;
+import com.lum1nar.junior_card.sharding.CardShards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Релей outbox: публикует записанные в транзакциях изменения карт в ленту изменений
+ * и будит ожидающие запросы потребителей. Каждая порция публикуется отдельной короткой транзакцией
+ * в {@link CardChangeFeedService}; релеи нескольких узлов публикуют порции по очереди.
+ * При шардировании события дополнительных шардов перед публикацией переносятся в ленту (шард 0).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "card.changes.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class CardChangeRelay {
+
+    private final CardChangeFeedService cardChangeFeedService;
+    private final CardShards cardShards;
+
+    /** Размер порции событий в одной транзакции */
+    @Value("${card.changes.relay.batch-size:500}")
+    private int batchSize = 500;
+
+    /** Максимальное количество порций за один запуск, остальное публикуется следующим запуском */
+    @Value("${card.changes.relay.max-batches-per-run:20}")
+    private int maxBatchesPerRun = 20;
+
+    /** Срок хранения опубликованных событий */
+    @Value("${card.changes.retention:P7D}")
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Переносит события шардов в ленту, публикует неопубликованные события (в пределах лимита порций)
+     * и будит ожидающие запросы.
+     */
+    @Scheduled(fixedDelayString = "${card.changes.relay.fixed-delay:PT0.2S}")
+    public void relay() {
+        for (int shard = 1; shard < cardShards.count(); shard++) {
+            forwardFromShard(shard);
+        }
+        try {
+            List<CardChangeEventDto> published = new ArrayList<>();
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<CardChangeEventDto> events = cardChangeFeedService.publishPending(batchSize);
+                published.addAll(events);
+                if (events.size() < batchSize) {
+                    break;
+                }
+            }
+            cardChangeFeedService.onPublished(published);
+        } catch (RuntimeException e) {
+            log.error("Ошибка публикации изменений карт: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Переносит события дополнительного шарда в ленту (в пределах лимита порций).
+     * Ошибка одного шарда не останавливает публикацию остальных событий.
+     *
+     * @param shard номер шарда
+     */
+    private void forwardFromShard(int shard) {
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                if (cardChangeFeedService.forwardPending(shard, batchSize) < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка переноса изменений карт из шарда {}: {}", shard, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Удаляет опубликованные события старше срока хранения.
+     */
+    @Scheduled(fixedDelayString = "${card.changes.purge-fixed-delay:PT1H}",
+            initialDelayString = "${card.changes.purge-fixed-delay:PT1H}")
+    public void purge() {
+        try {
+            cardChangeFeedService.purgePublishedBefore(retention);
+        } catch (RuntimeException e) {
+            log.error("Ошибка удаления старых изменений карт: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.sharding.CardShards;
+import com.lum1nar.junior_card.sharding.ShardContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Фоновый перевод активных карт с истекшим сроком действия в статус EXPIRED.
+ * Карты обрабатываются порциями, каждая порция - отдельная короткая транзакция в {@link CardService}.
+ * Порции захватываются с SKIP LOCKED, поэтому задачу можно запускать на нескольких узлах одновременно.
+ * При шардировании шарды обрабатываются по очереди.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "card.expiry.enabled", havingValue = "true", matchIfMissing = true)
+public class CardExpiryScheduler {
+
+    private final CardService cardService;
+    private final CardShards cardShards;
+
+    /** Размер порции карт в одной транзакции */
+    @Value("${card.expiry.batch-size:500}")
+    private int batchSize = 500;
+
+    /** Максимальное количество порций за один запуск, остальное дообрабатывается следующим запуском */
+    @Value("${card.expiry.max-batches-per-run:100}")
+    private int maxBatchesPerRun = 100;
+
+    /**
+     * Переводит в EXPIRED все истекшие детские и родительские карты (в пределах лимита порций).
+     */
+    @Scheduled(fixedDelayString = "${card.expiry.fixed-delay:PT1M}",
+            initialDelayString = "${card.expiry.initial-delay:PT1M}")
+    public void expireDueCards() {
+        for (int shard = 0; shard < cardShards.count(); shard++) {
+            int currentShard = shard;
+            ShardContext.run(shard, () -> expireDueCardsInShard(currentShard));
+        }
+    }
+
+    /**
+     * Переводит в EXPIRED истекшие карты текущего шарда; ошибка в одном шарде не останавливает остальные.
+     *
+     * @param shard номер шарда (для журнала)
+     */
+    private void expireDueCardsInShard(int shard) {
+        try {
+            int juniorCount = expireInBatches(cardService::expireDueJuniorCards);
+            int parentCount = expireInBatches(cardService::expireDueParentCards);
+            if (juniorCount + parentCount > 0) {
+                log.info("Перевод истекших карт завершен (шард {}): детских {}, родительских {}",
+                        shard, juniorCount, parentCount);
+            }
+        } catch (RuntimeException e) {
+            log.error("Ошибка при переводе истекших карт в EXPIRED (шард {}): {}", shard, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Обрабатывает порции, пока очередная порция не окажется неполной.
+     *
+     * @param expireBatch обработка одной порции: размер порции -> количество обработанных карт
+     * @return общее количество обработанных карт
+     */
+    private int expireInBatches(IntUnaryOperator expireBatch) {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int expired = expireBatch.applyAsInt(batchSize);
+            total += expired;
+            if (expired < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,289 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.dto.AmountDto;
+import com.lum1nar.junior_card.dto.CardBalanceDto;
+import com.lum1nar.junior_card.dto.CardTransactionDto;
+import com.lum1nar.junior_card.exception.ApplicationException;
+import com.lum1nar.junior_card.exception.CardNotFoundException;
+import com.lum1nar.junior_card.exception.InsufficientFundsException;
+import com.lum1nar.junior_card.exception.SuspiciousTransactionException;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.CardTransaction;
+import com.lum1nar.junior_card.model.CardTransactionType;
+import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.repository.CardRepository;
+import com.lum1nar.junior_card.repository.CardTransactionRepository;
+import com.lum1nar.junior_card.repository.ParentCardRepository;
+import com.lum1nar.junior_card.sharding.ShardKey;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+/**
+ * Сервис движения средств по картам: списания и зачисления по детским картам,
+ * пополнение детской карты с родительской и зачисление на родительскую карту.
+ * <p>
+ * Каждая операция - один короткий транзакционный шаг: условный UPDATE баланса
+ * (проверка статуса и остатка в том же запросе, блокируется только строка карты)
+ * и INSERT записи в журнал операций. Блокировок уровня таблицы нет.
+ * <p>
+ * Перед транзакцией берется блокировка из набора блокировок по ID карты (lock striping):
+ * параллельные операции по одной карте ждут в JVM, не удерживая соединение из пула
+ * и не выстраиваясь в очередь на блокировку строки в БД. Операции по разным картам
+ * выполняются параллельно. Корректность между несколькими экземплярами приложения
+ * обеспечивают условные UPDATE.
+ * <p>
+ * Операция выполняется в шарде карты: детская карта, ее родитель и журнал их операций хранятся в одном шарде.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardLedgerService {
+
+    /** Количество блокировок в наборе для каждого типа карт */
+    private static final int LOCK_STRIPES = 1024;
+
+    /** Максимальный размер страницы истории операций */
+    private static final int MAX_HISTORY_PAGE_SIZE = 1000;
+
+    /** Статус, в котором по карте разрешено движение средств */
+    private static final CardStatus OPERABLE_STATUS = CardStatus.ACTIVE;
+
+    private final CardRepository cardRepository;
+    private final ParentCardRepository parentCardRepository;
+    private final CardTransactionRepository cardTransactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final FraudScoringStage fraudScoringStage;
+    private final SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+
+    private final StripedLocks juniorCardLocks = new StripedLocks(LOCK_STRIPES);
+    private final StripedLocks parentCardLocks = new StripedLocks(LOCK_STRIPES);
+
+    // ========== ДЕТСКИЕ КАРТЫ ==========
+
+    /**
+     * Списывает средства с детской карты (авторизация оплаты).
+     *
+     * @param cardId ID детской карты
+     * @param amountDto сумма и описание операции
+     * @return запись журнала о списании
+     * @throws CardNotFoundException если карта не найдена
+     * @throws ApplicationException если карта не активна
+     * @throws InsufficientFundsException если на карте недостаточно средств
+     * @throws SuspiciousTransactionException если списание отклонено проверкой на подозрительность
+     */
+    public CardTransactionDto debitJuniorCard(@ShardKey Long cardId, AmountDto amountDto) {
+        log.debug("Списание {} с детской карты с ID: {}", amountDto.getAmount(), cardId);
+        long amountCents = amountDto.getAmount().movePointRight(2).longValueExact();
+        return withLock(juniorCardLocks.get(cardId), () -> {
+            // Проверка на подозрительность - в памяти, до открытия транзакции
+            fraudScoringStage.score(cardId, amountCents, System.currentTimeMillis());
+            CardTransactionDto transaction = transactionTemplate.execute(status -> {
+                if (cardRepository.debitBalance(cardId, amountDto.getAmount(), OPERABLE_STATUS) == 0) {
+                    throw juniorCardOperationRejected(cardId, true);
+                }
+                secondLevelCacheInvalidator.invalidate(JuniorCard.class, cardId);
+                return record(cardId, null, CardTransactionType.DEBIT, amountDto, juniorCardBalance(cardId));
+            });
+            fraudScoringStage.recordApproved(cardId, amountCents, System.currentTimeMillis());
+            return transaction;
+        });
+    }
+
+    /**
+     * Зачисляет средства на детскую карту (возврат оплаты, начисление).
+     *
+     * @param cardId ID детской карты
+     * @param amountDto сумма и описание операции
+     * @return запись журнала о зачислении
+     * @throws CardNotFoundException если карта не найдена
+     * @throws ApplicationException если карта не активна
+     */
+    public CardTransactionDto creditJuniorCard(@ShardKey Long cardId, AmountDto amountDto) {
+        log.debug("Зачисление {} на детскую карту с ID: {}", amountDto.getAmount(), cardId);
+        return withLock(juniorCardLocks.get(cardId), () -> transactionTemplate.execute(status -> {
+            if (cardRepository.creditBalance(cardId, amountDto.getAmount(), OPERABLE_STATUS) == 0) {
+                throw juniorCardOperationRejected(cardId, false);
+            }
+            secondLevelCacheInvalidator.invalidate(JuniorCard.class, cardId);
+            return record(cardId, null, CardTransactionType.CREDIT, amountDto, juniorCardBalance(cardId));
+        }));
+    }
+
+    /**
+     * Пополняет детскую карту с баланса ее родительской карты.
+     * Блокировки берутся всегда в порядке "родитель, затем ребенок" (и в JVM, и строки в БД),
+     * поэтому параллельные пополнения не приводят к взаимоблокировкам.
+     *
+     * @param cardId ID детской карты
+     * @param amountDto сумма и описание операции
+     * @return запись журнала о пополнении (баланс после операции - баланс детской карты)
+     * @throws CardNotFoundException если детская карта не найдена
+     * @throws ApplicationException если одна из карт не активна
+     * @throws InsufficientFundsException если на родительской карте недостаточно средств
+     */
+    public CardTransactionDto topUpJuniorCard(@ShardKey Long cardId, AmountDto amountDto) {
+        Long parentId = cardRepository.findParentCardIdById(cardId)
+                .orElseThrow(() -> new CardNotFoundException(cardId));
+        log.debug("Пополнение детской карты с ID: {} на {} с родительской карты с ID: {}",
+                cardId, amountDto.getAmount(), parentId);
+
+        return withLock(parentCardLocks.get(parentId), () -> withLock(juniorCardLocks.get(cardId), () ->
+                transactionTemplate.execute(status -> {
+                    if (parentCardRepository.debitBalance(parentId, amountDto.getAmount(), OPERABLE_STATUS) == 0) {
+                        throw parentCardOperationRejected(parentId, true);
+                    }
+                    // Исключение откатывает и списание с родительской карты
+                    if (cardRepository.creditBalance(cardId, amountDto.getAmount(), OPERABLE_STATUS) == 0) {
+                        throw juniorCardOperationRejected(cardId, false);
+                    }
+                    secondLevelCacheInvalidator.invalidate(ParentCard.class, parentId);
+                    secondLevelCacheInvalidator.invalidate(JuniorCard.class, cardId);
+                    return record(cardId, parentId, CardTransactionType.TOP_UP, amountDto, juniorCardBalance(cardId));
+                })));
+    }
+
+    /**
+     * Получает текущий баланс детской карты (всегда из БД, без кэша).
+     *
+     * @param cardId ID детской карты
+     * @return баланс карты
+     * @throws CardNotFoundException если карта не найдена
+     */
+    @Transactional(readOnly = true)
+    public CardBalanceDto getJuniorCardBalance(@ShardKey Long cardId) {
+        return new CardBalanceDto(cardId, juniorCardBalance(cardId));
+    }
+
+    /**
+     * Получает страницу истории операций детской карты от новых к старым (keyset-пагинация).
+     *
+     * @param cardId ID детской карты
+     * @param beforeId ID последней операции предыдущей страницы (null или не положительный - первая страница)
+     * @param limit размер страницы (ограничивается сверху)
+     * @return операции, отсортированные по убыванию ID
+     * @throws CardNotFoundException если карта не найдена
+     */
+    @Transactional(readOnly = true)
+    public List<CardTransactionDto> getJuniorCardTransactions(@ShardKey Long cardId, Long beforeId, int limit) {
+        if (!cardRepository.existsById(cardId)) {
+            throw new CardNotFoundException(cardId);
+        }
+        long cursor = beforeId == null || beforeId <= 0 ? Long.MAX_VALUE : beforeId;
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        return cardTransactionRepository.findJuniorCardPageBefore(cardId, cursor, Limit.of(pageSize));
+    }
+
+    // ========== РОДИТЕЛЬСКИЕ КАРТЫ ==========
+
+    /**
+     * Зачисляет средства на родительскую карту.
+     *
+     * @param parentId ID родительской карты
+     * @param amountDto сумма и описание операции
+     * @return запись журнала о зачислении
+     * @throws CardNotFoundException если карта не найдена
+     * @throws ApplicationException если карта не активна
+     */
+    public CardTransactionDto depositParentCard(@ShardKey Long parentId, AmountDto amountDto) {
+        log.debug("Зачисление {} на родительскую карту с ID: {}", amountDto.getAmount(), parentId);
+        return withLock(parentCardLocks.get(parentId), () -> transactionTemplate.execute(status -> {
+            if (parentCardRepository.creditBalance(parentId, amountDto.getAmount(), OPERABLE_STATUS) == 0) {
+                throw parentCardOperationRejected(parentId, false);
+            }
+            secondLevelCacheInvalidator.invalidate(ParentCard.class, parentId);
+            BigDecimal balance = parentCardRepository.findBalanceById(parentId).orElseThrow();
+            return record(null, parentId, CardTransactionType.DEPOSIT, amountDto, balance);
+        }));
+    }
+
+    /**
+     * Получает текущий баланс родительской карты (всегда из БД, без кэша).
+     *
+     * @param parentId ID родительской карты
+     * @return баланс карты
+     * @throws CardNotFoundException если карта не найдена
+     */
+    @Transactional(readOnly = true)
+    public CardBalanceDto getParentCardBalance(@ShardKey Long parentId) {
+        return new CardBalanceDto(parentId, parentCardRepository.findBalanceById(parentId)
+                .orElseThrow(() -> new CardNotFoundException(parentId)));
+    }
+
+    // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
+
+    /**
+     * Выполняет действие под блокировкой.
+     */
+    private static <T> T withLock(Lock lock, Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Добавляет запись в журнал операций.
+     */
+    private CardTransactionDto record(Long juniorCardId, Long parentCardId, CardTransactionType type,
+                                      AmountDto amountDto, BigDecimal balanceAfter) {
+        CardTransaction transaction = cardTransactionRepository.save(CardTransaction.builder()
+                .juniorCardId(juniorCardId)
+                .parentCardId(parentCardId)
+                .type(type)
+                .amount(amountDto.getAmount())
+                .balanceAfter(balanceAfter)
+                .description(amountDto.getDescription())
+                .createdAt(LocalDateTime.now())
+                .build());
+        return new CardTransactionDto(transaction.getId(), type, transaction.getAmount(), balanceAfter,
+                transaction.getDescription(), transaction.getCreatedAt());
+    }
+
+    private BigDecimal juniorCardBalance(Long cardId) {
+        return cardRepository.findBalanceById(cardId).orElseThrow(() -> new CardNotFoundException(cardId));
+    }
+
+    /**
+     * Определяет причину, по которой условный UPDATE детской карты не изменил строку.
+     *
+     * @param cardId ID детской карты
+     * @param debit была ли операция списанием (тогда возможна нехватка средств)
+     * @return исключение для клиента
+     */
+    private ApplicationException juniorCardOperationRejected(Long cardId, boolean debit) {
+        return operationRejected(cardId, cardRepository.findStatusById(cardId), debit);
+    }
+
+    private ApplicationException parentCardOperationRejected(Long parentId, boolean debit) {
+        return operationRejected(parentId, parentCardRepository.findCardStatusById(parentId), debit);
+    }
+
+    private static ApplicationException operationRejected(Long cardId, Optional<CardStatus> cardStatus, boolean debit) {
+        if (cardStatus.isEmpty()) {
+            return new CardNotFoundException(cardId);
+        }
+        if (cardStatus.get() != OPERABLE_STATUS) {
+            return new ApplicationException(
+                    "Операции по карте с ID " + cardId + " недоступны в статусе " + cardStatus.get(),
+                    "CARD_NOT_ACTIVE");
+        }
+        if (debit) {
+            return new InsufficientFundsException(cardId);
+        }
+        return new ApplicationException("Операция по карте с ID " + cardId + " отклонена", "OPERATION_REJECTED");
+    }
+}
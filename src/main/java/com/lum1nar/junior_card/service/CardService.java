@@ -1,24 +1,53 @@
 package com.lum1nar.junior_card.service;
 
+import com.lum1nar.junior_card.config.CacheConfig;
 import com.lum1nar.junior_card.dto.*;
 import com.lum1nar.junior_card.exception.AccountLimitCards;
 import com.lum1nar.junior_card.exception.ApplicationException;
 import com.lum1nar.junior_card.exception.CardNotFoundException;
+import com.lum1nar.junior_card.exception.ConcurrentCardUpdateException;
+import com.lum1nar.junior_card.exception.InvalidStatusTransitionException;
+import com.lum1nar.junior_card.exception.PreconditionFailedException;
 import com.lum1nar.junior_card.model.*;
 import com.lum1nar.junior_card.repository.CardRepository;
 import com.lum1nar.junior_card.repository.ParentCardRepository;
+import com.lum1nar.junior_card.sharding.CardShards;
+import com.lum1nar.junior_card.sharding.NewShardKey;
+import com.lum1nar.junior_card.sharding.ShardKey;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.annotation.Isolation;
 
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Сервис для управления детскими и родительскими картами.
  * Содержит бизнес-логику создания, обновления, удаления карт и изменения их статусов.
+ * Каждое изменение карты записывает событие в outbox ({@link CardChangeOutbox}) в той же транзакции.
+ * При шардировании методы выполняются в шарде карт из параметра {@link ShardKey},
+ * а общие списки собираются из всех шардов ({@link CardShards}).
  */
 @Slf4j
 @Service
@@ -27,16 +56,44 @@ public class CardService {
 
     private final CardRepository cardRepository;
     private final ParentCardRepository parentCardRepository;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+    private final CardStatusTransitions statusTransitions;
+    private final CardChangeOutbox cardChangeOutbox;
+    private final CardShards cardShards;
 
 
     /** Максимальное количество детских карт на одного родителя */
     private static final int MAX_CARDS_PER_PARENT = 3;
 
+    /** Максимальный размер страницы при постраничном получении карт */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /** Максимальное количество параметров в одном IN-списке запроса */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    /** Количество родителей, для которых детские карты догружаются одним запросом при потоковой выдаче */
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    /** Размер пакета JDBC: после каждого пакета контекст сохранения сбрасывается и очищается */
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize = 50;
+
+    /** Срок действия новой карты */
+    @Value("${card.expiry.validity:P3Y}")
+    private Period cardValidity = Period.ofYears(3);
+
+    /** Количество попыток смены статуса при параллельных изменениях карты */
+    @Value("${card.status.update-attempts:3}")
+    private int statusUpdateAttempts = 3;
+
     // ========== ДЕТСКИЕ КАРТЫ (JUNIOR CARD CRUD) ==========
 
     /**
      * Создает новую детскую карту для родителя.
-     * Проверяет существование родителя и лимит на количество карт.
+     * Лимит на количество карт проверяется атомарно вместе с увеличением счетчика карт родителя,
+     * поэтому на успешном пути выполняются только UPDATE счетчика и INSERT карты.
      *
      * @param createCardDto данные для создания карты (имя, возраст, ID родителя)
      * @return созданная детская карта
@@ -47,145 +104,371 @@ public class CardService {
             rollbackFor = Exception.class,
             isolation = Isolation.READ_COMMITTED
     )
-    public JuniorCard createJuniorCard(CreateCardDto createCardDto) {
-        log.info("Попытка создания детской карты для родителя с ID: {}", createCardDto.getParentCardId());
+    public JuniorCard createJuniorCard(@ShardKey CreateCardDto createCardDto) {
+        Long parentId = createCardDto.getParentCardId();
+        log.debug("Попытка создания детской карты для родителя с ID: {}", parentId);
 
-        // Проверяем существование родительской карты
-        ParentCard parentCard = parentCardRepository.findById(createCardDto.getParentCardId())
-                .orElseThrow(() -> {
-                    log.error("Родительская карта не найдена с ID: {}", createCardDto.getParentCardId());
-                    return new CardNotFoundException(createCardDto.getParentCardId());
-                });
-
-        // Подсчитываем текущее количество детских карт у родителя
-        long currentCardCount = cardRepository.countByParentCard_Id(createCardDto.getParentCardId());
-        log.debug("Текущее количество карт у родителя {}: {}", createCardDto.getParentCardId(), currentCardCount);
-
-        // Проверяем не превышен ли лимит
-        if (currentCardCount >= MAX_CARDS_PER_PARENT) {
-            List<JuniorCard> existingCards = cardRepository.findByParentCard_Id(createCardDto.getParentCardId());
-            log.warn("Превышен лимит карт для родителя {}. Текущее количество: {}",
-                    createCardDto.getParentCardId(), currentCardCount);
-            throw new AccountLimitCards(
-                    String.format("У родителя может быть максимум %d карт. Текущее количество: %d",
-                            MAX_CARDS_PER_PARENT, currentCardCount),
-                    "ACCOUNT_LIMIT_EXCEEDED",
-                    existingCards
-            );
+        // Атомарно резервируем место под карту: один UPDATE и проверяет лимит, и увеличивает счетчик
+        if (parentCardRepository.incrementJuniorCardCount(parentId, 1, MAX_CARDS_PER_PARENT) == 0) {
+            throw cardLimitViolation(parentId, 1);
         }
+        secondLevelCacheInvalidator.invalidate(ParentCard.class, parentId);
 
-        // Создаем новую детскую карту
+        // Создаем новую детскую карту (ссылка на родителя без дополнительного SELECT)
         JuniorCard newCard = JuniorCard.builder()
                 .name(createCardDto.getName())
-                .parentCard(parentCard)
+                .parentCard(parentCardRepository.getReferenceById(parentId))
                 .childAge(createCardDto.getChildAge())
                 .status(CardStatus.PENDING)
+                .expiresAt(LocalDateTime.now().plus(cardValidity))
                 .build();
 
         JuniorCard savedCard = cardRepository.save(newCard);
-        log.info("Детская карта успешно создана с ID: {}, имя: {}", savedCard.getId(), savedCard.getName());
+        cardChangeOutbox.record(CardType.JUNIOR, savedCard.getId(), parentId, CardChangeType.CREATED, savedCard.getStatus());
+        evictParentCardCache(parentId);
+        log.debug("Детская карта успешно создана с ID: {}, имя: {}", savedCard.getId(), savedCard.getName());
 
         return savedCard;
     }
 
     /**
-     * Получает все детские карты.
+     * Пакетно создает детские карты (например, при загрузке файла от школы-партнера).
+     * Строки родителей блокируются групповыми запросами, счетчики карт увеличиваются групповыми UPDATE,
+     * а вставка выполняется пакетами JDBC размером {@code hibernate.jdbc.batch_size}.
+     * Лимит карт проверяется для каждого родителя с учетом всех карт пакета;
+     * при любой ошибке не создается ни одна карта. При шардировании все родители пакета
+     * должны быть в одном шарде (иначе ошибка CROSS_SHARD_REQUEST).
+     *
+     * @param createCardDtos данные для создания карт
+     * @return ID созданных карт в порядке следования в запросе
+     * @throws CardNotFoundException если какой-либо родитель не найден
+     * @throws AccountLimitCards если у какого-либо родителя будет превышен лимит карт
+     */
+    @Transactional(
+            rollbackFor = Exception.class,
+            isolation = Isolation.READ_COMMITTED
+    )
+    public List<Long> createJuniorCards(@ShardKey List<CreateCardDto> createCardDtos) {
+        log.debug("Попытка пакетного создания {} детских карт", createCardDtos.size());
+
+        // Сколько карт запрошено для каждого родителя
+        Map<Long, Long> requestedCounts = createCardDtos.stream()
+                .collect(Collectors.groupingBy(CreateCardDto::getParentCardId, LinkedHashMap::new, Collectors.counting()));
+        List<Long> parentIds = new ArrayList<>(requestedCounts.keySet());
+
+        // Блокируем строки всех родителей пакета и проверяем их существование и лимит
+        Map<Long, ParentCard> parentCards = new LinkedHashMap<>();
+        for (List<Long> idsChunk : partition(parentIds, MAX_IN_CLAUSE_SIZE)) {
+            parentCardRepository.findAllByIdForUpdate(idsChunk)
+                    .forEach(parentCard -> parentCards.put(parentCard.getId(), parentCard));
+        }
+
+        Map<Integer, List<Long>> parentIdsByRequestedCount = new LinkedHashMap<>();
+        for (Map.Entry<Long, Long> requested : requestedCounts.entrySet()) {
+            Long parentId = requested.getKey();
+            ParentCard parentCard = parentCards.get(parentId);
+            if (parentCard == null) {
+                log.debug("Родительская карта не найдена с ID: {}", parentId);
+                throw new CardNotFoundException(parentId);
+            }
+
+            int requestedCount = requested.getValue().intValue();
+            if (parentCard.getJuniorCardCount() + requestedCount > MAX_CARDS_PER_PARENT) {
+                throw cardLimitViolation(parentId, requestedCount);
+            }
+            parentIdsByRequestedCount.computeIfAbsent(requestedCount, count -> new ArrayList<>()).add(parentId);
+        }
+
+        // Увеличиваем счетчики одним UPDATE на каждую группу родителей с одинаковым числом новых карт
+        parentIdsByRequestedCount.forEach((requestedCount, ids) ->
+                partition(ids, MAX_IN_CLAUSE_SIZE)
+                        .forEach(idsChunk -> parentCardRepository.addJuniorCardCount(idsChunk, requestedCount)));
+        parentIds.forEach(parentId -> secondLevelCacheInvalidator.invalidate(ParentCard.class, parentId));
+
+        // Вставляем карты пакетами JDBC
+        List<Long> createdIds = new ArrayList<>(createCardDtos.size());
+        List<JuniorCard> batch = new ArrayList<>(jdbcBatchSize);
+        LocalDateTime expiresAt = LocalDateTime.now().plus(cardValidity);
+        for (CreateCardDto createCardDto : createCardDtos) {
+            batch.add(JuniorCard.builder()
+                    .name(createCardDto.getName())
+                    .parentCard(parentCards.get(createCardDto.getParentCardId()))
+                    .childAge(createCardDto.getChildAge())
+                    .status(CardStatus.PENDING)
+                    .expiresAt(expiresAt)
+                    .build());
+            if (batch.size() >= jdbcBatchSize) {
+                flushBatch(batch, createdIds);
+            }
+        }
+        flushBatch(batch, createdIds);
+
+        Map<Long, Long> parentIdByCardId = new LinkedHashMap<>();
+        for (int i = 0; i < createdIds.size(); i++) {
+            parentIdByCardId.put(createdIds.get(i), createCardDtos.get(i).getParentCardId());
+        }
+        cardChangeOutbox.recordAll(CardType.JUNIOR, parentIdByCardId, CardChangeType.CREATED, CardStatus.PENDING);
+        parentIds.forEach(this::evictParentCardCache);
+
+        log.info("Пакетно создано {} детских карт для {} родителей", createdIds.size(), parentIds.size());
+        return createdIds;
+    }
+
+    /**
+     * Получает страницу детских карт (keyset-пагинация по ID).
+     *
+     * @param afterId ID последней карты предыдущей страницы (null или 0 для первой страницы)
+     * @param limit размер страницы (ограничивается диапазоном 1..{@value #MAX_PAGE_SIZE})
+     * @return представления детских карт с ID больше afterId, отсортированные по возрастанию ID
+     */
+    @Transactional(readOnly = true)
+    public List<JuniorCardDto> getJuniorCardsPage(Long afterId, int limit) {
+        log.debug("Получение страницы детских карт после ID: {}, размер: {}", afterId, limit);
+        Long cursor = normalizeCursor(afterId);
+        Limit pageSize = normalizePageSize(limit);
+        return cardShards.collectPage(cursor, pageSize.max(), () -> cardRepository.findDtoPageAfter(cursor, pageSize));
+    }
+
+    /**
+     * Ищет детские карты по фильтрам (статусы, возраст, родитель, начало имени, статус родителя).
+     * Фильтры собираются в один параметризованный запрос, постранично по возрастанию ID.
+     * Поиск по родительской карте выполняется только в ее шарде, остальные - во всех шардах.
+     *
+     * @param filter фильтры поиска
+     * @param afterId ID последней карты предыдущей страницы (0 для первой страницы)
+     * @param limit размер страницы (ограничивается диапазоном 1..{@value #MAX_PAGE_SIZE})
+     * @return представления найденных карт с ID больше afterId, отсортированные по возрастанию ID
+     */
+    @Transactional(readOnly = true)
+    public List<JuniorCardDto> searchJuniorCards(@ShardKey JuniorCardSearchDto filter, Long afterId, int limit) {
+        log.debug("Поиск детских карт по фильтру: {}, после ID: {}, размер: {}", filter, afterId, limit);
+        Long cursor = normalizeCursor(afterId);
+        Limit pageSize = normalizePageSize(limit);
+        if (filter.getParentCardId() != null) {
+            // Карты одного родителя - в его шарде, транзакция уже открыта в нем
+            return cardRepository.searchDtos(filter, cursor, pageSize);
+        }
+        return cardShards.collectPage(cursor, pageSize.max(), () -> cardRepository.searchDtos(filter, cursor, pageSize));
+    }
+
+    /**
+     * Потоково передает все детские карты обработчику.
+     * Карты читаются через серверный курсор в виде представлений, которые не попадают
+     * в контекст сохранения, поэтому потребление памяти не зависит от размера таблицы.
      *
-     * @return список всех детских карт
+     * @param consumer обработчик, вызываемый для каждой карты по возрастанию ID
      */
-    public List<JuniorCard> getAllJuniorCards() {
-        log.debug("Получение всех детских карт");
-        return cardRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamAllJuniorCards(Consumer<JuniorCardDto> consumer) {
+        log.debug("Потоковое получение всех детских карт");
+        cardShards.forEach(() -> {
+            try (Stream<JuniorCardDto> cards = cardRepository.streamAllDtos()) {
+                cards.forEach(consumer);
+            }
+        });
     }
 
     /**
      * Получает детскую карту по ID.
+     * Результат кэшируется и инвалидируется при изменении или удалении карты.
      *
      * @param cardId ID карты
-     * @return найденная детская карта
+     * @return представление найденной детской карты
      * @throws CardNotFoundException если карта не найдена
      */
-    public JuniorCard getJuniorCardById(Long cardId) {
+    @Cacheable(cacheNames = CacheConfig.JUNIOR_CARDS_CACHE, key = "#cardId")
+    @Transactional(readOnly = true)
+    public JuniorCardDto getJuniorCardById(@ShardKey Long cardId) {
         log.debug("Получение детской карты с ID: {}", cardId);
-        return cardRepository.findById(cardId)
+        return cardRepository.findDtoById(cardId)
                 .orElseThrow(() -> {
-                    log.error("Детская карта не найдена с ID: {}", cardId);
+                    log.debug("Детская карта не найдена с ID: {}", cardId);
                     return new CardNotFoundException(cardId);
                 });
     }
 
     /**
      * Обновляет данные детской карты (имя и возраст).
+     * Изменения записываются механизмом dirty checking при коммите: UPDATE содержит только измененные
+     * колонки, а если данные совпали с текущими, SQL не выполняется и кэш не сбрасывается.
+     * Параллельные изменения не перезаписывают друг друга: UPDATE выполняется с проверкой версии,
+     * и проигравшая транзакция завершается ошибкой оптимистической блокировки.
      *
      * @param cardId ID карты для обновления
      * @param updateCardDto новые данные (имя, возраст)
-     * @return обновленная детская карта
+     * @param expectedVersion версия, которую видел клиент (null - без проверки)
+     * @return детская карта и признак того, что данные изменились
      * @throws CardNotFoundException если карта не найдена
+     * @throws PreconditionFailedException если версия карты не совпадает с ожидаемой
      */
     @Transactional
-    public JuniorCard updateJuniorCard(Long cardId, UpdateCardDto updateCardDto) {
-        log.info("Обновление детской карты с ID: {}", cardId);
+    public CardUpdateResultDto<JuniorCard> updateJuniorCard(@ShardKey Long cardId, UpdateCardDto updateCardDto,
+                                                            Long expectedVersion) {
+        log.debug("Обновление детской карты с ID: {}", cardId);
 
         JuniorCard card = cardRepository.findById(cardId)
                 .orElseThrow(() -> {
-                    log.error("Детская карта не найдена с ID: {}", cardId);
+                    log.debug("Детская карта не найдена с ID: {}", cardId);
                     return new CardNotFoundException(cardId);
                 });
+        checkVersion(cardId, card.getVersion(), expectedVersion);
+
+        boolean modified = false;
 
         // Обновляем имя если оно передано и отличается от текущего
         if (updateCardDto.getName() != null && !updateCardDto.getName().equals(card.getName())) {
             log.debug("Обновление имени карты {} с '{}' на '{}'", cardId, card.getName(), updateCardDto.getName());
             card.setName(updateCardDto.getName());
+            modified = true;
         }
 
         // Обновляем возраст если он передан и отличается от текущего
         if (updateCardDto.getAge() != null && !updateCardDto.getAge().equals(card.getChildAge())) {
             log.debug("Обновление возраста карты {} с '{}' на '{}'", cardId, card.getChildAge(), updateCardDto.getAge());
             card.setChildAge(updateCardDto.getAge());
+            modified = true;
+        }
+
+        if (!modified) {
+            log.debug("Данные детской карты {} не изменились", cardId);
+            return new CardUpdateResultDto<>(card, false);
         }
 
-        JuniorCard updatedCard = cardRepository.save(card);
-        log.info("Детская карта {} успешно обновлена", cardId);
+        cardChangeOutbox.record(CardType.JUNIOR, cardId, card.getParentCard().getId(),
+                CardChangeType.UPDATED, card.getStatus());
+        evictJuniorCardCache(cardId);
+        evictParentCardCache(card.getParentCard().getId());
+        log.debug("Детская карта {} успешно обновлена", cardId);
 
-        return updatedCard;
+        return new CardUpdateResultDto<>(card, true);
     }
 
     /**
      * Изменяет статус детской карты.
-     * Проверяет валидность перехода статуса перед изменением.
+     * Статус и версия читаются без блокировки, а переход выполняется условным UPDATE по версии.
+     * Если карту параллельно изменили, чтение и проверка перехода повторяются
+     * (до {@code card.status.update-attempts} раз) - писатели не выстраиваются в очередь на блокировку.
      *
      * @param cardId ID карты
      * @param changeStatusDto новый статус
+     * @param expectedVersion версия, которую видел клиент (null - без проверки; тогда параллельные
+     *                        изменения разрешаются повторными попытками)
      * @return карта с обновленным статусом
      * @throws CardNotFoundException если карта не найдена
-     * @throws ApplicationException если переход статуса невалидный
+     * @throws InvalidStatusTransitionException если переход статуса невалидный
+     * @throws PreconditionFailedException если версия карты не совпадает с ожидаемой
+     * @throws ConcurrentCardUpdateException если исчерпаны попытки из-за параллельных изменений
      */
     @Transactional
-    public JuniorCard changeJuniorStatus(Long cardId, ChangeStatusDto changeStatusDto) {
-        log.info("Изменение статуса детской карты с ID: {} на статус: {}", cardId, changeStatusDto.getStatus());
-
-        JuniorCard card = cardRepository.findById(cardId)
-                .orElseThrow(() -> {
-                    log.error("Детская карта не найдена с ID: {}", cardId);
-                    return new CardNotFoundException(cardId);
-                });
-
-        CardStatus oldStatus = card.getStatus();
+    @CacheEvict(cacheNames = CacheConfig.JUNIOR_CARDS_CACHE, key = "#cardId")
+    public JuniorCard changeJuniorStatus(@ShardKey Long cardId, ChangeStatusDto changeStatusDto, Long expectedVersion) {
         CardStatus newStatus = changeStatusDto.getStatus();
-
-        // Проверяем валидность перехода статуса
-        if (!isValidStatusTransition(oldStatus, newStatus)) {
-            log.error("Невалидный переход статуса для карты {}: {} -> {}", cardId, oldStatus, newStatus);
-            throw new ApplicationException(
-                    "Невозможно изменить статус с " + oldStatus + " на " + newStatus,
-                    "INVALID_STATUS_TRANSITION");
+        log.debug("Изменение статуса детской карты с ID: {} на статус: {}", cardId, newStatus);
+
+        for (int attempt = 1; ; attempt++) {
+            JuniorCardStatusDto card = cardRepository.findStatusDtoById(cardId)
+                    .orElseThrow(() -> {
+                        log.debug("Детская карта не найдена с ID: {}", cardId);
+                        return new CardNotFoundException(cardId);
+                    });
+            checkVersion(cardId, card.version(), expectedVersion);
+
+            // Проверяем валидность перехода статуса
+            CardStatus oldStatus = card.status();
+            statusTransitions.check(CardType.JUNIOR, oldStatus, newStatus);
+
+            if (cardRepository.updateStatusIfVersion(cardId, card.version(), newStatus) == 1) {
+                cardChangeOutbox.record(CardType.JUNIOR, cardId, card.parentCardId(),
+                        CardChangeType.STATUS_CHANGED, newStatus);
+                secondLevelCacheInvalidator.invalidate(JuniorCard.class, cardId);
+                evictParentCardCache(card.parentCardId());
+                log.debug("Статус карты {} успешно изменен с {} на {}", cardId, oldStatus, newStatus);
+                return cardRepository.findById(cardId).orElseThrow(() -> new CardNotFoundException(cardId));
+            }
+            retryOrFail(cardId, attempt, expectedVersion);
         }
+    }
 
-        card.setStatus(newStatus);
-        JuniorCard updatedCard = cardRepository.save(card);
-        log.info("Статус карты {} успешно изменен с {} на {}", cardId, oldStatus, newStatus);
+    /**
+     * Массово изменяет статус детских карт (например, ночная приостановка или истечение срока).
+     * Карты обрабатываются частями по {@value #MAX_IN_CLAUSE_SIZE}: статусы части читаются одним запросом,
+     * а переход выполняется одним UPDATE, который сам проверяет допустимость исходного статуса.
+     * Если UPDATE затронул не все ожидаемые карты (их статус изменили параллельно),
+     * результат для этих карт уточняется повторным чтением.
+     * При шардировании все карты запроса должны быть в одном шарде (иначе ошибка CROSS_SHARD_REQUEST).
+     *
+     * @param bulkChangeStatusDto ID карт и целевой статус
+     * @return результат для каждого ID: обновлена, не найдена или переход запрещен
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public BulkChangeStatusResultDto changeJuniorStatuses(@ShardKey BulkChangeStatusDto bulkChangeStatusDto) {
+        CardStatus newStatus = bulkChangeStatusDto.getStatus();
+        List<Long> cardIds = List.copyOf(new LinkedHashSet<>(bulkChangeStatusDto.getIds()));
+        log.debug("Массовое изменение статуса {} детских карт на статус: {}", cardIds.size(), newStatus);
+
+        Set<CardStatus> sourceStatuses = statusTransitions.allowedSources(CardType.JUNIOR, newStatus);
+        List<Long> updated = new ArrayList<>();
+        List<Long> notFound = new ArrayList<>();
+        List<Long> invalidTransition = new ArrayList<>();
+
+        for (List<Long> idsChunk : partition(cardIds, MAX_IN_CLAUSE_SIZE)) {
+            Map<Long, JuniorCardStatusDto> currentStatuses = cardRepository.findStatusesByIdIn(idsChunk).stream()
+                    .collect(Collectors.toMap(JuniorCardStatusDto::id, Function.identity()));
+
+            List<Long> eligibleIds = new ArrayList<>(idsChunk.size());
+            for (Long cardId : idsChunk) {
+                JuniorCardStatusDto card = currentStatuses.get(cardId);
+                if (card == null) {
+                    notFound.add(cardId);
+                } else if (sourceStatuses.contains(card.status())) {
+                    eligibleIds.add(cardId);
+                } else {
+                    invalidTransition.add(cardId);
+                }
+            }
+            if (eligibleIds.isEmpty()) {
+                continue;
+            }
+
+            int updatedCount = cardRepository.updateStatusWhereStatusIn(eligibleIds, sourceStatuses, newStatus);
+            List<Long> updatedIds = eligibleIds;
+            if (updatedCount != eligibleIds.size()) {
+                // Часть карт изменили или удалили параллельно - уточняем результат по фактическим статусам
+                Map<Long, CardStatus> actualStatuses = cardRepository.findStatusesByIdIn(eligibleIds).stream()
+                        .collect(Collectors.toMap(JuniorCardStatusDto::id, JuniorCardStatusDto::status));
+                updatedIds = new ArrayList<>(updatedCount);
+                for (Long cardId : eligibleIds) {
+                    CardStatus actualStatus = actualStatuses.get(cardId);
+                    if (actualStatus == null) {
+                        notFound.add(cardId);
+                    } else if (actualStatus == newStatus) {
+                        updatedIds.add(cardId);
+                    } else {
+                        invalidTransition.add(cardId);
+                    }
+                }
+            }
+            updated.addAll(updatedIds);
+
+            // Вытесняем из кэша измененные карты и их родителей (в кэше родителя хранятся статусы детей)
+            Cache juniorCardsCache = cacheManager.getCache(CacheConfig.JUNIOR_CARDS_CACHE);
+            Set<Long> parentIds = new HashSet<>();
+            Map<Long, Long> parentIdByCardId = new LinkedHashMap<>();
+            for (Long cardId : updatedIds) {
+                if (juniorCardsCache != null) {
+                    juniorCardsCache.evict(cardId);
+                }
+                Long parentId = currentStatuses.get(cardId).parentCardId();
+                parentIds.add(parentId);
+                parentIdByCardId.put(cardId, parentId);
+            }
+            parentIds.forEach(this::evictParentCardCache);
+            cardChangeOutbox.recordAll(CardType.JUNIOR, parentIdByCardId, CardChangeType.STATUS_CHANGED, newStatus);
+        }
 
-        return updatedCard;
+        log.info("Массовое изменение статуса на {}: обновлено {}, не найдено {}, запрещенный переход {}",
+                newStatus, updated.size(), notFound.size(), invalidTransition.size());
+        return new BulkChangeStatusResultDto(newStatus, updated.size(), updated, notFound, invalidTransition);
     }
 
     /**
@@ -195,94 +478,147 @@ public class CardService {
      * @throws CardNotFoundException если карта не найдена
      */
     @Transactional
-    public void deleteJuniorCard(Long cardId) {
-        log.info("Удаление детской карты с ID: {}", cardId);
+    @CacheEvict(cacheNames = CacheConfig.JUNIOR_CARDS_CACHE, key = "#cardId")
+    public void deleteJuniorCard(@ShardKey Long cardId) {
+        log.debug("Удаление детской карты с ID: {}", cardId);
 
         JuniorCard card = cardRepository.findById(cardId)
                 .orElseThrow(() -> {
-                    log.error("Детская карта не найдена с ID: {}", cardId);
+                    log.debug("Детская карта не найдена с ID: {}", cardId);
                     return new CardNotFoundException(cardId);
                 });
 
         cardRepository.delete(card);
-        log.info("Детская карта {} успешно удалена", cardId);
+        parentCardRepository.decrementJuniorCardCount(card.getParentCard().getId(), 1);
+        cardChangeOutbox.record(CardType.JUNIOR, cardId, card.getParentCard().getId(), CardChangeType.DELETED, null);
+        secondLevelCacheInvalidator.invalidate(ParentCard.class, card.getParentCard().getId());
+        evictParentCardCache(card.getParentCard().getId());
+        log.debug("Детская карта {} успешно удалена", cardId);
     }
 
     // ========== РОДИТЕЛЬСКИЕ КАРТЫ (PARENT CARD CRUD) ==========
 
     /**
-     * Создает новую родительскую карту.
+     * Создает новую родительскую карту (при шардировании - в следующем по очереди шарде).
      *
      * @param createParentCardDto данные для создания (имя, возраст)
      * @return созданная родительская карта
      */
     @Transactional
+    @NewShardKey
     public ParentCard createParentCard(CreateParentCardDto createParentCardDto) {
-        log.info("Создание родительской карты для: {}", createParentCardDto.getName());
+        log.debug("Создание родительской карты для: {}", createParentCardDto.getName());
 
         ParentCard newParentCard = ParentCard.builder()
                 .age(createParentCardDto.getAge())
                 .cardStatus(CardStatus.PENDING)
                 .name(createParentCardDto.getName())
                 .status(UserStatus.PARENT)
+                .expiresAt(LocalDateTime.now().plus(cardValidity))
                 .build();
 
         ParentCard savedParentCard = parentCardRepository.save(newParentCard);
-        log.info("Родительская карта успешно создана с ID: {}, имя: {}",
+        cardChangeOutbox.record(CardType.PARENT, savedParentCard.getId(), null,
+                CardChangeType.CREATED, savedParentCard.getCardStatus());
+        log.debug("Родительская карта успешно создана с ID: {}, имя: {}",
                 savedParentCard.getId(), savedParentCard.getName());
 
         return savedParentCard;
     }
 
     /**
-     * Получает все родительские карты.
+     * Получает страницу родительских карт (keyset-пагинация по ID).
+     * Детские карты всех родителей страницы загружаются одним дополнительным запросом.
+     *
+     * @param afterId ID последней карты предыдущей страницы (null или 0 для первой страницы)
+     * @param limit размер страницы (ограничивается диапазоном 1..{@value #MAX_PAGE_SIZE})
+     * @return представления родительских карт с ID больше afterId, отсортированные по возрастанию ID
+     */
+    @Transactional(readOnly = true)
+    public List<ParentCardDto> getParentCardsPage(Long afterId, int limit) {
+        log.debug("Получение страницы родительских карт после ID: {}, размер: {}", afterId, limit);
+        Long cursor = normalizeCursor(afterId);
+        Limit pageSize = normalizePageSize(limit);
+        return cardShards.collectPage(cursor, pageSize.max(),
+                () -> withJuniorCards(parentCardRepository.findDtoPageAfter(cursor, pageSize)));
+    }
+
+    /**
+     * Потоково передает все родительские карты обработчику.
+     * Родители читаются через серверный курсор частями по {@value #STREAM_CHUNK_SIZE},
+     * детские карты каждой части загружаются одним запросом.
      *
-     * @return список всех родительских карт
+     * @param consumer обработчик, вызываемый для каждой карты по возрастанию ID
      */
-    public List<ParentCard> getAllParentCards() {
-        log.debug("Получение всех родительских карт");
-        return parentCardRepository.findAll();
+    @Transactional(readOnly = true)
+    public void streamAllParentCards(Consumer<ParentCardDto> consumer) {
+        log.debug("Потоковое получение всех родительских карт");
+        cardShards.forEach(() -> {
+            List<ParentCardDto> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            try (Stream<ParentCardDto> parentCards = parentCardRepository.streamAllDtos()) {
+                parentCards.forEach(parentCard -> {
+                    chunk.add(parentCard);
+                    if (chunk.size() == STREAM_CHUNK_SIZE) {
+                        withJuniorCards(chunk).forEach(consumer);
+                        chunk.clear();
+                    }
+                });
+            }
+            withJuniorCards(chunk).forEach(consumer);
+        });
     }
 
     /**
-     * Получает родительскую карту по ID.
+     * Получает родительскую карту по ID вместе с детскими картами.
+     * Результат кэшируется и инвалидируется при изменении родителя или любой из его детских карт.
      *
      * @param parentId ID родительской карты
-     * @return найденная родительская карта
+     * @return представление найденной родительской карты с детскими картами
      * @throws CardNotFoundException если карта не найдена
      */
-    public ParentCard getParentCardById(Long parentId) {
+    @Cacheable(cacheNames = CacheConfig.PARENT_CARDS_CACHE, key = "#parentId")
+    @Transactional(readOnly = true)
+    public ParentCardDto getParentCardById(@ShardKey Long parentId) {
         log.debug("Получение родительской карты с ID: {}", parentId);
-        return parentCardRepository.findById(parentId)
+        ParentCardDto parentCard = parentCardRepository.findDtoById(parentId)
                 .orElseThrow(() -> {
-                    log.error("Родительская карта не найдена с ID: {}", parentId);
+                    log.debug("Родительская карта не найдена с ID: {}", parentId);
                     return new CardNotFoundException(parentId);
                 });
+        return parentCard.withJuniorCards(cardRepository.findDtosByParentCardIds(List.of(parentId)));
     }
 
     /**
-     * Обновляет данные родительской карты (имя и возраст).
+     * Обновляет данные родительской карты (имя и возраст) с проверкой версии при UPDATE.
+     * Как и для детской карты, записываются только измененные колонки и только если данные изменились.
      *
      * @param parentId ID родительской карты для обновления
      * @param updateParentCardDto новые данные (имя, возраст)
-     * @return обновленная родительская карта
+     * @param expectedVersion версия, которую видел клиент (null - без проверки)
+     * @return родительская карта, признак того, что данные изменились, и ETag карты
      * @throws CardNotFoundException если карта не найдена
+     * @throws PreconditionFailedException если версия карты не совпадает с ожидаемой
      */
     @Transactional
-    public ParentCard updateParentCard(Long parentId, UpdateParentCardDto updateParentCardDto) {
-        log.info("Обновление родительской карты с ID: {}", parentId);
+    public CardUpdateResultDto<ParentCard> updateParentCard(@ShardKey Long parentId, UpdateParentCardDto updateParentCardDto,
+                                                            Long expectedVersion) {
+        log.debug("Обновление родительской карты с ID: {}", parentId);
 
         ParentCard parentCard = parentCardRepository.findById(parentId)
                 .orElseThrow(() -> {
-                    log.error("Родительская карта не найдена с ID: {}", parentId);
+                    log.debug("Родительская карта не найдена с ID: {}", parentId);
                     return new CardNotFoundException(parentId);
                 });
+        checkVersion(parentId, parentCard.getVersion(), expectedVersion);
+
+        boolean modified = false;
 
         // Обновляем имя если оно передано и отличается от текущего
         if (updateParentCardDto.getName() != null && !updateParentCardDto.getName().equals(parentCard.getName())) {
             log.debug("Обновление имени родителя {} с '{}' на '{}'",
                     parentId, parentCard.getName(), updateParentCardDto.getName());
             parentCard.setName(updateParentCardDto.getName());
+            modified = true;
         }
 
         // Обновляем возраст если он передан и отличается от текущего
@@ -290,50 +626,62 @@ public class CardService {
             log.debug("Обновление возраста родителя {} с '{}' на '{}'",
                     parentId, parentCard.getAge(), updateParentCardDto.getAge());
             parentCard.setAge(updateParentCardDto.getAge());
+            modified = true;
         }
 
-        ParentCard updatedParentCard = parentCardRepository.save(parentCard);
-        log.info("Родительская карта {} успешно обновлена", parentId);
+        if (!modified) {
+            log.debug("Данные родительской карты {} не изменились", parentId);
+            return new CardUpdateResultDto<>(parentCard, false, parentEntityTag(parentCard));
+        }
+
+        cardChangeOutbox.record(CardType.PARENT, parentId, null, CardChangeType.UPDATED, parentCard.getCardStatus());
+        evictParentCardCache(parentId);
+        log.debug("Родительская карта {} успешно обновлена", parentId);
 
-        return updatedParentCard;
+        return new CardUpdateResultDto<>(parentCard, true, parentEntityTag(parentCard));
     }
 
     /**
      * Изменяет статус родительской карты.
-     * Проверяет валидность перехода статуса перед изменением.
+     * Работает так же, как {@link #changeJuniorStatus(Long, ChangeStatusDto, Long)}.
      *
      * @param parentId ID родительской карты
      * @param changeStatusDto новый статус
-     * @return карта с обновленным статусом
+     * @param expectedVersion версия, которую видел клиент (null - без проверки)
+     * @return карта с обновленным статусом и ее ETag
      * @throws CardNotFoundException если карта не найдена
-     * @throws ApplicationException если переход статуса невалидный
+     * @throws InvalidStatusTransitionException если переход статуса невалидный
+     * @throws PreconditionFailedException если версия карты не совпадает с ожидаемой
+     * @throws ConcurrentCardUpdateException если исчерпаны попытки из-за параллельных изменений
      */
     @Transactional
-    public ParentCard changeParentStatus(Long parentId, ChangeStatusDto changeStatusDto) {
-        log.info("Изменение статуса родительской карты с ID: {} на статус: {}", parentId, changeStatusDto.getStatus());
-
-        ParentCard parentCard = parentCardRepository.findById(parentId)
-                .orElseThrow(() -> {
-                    log.error("Родительская карта не найдена с ID: {}", parentId);
-                    return new CardNotFoundException(parentId);
-                });
-
-        CardStatus oldStatus = parentCard.getCardStatus();
+    @CacheEvict(cacheNames = CacheConfig.PARENT_CARDS_CACHE, key = "#parentId")
+    public CardUpdateResultDto<ParentCard> changeParentStatus(@ShardKey Long parentId, ChangeStatusDto changeStatusDto, Long expectedVersion) {
         CardStatus newStatus = changeStatusDto.getStatus();
-
-        // Проверяем валидность перехода статуса
-        if (!isValidStatusTransition(oldStatus, newStatus)) {
-            log.error("Невалидный переход статуса для родителя {}: {} -> {}", parentId, oldStatus, newStatus);
-            throw new ApplicationException(
-                    "Невозможно изменить статус с " + oldStatus + " на " + newStatus,
-                    "INVALID_STATUS_TRANSITION");
+        log.debug("Изменение статуса родительской карты с ID: {} на статус: {}", parentId, newStatus);
+
+        for (int attempt = 1; ; attempt++) {
+            ParentCardStatusDto parentCard = parentCardRepository.findStatusDtoById(parentId)
+                    .orElseThrow(() -> {
+                        log.debug("Родительская карта не найдена с ID: {}", parentId);
+                        return new CardNotFoundException(parentId);
+                    });
+            checkVersion(parentId, parentCard.version(), expectedVersion);
+
+            // Проверяем валидность перехода статуса
+            CardStatus oldStatus = parentCard.cardStatus();
+            statusTransitions.check(CardType.PARENT, oldStatus, newStatus);
+
+            if (parentCardRepository.updateCardStatusIfVersion(parentId, parentCard.version(), newStatus) == 1) {
+                cardChangeOutbox.record(CardType.PARENT, parentId, null, CardChangeType.STATUS_CHANGED, newStatus);
+                secondLevelCacheInvalidator.invalidate(ParentCard.class, parentId);
+                log.debug("Статус родительской карты {} успешно изменен с {} на {}", parentId, oldStatus, newStatus);
+                ParentCard updatedCard = parentCardRepository.findById(parentId)
+                        .orElseThrow(() -> new CardNotFoundException(parentId));
+                return new CardUpdateResultDto<>(updatedCard, true, parentEntityTag(updatedCard));
+            }
+            retryOrFail(parentId, attempt, expectedVersion);
         }
-
-        parentCard.setCardStatus(newStatus);
-        ParentCard updatedParentCard = parentCardRepository.save(parentCard);
-        log.info("Статус родительской карты {} успешно изменен с {} на {}", parentId, oldStatus, newStatus);
-
-        return updatedParentCard;
     }
 
     /**
@@ -345,12 +693,13 @@ public class CardService {
      * @throws ApplicationException если у родителя есть активные детские карты
      */
     @Transactional
-    public void deleteParentCard(Long parentId) {
-        log.info("Удаление родительской карты с ID: {}", parentId);
+    @CacheEvict(cacheNames = CacheConfig.PARENT_CARDS_CACHE, key = "#parentId")
+    public void deleteParentCard(@ShardKey Long parentId) {
+        log.debug("Удаление родительской карты с ID: {}", parentId);
 
         ParentCard parentCard = parentCardRepository.findById(parentId)
                 .orElseThrow(() -> {
-                    log.error("Родительская карта не найдена с ID: {}", parentId);
+                    log.debug("Родительская карта не найдена с ID: {}", parentId);
                     return new CardNotFoundException(parentId);
                 });
 
@@ -365,38 +714,284 @@ public class CardService {
         }
 
         parentCardRepository.delete(parentCard);
-        log.info("Родительская карта {} успешно удалена", parentId);
+        cardChangeOutbox.record(CardType.PARENT, parentId, null, CardChangeType.DELETED, null);
+        log.debug("Родительская карта {} успешно удалена", parentId);
+    }
+
+    // ========== ИСТЕЧЕНИЕ СРОКА ДЕЙСТВИЯ ==========
+
+    /**
+     * Переводит в EXPIRED одну порцию активных детских карт с истекшим сроком действия.
+     * Каждая порция обрабатывается в отдельной короткой транзакции: карты захватываются
+     * с SKIP LOCKED (параллельные узлы и CRUD-операции над другими картами не ждут),
+     * после чего статус меняется одним UPDATE. События изменения пишутся только для карт, которые UPDATE
+     * действительно перевел в EXPIRED. Обрабатывается текущий шард (см. {@link CardExpiryScheduler}).
+     *
+     * @param batchSize максимальный размер порции
+     * @return количество карт, переведенных в EXPIRED
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int expireDueJuniorCards(int batchSize) {
+        List<CardRepository.ExpiredCard> claimedCards =
+                cardRepository.claimExpiredActiveCards(LocalDateTime.now(), batchSize);
+        if (claimedCards.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> cardIds = claimedCards.stream().map(CardRepository.ExpiredCard::getId).toList();
+        int expiredCount = cardRepository.updateStatusWhereStatusIn(
+                cardIds, List.of(CardStatus.ACTIVE), CardStatus.EXPIRED);
+
+        List<CardRepository.ExpiredCard> expiredCards = claimedCards;
+        if (expiredCount != claimedCards.size()) {
+            // UPDATE изменил не все захваченные карты - события пишутся только для фактически истекших
+            Set<Long> expiredIds = cardRepository.findStatusesByIdIn(cardIds).stream()
+                    .filter(card -> card.status() == CardStatus.EXPIRED)
+                    .map(JuniorCardStatusDto::id)
+                    .collect(Collectors.toSet());
+            expiredCards = claimedCards.stream().filter(card -> expiredIds.contains(card.getId())).toList();
+        }
+
+        Map<Long, Long> parentIdByCardId = new LinkedHashMap<>();
+        expiredCards.forEach(card -> parentIdByCardId.put(card.getId(), card.getParentCardId()));
+        cardChangeOutbox.recordAll(CardType.JUNIOR, parentIdByCardId, CardChangeType.STATUS_CHANGED, CardStatus.EXPIRED);
+
+        Cache juniorCardsCache = cacheManager.getCache(CacheConfig.JUNIOR_CARDS_CACHE);
+        if (juniorCardsCache != null) {
+            parentIdByCardId.keySet().forEach(juniorCardsCache::evict);
+        }
+        expiredCards.stream()
+                .map(CardRepository.ExpiredCard::getParentCardId)
+                .distinct()
+                .forEach(this::evictParentCardCache);
+
+        log.info("Срок действия истек у {} детских карт", expiredCount);
+        return expiredCount;
+    }
+
+    /**
+     * Переводит в EXPIRED одну порцию активных родительских карт с истекшим сроком действия.
+     * Работает так же, как {@link #expireDueJuniorCards(int)}.
+     *
+     * @param batchSize максимальный размер порции
+     * @return количество карт, переведенных в EXPIRED
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public int expireDueParentCards(int batchSize) {
+        List<Long> parentIds = parentCardRepository.claimExpiredActiveCardIds(LocalDateTime.now(), batchSize);
+        if (parentIds.isEmpty()) {
+            return 0;
+        }
+
+        int expiredCount = parentCardRepository.updateCardStatus(parentIds, CardStatus.ACTIVE, CardStatus.EXPIRED);
+        List<Long> expiredIds = expiredCount == parentIds.size()
+                ? parentIds
+                : parentCardRepository.findIdsByIdInAndCardStatus(parentIds, CardStatus.EXPIRED);
+
+        Map<Long, Long> parentIdByCardId = new LinkedHashMap<>();
+        expiredIds.forEach(parentId -> parentIdByCardId.put(parentId, null));
+        cardChangeOutbox.recordAll(CardType.PARENT, parentIdByCardId, CardChangeType.STATUS_CHANGED, CardStatus.EXPIRED);
+        expiredIds.forEach(this::evictParentCardCache);
+
+        log.info("Срок действия истек у {} родительских карт", expiredCount);
+        return expiredCount;
     }
 
     // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
 
     /**
-     * Проверяет валидность перехода статуса карты.
-     * Определяет разрешенные переходы для каждого статуса.
+     * Инвалидирует кэш детской карты. Инвалидация выполняется после коммита.
+     *
+     * @param cardId ID детской карты
+     */
+    private void evictJuniorCardCache(Long cardId) {
+        Cache juniorCardsCache = cacheManager.getCache(CacheConfig.JUNIOR_CARDS_CACHE);
+        if (juniorCardsCache != null) {
+            juniorCardsCache.evict(cardId);
+        }
+    }
+
+    /**
+     * Инвалидирует кэш родительской карты: закэшированный родитель содержит свои детские карты,
+     * поэтому сбрасывается и при изменении любой из них. Инвалидация выполняется после коммита.
+     *
+     * @param parentId ID родительской карты
+     */
+    private void evictParentCardCache(Long parentId) {
+        Cache parentCardsCache = cacheManager.getCache(CacheConfig.PARENT_CARDS_CACHE);
+        if (parentCardsCache != null) {
+            parentCardsCache.evict(parentId);
+        }
+    }
+
+    /**
+     * Проверяет, что клиент изменяет актуальную версию карты.
+     *
+     * @param cardId ID карты
+     * @param version текущая версия карты
+     * @param expectedVersion версия из запроса клиента (null - без проверки)
+     * @throws PreconditionFailedException если версии не совпадают
+     */
+    private static void checkVersion(Long cardId, Long version, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(version)) {
+            log.debug("Версия карты {} изменилась: ожидалась {}, текущая {}", cardId, expectedVersion, version);
+            throw new PreconditionFailedException(cardId);
+        }
+    }
+
+    /**
+     * Решает, повторять ли смену статуса после того, как условный UPDATE не изменил строку.
+     * Если клиент передал версию, повторять бессмысленно: карта уже не в той версии, которую он видел.
+     *
+     * @param cardId ID карты
+     * @param attempt номер завершившейся попытки
+     * @param expectedVersion версия из запроса клиента (null - без проверки)
+     * @throws PreconditionFailedException если клиент передал версию
+     * @throws ConcurrentCardUpdateException если попытки исчерпаны
+     */
+    private void retryOrFail(Long cardId, int attempt, Long expectedVersion) {
+        if (expectedVersion != null) {
+            throw new PreconditionFailedException(cardId);
+        }
+        if (attempt >= statusUpdateAttempts) {
+            log.warn("Не удалось изменить статус карты {} за {} попыток: карта изменяется параллельно", cardId, attempt);
+            throw new ConcurrentCardUpdateException(cardId);
+        }
+        log.debug("Карта {} изменена параллельно, повторная попытка смены статуса", cardId);
+    }
+
+    /**
+     * Формирует ошибку для случая, когда место под новые карты не удалось зарезервировать.
+     * Выполняется только на пути отказа: отличает отсутствующего родителя от исчерпанного лимита
+     * и собирает краткий список существующих карт для ответа клиенту. Клиенты часто повторяют
+     * такой запрос, поэтому список берется из закэшированного представления родителя,
+     * а без него - одним запросом трех колонок, без загрузки сущностей.
+     *
+     * @param parentId ID родительской карты
+     * @param requestedCount сколько карт пытались создать
+     * @return исключение для выброса
+     */
+    private ApplicationException cardLimitViolation(Long parentId, int requestedCount) {
+        List<JuniorCardSummaryDto> existingCards = cachedCardSummaries(parentId);
+        if (existingCards == null) {
+            existingCards = cardRepository.findSummariesByParentCardId(parentId);
+            if (existingCards.isEmpty() && !parentCardRepository.existsById(parentId)) {
+                log.debug("Родительская карта не найдена с ID: {}", parentId);
+                return new CardNotFoundException(parentId);
+            }
+        }
+
+        log.warn("Превышен лимит карт для родителя {}. Текущее количество: {}, запрошено: {}",
+                parentId, existingCards.size(), requestedCount);
+        return new AccountLimitCards(
+                String.format("У родителя может быть максимум %d карт. Текущее количество: %d",
+                        MAX_CARDS_PER_PARENT, existingCards.size()),
+                "ACCOUNT_LIMIT_EXCEEDED",
+                existingCards
+        );
+    }
+
+    /**
+     * Краткий список детских карт из закэшированного представления родителя.
+     * Кэш сбрасывается после фиксации каждого изменения детских карт родителя.
+     *
+     * @param parentId ID родительской карты
+     * @return краткие представления карт или null, если родителя нет в кэше
+     */
+    private List<JuniorCardSummaryDto> cachedCardSummaries(Long parentId) {
+        Cache parentCardsCache = cacheManager.getCache(CacheConfig.PARENT_CARDS_CACHE);
+        ParentCardDto parentCard = parentCardsCache != null ? parentCardsCache.get(parentId, ParentCardDto.class) : null;
+        if (parentCard == null) {
+            return null;
+        }
+        return parentCard.juniorCards().stream().map(JuniorCardSummaryDto::of).toList();
+    }
+
+    /**
+     * Записывает накопленный пакет карт в БД и очищает контекст сохранения,
+     * чтобы при больших загрузках он не разрастался.
      *
-     * @param fromStatus текущий статус
-     * @param toStatus целевой статус
-     * @return true если переход разрешен, false в противном случае
+     * @param batch накопленные новые карты (очищается после записи)
+     * @param createdIds список, в который добавляются ID записанных карт
      */
-    private boolean isValidStatusTransition(CardStatus fromStatus, CardStatus toStatus) {
-        // Из PENDING можно перейти в ACTIVE или CANCELLED
-        if (fromStatus == CardStatus.PENDING &&
-                (toStatus == CardStatus.ACTIVE || toStatus == CardStatus.CANCELLED)) {
-            return true;
+    private void flushBatch(List<JuniorCard> batch, List<Long> createdIds) {
+        if (batch.isEmpty()) {
+            return;
         }
+        cardRepository.saveAll(batch);
+        cardRepository.flush();
+        batch.forEach(card -> createdIds.add(card.getId()));
+        entityManager.clear();
+        batch.clear();
+    }
+
+    /**
+     * Формирует ETag родительской карты после изменения в том же формате, что и ответ на чтение
+     * ({@link ParentCardDto#entityTag()}). Вызывается в транзакции изменения: изменения сбрасываются в БД,
+     * чтобы версия карты была актуальной, детские карты читаются запросом, а не через связь сущности.
+     *
+     * @param parentCard родительская карта
+     * @return значение ETag
+     */
+    private String parentEntityTag(ParentCard parentCard) {
+        entityManager.flush();
+        return ParentCardDto.of(parentCard)
+                .withJuniorCards(cardRepository.findDtosByParentCardIds(List.of(parentCard.getId())))
+                .entityTag();
+    }
 
-        // Из ACTIVE можно перейти в SUSPENDED, CANCELLED или EXPIRED
-        if (fromStatus == CardStatus.ACTIVE &&
-                (toStatus == CardStatus.SUSPENDED || toStatus == CardStatus.CANCELLED || toStatus == CardStatus.EXPIRED)) {
-            return true;
+    /**
+     * Добавляет к представлениям родителей их детские карты.
+     * Детские карты всех родителей загружаются одним запросом (по частям из {@value #MAX_IN_CLAUSE_SIZE} ID).
+     *
+     * @param parentCards представления родительских карт без детских карт
+     * @return представления родительских карт с детскими картами в исходном порядке
+     */
+    private List<ParentCardDto> withJuniorCards(List<ParentCardDto> parentCards) {
+        if (parentCards.isEmpty()) {
+            return List.of();
         }
+        List<Long> parentIds = parentCards.stream().map(ParentCardDto::id).toList();
+        Map<Long, List<JuniorCardDto>> cardsByParent = partition(parentIds, MAX_IN_CLAUSE_SIZE).stream()
+                .flatMap(chunk -> cardRepository.findDtosByParentCardIds(chunk).stream())
+                .collect(Collectors.groupingBy(JuniorCardDto::parentCardId));
+        return parentCards.stream()
+                .map(parentCard -> parentCard.withJuniorCards(cardsByParent.getOrDefault(parentCard.id(), List.of())))
+                .toList();
+    }
 
-        // Из SUSPENDED можно перейти в ACTIVE или CANCELLED
-        if (fromStatus == CardStatus.SUSPENDED &&
-                (toStatus == CardStatus.ACTIVE || toStatus == CardStatus.CANCELLED)) {
-            return true;
+    /**
+     * Разбивает список на части не больше заданного размера.
+     *
+     * @param values исходный список
+     * @param size максимальный размер части
+     * @return части исходного списка
+     */
+    private static <T> List<List<T>> partition(List<T> values, int size) {
+        List<List<T>> parts = new ArrayList<>((values.size() + size - 1) / size);
+        for (int from = 0; from < values.size(); from += size) {
+            parts.add(values.subList(from, Math.min(from + size, values.size())));
         }
+        return parts;
+    }
+
+    /**
+     * Приводит курсор страницы к допустимому значению: отсутствующий курсор означает первую страницу.
+     *
+     * @param afterId курсор из запроса
+     * @return неотрицательный курсор
+     */
+    private static Long normalizeCursor(Long afterId) {
+        return afterId == null || afterId < 0 ? 0L : afterId;
+    }
 
-        return false;
+    /**
+     * Ограничивает размер страницы диапазоном 1..{@value #MAX_PAGE_SIZE}.
+     *
+     * @param limit запрошенный размер страницы
+     * @return лимит для запроса к репозиторию
+     */
+    private static Limit normalizePageSize(int limit) {
+        return Limit.of(Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,117 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.config.StatusTransitionProperties;
+import com.lum1nar.junior_card.exception.InvalidStatusTransitionException;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.CardType;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Таблица допустимых переходов статусов карт.
+ * Правила вычисляются один раз при старте: для каждого типа карты и текущего статуса
+ * хранится битовая маска допустимых целевых статусов, поэтому проверка перехода -
+ * это два обращения к массиву без ветвлений и аллокаций.
+ */
+@Component
+public class CardStatusTransitions {
+
+    /** Правила по умолчанию, общие для детских и родительских карт */
+    public static final Map<CardStatus, Set<CardStatus>> DEFAULT_RULES = Map.of(
+            // Из PENDING можно перейти в ACTIVE или CANCELLED
+            CardStatus.PENDING, EnumSet.of(CardStatus.ACTIVE, CardStatus.CANCELLED),
+            // Из ACTIVE можно перейти в SUSPENDED, CANCELLED или EXPIRED
+            CardStatus.ACTIVE, EnumSet.of(CardStatus.SUSPENDED, CardStatus.CANCELLED, CardStatus.EXPIRED),
+            // Из SUSPENDED можно перейти в ACTIVE или CANCELLED
+            CardStatus.SUSPENDED, EnumSet.of(CardStatus.ACTIVE, CardStatus.CANCELLED)
+    );
+
+    /** Маски допустимых переходов: [тип карты][текущий статус] -> биты целевых статусов */
+    private final int[][] allowedTargets;
+
+    /** Обратная таблица: [тип карты] -> целевой статус -> статусы, из которых в него можно перейти */
+    private final Map<CardType, Map<CardStatus, Set<CardStatus>>> allowedSources = new EnumMap<>(CardType.class);
+
+    public CardStatusTransitions(StatusTransitionProperties properties) {
+        Map<CardType, Map<CardStatus, Set<CardStatus>>> rules = new EnumMap<>(CardType.class);
+        rules.put(CardType.JUNIOR, properties.getJunior());
+        rules.put(CardType.PARENT, properties.getParent());
+
+        allowedTargets = new int[CardType.values().length][CardStatus.values().length];
+        rules.forEach((cardType, typeRules) -> {
+            Map<CardStatus, Set<CardStatus>> effectiveRules = typeRules.isEmpty() ? DEFAULT_RULES : typeRules;
+            effectiveRules.forEach((fromStatus, toStatuses) -> {
+                int mask = 0;
+                for (CardStatus toStatus : toStatuses) {
+                    mask |= 1 << toStatus.ordinal();
+                }
+                allowedTargets[cardType.ordinal()][fromStatus.ordinal()] = mask;
+            });
+        });
+
+        for (CardType cardType : CardType.values()) {
+            Map<CardStatus, Set<CardStatus>> sourcesByTarget = new EnumMap<>(CardStatus.class);
+            for (CardStatus toStatus : CardStatus.values()) {
+                Set<CardStatus> sources = EnumSet.noneOf(CardStatus.class);
+                for (CardStatus fromStatus : CardStatus.values()) {
+                    if (isAllowed(cardType, fromStatus, toStatus)) {
+                        sources.add(fromStatus);
+                    }
+                }
+                sourcesByTarget.put(toStatus, Collections.unmodifiableSet(sources));
+            }
+            allowedSources.put(cardType, sourcesByTarget);
+        }
+    }
+
+    /**
+     * Создает таблицу с правилами по умолчанию для всех типов карт.
+     *
+     * @return таблица переходов
+     */
+    public static CardStatusTransitions withDefaultRules() {
+        return new CardStatusTransitions(new StatusTransitionProperties());
+    }
+
+    /**
+     * Проверяет, разрешен ли переход статуса для карты заданного типа.
+     *
+     * @param cardType тип карты
+     * @param fromStatus текущий статус
+     * @param toStatus целевой статус
+     * @return true если переход разрешен
+     */
+    public boolean isAllowed(CardType cardType, CardStatus fromStatus, CardStatus toStatus) {
+        return (allowedTargets[cardType.ordinal()][fromStatus.ordinal()] & (1 << toStatus.ordinal())) != 0;
+    }
+
+    /**
+     * Возвращает статусы, из которых карте заданного типа разрешено перейти в целевой статус.
+     *
+     * @param cardType тип карты
+     * @param toStatus целевой статус
+     * @return допустимые исходные статусы (может быть пустым)
+     */
+    public Set<CardStatus> allowedSources(CardType cardType, CardStatus toStatus) {
+        return allowedSources.get(cardType).get(toStatus);
+    }
+
+    /**
+     * Проверяет переход статуса и отклоняет недопустимый заранее созданным исключением.
+     *
+     * @param cardType тип карты
+     * @param fromStatus текущий статус
+     * @param toStatus целевой статус
+     * @throws InvalidStatusTransitionException если переход не разрешен
+     */
+    public void check(CardType cardType, CardStatus fromStatus, CardStatus toStatus) {
+        if (!isAllowed(cardType, fromStatus, toStatus)) {
+            throw InvalidStatusTransitionException.of(fromStatus, toStatus);
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.lum1nar.junior_card.service;
+
+import com.lum1nar.junior_card.config.FraudProperties;
+import com.lum1nar.junior_card.exception.SuspiciousTransactionException;
+import com.lum1nar.junior_card.repository.CardRepository;
+import com.lum1nar.junior_card.repository.CardTransactionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Проверка списаний с детских карт на подозрительность на пути авторизации.
+ * Состояние карт хранится в памяти; к БД проверка обращается, только когда карта занимает слот
+ * (первая операция карты, после перезапуска или вытеснения) и раз в день за возрастом ребенка.
+ * <p>
+ * Для каждой карты в памяти хранится состояние, которое обновляется с каждой операцией:
+ * <ul>
+ *     <li>счетчики попыток списания по интервалам скользящего окна (частота операций);</li>
+ *     <li>гистограмма успешных списаний по порядку суммы (log2 рублей) - обычные суммы карты;</li>
+ *     <li>сумма списаний за текущий день и возраст ребенка для возрастных лимитов.</li>
+ * </ul>
+ * Состояние лежит в примитивных массивах фиксированного размера (около 90 байт на карту).
+ * Таблица двухвходовая ассоциативная: карта отображается по хэшу ID на набор из {@value #WAYS} слотов,
+ * поэтому две активные карты с одинаковым хэшем не вытесняют друг друга. Если все слоты набора заняты,
+ * вытесняется карта, дольше всех не выполнявшая операций.
+ * Карта, занимающая слот, получает состояние из журнала операций: сумму списаний за день, недавние
+ * списания в окне частоты и суммы последних списаний для гистограммы. Поэтому вытеснение не обнуляет
+ * лимиты карты.
+ * <p>
+ * Сумма передается в копейках, время - в миллисекундах эпохи UTC.
+ */
+@Slf4j
+@Component
+public class FraudScoringStage {
+
+    /** Количество интервалов в окне подсчета частоты */
+    private static final int VELOCITY_BUCKETS = 6;
+
+    /** Количество корзин гистограммы сумм: 0 - меньше рубля, i - от 2^(i-1) до 2^i рублей */
+    private static final int AMOUNT_BUCKETS = 16;
+
+    /** При достижении такого количества записей гистограмма уменьшается вдвое (старые суммы забываются) */
+    private static final int HISTOGRAM_DECAY_THRESHOLD = 1024;
+
+    /** Максимальный возраст владельца детской карты */
+    private static final int MAX_CHILD_AGE = 17;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /** Сколько последних списаний загружается из журнала, когда карта занимает слот */
+    private static final int HISTORY_DEBITS = 128;
+
+    /** Количество слотов в наборе */
+    private static final int WAYS = 2;
+
+    private static final int LOCK_STRIPES = 1024;
+
+    private final CardRepository cardRepository;
+    private final CardTransactionRepository cardTransactionRepository;
+    private final boolean enabled;
+    private final long velocityWindowMillis;
+    private final long velocityBucketMillis;
+    private final int maxAuthorizationsPerWindow;
+    private final int minHistoryForAmountCheck;
+    private final int amountOutlierBuckets;
+
+    /** Лимиты в копейках по возрасту ребенка (индекс - возраст) */
+    private final long[] maxTransactionCentsByAge = new long[MAX_CHILD_AGE + 1];
+    private final long[] dailyLimitCentsByAge = new long[MAX_CHILD_AGE + 1];
+
+    private final int setMask;
+    /** Блокировки наборов слотов */
+    private final StripedLocks setLocks = new StripedLocks(LOCK_STRIPES);
+
+    /** ID карты в слоте (0 - слот свободен) */
+    private final long[] cardIds;
+    /** Возраст ребенка (-1 - не загружен) */
+    private final byte[] childAges;
+    /** День (номер дня эпохи), к которому относятся возраст и сумма списаний за день */
+    private final int[] profileDays;
+    private final long[] spentTodayCents;
+    /** Номер последнего интервала окна частоты, в котором была попытка списания */
+    private final long[] lastVelocityBuckets;
+    /** Попытки списания по интервалам окна: VELOCITY_BUCKETS значений на слот */
+    private final short[] velocityCounts;
+    /** Гистограмма успешных списаний: AMOUNT_BUCKETS значений на слот */
+    private final short[] amountHistogram;
+    private final short[] histogramTotals;
+    /** Время последней попытки списания (для выбора вытесняемой карты) */
+    private final long[] lastUsedMillis;
+
+    public FraudScoringStage(FraudProperties properties, CardRepository cardRepository,
+                             CardTransactionRepository cardTransactionRepository) {
+        this.cardRepository = cardRepository;
+        this.cardTransactionRepository = cardTransactionRepository;
+        this.enabled = properties.isEnabled();
+        this.velocityWindowMillis = properties.getVelocityWindow().toMillis();
+        this.velocityBucketMillis = Math.max(1, velocityWindowMillis / VELOCITY_BUCKETS);
+        this.maxAuthorizationsPerWindow = properties.getMaxAuthorizationsPerWindow();
+        this.minHistoryForAmountCheck = properties.getMinHistoryForAmountCheck();
+        this.amountOutlierBuckets = properties.getAmountOutlierBuckets();
+
+        Arrays.fill(maxTransactionCentsByAge, Long.MAX_VALUE);
+        Arrays.fill(dailyLimitCentsByAge, Long.MAX_VALUE);
+        TreeMap<Integer, FraudProperties.AgeLimit> ageLimits = new TreeMap<>(properties.getAgeLimits());
+        for (int age = 0; age <= MAX_CHILD_AGE; age++) {
+            // Для возраста ниже всех порогов действует лимит самой младшей группы
+            Map.Entry<Integer, FraudProperties.AgeLimit> tier = Optional.ofNullable(ageLimits.floorEntry(age))
+                    .orElse(ageLimits.firstEntry());
+            if (tier != null) {
+                maxTransactionCentsByAge[age] = toCents(tier.getValue().getMaxTransaction());
+                dailyLimitCentsByAge[age] = toCents(tier.getValue().getDailyLimit());
+            }
+        }
+
+        int capacity = Math.max(Integer.highestOneBit(Math.max(properties.getCapacity() - 1, 1)) << 1, WAYS);
+        this.setMask = capacity / WAYS - 1;
+        this.cardIds = new long[capacity];
+        this.childAges = new byte[capacity];
+        this.profileDays = new int[capacity];
+        this.spentTodayCents = new long[capacity];
+        this.lastVelocityBuckets = new long[capacity];
+        this.velocityCounts = new short[capacity * VELOCITY_BUCKETS];
+        this.amountHistogram = new short[capacity * AMOUNT_BUCKETS];
+        this.histogramTotals = new short[capacity];
+        this.lastUsedMillis = new long[capacity];
+    }
+
+    /**
+     * Оценивает попытку списания и учитывает ее в частоте операций карты.
+     * Вызывается до списания; после успешного списания нужно вызвать {@link #recordApproved}.
+     *
+     * @param cardId ID детской карты
+     * @param amountCents сумма списания в копейках
+     * @param nowMillis текущее время
+     * @throws SuspiciousTransactionException если списание выглядит подозрительным
+     */
+    public void score(long cardId, long amountCents, long nowMillis) {
+        if (!enabled) {
+            return;
+        }
+        int set = setOf(cardId);
+        int day = (int) Math.floorDiv(nowMillis, MILLIS_PER_DAY);
+
+        int childAge = cachedChildAge(set, cardId, day);
+        if (childAge < 0) {
+            // Загрузка возраста вне блокировки: первый раз для карты и затем раз в день
+            Optional<Integer> loadedAge = cardRepository.findChildAgeById(cardId);
+            if (loadedAge.isEmpty()) {
+                return;
+            }
+            childAge = Math.min(Math.max(loadedAge.get(), 0), MAX_CHILD_AGE);
+        }
+
+        String rejection = null;
+        CardHistory history = null;
+        ReentrantLock lock = setLocks.get(set);
+        while (true) {
+            lock.lock();
+            try {
+                int slot = findSlot(set, cardId);
+                if (slot >= 0 || history != null) {
+                    if (slot < 0) {
+                        slot = victimSlot(set);
+                        claimSlot(slot, cardId, day, nowMillis, history);
+                    } else if (profileDays[slot] != day) {
+                        profileDays[slot] = day;
+                        spentTodayCents[slot] = 0;
+                    }
+                    lastUsedMillis[slot] = nowMillis;
+                    childAges[slot] = (byte) childAge;
+                    int attempts = registerAttempt(slot, nowMillis);
+                    rejection = evaluate(slot, childAge, amountCents, attempts);
+                    break;
+                }
+            } finally {
+                lock.unlock();
+            }
+            // Карты нет в наборе: состояние загружается из журнала вне блокировки
+            history = loadHistory(cardId, day, nowMillis);
+        }
+
+        if (rejection != null) {
+            log.warn("Подозрительное списание с карты {}: {}", cardId, rejection);
+            throw new SuspiciousTransactionException(cardId, rejection);
+        }
+    }
+
+    /**
+     * Учитывает успешное списание в дневной сумме и гистограмме сумм карты.
+     *
+     * @param cardId ID детской карты
+     * @param amountCents сумма списания в копейках
+     * @param nowMillis текущее время
+     */
+    public void recordApproved(long cardId, long amountCents, long nowMillis) {
+        if (!enabled) {
+            return;
+        }
+        int set = setOf(cardId);
+        int day = (int) Math.floorDiv(nowMillis, MILLIS_PER_DAY);
+        ReentrantLock lock = setLocks.get(set);
+        lock.lock();
+        try {
+            int slot = findSlot(set, cardId);
+            if (slot < 0) {
+                return;
+            }
+            if (profileDays[slot] != day) {
+                profileDays[slot] = day;
+                spentTodayCents[slot] = 0;
+                childAges[slot] = -1;
+            }
+            spentTodayCents[slot] += amountCents;
+            addToHistogram(slot, amountBucket(amountCents));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ========== ВСПОМОГАТЕЛЬНЫЕ МЕТОДЫ ==========
+
+    private int setOf(long cardId) {
+        long hash = cardId * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & setMask;
+    }
+
+    /**
+     * Ищет слот карты в наборе (вызывается под блокировкой набора).
+     *
+     * @return индекс слота или -1, если карты нет в наборе
+     */
+    private int findSlot(int set, long cardId) {
+        int base = set * WAYS;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (cardIds[slot] == cardId) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Выбирает слот набора для новой карты: свободный, иначе слот карты, дольше всех не выполнявшей операций.
+     */
+    private int victimSlot(int set) {
+        int base = set * WAYS;
+        int victim = base;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (cardIds[slot] == 0) {
+                return slot;
+            }
+            if (lastUsedMillis[slot] < lastUsedMillis[victim]) {
+                victim = slot;
+            }
+        }
+        return victim;
+    }
+
+    /**
+     * Возвращает возраст ребенка из слота или -1, если его нужно загрузить.
+     */
+    private int cachedChildAge(int set, long cardId, int day) {
+        ReentrantLock lock = setLocks.get(set);
+        lock.lock();
+        try {
+            int slot = findSlot(set, cardId);
+            return slot >= 0 && profileDays[slot] == day ? childAges[slot] : -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Закрепляет слот за картой (вытесняя прежнюю карту слота) и заполняет состояние по журналу операций:
+     * сумма списаний за день, недавние списания (учитываются в текущем интервале окна частоты,
+     * то есть с запасом) и гистограмма последних сумм.
+     *
+     * @param history состояние карты по журналу
+     */
+    private void claimSlot(int slot, long cardId, int day, long nowMillis, CardHistory history) {
+        cardIds[slot] = cardId;
+        profileDays[slot] = day;
+        spentTodayCents[slot] = history.spentTodayCents();
+        long bucket = nowMillis / velocityBucketMillis;
+        lastVelocityBuckets[slot] = bucket;
+        Arrays.fill(velocityCounts, slot * VELOCITY_BUCKETS, (slot + 1) * VELOCITY_BUCKETS, (short) 0);
+        velocityCounts[slot * VELOCITY_BUCKETS + (int) (bucket % VELOCITY_BUCKETS)] =
+                (short) Math.min(history.recentDebits(), Short.MAX_VALUE);
+        histogramTotals[slot] = 0;
+        Arrays.fill(amountHistogram, slot * AMOUNT_BUCKETS, (slot + 1) * AMOUNT_BUCKETS, (short) 0);
+        for (long debitCents : history.debitsCents()) {
+            addToHistogram(slot, amountBucket(debitCents));
+        }
+    }
+
+    /**
+     * Загружает из журнала операций состояние карты, которая занимает слот.
+     * Сумма за день считается по последним списаниям, если они начинаются раньше текущего дня,
+     * иначе - отдельным запросом суммы.
+     */
+    private CardHistory loadHistory(long cardId, int day, long nowMillis) {
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDateTime dayStart = LocalDateTime.ofInstant(Instant.ofEpochMilli(day * MILLIS_PER_DAY), zone);
+        LocalDateTime windowStart = LocalDateTime.ofInstant(Instant.ofEpochMilli(nowMillis - velocityWindowMillis), zone);
+
+        List<CardTransactionRepository.Debit> debits =
+                cardTransactionRepository.findRecentJuniorCardDebits(cardId, Limit.of(HISTORY_DEBITS));
+        long[] debitsCents = new long[debits.size()];
+        long spentTodayCents = 0;
+        int recentDebits = 0;
+        for (int i = 0; i < debits.size(); i++) {
+            CardTransactionRepository.Debit debit = debits.get(i);
+            debitsCents[i] = debit.getAmount().movePointRight(2).longValue();
+            if (!debit.getCreatedAt().isBefore(dayStart)) {
+                spentTodayCents += debitsCents[i];
+            }
+            if (!debit.getCreatedAt().isBefore(windowStart)) {
+                recentDebits++;
+            }
+        }
+        if (debits.size() == HISTORY_DEBITS && !debits.get(debits.size() - 1).getCreatedAt().isBefore(dayStart)) {
+            // Все загруженные списания сегодняшние - за день могли быть и более ранние
+            spentTodayCents = toCents(cardTransactionRepository.sumJuniorCardDebitsSince(cardId, dayStart));
+        }
+        return new CardHistory(spentTodayCents, recentDebits, debitsCents);
+    }
+
+    /**
+     * Учитывает попытку в текущем интервале окна и возвращает количество попыток за окно.
+     */
+    private int registerAttempt(int slot, long nowMillis) {
+        int base = slot * VELOCITY_BUCKETS;
+        long bucket = nowMillis / velocityBucketMillis;
+        long lastBucket = lastVelocityBuckets[slot];
+        if (bucket - lastBucket >= VELOCITY_BUCKETS) {
+            Arrays.fill(velocityCounts, base, base + VELOCITY_BUCKETS, (short) 0);
+        } else {
+            // Обнуляем интервалы, которые вышли из окна с момента последней попытки
+            for (long expired = lastBucket + 1; expired <= bucket; expired++) {
+                velocityCounts[base + (int) (expired % VELOCITY_BUCKETS)] = 0;
+            }
+        }
+        if (bucket > lastBucket) {
+            lastVelocityBuckets[slot] = bucket;
+        }
+
+        int current = base + (int) (Math.max(bucket, lastBucket) % VELOCITY_BUCKETS);
+        if (velocityCounts[current] < Short.MAX_VALUE) {
+            velocityCounts[current]++;
+        }
+        int attempts = 0;
+        for (int i = base; i < base + VELOCITY_BUCKETS; i++) {
+            attempts += velocityCounts[i];
+        }
+        return attempts;
+    }
+
+    /**
+     * Применяет правила к попытке списания.
+     *
+     * @return причина отклонения или null, если списание допустимо
+     */
+    private String evaluate(int slot, int childAge, long amountCents, int attempts) {
+        if (amountCents > maxTransactionCentsByAge[childAge]) {
+            return "сумма превышает лимит одной операции для возраста " + childAge;
+        }
+        if (spentTodayCents[slot] + amountCents > dailyLimitCentsByAge[childAge]) {
+            return "превышен дневной лимит для возраста " + childAge;
+        }
+        if (attempts > maxAuthorizationsPerWindow) {
+            return "слишком частые операции";
+        }
+        if (histogramTotals[slot] >= minHistoryForAmountCheck
+                && amountBucket(amountCents) > typicalAmountBucket(slot) + amountOutlierBuckets) {
+            return "сумма нетипична для карты";
+        }
+        return null;
+    }
+
+    /**
+     * Корзина, в которую укладываются 90% успешных списаний карты.
+     */
+    private int typicalAmountBucket(int slot) {
+        int base = slot * AMOUNT_BUCKETS;
+        int threshold = (histogramTotals[slot] * 9 + 9) / 10;
+        int cumulative = 0;
+        for (int bucket = 0; bucket < AMOUNT_BUCKETS; bucket++) {
+            cumulative += amountHistogram[base + bucket];
+            if (cumulative >= threshold) {
+                return bucket;
+            }
+        }
+        return AMOUNT_BUCKETS - 1;
+    }
+
+    private void addToHistogram(int slot, int bucket) {
+        int base = slot * AMOUNT_BUCKETS;
+        amountHistogram[base + bucket]++;
+        if (++histogramTotals[slot] >= HISTOGRAM_DECAY_THRESHOLD) {
+            int total = 0;
+            for (int i = base; i < base + AMOUNT_BUCKETS; i++) {
+                amountHistogram[i] >>= 1;
+                total += amountHistogram[i];
+            }
+            histogramTotals[slot] = (short) total;
+        }
+    }
+
+    private static int amountBucket(long amountCents) {
+        return Math.min(AMOUNT_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(amountCents / 100));
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? Long.MAX_VALUE : amount.movePointRight(2).longValue();
+    }
+
+    /**
+     * Состояние карты по журналу операций.
+     *
+     * @param spentTodayCents сумма списаний за текущий день
+     * @param recentDebits количество списаний в окне частоты
+     * @param debitsCents суммы последних списаний
+     */
+    private record CardHistory(long spentTodayCents, int recentDebits, long[] debitsCents) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.lum1nar.junior_card.service;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * Точечная инвалидация записей кэша второго уровня Hibernate после нативных UPDATE одной строки
+ * (см. {@link com.lum1nar.junior_card.config.CacheConfig#SINGLE_ROW_UPDATES_QUERY_SPACE}).
+ * Запись блокируется в кэше так же, как при обновлении сущности через Hibernate: до завершения транзакции
+ * ее нельзя ни прочитать из кэша, ни положить в кэш заново, поэтому другие транзакции читают строку из БД
+ * и не кэшируют незафиксированное или устаревшее состояние. Блокировка снимается после коммита или отката.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator {
+
+    private final EntityManager entityManager;
+
+    /**
+     * Инвалидирует запись сущности в кэше второго уровня до конца текущей транзакции.
+     * Если сущность не кэшируется (или кэш выключен), ничего не делает.
+     *
+     * @param entityClass класс сущности
+     * @param id ID сущности
+     */
+    public void invalidate(Class<?> entityClass, Object id) {
+        EventSource session = entityManager.unwrap(EventSource.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entityClass);
+        EntityDataAccess cacheAccess = persister.getCacheAccessStrategy();
+        if (cacheAccess == null) {
+            return;
+        }
+        Object key = cacheAccess.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+        // Запись удаляется до блокировки: иначе блокировка унаследует версию записи, а баланс и счетчики
+        // версию не меняют - и Hibernate не положил бы карту в кэш повторно до истечения TTL
+        cacheAccess.remove(session, key);
+        SoftLock lock = cacheAccess.lockItem(session, key, null);
+        session.getActionQueue().registerProcess((success, completedSession) ->
+                cacheAccess.unlockItem(completedSession, key, lock));
+    }
+}
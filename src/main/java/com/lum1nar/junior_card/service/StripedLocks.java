@@ -0,0 +1,42 @@
+package com.lum1nar.junior_card.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Набор блокировок, разделенных по ключу (lock striping): ключ отображается на одну из
+ * фиксированного числа блокировок. Операции над разными картами почти никогда не конкурируют,
+ * а память не растет с количеством карт.
+ */
+final class StripedLocks {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * @param stripes количество блокировок (округляется вверх до степени двойки)
+     */
+    StripedLocks(int stripes) {
+        int size = Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Возвращает блокировку для ключа.
+     * Младшие биты последовательных ID перемешиваются, чтобы соседние карты попадали в разные блокировки равномерно.
+     *
+     * @param key ключ (ID карты)
+     * @return блокировка, соответствующая ключу
+     */
+    ReentrantLock get(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return locks[(int) (hash ^ (hash >>> 32)) & mask];
+    }
+
+    int size() {
+        return locks.length;
+    }
+}
@@ -0,0 +1,169 @@
+package com.lum1nar.junior_card.sharding;
+
+import com.lum1nar.junior_card.config.ShardingProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Шарды хранилища карт.
+ * <p>
+ * Родительская карта со всеми своими детскими картами, операциями и событиями хранится в одном шарде.
+ * Номер шарда записан в старших битах ID ({@link #shardOf(long)}): каждый шард выдает ID
+ * из своего диапазона ({@link ShardAwareSequenceGenerator}), поэтому шард карты определяется по ее ID
+ * без справочника и без обращения к БД, а запросы "родитель - дети" всегда выполняются в одном шарде.
+ * Новые родительские карты распределяются по шардам по очереди.
+ * <p>
+ * Общие списки (страницы, поиск, выгрузка) собираются из всех шардов по очереди (scatter-gather):
+ * диапазоны ID шардов идут по возрастанию, поэтому keyset-страница по ID продолжается
+ * со следующего шарда, когда в текущем карты закончились.
+ * Без шардирования ({@code card.sharding.enabled=false}) шард один и все методы работают как прямой вызов.
+ */
+@Component
+public class CardShards {
+
+    /** Количество младших бит ID, отведенных под ID внутри шарда */
+    public static final int SHARD_SHIFT = 48;
+
+    /** Максимальное количество шардов (ID остаются положительными) */
+    public static final int MAX_SHARDS = 1 << (Long.SIZE - 1 - SHARD_SHIFT);
+
+    private final int count;
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final AtomicInteger nextParentShard = new AtomicInteger();
+
+    private volatile TransactionTemplate shardReadTemplate;
+
+    @Autowired
+    public CardShards(ShardingProperties properties, ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.count = properties.shardCount();
+        this.transactionManager = transactionManager;
+        if (count > MAX_SHARDS) {
+            throw new IllegalArgumentException("Не более " + MAX_SHARDS + " шардов, задано " + count);
+        }
+    }
+
+    private CardShards() {
+        this.count = 1;
+        this.transactionManager = null;
+    }
+
+    /**
+     * Хранилище без шардирования (например, для модульных тестов сервисов).
+     *
+     * @return один шард
+     */
+    public static CardShards single() {
+        return new CardShards();
+    }
+
+    /**
+     * Шард, в котором хранится карта (а также операции и события карты).
+     *
+     * @param id ID карты
+     * @return номер шарда
+     */
+    public static int shardOf(long id) {
+        return (int) (id >>> SHARD_SHIFT);
+    }
+
+    /**
+     * Первый ID диапазона шарда.
+     *
+     * @param shard номер шарда
+     * @return наименьший ID, который может выдать шард
+     */
+    public static long firstIdOf(int shard) {
+        return ((long) shard << SHARD_SHIFT) + 1;
+    }
+
+    /**
+     * @return количество шардов
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * @param shard номер шарда
+     * @return есть ли такой шард
+     */
+    public boolean contains(int shard) {
+        return shard >= 0 && shard < count;
+    }
+
+    /**
+     * Выбирает шард для новой родительской карты (по очереди).
+     *
+     * @return номер шарда
+     */
+    public int nextForNewParent() {
+        return count == 1 ? 0 : Math.floorMod(nextParentShard.getAndIncrement(), count);
+    }
+
+    /**
+     * Собирает keyset-страницу из шардов: начиная с шарда курсора, пока страница не заполнится.
+     * Запрос к каждому шарду выполняется в отдельной транзакции только для чтения.
+     *
+     * @param afterId курсор (ID последней записи предыдущей страницы)
+     * @param pageSize размер страницы
+     * @param shardPage запрос страницы в текущем шарде (записи по возрастанию ID, не больше pageSize)
+     * @return записи по возрастанию ID, не больше pageSize
+     */
+    public <T> List<T> collectPage(long afterId, int pageSize, Supplier<List<T>> shardPage) {
+        if (count == 1) {
+            return shardPage.get();
+        }
+        List<T> page = new ArrayList<>(pageSize);
+        for (int shard = Math.min(shardOf(afterId), count - 1); shard < count && page.size() < pageSize; shard++) {
+            page.addAll(inShard(shard, shardPage));
+        }
+        return page.size() > pageSize ? List.copyOf(page.subList(0, pageSize)) : page;
+    }
+
+    /**
+     * Выполняет работу в каждом шарде по очереди (в порядке диапазонов ID),
+     * каждый раз в отдельной транзакции только для чтения.
+     *
+     * @param shardWork работа с текущим шардом
+     */
+    public void forEach(Runnable shardWork) {
+        if (count == 1) {
+            shardWork.run();
+            return;
+        }
+        for (int shard = 0; shard < count; shard++) {
+            inShard(shard, () -> {
+                shardWork.run();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Транзакция шарда открывается как новая: вызывающий метод сервиса уже в транзакции,
+     * но она не обращается к БД (соединение берется лениво) и на время запроса к шарду приостанавливается.
+     */
+    private <T> T inShard(int shard, Supplier<T> work) {
+        return ShardContext.call(shard, () -> shardReadTemplate().execute(status -> work.get()));
+    }
+
+    private TransactionTemplate shardReadTemplate() {
+        TransactionTemplate template = shardReadTemplate;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager.getObject());
+            template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            template.setReadOnly(true);
+            shardReadTemplate = template;
+        }
+        return template;
+    }
+}
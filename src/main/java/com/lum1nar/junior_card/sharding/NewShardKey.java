@@ -0,0 +1,19 @@
+package com.lum1nar.junior_card.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Метод сервиса, создающий новую родительскую карту: шард для нее выбирается по очереди
+ * ({@link CardShards#nextForNewParent()}), и все ее детские карты затем создаются в том же шарде.
+ *
+ * @see ShardRoutingInterceptor
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface NewShardKey {
+}
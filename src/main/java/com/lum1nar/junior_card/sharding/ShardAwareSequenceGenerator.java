@@ -0,0 +1,36 @@
+package com.lum1nar.junior_card.sharding;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * Генератор ID из последовательности с учетом шардов.
+ * Последовательности каждого шарда начинаются с начала его диапазона (миграция V5), а пул значений
+ * (optimizer pooled, allocationSize 50) ведется отдельно для каждого шарда: иначе значения,
+ * полученные из последовательности одного шарда, достались бы записям другого.
+ * Для шарда 0 (и без шардирования) генератор работает как обычный {@link SequenceStyleGenerator}.
+ */
+public class ShardAwareSequenceGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        int shard = ShardContext.current();
+        AccessCallback callback = getDatabaseStructure().buildCallback(session);
+        if (shard == 0) {
+            return getOptimizer().generate(callback);
+        }
+        return getOptimizer().generate(new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                return callback.getNextValue();
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return "shard-" + shard;
+            }
+        });
+    }
+}
@@ -0,0 +1,104 @@
+package com.lum1nar.junior_card.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Текущий шард потока: к нему {@link ShardRoutingDataSource} направляет новые соединения,
+ * а {@link ShardAwareSequenceGenerator} берет из него диапазон ID.
+ * Без явно заданного шарда работа идет с шардом 0.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    /** Поток обрабатывает HTTP-запрос (см. {@link ShardContextFilter}) */
+    private static final ThreadLocal<Boolean> IN_REQUEST = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return номер текущего шарда (0, если шард не задан)
+     */
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard != null ? shard : 0;
+    }
+
+    /**
+     * Выполняет работу на заданном шарде и восстанавливает прежний текущий шард.
+     *
+     * @param shard номер шарда
+     * @param work работа
+     * @return результат работы
+     */
+    public static <T> T call(int shard, Supplier<T> work) {
+        Integer previous = enter(shard);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Выполняет работу на заданном шарде и восстанавливает прежний текущий шард.
+     *
+     * @param shard номер шарда
+     * @param work работа
+     */
+    public static void run(int shard, Runnable work) {
+        call(shard, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Делает шард текущим для вызова метода сервиса.
+     *
+     * @param shard номер шарда
+     * @return прежний шард для {@link #exit(Integer)}
+     */
+    static Integer enter(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    /**
+     * Завершает вызов метода сервиса. В HTTP-запросе шард остается текущим до конца запроса:
+     * сущности, возвращенные из сервиса, догружают ленивые связи при сериализации ответа
+     * (open-in-view) из того же шарда. Вне HTTP-запроса прежний шард восстанавливается.
+     *
+     * @param previous прежний шард из {@link #enter(int)}
+     */
+    static void exit(Integer previous) {
+        if (IN_REQUEST.get() == null) {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Начало обработки HTTP-запроса.
+     */
+    static void openRequest() {
+        IN_REQUEST.set(Boolean.TRUE);
+    }
+
+    /**
+     * Конец обработки HTTP-запроса: шард, выбранный в запросе, сбрасывается.
+     */
+    static void closeRequest() {
+        IN_REQUEST.remove();
+        CURRENT.remove();
+    }
+
+    private static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
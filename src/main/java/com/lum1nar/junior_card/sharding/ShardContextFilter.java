@@ -0,0 +1,27 @@
+package com.lum1nar.junior_card.sharding;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Отмечает поток как обрабатывающий HTTP-запрос: шард, выбранный сервисом, остается текущим
+ * до конца запроса (для ленивой загрузки при сериализации ответа) и сбрасывается после него.
+ */
+public class ShardContextFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ShardContext.openRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.closeRequest();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.lum1nar.junior_card.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Параметр метода сервиса, по которому выбирается шард: ID карты, коллекция ID
+ * или {@link ShardKeyed} (например, DTO с ID родительской карты).
+ * Все ключи одного вызова должны относиться к одному шарду.
+ *
+ * @see ShardRoutingInterceptor
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
@@ -0,0 +1,14 @@
+package com.lum1nar.junior_card.sharding;
+
+import java.util.Collection;
+
+/**
+ * Объект запроса, который знает ID карт, определяющих шард (см. {@link ShardKey}).
+ */
+public interface ShardKeyed {
+
+    /**
+     * @return ID карт, по которым выбирается шард
+     */
+    Collection<Long> shardKeys();
+}
@@ -0,0 +1,31 @@
+package com.lum1nar.junior_card.sharding;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+
+/**
+ * Источник данных, выдающий соединения с текущим шардом ({@link ShardContext}).
+ * Шард выбирается при первом запросе к БД, поэтому источник оборачивается
+ * в {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: начало транзакции
+ * еще не занимает соединение. Пулы дополнительных шардов закрываются вместе с источником,
+ * пул шарда 0 (источник по умолчанию) - отдельный бин и закрывается контекстом.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        DataSource defaultDataSource = getResolvedDefaultDataSource();
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource != defaultDataSource && dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.lum1nar.junior_card.sharding;
+
+import com.lum1nar.junior_card.exception.ApplicationException;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Выбирает шард для вызова метода сервиса карт до начала транзакции.
+ * <ul>
+ *     <li>параметр с {@link ShardKey} - шард карт, ID которых переданы;</li>
+ *     <li>метод с {@link NewShardKey} - следующий шард для новой родительской карты;</li>
+ *     <li>без аннотаций - текущий шард не меняется (общие списки обходят шарды сами, см. {@link CardShards}).</li>
+ * </ul>
+ * В HTTP-запросе выбранный шард остается текущим и после вызова (см. {@link ShardContext#exit(Integer)}).
+ * Перехватчик подключается как Spring AOP advice (см. {@link com.lum1nar.junior_card.config.ShardingConfig}).
+ */
+@RequiredArgsConstructor
+public class ShardRoutingInterceptor implements MethodInterceptor {
+
+    /** Метод без ключа шарда */
+    private static final int NO_KEY = -1;
+
+    /** Метод с {@link NewShardKey} */
+    private static final int NEW_KEY = -2;
+
+    private final CardShards cardShards;
+
+    /** Индекс параметра с {@link ShardKey} (или NO_KEY / NEW_KEY) для каждого метода */
+    private final ConcurrentMap<Method, Integer> keyParameters = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int keyParameter = keyParameters.computeIfAbsent(invocation.getMethod(),
+                method -> keyParameter(invocation.getThis() != null
+                        ? AopUtils.getMostSpecificMethod(method, invocation.getThis().getClass()) : method));
+        if (keyParameter == NO_KEY) {
+            return invocation.proceed();
+        }
+
+        int shard = keyParameter == NEW_KEY
+                ? cardShards.nextForNewParent()
+                : shardOf(invocation.getArguments()[keyParameter]);
+        if (shard != ShardContext.current() && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Смена шарда внутри транзакции: вызов " + invocation.getMethod().getName()
+                    + " относится к шарду " + shard + ", транзакция открыта в шарде " + ShardContext.current());
+        }
+        Integer previous = ShardContext.enter(shard);
+        try {
+            return invocation.proceed();
+        } finally {
+            ShardContext.exit(previous);
+        }
+    }
+
+    /**
+     * Определяет шард по значению ключа. ID из несуществующего шарда не может принадлежать карте
+     * и не учитывается: такие карты просто не будут найдены.
+     */
+    private int shardOf(Object key) {
+        Set<Integer> shards = new TreeSet<>();
+        collectShards(key, shards);
+        if (shards.size() > 1) {
+            throw new ApplicationException(
+                    "Карты запроса хранятся в разных шардах " + shards + ": разделите запрос по родительским картам",
+                    "CROSS_SHARD_REQUEST");
+        }
+        return shards.isEmpty() ? ShardContext.current() : shards.iterator().next();
+    }
+
+    private void collectShards(Object key, Set<Integer> shards) {
+        if (key instanceof Number id) {
+            int shard = CardShards.shardOf(id.longValue());
+            if (cardShards.contains(shard)) {
+                shards.add(shard);
+            }
+        } else if (key instanceof ShardKeyed shardKeyed) {
+            collectShards(shardKeyed.shardKeys(), shards);
+        } else if (key instanceof Collection<?> keys) {
+            keys.forEach(element -> collectShards(element, shards));
+        }
+    }
+
+    private static int keyParameter(Method method) {
+        if (method.isAnnotationPresent(NewShardKey.class)) {
+            return NEW_KEY;
+        }
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return i;
+                }
+            }
+        }
+        return NO_KEY;
+    }
+}
@@ -0,0 +1,44 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Сдвигает последовательности ID дополнительного шарда в его диапазон: номер шарда - старшие биты ID
+ * (см. {@code com.lum1nar.junior_card.sharding.CardShards}). Номер шарда передается плейсхолдером
+ * {@value #SHARD_PLACEHOLDER}; для основной БД (шард 0, плейсхолдер не задан) миграция ничего не меняет.
+ * Java-миграция, а не SQL: выражение ALTER SEQUENCE ... RESTART WITH требует вычисленного числа.
+ */
+public class V5__ShardSequenceRanges extends BaseJavaMigration {
+
+    /** Плейсхолдер Flyway с номером шарда */
+    public static final String SHARD_PLACEHOLDER = "card_shard";
+
+    /** Количество младших бит ID, отведенных под ID внутри шарда (как в CardShards) */
+    private static final int SHARD_SHIFT = 48;
+
+    /** Шаг последовательностей (allocationSize сущностей) */
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    private static final List<String> SEQUENCES = List.of(
+            "parent_cards_seq", "junior_cards_seq", "card_transactions_seq", "card_change_events_seq");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        String shardPlaceholder = context.getConfiguration().getPlaceholders().get(SHARD_PLACEHOLDER);
+        long shard = shardPlaceholder == null ? 0 : Long.parseLong(shardPlaceholder);
+        if (shard == 0) {
+            return;
+        }
+        // Первое значение - верхняя граница первого пула: ID шарда начинаются с (shard << 48) + 1
+        long restartWith = (shard << SHARD_SHIFT) + SEQUENCE_INCREMENT;
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String sequence : SEQUENCES) {
+                statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restartWith);
+            }
+        }
+    }
+}
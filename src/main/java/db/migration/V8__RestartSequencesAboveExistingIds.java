@@ -0,0 +1,57 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Переносит последовательности ID выше уже существующих ID. В БД, созданной до перехода на последовательности
+ * (IDENTITY, ddl-auto=update), записи уже занимают ID, а последовательности из V1/V6 начинаются с 1:
+ * без этой миграции первые вставки нарушили бы первичный ключ.
+ * Последовательность только сдвигается вперед: следующий пул (allocationSize 50) должен начинаться
+ * после наибольшего ID таблицы, а если он и так выше, последовательность не меняется
+ * (в том числе в дополнительных шардах, где V5 уже перенесла ее в диапазон шарда).
+ * Java-миграция, а не SQL: значение RESTART WITH вычисляется по данным.
+ */
+public class V8__RestartSequencesAboveExistingIds extends BaseJavaMigration {
+
+    /** Шаг последовательностей (allocationSize сущностей) */
+    private static final int SEQUENCE_INCREMENT = 50;
+
+    /** Последовательность - таблица, ID которой она выдает */
+    private static final Map<String, String> SEQUENCE_TABLES = Map.of(
+            "parent_cards_seq", "parent_cards",
+            "junior_cards_seq", "junior_cards",
+            "card_transactions_seq", "card_transactions");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean postgres = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+        try (Statement statement = connection.createStatement()) {
+            for (Map.Entry<String, String> sequenceTable : SEQUENCE_TABLES.entrySet()) {
+                String sequence = sequenceTable.getKey();
+                // Следующий пул займет ID (next, next + 50]: значения до next уже никто не получит
+                long next = queryLong(statement, postgres
+                        ? "SELECT nextval('" + sequence + "')"
+                        : "SELECT NEXT VALUE FOR " + sequence);
+                long maxId = queryLong(statement, "SELECT COALESCE(MAX(id), 0) FROM " + sequenceTable.getValue());
+                if (maxId > next) {
+                    // Пул Hibernate для значения N - ID (N - 50, N], поэтому первый ID будет maxId + 1
+                    statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + (maxId + SEQUENCE_INCREMENT));
+                }
+            }
+        }
+    }
+
+    private static long queryLong(Statement statement, String sql) throws Exception {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+-- Исходная схема: таблицы, последовательности и индексы, которые раньше создавал Hibernate (ddl-auto=update).
+-- Для уже существующей БД эта миграция не выполняется: Flyway помечает ее как baseline (см. application.properties).
+-- SQL совместим с PostgreSQL и H2.
+
+CREATE SEQUENCE parent_cards_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE junior_cards_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE card_transactions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE parent_cards (
+    id                BIGINT         NOT NULL,
+    name              VARCHAR(15)    NOT NULL,
+    status            VARCHAR(20)    NOT NULL CHECK (status IN ('ADMIN', 'CHILD', 'PARENT')),
+    age               INTEGER        NOT NULL CHECK (age BETWEEN 18 AND 99),
+    card_status       VARCHAR(20)    NOT NULL
+        CHECK (card_status IN ('PENDING', 'ACTIVE', 'SUSPENDED', 'EXPIRED', 'CANCELLED')),
+    junior_card_count INTEGER        DEFAULT 0 NOT NULL,
+    expires_at        TIMESTAMP(6),
+    balance           NUMERIC(19, 2) DEFAULT 0 NOT NULL,
+    version           BIGINT         DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE junior_cards (
+    id             BIGINT         NOT NULL,
+    name           VARCHAR(15)    NOT NULL,
+    child_age      INTEGER        NOT NULL CHECK (child_age BETWEEN 6 AND 17),
+    status         VARCHAR(20)    NOT NULL
+        CHECK (status IN ('PENDING', 'ACTIVE', 'SUSPENDED', 'EXPIRED', 'CANCELLED')),
+    parent_card_id BIGINT         NOT NULL,
+    expires_at     TIMESTAMP(6),
+    balance        NUMERIC(19, 2) DEFAULT 0 NOT NULL,
+    version        BIGINT         DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_junior_cards_parent_card FOREIGN KEY (parent_card_id) REFERENCES parent_cards (id)
+);
+
+CREATE TABLE card_transactions (
+    id             BIGINT         NOT NULL,
+    junior_card_id BIGINT,
+    parent_card_id BIGINT,
+    type           VARCHAR(20)    NOT NULL CHECK (type IN ('DEBIT', 'CREDIT', 'TOP_UP', 'DEPOSIT')),
+    amount         NUMERIC(19, 2) NOT NULL,
+    balance_after  NUMERIC(19, 2) NOT NULL,
+    description    VARCHAR(100),
+    created_at     TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Поиск истекших карт планировщиком: WHERE status = 'ACTIVE' AND expires_at <= ? ORDER BY expires_at
+CREATE INDEX idx_junior_cards_status_expires_at ON junior_cards (status, expires_at);
+CREATE INDEX idx_parent_cards_card_status_expires_at ON parent_cards (card_status, expires_at);
+
+-- История операций карты: WHERE junior_card_id = ? AND id < ? ORDER BY id DESC (и то же для родителя)
+CREATE INDEX idx_card_transactions_junior_card_id_id ON card_transactions (junior_card_id, id);
+CREATE INDEX idx_card_transactions_parent_card_id_id ON card_transactions (parent_card_id, id);
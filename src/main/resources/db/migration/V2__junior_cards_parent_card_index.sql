@@ -0,0 +1,5 @@
+-- Детские карты родителя: countByParentCard_Id, findByParentCard_Id, findDtosByParentCardIds,
+-- коллекция ParentCard.juniorCards и проверка внешнего ключа при удалении родителя.
+-- PostgreSQL не создает индексы для внешних ключей сам, без этого индекса все эти запросы читают таблицу целиком.
+-- Второй столбец - статус: фильтр карт родителя по статусу выполняется по тому же индексу.
+CREATE INDEX IF NOT EXISTS idx_junior_cards_parent_card_id_status ON junior_cards (parent_card_id, status);
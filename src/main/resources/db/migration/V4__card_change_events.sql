@@ -0,0 +1,30 @@
+-- Outbox изменений карт: событие пишется в той же транзакции, что и изменение карты.
+-- feed_offset назначает релей (CardChangeRelay) после коммита - в порядке публикации, без пропусков;
+-- до публикации он NULL. Потребители читают ленту по feed_offset (GET /api/cards/changes?since=).
+CREATE SEQUENCE card_change_events_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE card_change_events (
+    id             BIGINT       NOT NULL,
+    feed_offset    BIGINT,
+    card_type      VARCHAR(10)  NOT NULL CHECK (card_type IN ('JUNIOR', 'PARENT')),
+    card_id        BIGINT       NOT NULL,
+    parent_card_id BIGINT,
+    change_type    VARCHAR(20)  NOT NULL CHECK (change_type IN ('CREATED', 'UPDATED', 'STATUS_CHANGED', 'DELETED')),
+    status         VARCHAR(20)
+        CHECK (status IN ('PENDING', 'ACTIVE', 'SUSPENDED', 'EXPIRED', 'CANCELLED')),
+    occurred_at    TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Чтение ленты: WHERE feed_offset > ? ORDER BY feed_offset; неопубликованные: WHERE feed_offset IS NULL
+CREATE UNIQUE INDEX idx_card_change_events_feed_offset ON card_change_events (feed_offset);
+
+-- Последнее выданное смещение ленты. Строка блокируется релеем на время публикации порции,
+-- поэтому релеи на разных узлах назначают смещения по очереди и не пересекаются.
+CREATE TABLE card_change_feed_state (
+    id          INTEGER NOT NULL,
+    last_offset BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO card_change_feed_state (id, last_offset) VALUES (1, 0);
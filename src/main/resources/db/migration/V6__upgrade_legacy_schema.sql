@@ -0,0 +1,35 @@
+-- Доводит до схемы V1 БД, созданную до Flyway через ddl-auto=update. Такая БД принимается за версию 1
+-- (baseline), но в ней может не быть последовательностей, новых колонок, таблицы операций и индексов V1 -
+-- в зависимости от версии приложения, которая ее создала. Все выражения идемпотентны:
+-- для БД, созданной миграцией V1, миграция ничего не меняет.
+-- SQL совместим с PostgreSQL и H2.
+
+CREATE SEQUENCE IF NOT EXISTS parent_cards_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS junior_cards_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS card_transactions_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE parent_cards ADD COLUMN IF NOT EXISTS junior_card_count INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE parent_cards ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP(6);
+ALTER TABLE parent_cards ADD COLUMN IF NOT EXISTS balance NUMERIC(19, 2) DEFAULT 0 NOT NULL;
+ALTER TABLE parent_cards ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE junior_cards ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP(6);
+ALTER TABLE junior_cards ADD COLUMN IF NOT EXISTS balance NUMERIC(19, 2) DEFAULT 0 NOT NULL;
+ALTER TABLE junior_cards ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS card_transactions (
+    id             BIGINT         NOT NULL,
+    junior_card_id BIGINT,
+    parent_card_id BIGINT,
+    type           VARCHAR(20)    NOT NULL CHECK (type IN ('DEBIT', 'CREDIT', 'TOP_UP', 'DEPOSIT')),
+    amount         NUMERIC(19, 2) NOT NULL,
+    balance_after  NUMERIC(19, 2) NOT NULL,
+    description    VARCHAR(100),
+    created_at     TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_junior_cards_status_expires_at ON junior_cards (status, expires_at);
+CREATE INDEX IF NOT EXISTS idx_parent_cards_card_status_expires_at ON parent_cards (card_status, expires_at);
+CREATE INDEX IF NOT EXISTS idx_card_transactions_junior_card_id_id ON card_transactions (junior_card_id, id);
+CREATE INDEX IF NOT EXISTS idx_card_transactions_parent_card_id_id ON card_transactions (parent_card_id, id);
@@ -0,0 +1,6 @@
+-- Счетчик детских карт родителя (junior_card_count) проверяет лимит карт в условном UPDATE
+-- (ParentCardRepository.incrementJuniorCardCount). В БД, где колонку добавила V6 (или ddl-auto=update),
+-- у всех родителей счетчик 0 при уже существующих картах - заполняем его фактическим количеством.
+-- Для БД, созданной миграцией V1, счетчики уже совпадают с количеством карт и не меняются.
+UPDATE parent_cards p
+SET junior_card_count = (SELECT COUNT(*) FROM junior_cards c WHERE c.parent_card_id = p.id);
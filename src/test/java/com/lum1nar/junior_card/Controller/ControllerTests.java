@@ -4,9 +4,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.lum1nar.junior_card.controller.CardController;
 import com.lum1nar.junior_card.dto.*;
 import com.lum1nar.junior_card.exception.AccountLimitCards;
+import com.lum1nar.junior_card.exception.ApplicationException;
 import com.lum1nar.junior_card.exception.CardNotFoundException;
+import com.lum1nar.junior_card.exception.InsufficientFundsException;
+import com.lum1nar.junior_card.exception.PreconditionFailedException;
+import com.lum1nar.junior_card.model.CardChangeType;
 import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.CardTransactionType;
+import com.lum1nar.junior_card.model.CardType;
 import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.model.UserStatus;
+import com.lum1nar.junior_card.service.CardChangeFeedService;
+import com.lum1nar.junior_card.service.CardLedgerService;
 import com.lum1nar.junior_card.service.CardService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
@@ -15,9 +25,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -39,6 +58,12 @@ class CardControllerTest {
     @MockBean
     private CardService cardService;
 
+    @MockBean
+    private CardLedgerService cardLedgerService;
+
+    @MockBean
+    private CardChangeFeedService cardChangeFeedService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -95,6 +120,77 @@ class CardControllerTest {
         verify(cardService, never()).createJuniorCard(any());
     }
 
+    /**
+     * Тест: Пакетное создание детских карт
+     * Ожидается: HTTP 201 CREATED с ID созданных карт
+     */
+    @Test
+    void testCreateJuniorCardsBatch_ValidRequest_Returns201() throws Exception {
+        log.info("Выполняется тест: пакетное создание детских карт");
+
+        // ARRANGE
+        CreateCardBatchDto batchRequest = new CreateCardBatchDto(List.of(
+                new CreateCardDto("Вася", 14, 12L),
+                new CreateCardDto("Петя", 9, 12L)
+        ));
+        when(cardService.createJuniorCards(batchRequest.getCards())).thenReturn(List.of(51L, 52L));
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/cards/junior/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.createdCount").value(2))
+                .andExpect(jsonPath("$.ids", contains(51, 52)));
+    }
+
+    /**
+     * Тест: Массовое изменение статуса детских карт
+     * Ожидается: HTTP 200 OK с результатом по каждому ID
+     */
+    @Test
+    void testChangeJuniorStatuses_Returns200() throws Exception {
+        log.info("Выполняется тест: массовое изменение статуса");
+
+        // ARRANGE
+        BulkChangeStatusDto bulkRequest = new BulkChangeStatusDto(List.of(1L, 2L, 3L), CardStatus.SUSPENDED);
+        when(cardService.changeJuniorStatuses(bulkRequest)).thenReturn(new BulkChangeStatusResultDto(
+                CardStatus.SUSPENDED, 1, List.of(1L), List.of(3L), List.of(2L)));
+
+        // ACT & ASSERT
+        mockMvc.perform(put("/api/cards/junior/status:bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(bulkRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updatedCount").value(1))
+                .andExpect(jsonPath("$.notFound", contains(3)))
+                .andExpect(jsonPath("$.invalidTransition", contains(2)));
+    }
+
+    /**
+     * Тест: Пакет с невалидной картой
+     * Ожидается: HTTP 400 BAD REQUEST, пакет не обрабатывается
+     */
+    @Test
+    void testCreateJuniorCardsBatch_InvalidCard_Returns400() throws Exception {
+        log.info("Выполняется тест: пакет с невалидной картой");
+
+        // ARRANGE
+        CreateCardBatchDto batchRequest = new CreateCardBatchDto(List.of(
+                new CreateCardDto("Вася", 14, 12L),
+                new CreateCardDto("о", 3, 12L)
+        ));
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/cards/junior/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+
+        verify(cardService, never()).createJuniorCards(any());
+    }
+
     /**
      * Тест: Получение существующей детской карты по ID
      * Ожидается: HTTP 200 OK
@@ -104,12 +200,7 @@ class CardControllerTest {
         log.info("Выполняется тест: получение детской карты по ID");
 
         // ARRANGE
-        JuniorCard existingCard = JuniorCard.builder()
-                .id(5L)
-                .name("Макс")
-                .childAge(10)
-                .status(CardStatus.PENDING)
-                .build();
+        JuniorCardDto existingCard = new JuniorCardDto(5L, "Макс", CardStatus.PENDING, 10, 1L, null, 0L);
 
         when(cardService.getJuniorCardById(5L)).thenReturn(existingCard);
 
@@ -137,7 +228,52 @@ class CardControllerTest {
         // ACT & ASSERT
         mockMvc.perform(get("/api/cards/junior/999"))
                 .andExpect(status().isNotFound())
-                .andExpect(jsonPath("$.errorCode").value("CARD_NOT_FOUND"));
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.message").value("Card with ID 999 not found"))
+                .andExpect(jsonPath("$.errorCode").value("CARD_NOT_FOUND"))
+                .andExpect(jsonPath("$.path").value("/api/cards/junior/999"))
+                .andExpect(jsonPath("$.timestamp").isNotEmpty())
+                .andExpect(jsonPath("$.details").value(nullValue()));
+    }
+
+    /**
+     * Тест: Бизнес-ошибка с кавычками и переводом строки в сообщении
+     * Ожидается: HTTP 400, сообщение корректно экранировано в JSON; исключение создано без стека вызовов
+     */
+    @Test
+    void testBusinessError_MessageIsEscapedAndExceptionIsStackless() throws Exception {
+        log.info("Выполняется тест: экранирование сообщения бизнес-ошибки");
+
+        // ARRANGE
+        ApplicationException exception = new ApplicationException("Карта \"Вася\"\nне найдена", "TEST_ERROR");
+        when(cardService.getJuniorCardById(5L)).thenThrow(exception);
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/cards/junior/5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Карта \"Вася\"\nне найдена"))
+                .andExpect(jsonPath("$.errorCode").value("TEST_ERROR"));
+        assertThat(exception.getStackTrace().length, is(0));
+    }
+
+    /**
+     * Тест: Пул соединений с БД исчерпан
+     * Ожидается: HTTP 503 SERVICE UNAVAILABLE с заголовком Retry-After
+     */
+    @Test
+    void testGetJuniorCard_ConnectionPoolExhausted_Returns503() throws Exception {
+        log.info("Выполняется тест: нет свободного соединения с БД");
+
+        // ARRANGE
+        when(cardService.getJuniorCardById(5L))
+                .thenThrow(new CannotCreateTransactionException("Could not open JPA EntityManager for transaction"));
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/cards/junior/5"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.errorCode").value("DATABASE_UNAVAILABLE"));
     }
 
     /**
@@ -174,7 +310,8 @@ class CardControllerTest {
                 .childAge(12)
                 .build();
 
-        when(cardService.updateJuniorCard(eq(5L), any())).thenReturn(updatedCard);
+        when(cardService.updateJuniorCard(eq(5L), any(), isNull()))
+                .thenReturn(new CardUpdateResultDto<>(updatedCard, true));
 
         // ACT & ASSERT
         mockMvc.perform(put("/api/cards/junior/5")
@@ -185,9 +322,98 @@ class CardControllerTest {
                 .andExpect(jsonPath("$.childAge").value(12));
     }
 
+    /**
+     * Тест: Версия карты в ETag и условные запросы
+     * Ожидается: ETag в ответе на чтение, HTTP 304 для If-None-Match с той же версией,
+     * HTTP 412 при обновлении по устаревшему If-Match
+     */
+    @Test
+    void testJuniorCardVersion_ETagAndIfMatch() throws Exception {
+        log.info("Выполняется тест: ETag и If-Match детской карты");
+
+        // ARRANGE
+        when(cardService.getJuniorCardById(5L))
+                .thenReturn(new JuniorCardDto(5L, "Макс", CardStatus.ACTIVE, 10, 1L, null, 4L));
+        when(cardService.updateJuniorCard(eq(5L), any(), eq(3L)))
+                .thenThrow(new PreconditionFailedException(5L));
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/cards/junior/5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""));
+        mockMvc.perform(get("/api/cards/junior/5").header("If-None-Match", "\"4\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(put("/api/cards/junior/5")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateCardDto(12, "Новое имя"))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errorCode").value("PRECONDITION_FAILED"));
+    }
+
+    /**
+     * Тест: PATCH детской карты теми же и новыми данными
+     * Ожидается: HTTP 200 OK с текущей картой и версией в ETag; без изменений - с заголовком X-Card-Unchanged
+     */
+    @Test
+    void testPatchJuniorCard_Unchanged_Returns200WithUnchangedHeader() throws Exception {
+        log.info("Выполняется тест: PATCH без изменений");
+
+        // ARRANGE
+        JuniorCard card = JuniorCard.builder().id(5L).name("Макс").childAge(10).version(2L).build();
+        JuniorCard renamedCard = JuniorCard.builder().id(5L).name("Петя").childAge(10).version(3L).build();
+        when(cardService.updateJuniorCard(eq(5L), any(), isNull()))
+                .thenReturn(new CardUpdateResultDto<>(card, false), new CardUpdateResultDto<>(renamedCard, true));
+
+        // ACT & ASSERT
+        mockMvc.perform(patch("/api/cards/junior/5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateCardDto(10, "Макс"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"2\""))
+                .andExpect(header().string(CardController.UNCHANGED_HEADER, "true"))
+                .andExpect(jsonPath("$.name").value("Макс"));
+        mockMvc.perform(patch("/api/cards/junior/5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateCardDto(10, "Петя"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(header().doesNotExist(CardController.UNCHANGED_HEADER))
+                .andExpect(jsonPath("$.name").value("Петя"));
+    }
+
+    /**
+     * Тест: ETag родительской карты в ответах на чтение и на изменение
+     * Ожидается: один формат (версия родителя и свертка детских карт), одинаковое значение для одного состояния
+     */
+    @Test
+    void testParentCardETag_SameFormatForReadAndWrite() throws Exception {
+        log.info("Выполняется тест: формат ETag родительской карты");
+
+        // ARRANGE
+        ParentCardDto parentCardDto = new ParentCardDto(1L, "Иван", UserStatus.PARENT, 35, CardStatus.ACTIVE, null, 3L,
+                List.of(new JuniorCardDto(7L, "Макс", CardStatus.ACTIVE, 10, 1L, null, 2L),
+                        new JuniorCardDto(9L, "Вася", CardStatus.ACTIVE, 12, 1L, null, 0L)));
+        ParentCard parentCard = ParentCard.builder().id(1L).name("Иван").age(35).version(3L).build();
+        when(cardService.getParentCardById(1L)).thenReturn(parentCardDto);
+        when(cardService.updateParentCard(eq(1L), any(), eq(3L)))
+                .thenReturn(new CardUpdateResultDto<>(parentCard, true, parentCardDto.entityTag()));
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/cards/parent/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", parentCardDto.entityTag()));
+        mockMvc.perform(put("/api/cards/parent/1")
+                        .header("If-Match", parentCardDto.entityTag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateParentCardDto(35, "Иван"))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", parentCardDto.entityTag()));
+    }
+
     /**
      * Тест: Попытка превышения лимита карт (более 3)
-     * Ожидается: HTTP 409 CONFLICT с списком существующих карт
+     * Ожидается: HTTP 409 CONFLICT с кратким списком существующих карт (ID, имя, статус)
      */
     @Test
     void testCreateJuniorCard_LimitExceeded_Returns409() throws Exception {
@@ -196,10 +422,10 @@ class CardControllerTest {
         // ARRANGE
         CreateCardDto createCardRequest = new CreateCardDto("Вася", 10, 1L);
 
-        List<JuniorCard> existingCards = List.of(
-                JuniorCard.builder().id(1L).name("Карта1").build(),
-                JuniorCard.builder().id(2L).name("Карта2").build(),
-                JuniorCard.builder().id(3L).name("Карта3").build()
+        List<JuniorCardSummaryDto> existingCards = List.of(
+                new JuniorCardSummaryDto(1L, "Карта1", CardStatus.ACTIVE),
+                new JuniorCardSummaryDto(2L, "Карта2", CardStatus.ACTIVE),
+                new JuniorCardSummaryDto(3L, "Карта3", CardStatus.PENDING)
         );
 
         when(cardService.createJuniorCard(any()))
@@ -215,6 +441,206 @@ class CardControllerTest {
                         .content(objectMapper.writeValueAsString(createCardRequest)))
                 .andExpect(status().isConflict())
                 .andExpect(jsonPath("$.errorCode").value("ACCOUNT_LIMIT_EXCEEDED"))
-                .andExpect(jsonPath("$.existingCards", hasSize(3)));
+                .andExpect(jsonPath("$.existingCards", hasSize(3)))
+                .andExpect(jsonPath("$.existingCards[2].id").value(3))
+                .andExpect(jsonPath("$.existingCards[2].name").value("Карта3"))
+                .andExpect(jsonPath("$.existingCards[2].status").value("PENDING"))
+                .andExpect(jsonPath("$.existingCards[2].parentCard").doesNotExist());
+    }
+
+    /**
+     * Тест: Получение полной страницы детских карт
+     * Ожидается: HTTP 200 OK и курсор следующей страницы в заголовке
+     */
+    @Test
+    void testGetJuniorCardsPage_FullPage_ReturnsNextCursor() throws Exception {
+        log.info("Выполняется тест: получение страницы детских карт");
+
+        // ARRANGE
+        List<JuniorCardDto> page = List.of(
+                new JuniorCardDto(7L, "Карта1", CardStatus.PENDING, 10, 1L, null, 0L),
+                new JuniorCardDto(9L, "Карта2", CardStatus.PENDING, 12, 1L, null, 0L)
+        );
+        when(cardService.getJuniorCardsPage(5L, 2)).thenReturn(page);
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/cards/junior").param("afterId", "5").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(header().string(CardController.NEXT_CURSOR_HEADER, "9"));
+    }
+
+    /**
+     * Тест: Получение последней (неполной) страницы
+     * Ожидается: HTTP 200 OK без курсора следующей страницы
+     */
+    @Test
+    void testGetJuniorCardsPage_LastPage_HasNoCursor() throws Exception {
+        log.info("Выполняется тест: получение последней страницы детских карт");
+
+        // ARRANGE
+        when(cardService.getJuniorCardsPage(0L, 100))
+                .thenReturn(List.of(new JuniorCardDto(1L, "Карта1", CardStatus.PENDING, 10, 1L, null, 0L)));
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/cards/junior"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist(CardController.NEXT_CURSOR_HEADER));
+    }
+
+    /**
+     * Тест: Поиск детских карт по нескольким фильтрам
+     * Ожидается: HTTP 200 OK, параметры запроса собраны в фильтр, курсор следующей страницы в заголовке
+     */
+    @Test
+    void testSearchJuniorCards_BindsFilters() throws Exception {
+        log.info("Выполняется тест: поиск детских карт по фильтрам");
+
+        // ARRANGE
+        JuniorCardSearchDto filter = new JuniorCardSearchDto(Set.of(CardStatus.SUSPENDED), 15, 17, null, "Ва",
+                Set.of(CardStatus.ACTIVE));
+        when(cardService.searchJuniorCards(filter, 0L, 1))
+                .thenReturn(List.of(new JuniorCardDto(4L, "Вася", CardStatus.SUSPENDED, 16, 1L, null, 0L)));
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/cards/junior/search")
+                        .param("status", "SUSPENDED")
+                        .param("minAge", "15")
+                        .param("maxAge", "17")
+                        .param("namePrefix", "Ва")
+                        .param("parentStatus", "ACTIVE")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Вася"))
+                .andExpect(header().string(CardController.NEXT_CURSOR_HEADER, "4"));
+    }
+
+    /**
+     * Тест: Поиск с минимальным возрастом больше максимального
+     * Ожидается: HTTP 400 BAD_REQUEST, запрос к сервису не выполняется
+     */
+    @Test
+    void testSearchJuniorCards_InvalidAgeRange_ReturnsBadRequest() throws Exception {
+        log.info("Выполняется тест: поиск с некорректным диапазоном возраста");
+
+        // ACT & ASSERT
+        mockMvc.perform(get("/api/cards/junior/search").param("minAge", "15").param("maxAge", "10"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+        verify(cardService, never()).searchJuniorCards(any(), any(), anyInt());
+    }
+
+    /**
+     * Тест: Потоковая выгрузка детских карт
+     * Ожидается: HTTP 200 OK, по одной карте в строке NDJSON
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamJuniorCards_WritesNdjson() throws Exception {
+        log.info("Выполняется тест: потоковая выгрузка детских карт");
+
+        // ARRANGE
+        doAnswer(invocation -> {
+            Consumer<JuniorCardDto> consumer = invocation.getArgument(0);
+            consumer.accept(new JuniorCardDto(1L, "Карта1", CardStatus.PENDING, 10, 1L, null, 0L));
+            consumer.accept(new JuniorCardDto(2L, "Карта2", CardStatus.PENDING, 12, 1L, null, 0L));
+            return null;
+        }).when(cardService).streamAllJuniorCards(any(Consumer.class));
+
+        // ACT
+        MvcResult asyncResult = mockMvc.perform(get("/api/cards/junior/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // ASSERT
+        String body = mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length, is(2));
+        assertThat(objectMapper.readTree(lines[1]).get("id").asLong(), is(2L));
+    }
+
+    /**
+     * Тест: Получение изменений карт после смещения потребителя
+     * Ожидается: HTTP 200 OK, события после since и смещение следующего запроса в заголовке
+     */
+    @Test
+    void testGetCardChanges_ReturnsDeltaAndNextOffset() throws Exception {
+        log.info("Выполняется тест: получение ленты изменений карт");
+
+        // ARRANGE
+        when(cardChangeFeedService.awaitChanges(10L, 100, Duration.ofSeconds(20)))
+                .thenReturn(CompletableFuture.completedFuture(List.of(
+                        new CardChangeEventDto(11L, CardType.JUNIOR, 5L, 1L, CardChangeType.STATUS_CHANGED,
+                                CardStatus.ACTIVE, LocalDateTime.now()),
+                        new CardChangeEventDto(12L, CardType.PARENT, 1L, null, CardChangeType.UPDATED,
+                                CardStatus.ACTIVE, LocalDateTime.now()))));
+
+        // ACT
+        MvcResult asyncResult = mockMvc.perform(get("/api/cards/changes").param("since", "10").param("wait", "PT20S"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // ASSERT
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].changeType").value("STATUS_CHANGED"))
+                .andExpect(header().string(CardController.NEXT_CURSOR_HEADER, "12"));
+    }
+
+    // ========== ОПЕРАЦИИ ПО КАРТАМ (LEDGER TESTS) ==========
+
+    /**
+     * Тест: Успешное списание с детской карты
+     * Ожидается: HTTP 200 OK с записью журнала
+     */
+    @Test
+    void testDebitJuniorCard_Success_Returns200() throws Exception {
+        log.info("Выполняется тест: списание с детской карты");
+
+        // ARRANGE
+        AmountDto amountRequest = new AmountDto(new BigDecimal("12.50"));
+        when(cardLedgerService.debitJuniorCard(eq(1L), any())).thenReturn(new CardTransactionDto(
+                7L, CardTransactionType.DEBIT, new BigDecimal("12.50"), new BigDecimal("87.50"), null, LocalDateTime.now()));
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/cards/junior/1/debit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(amountRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.type").value("DEBIT"))
+                .andExpect(jsonPath("$.balanceAfter").value(87.5));
+    }
+
+    /**
+     * Тест: Списание при недостатке средств и с некорректной суммой
+     * Ожидается: HTTP 400 с кодом INSUFFICIENT_FUNDS и VALIDATION_ERROR соответственно
+     */
+    @Test
+    void testDebitJuniorCard_InsufficientFundsOrInvalidAmount_Returns400() throws Exception {
+        log.info("Выполняется тест: отклонение списания");
+
+        // ARRANGE
+        when(cardLedgerService.debitJuniorCard(eq(1L), any())).thenThrow(new InsufficientFundsException(1L));
+
+        // ACT & ASSERT
+        mockMvc.perform(post("/api/cards/junior/1/debit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AmountDto(new BigDecimal("100.00")))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("INSUFFICIENT_FUNDS"));
+
+        mockMvc.perform(post("/api/cards/junior/1/debit")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new AmountDto(new BigDecimal("0.001")))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+
+        verify(cardLedgerService, times(1)).debitJuniorCard(any(), any());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,107 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.config.CacheConfig;
+import com.lum1nar.junior_card.dto.ChangeStatusDto;
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.UpdateCardDto;
+import com.lum1nar.junior_card.dto.UpdateParentCardDto;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.service.CardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционные тесты кэша карт: чтение через кэш и точная инвалидация при изменениях.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-cache;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false"
+})
+class CardCacheTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Тест: Повторное чтение карты обслуживается из кэша, изменение карты инвалидирует ее и родителя
+     */
+    @Test
+    void juniorCard_IsCachedAndEvictedOnChange() {
+        log.info("Тест: кэширование и инвалидация детской карты");
+
+        // ARRANGE
+        ParentCard parentCard = cardService.createParentCard(new CreateParentCardDto("Родитель", 35));
+        JuniorCard card = cardService.createJuniorCard(new CreateCardDto("Вася", 10, parentCard.getId()));
+        Cache juniorCards = cacheManager.getCache(CacheConfig.JUNIOR_CARDS_CACHE);
+        Cache parentCards = cacheManager.getCache(CacheConfig.PARENT_CARDS_CACHE);
+
+        // ACT & ASSERT: чтение наполняет кэш
+        JuniorCardDto first = cardService.getJuniorCardById(card.getId());
+        assertSame(first, cardService.getJuniorCardById(card.getId()), "Повторное чтение должно идти из кэша");
+        cardService.getParentCardById(parentCard.getId());
+        assertNotNull(parentCards.get(parentCard.getId()));
+
+        // ACT & ASSERT: изменение карты инвалидирует ее и родителя
+        cardService.updateJuniorCard(card.getId(), new UpdateCardDto(11, null), null);
+        assertNull(juniorCards.get(card.getId()));
+        assertNull(parentCards.get(parentCard.getId()));
+        assertEquals(11, cardService.getJuniorCardById(card.getId()).childAge());
+
+        cardService.changeJuniorStatus(card.getId(), new ChangeStatusDto(CardStatus.ACTIVE), null);
+        assertNull(juniorCards.get(card.getId()));
+        assertEquals(CardStatus.ACTIVE, cardService.getJuniorCardById(card.getId()).status());
+
+        cardService.deleteJuniorCard(card.getId());
+        assertNull(juniorCards.get(card.getId()));
+
+        // ASSERT: счетчики попаданий доступны в метриках
+        assertTrue(meterRegistry.get("cache.gets")
+                .tag("cache", CacheConfig.JUNIOR_CARDS_CACHE).tag("result", "hit")
+                .functionCounter().count() >= 1);
+        log.info("Тест пройден: кэш детской карты инвалидируется точно");
+    }
+
+    /**
+     * Тест: Изменение родителя инвалидирует только его запись в кэше
+     */
+    @Test
+    void parentCard_IsEvictedOnUpdate() {
+        log.info("Тест: кэширование и инвалидация родительской карты");
+
+        // ARRANGE
+        ParentCard parentCard = cardService.createParentCard(new CreateParentCardDto("Родитель", 35));
+        ParentCard otherParent = cardService.createParentCard(new CreateParentCardDto("Другой", 40));
+        Cache parentCards = cacheManager.getCache(CacheConfig.PARENT_CARDS_CACHE);
+        cardService.getParentCardById(parentCard.getId());
+        cardService.getParentCardById(otherParent.getId());
+
+        // ACT
+        cardService.updateParentCard(parentCard.getId(), new UpdateParentCardDto(36, null), null);
+
+        // ASSERT
+        assertNull(parentCards.get(parentCard.getId()));
+        assertNotNull(parentCards.get(otherParent.getId()), "Кэш других родителей не должен сбрасываться");
+        assertEquals(36, cardService.getParentCardById(parentCard.getId()).age());
+        log.info("Тест пройден: кэш родительской карты инвалидируется точно");
+    }
+}
@@ -0,0 +1,182 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.dto.BulkChangeStatusDto;
+import com.lum1nar.junior_card.dto.CardChangeEventDto;
+import com.lum1nar.junior_card.dto.ChangeStatusDto;
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.dto.UpdateCardDto;
+import com.lum1nar.junior_card.exception.CardNotFoundException;
+import com.lum1nar.junior_card.model.CardChangeType;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.CardType;
+import com.lum1nar.junior_card.service.CardChangeFeedService;
+import com.lum1nar.junior_card.service.CardService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест outbox и ленты изменений карт.
+ * Релей по расписанию отключен: публикация вызывается из теста, чтобы порядок был детерминированным.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-changes;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "card.expiry.enabled=false",
+        "card.changes.relay.enabled=false"
+})
+class CardChangeFeedTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardChangeFeedService cardChangeFeedService;
+
+    private long since;
+
+    @BeforeEach
+    void setUp() {
+        publish();
+        List<CardChangeEventDto> existing = cardChangeFeedService.getChanges(0, CardService.MAX_PAGE_SIZE);
+        since = existing.isEmpty() ? 0 : existing.get(existing.size() - 1).offset();
+    }
+
+    /**
+     * Тест: Жизненный цикл родительской и детской карты
+     * Ожидается: каждое изменение - одно событие, смещения идут подряд в порядке изменений
+     */
+    @Test
+    void cardLifecycle_WritesOneEventPerMutation() {
+        log.info("Тест: события жизненного цикла карт");
+
+        // ACT
+        Long parentId = cardService.createParentCard(new CreateParentCardDto("Родитель", 35)).getId();
+        Long cardId = cardService.createJuniorCard(new CreateCardDto("Вася", 10, parentId)).getId();
+        cardService.updateJuniorCard(cardId, new UpdateCardDto(10, "Вася"), null); // без изменений - без события
+        cardService.updateJuniorCard(cardId, new UpdateCardDto(null, "Петя"), null);
+        cardService.changeJuniorStatus(cardId, new ChangeStatusDto(CardStatus.ACTIVE), null);
+        cardService.deleteJuniorCard(cardId);
+        cardService.deleteParentCard(parentId);
+        publish();
+
+        // ASSERT
+        List<CardChangeEventDto> changes = cardChangeFeedService.getChanges(since, 100);
+        assertEquals(List.of(CardChangeType.CREATED, CardChangeType.CREATED, CardChangeType.UPDATED,
+                        CardChangeType.STATUS_CHANGED, CardChangeType.DELETED, CardChangeType.DELETED),
+                changes.stream().map(CardChangeEventDto::changeType).toList());
+        for (int i = 0; i < changes.size(); i++) {
+            assertEquals(since + i + 1, changes.get(i).offset());
+        }
+        assertEquals(CardType.PARENT, changes.get(0).cardType());
+        assertEquals(parentId, changes.get(1).parentCardId());
+        assertEquals(CardStatus.ACTIVE, changes.get(3).status());
+        assertNull(changes.get(4).status());
+        log.info("Тест пройден: события записаны по одному на изменение");
+    }
+
+    /**
+     * Тест: Массовые изменения и откат транзакции
+     * Ожидается: события пишутся по каждой измененной карте, откаченное изменение событий не оставляет
+     */
+    @Test
+    void bulkChangesAndRollback_AreReflectedExactly() {
+        log.info("Тест: события массовых изменений и откат");
+
+        // ARRANGE
+        Long parentId = cardService.createParentCard(new CreateParentCardDto("Родитель", 35)).getId();
+        List<Long> cardIds = cardService.createJuniorCards(List.of(
+                new CreateCardDto("Вася", 10, parentId), new CreateCardDto("Петя", 11, parentId)));
+
+        // ACT
+        cardService.changeJuniorStatuses(new BulkChangeStatusDto(List.of(cardIds.get(0), cardIds.get(1), 999_999L),
+                CardStatus.ACTIVE));
+        assertThrows(CardNotFoundException.class,
+                () -> cardService.createJuniorCard(new CreateCardDto("Коля", 9, 999_999L)));
+        publish();
+
+        // ASSERT
+        List<CardChangeEventDto> changes = cardChangeFeedService.getChanges(since, 100);
+        assertEquals(5, changes.size());
+        assertEquals(2, changes.stream().filter(e -> e.changeType() == CardChangeType.STATUS_CHANGED
+                && e.cardType() == CardType.JUNIOR && cardIds.contains(e.cardId())).count());
+        assertTrue(changes.stream().noneMatch(e -> e.cardId() == 999_999L));
+        log.info("Тест пройден: массовые изменения и откат отражены в ленте точно");
+    }
+
+    /**
+     * Тест: Ожидание новых событий потребителем, прочитавшим ленту до конца
+     * Ожидается: запрос не завершается до публикации и получает только новые события
+     */
+    @Test
+    void awaitChanges_CompletesOnPublish() throws Exception {
+        log.info("Тест: long-poll ленты изменений");
+
+        // ARRANGE
+        CompletableFuture<List<CardChangeEventDto>> pending =
+                cardChangeFeedService.awaitChanges(since, 100, Duration.ofSeconds(10));
+        assertFalse(pending.isDone());
+
+        // ACT
+        Long parentId = cardService.createParentCard(new CreateParentCardDto("Родитель", 35)).getId();
+        assertFalse(pending.isDone());
+        publish();
+
+        // ASSERT
+        List<CardChangeEventDto> changes = pending.get(5, TimeUnit.SECONDS);
+        assertEquals(1, changes.size());
+        assertEquals(parentId, changes.get(0).cardId());
+        assertEquals(0, cardChangeFeedService.waitingCount());
+        log.info("Тест пройден: ожидающий запрос получил новое событие");
+    }
+
+    /**
+     * Тест: Релей опубликовал две порции, а между ними порцию опубликовал другой узел
+     * Ожидается: ожидающий запрос получает все события подряд, включая порцию другого узла
+     */
+    @Test
+    void awaitChanges_InterleavedPublishers_ReturnsEveryEvent() throws Exception {
+        log.info("Тест: long-poll при публикации порций несколькими узлами");
+
+        // ARRANGE
+        CompletableFuture<List<CardChangeEventDto>> pending =
+                cardChangeFeedService.awaitChanges(since, 100, Duration.ofSeconds(10));
+        assertFalse(pending.isDone());
+
+        // ACT: порции первого узла (firstNode) перемежаются порцией второго узла
+        Long firstParentId = cardService.createParentCard(new CreateParentCardDto("Первый", 35)).getId();
+        List<CardChangeEventDto> firstNode = new ArrayList<>(cardChangeFeedService.publishPending(CardService.MAX_PAGE_SIZE));
+        Long secondParentId = cardService.createParentCard(new CreateParentCardDto("Второй", 36)).getId();
+        List<CardChangeEventDto> secondNode = cardChangeFeedService.publishPending(CardService.MAX_PAGE_SIZE);
+        Long thirdParentId = cardService.createParentCard(new CreateParentCardDto("Третий", 37)).getId();
+        firstNode.addAll(cardChangeFeedService.publishPending(CardService.MAX_PAGE_SIZE));
+        cardChangeFeedService.onPublished(firstNode);
+
+        // ASSERT
+        assertEquals(1, secondNode.size());
+        List<CardChangeEventDto> changes = pending.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(firstParentId, secondParentId, thirdParentId),
+                changes.stream().map(CardChangeEventDto::cardId).toList());
+        assertEquals(List.of(since + 1, since + 2, since + 3),
+                changes.stream().map(CardChangeEventDto::offset).toList());
+        log.info("Тест пройден: события другого узла не пропущены");
+    }
+
+    private void publish() {
+        cardChangeFeedService.onPublished(cardChangeFeedService.publishPending(CardService.MAX_PAGE_SIZE));
+    }
+}
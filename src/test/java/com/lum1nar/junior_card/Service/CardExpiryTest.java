@@ -0,0 +1,123 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.model.UserStatus;
+import com.lum1nar.junior_card.repository.CardRepository;
+import com.lum1nar.junior_card.repository.ParentCardRepository;
+import com.lum1nar.junior_card.service.CardService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест перевода истекших карт в EXPIRED.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-expiry;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "card.expiry.enabled=false"
+})
+class CardExpiryTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private ParentCardRepository parentCardRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private ParentCard parentCard;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository.deleteAll();
+        parentCardRepository.deleteAll();
+        parentCard = parentCardRepository.save(ParentCard.builder()
+                .name("Родитель").age(35).status(UserStatus.PARENT).cardStatus(CardStatus.ACTIVE)
+                .expiresAt(LocalDateTime.now().plusYears(1)).build());
+    }
+
+    /**
+     * Тест: Истекают только активные карты с прошедшим сроком
+     * Ожидается: остальные карты не меняются
+     */
+    @Test
+    void expireDueJuniorCards_ExpiresOnlyDueActiveCards() {
+        log.info("Тест: перевод истекших карт в EXPIRED");
+
+        // ARRANGE
+        JuniorCard due = saveCard(CardStatus.ACTIVE, LocalDateTime.now().minusDays(1));
+        JuniorCard notDue = saveCard(CardStatus.ACTIVE, LocalDateTime.now().plusDays(1));
+        JuniorCard suspended = saveCard(CardStatus.SUSPENDED, LocalDateTime.now().minusDays(1));
+
+        // ACT
+        int expired = cardService.expireDueJuniorCards(100);
+
+        // ASSERT
+        assertEquals(1, expired);
+        assertEquals(CardStatus.EXPIRED, cardRepository.findById(due.getId()).orElseThrow().getStatus());
+        assertEquals(CardStatus.ACTIVE, cardRepository.findById(notDue.getId()).orElseThrow().getStatus());
+        assertEquals(CardStatus.SUSPENDED, cardRepository.findById(suspended.getId()).orElseThrow().getStatus());
+        assertEquals(0, cardService.expireDueJuniorCards(100), "Повторный запуск не должен ничего менять");
+        log.info("Тест пройден: истекли только нужные карты");
+    }
+
+    /**
+     * Тест: Параллельные обработчики захватывают разные карты
+     * Ожидается: карты, заблокированные одной транзакцией, пропускаются другой (SKIP LOCKED)
+     */
+    @Test
+    void claimExpiredActiveCards_SkipsCardsLockedByAnotherNode() {
+        log.info("Тест: захват истекших карт с SKIP LOCKED");
+
+        // ARRANGE
+        JuniorCard lockedFirst = saveCard(CardStatus.ACTIVE, LocalDateTime.now().minusDays(3));
+        JuniorCard lockedSecond = saveCard(CardStatus.ACTIVE, LocalDateTime.now().minusDays(2));
+        JuniorCard free = saveCard(CardStatus.ACTIVE, LocalDateTime.now().minusDays(1));
+        TransactionTemplate firstNode = new TransactionTemplate(transactionManager);
+        TransactionTemplate secondNode = new TransactionTemplate(transactionManager);
+        secondNode.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // ACT: первый узел держит блокировку двух карт, пока второй захватывает свою порцию
+        List<CardRepository.ExpiredCard> claimed = firstNode.execute(firstStatus -> {
+            entityManager.find(JuniorCard.class, lockedFirst.getId(), LockModeType.PESSIMISTIC_WRITE);
+            entityManager.find(JuniorCard.class, lockedSecond.getId(), LockModeType.PESSIMISTIC_WRITE);
+            return secondNode.execute(secondStatus ->
+                    cardRepository.claimExpiredActiveCards(LocalDateTime.now(), 2));
+        });
+
+        // ASSERT
+        assertEquals(List.of(free.getId()), claimed.stream().map(CardRepository.ExpiredCard::getId).toList());
+        log.info("Тест пройден: заблокированные карты пропущены");
+    }
+
+    private JuniorCard saveCard(CardStatus status, LocalDateTime expiresAt) {
+        return cardRepository.save(JuniorCard.builder()
+                .name("Вася").childAge(10).parentCard(parentCard).status(status).expiresAt(expiresAt).build());
+    }
+}
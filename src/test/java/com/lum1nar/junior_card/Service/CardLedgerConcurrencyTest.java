@@ -0,0 +1,240 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.dto.AmountDto;
+import com.lum1nar.junior_card.exception.ApplicationException;
+import com.lum1nar.junior_card.exception.InsufficientFundsException;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.CardTransaction;
+import com.lum1nar.junior_card.model.CardTransactionType;
+import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.model.UserStatus;
+import com.lum1nar.junior_card.repository.CardRepository;
+import com.lum1nar.junior_card.repository.CardTransactionRepository;
+import com.lum1nar.junior_card.repository.ParentCardRepository;
+import com.lum1nar.junior_card.service.CardLedgerService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест журнала операций по картам, включая нагрузочную проверку
+ * корректности балансов при параллельных пополнениях и списаниях.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-ledger;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=16",
+        "card.expiry.enabled=false",
+        "card.fraud.enabled=false"
+})
+class CardLedgerConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int OPERATIONS_PER_THREAD = 200;
+    private static final BigDecimal PARENT_DEPOSIT = new BigDecimal("1000.00");
+
+    @Autowired
+    private CardLedgerService cardLedgerService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private ParentCardRepository parentCardRepository;
+
+    @Autowired
+    private CardTransactionRepository cardTransactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        cardTransactionRepository.deleteAll();
+        cardRepository.deleteAll();
+        parentCardRepository.deleteAll();
+    }
+
+    /**
+     * Тест: Параллельные пополнения и списания по небольшому числу карт
+     * Ожидается: деньги не появляются и не исчезают, балансы не отрицательные и совпадают с журналом
+     */
+    @Test
+    void concurrentTopUpsAndDebits_KeepBalancesConsistent() throws Exception {
+        log.info("Тест: параллельные операции по картам сохраняют корректность балансов");
+
+        // ARRANGE: 2 родителя по 3 ребенка - высокая конкуренция за одни и те же строки
+        List<ParentCard> parents = new ArrayList<>();
+        List<JuniorCard> cards = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            ParentCard parent = saveParent(CardStatus.ACTIVE);
+            cardLedgerService.depositParentCard(parent.getId(), new AmountDto(PARENT_DEPOSIT));
+            parents.add(parent);
+            for (int j = 0; j < 3; j++) {
+                cards.add(saveCard(parent, CardStatus.ACTIVE));
+            }
+        }
+        BigDecimal totalDeposited = PARENT_DEPOSIT.multiply(BigDecimal.valueOf(parents.size()));
+        AtomicInteger succeeded = new AtomicInteger(parents.size());
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // ACT
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                    Long cardId = cards.get(random.nextInt(cards.size())).getId();
+                    AmountDto amount = new AmountDto(BigDecimal.valueOf(random.nextInt(1, 2000), 2));
+                    try {
+                        if (random.nextBoolean()) {
+                            cardLedgerService.topUpJuniorCard(cardId, amount);
+                        } else {
+                            cardLedgerService.debitJuniorCard(cardId, amount);
+                        }
+                        succeeded.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        executor.shutdown();
+
+        // ASSERT
+        List<CardTransaction> journal = cardTransactionRepository.findAll();
+        BigDecimal parentsTotal = BigDecimal.ZERO;
+        for (ParentCard parent : parents) {
+            BigDecimal balance = parentCardRepository.findBalanceById(parent.getId()).orElseThrow();
+            assertTrue(balance.signum() >= 0, "Баланс родителя не должен быть отрицательным");
+            assertEquals(0, balance.compareTo(parentMovements(journal, parent.getId())),
+                    "Баланс родителя должен совпадать с журналом");
+            parentsTotal = parentsTotal.add(balance);
+        }
+        BigDecimal spent = BigDecimal.ZERO;
+        BigDecimal cardsTotal = BigDecimal.ZERO;
+        for (JuniorCard card : cards) {
+            BigDecimal balance = cardRepository.findBalanceById(card.getId()).orElseThrow();
+            assertTrue(balance.signum() >= 0, "Баланс карты не должен быть отрицательным");
+            assertEquals(0, balance.compareTo(juniorMovements(journal, card.getId())),
+                    "Баланс карты должен совпадать с журналом");
+            cardsTotal = cardsTotal.add(balance);
+        }
+        for (CardTransaction transaction : journal) {
+            if (transaction.getType() == CardTransactionType.DEBIT) {
+                spent = spent.add(transaction.getAmount());
+            }
+        }
+        assertEquals(0, totalDeposited.compareTo(parentsTotal.add(cardsTotal).add(spent)),
+                "Сумма балансов и списаний должна равняться сумме зачислений");
+        assertEquals(succeeded.get(), cardTransactionRepository.count(),
+                "Каждой успешной операции соответствует одна запись журнала");
+        log.info("Тест пройден: {} успешных операций, {} отклонено из-за нехватки средств",
+                succeeded.get(), rejected.get());
+    }
+
+    /**
+     * Тест: Пополнение неактивной детской карты
+     * Ожидается: CARD_NOT_ACTIVE, списание с родительской карты откатывается
+     */
+    @Test
+    void topUpJuniorCard_InactiveCard_RollsBackParentDebit() {
+        log.info("Тест: пополнение неактивной карты не списывает средства родителя");
+
+        // ARRANGE
+        ParentCard parent = saveParent(CardStatus.ACTIVE);
+        cardLedgerService.depositParentCard(parent.getId(), new AmountDto(new BigDecimal("100.00")));
+        JuniorCard suspended = saveCard(parent, CardStatus.SUSPENDED);
+
+        // ACT
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> cardLedgerService.topUpJuniorCard(suspended.getId(), new AmountDto(new BigDecimal("10.00"))));
+
+        // ASSERT
+        assertEquals("CARD_NOT_ACTIVE", exception.getErrorCode());
+        assertEquals(0, new BigDecimal("100.00")
+                .compareTo(parentCardRepository.findBalanceById(parent.getId()).orElseThrow()));
+        assertEquals(0, cardRepository.findBalanceById(suspended.getId()).orElseThrow().signum());
+        assertEquals(1, cardTransactionRepository.count(), "В журнале только зачисление родителю");
+        log.info("Тест пройден: списание с родительской карты откатилось");
+    }
+
+    /**
+     * Тест: Списание суммы больше остатка
+     * Ожидается: InsufficientFundsException, баланс не меняется
+     */
+    @Test
+    void debitJuniorCard_InsufficientFunds_ThrowsException() {
+        log.info("Тест: списание при недостатке средств");
+
+        // ARRANGE
+        ParentCard parent = saveParent(CardStatus.ACTIVE);
+        JuniorCard card = saveCard(parent, CardStatus.ACTIVE);
+        cardLedgerService.creditJuniorCard(card.getId(), new AmountDto(new BigDecimal("5.00")));
+
+        // ACT & ASSERT
+        assertThrows(InsufficientFundsException.class,
+                () -> cardLedgerService.debitJuniorCard(card.getId(), new AmountDto(new BigDecimal("5.01"))));
+        assertEquals(0, new BigDecimal("5.00").compareTo(cardRepository.findBalanceById(card.getId()).orElseThrow()));
+        log.info("Тест пройден: списание отклонено");
+    }
+
+    /**
+     * Сальдо родительской карты по журналу: зачисления минус пополнения детских карт.
+     */
+    private static BigDecimal parentMovements(List<CardTransaction> journal, Long parentCardId) {
+        return journal.stream()
+                .filter(transaction -> parentCardId.equals(transaction.getParentCardId()))
+                .map(transaction -> transaction.getType() == CardTransactionType.DEPOSIT
+                        ? transaction.getAmount() : transaction.getAmount().negate())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Сальдо детской карты по журналу: зачисления и пополнения минус списания.
+     */
+    private static BigDecimal juniorMovements(List<CardTransaction> journal, Long juniorCardId) {
+        return journal.stream()
+                .filter(transaction -> juniorCardId.equals(transaction.getJuniorCardId()))
+                .map(transaction -> transaction.getType() == CardTransactionType.DEBIT
+                        ? transaction.getAmount().negate() : transaction.getAmount())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private ParentCard saveParent(CardStatus cardStatus) {
+        return parentCardRepository.save(ParentCard.builder()
+                .name("Родитель").age(35).status(UserStatus.PARENT).cardStatus(cardStatus)
+                .expiresAt(LocalDateTime.now().plusYears(1)).build());
+    }
+
+    private JuniorCard saveCard(ParentCard parent, CardStatus status) {
+        return cardRepository.save(JuniorCard.builder()
+                .name("Вася").childAge(10).parentCard(parent).status(status)
+                .expiresAt(LocalDateTime.now().plusYears(1)).build());
+    }
+}
@@ -0,0 +1,98 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.exception.AccountLimitCards;
+import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.repository.CardRepository;
+import com.lum1nar.junior_card.repository.ParentCardRepository;
+import com.lum1nar.junior_card.service.CardService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Нагрузочный тест проверки лимита карт.
+ * Сотни параллельных запросов на создание карты одному родителю не должны превысить лимит.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-limit;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=30000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false"
+})
+class CardLimitConcurrencyTest {
+
+    private static final int PARALLEL_REQUESTS = 300;
+    private static final int THREADS = 32;
+    private static final int MAX_CARDS_PER_PARENT = 3;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private ParentCardRepository parentCardRepository;
+
+    /**
+     * Тест: Параллельное создание карт одному родителю
+     * Ожидается: создано ровно 3 карты, остальные запросы получили ACCOUNT_LIMIT_EXCEEDED
+     */
+    @Test
+    void createJuniorCard_ParallelRequests_NeverExceedLimit() throws Exception {
+        log.info("Тест: {} параллельных созданий карты для одного родителя", PARALLEL_REQUESTS);
+
+        // ARRANGE
+        ParentCard parentCard = cardService.createParentCard(new CreateParentCardDto("Родитель", 35));
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        // ACT
+        List<Future<?>> futures = new ArrayList<>(PARALLEL_REQUESTS);
+        try {
+            for (int i = 0; i < PARALLEL_REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        cardService.createJuniorCard(new CreateCardDto("Ребенок", 10, parentCard.getId()));
+                        created.incrementAndGet();
+                    } catch (AccountLimitCards exception) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // ASSERT
+        assertEquals(MAX_CARDS_PER_PARENT, created.get(), "Создано больше карт, чем позволяет лимит");
+        assertEquals(PARALLEL_REQUESTS - MAX_CARDS_PER_PARENT, rejected.get());
+        assertEquals(MAX_CARDS_PER_PARENT, cardRepository.countByParentCard_Id(parentCard.getId()));
+        assertEquals(MAX_CARDS_PER_PARENT,
+                parentCardRepository.findById(parentCard.getId()).orElseThrow().getJuniorCardCount());
+        log.info("Тест пройден: создано {}, отклонено {}", created.get(), rejected.get());
+    }
+}
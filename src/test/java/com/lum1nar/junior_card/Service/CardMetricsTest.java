@@ -0,0 +1,78 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.exception.CardNotFoundException;
+import com.lum1nar.junior_card.metrics.CardServiceMetricsInterceptor;
+import com.lum1nar.junior_card.service.CardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Интеграционный тест метрик: таймеры сервисов по исходу и коду ошибки,
+ * таймеры запросов репозиториев, метрики пула соединений и экспорт в формате Prometheus.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-metrics;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "card.expiry.enabled=false"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class CardMetricsTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    /**
+     * Тест: Успешный и неуспешный вызовы сервиса
+     * Ожидается: отдельные таймеры для успеха и для кода ошибки, метрики видны в /actuator/prometheus
+     */
+    @Test
+    void cardServiceCalls_AreTimedByOutcomeAndErrorCode() throws Exception {
+        log.info("Тест: метрики вызовов сервиса");
+
+        // ACT
+        cardService.createParentCard(new CreateParentCardDto("Родитель", 35));
+        assertThrows(CardNotFoundException.class, () -> cardService.getParentCardById(999_999L));
+
+        // ASSERT
+        assertEquals(1, meterRegistry.get(CardServiceMetricsInterceptor.METRIC_NAME)
+                .tags("class", "CardService", "method", "createParentCard", "outcome", "success", "error_code", "none")
+                .timer().count());
+        assertEquals(1, meterRegistry.get(CardServiceMetricsInterceptor.METRIC_NAME)
+                .tags("method", "getParentCardById", "outcome", "error", "error_code", "CARD_NOT_FOUND")
+                .timer().count());
+        assertFalse(meterRegistry.get("spring.data.repository.invocations")
+                .tags("repository", "ParentCardRepository").timers().isEmpty());
+        assertNotNull(meterRegistry.get("hikaricp.connections.active").gauge());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "card_service_seconds_count{application=\"junior-card\",class=\"CardService\"," +
+                                "error_code=\"CARD_NOT_FOUND\",method=\"getParentCardById\",outcome=\"error\"}")))
+                .andExpect(content().string(containsString("hikaricp_connections_active")));
+        log.info("Тест пройден: метрики собираются и экспортируются");
+    }
+}
@@ -0,0 +1,188 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.dto.BulkChangeStatusDto;
+import com.lum1nar.junior_card.dto.CardUpdateResultDto;
+import com.lum1nar.junior_card.dto.ChangeStatusDto;
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.dto.UpdateCardDto;
+import com.lum1nar.junior_card.dto.UpdateParentCardDto;
+import com.lum1nar.junior_card.exception.ConcurrentCardUpdateException;
+import com.lum1nar.junior_card.exception.InvalidStatusTransitionException;
+import com.lum1nar.junior_card.exception.PreconditionFailedException;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.JuniorCard;
+import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.service.CardService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест оптимистической блокировки карт: версии, If-Match и параллельная смена статусов.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-versions;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "card.expiry.enabled=false"
+})
+class CardOptimisticLockingTest {
+
+    private static final int THREADS = 8;
+    private static final int CHANGES_PER_THREAD = 50;
+
+    @Autowired
+    private CardService cardService;
+
+    /**
+     * Тест: Параллельное переключение статуса одной карты ACTIVE <-> SUSPENDED
+     * Ожидается: ни одно изменение не потеряно - версия выросла ровно на число успешных смен статуса
+     */
+    @Test
+    void concurrentStatusFlips_NoLostUpdates() throws Exception {
+        log.info("Тест: параллельная смена статуса одной карты");
+
+        // ARRANGE
+        Long cardId = createActiveCard();
+        long initialVersion = cardService.getJuniorCardById(cardId).version();
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        // ACT
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            CardStatus target = t % 2 == 0 ? CardStatus.SUSPENDED : CardStatus.ACTIVE;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < CHANGES_PER_THREAD; i++) {
+                    try {
+                        cardService.changeJuniorStatus(cardId, new ChangeStatusDto(target), null);
+                        succeeded.incrementAndGet();
+                    } catch (InvalidStatusTransitionException | ConcurrentCardUpdateException e) {
+                        // Карта уже в целевом статусе или попытки исчерпаны - изменение не применено
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // ASSERT
+        long finalVersion = cardService.getJuniorCardById(cardId).version();
+        log.info("Успешных смен статуса: {}, отклонено: {}", succeeded.get(), rejected.get());
+        assertTrue(succeeded.get() > 0);
+        assertEquals(THREADS * CHANGES_PER_THREAD, succeeded.get() + rejected.get());
+        assertEquals(initialVersion + succeeded.get(), finalVersion);
+        log.info("Тест пройден: изменения статуса не теряются");
+    }
+
+    /**
+     * Тест: Два клиента изменяют карту, прочитанную в одной версии
+     * Ожидается: первый успешен, второй получает PRECONDITION_FAILED; массовая смена статуса увеличивает версию
+     */
+    @Test
+    void staleExpectedVersion_IsRejected() {
+        log.info("Тест: изменение карты по устаревшей версии");
+
+        // ARRANGE
+        Long cardId = createActiveCard();
+        long version = cardService.getJuniorCardById(cardId).version();
+
+        // ACT
+        JuniorCard updated = cardService.updateJuniorCard(cardId, new UpdateCardDto(11, "Петя"), version).card();
+
+        // ASSERT
+        assertEquals(version + 1, updated.getVersion());
+        assertThrows(PreconditionFailedException.class,
+                () -> cardService.updateJuniorCard(cardId, new UpdateCardDto(12, null), version));
+        assertThrows(PreconditionFailedException.class,
+                () -> cardService.changeJuniorStatus(cardId, new ChangeStatusDto(CardStatus.SUSPENDED), version));
+
+        cardService.changeJuniorStatuses(new BulkChangeStatusDto(List.of(cardId), CardStatus.SUSPENDED));
+        assertEquals(version + 2, cardService.getJuniorCardById(cardId).version());
+        log.info("Тест пройден: устаревшая версия отклоняется");
+    }
+
+    /**
+     * Тест: Повторное обновление карты теми же данными
+     * Ожидается: изменений нет, UPDATE не выполняется - версия карты не растет
+     */
+    @Test
+    void identicalUpdate_DoesNotWrite() {
+        log.info("Тест: повторная отправка тех же данных карты");
+
+        // ARRANGE
+        Long cardId = createActiveCard();
+        cardService.updateJuniorCard(cardId, new UpdateCardDto(11, "Петя"), null);
+        long version = cardService.getJuniorCardById(cardId).version();
+
+        // ACT
+        CardUpdateResultDto<JuniorCard> result =
+                cardService.updateJuniorCard(cardId, new UpdateCardDto(11, "Петя"), null);
+
+        // ASSERT
+        assertFalse(result.modified());
+        assertEquals(version, result.card().getVersion());
+        assertEquals(version, cardService.getJuniorCardById(cardId).version());
+        log.info("Тест пройден: повторные данные не записываются");
+    }
+
+    /**
+     * Тест: ETag в ответах на изменение родительской карты
+     * Ожидается: ETag после изменения данных и статуса совпадает с ETag следующего чтения карты
+     */
+    @Test
+    void parentWrites_ReturnReadEntityTag() {
+        log.info("Тест: ETag родительской карты после изменения");
+
+        // ARRANGE
+        ParentCard parentCard = cardService.createParentCard(new CreateParentCardDto("Родитель", 35));
+        cardService.createJuniorCard(new CreateCardDto("Вася", 10, parentCard.getId()));
+        cardService.createJuniorCard(new CreateCardDto("Петя", 12, parentCard.getId()));
+
+        // ACT & ASSERT
+        CardUpdateResultDto<ParentCard> updated =
+                cardService.updateParentCard(parentCard.getId(), new UpdateParentCardDto(36, null), null);
+        assertEquals(cardService.getParentCardById(parentCard.getId()).entityTag(), updated.entityTag());
+
+        CardUpdateResultDto<ParentCard> unchanged =
+                cardService.updateParentCard(parentCard.getId(), new UpdateParentCardDto(36, null), null);
+        assertFalse(unchanged.modified());
+        assertEquals(updated.entityTag(), unchanged.entityTag());
+
+        CardUpdateResultDto<ParentCard> activated =
+                cardService.changeParentStatus(parentCard.getId(), new ChangeStatusDto(CardStatus.ACTIVE), null);
+        assertNotEquals(updated.entityTag(), activated.entityTag());
+        assertEquals(cardService.getParentCardById(parentCard.getId()).entityTag(), activated.entityTag());
+        log.info("Тест пройден: ETag изменения совпадает с ETag чтения");
+    }
+
+    private Long createActiveCard() {
+        ParentCard parentCard = cardService.createParentCard(new CreateParentCardDto("Родитель", 35));
+        JuniorCard card = cardService.createJuniorCard(new CreateCardDto("Вася", 10, parentCard.getId()));
+        cardService.changeJuniorStatus(card.getId(), new ChangeStatusDto(CardStatus.ACTIVE), null);
+        return card.getId();
+    }
+}
@@ -0,0 +1,206 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.config.FraudProperties;
+import com.lum1nar.junior_card.exception.SuspiciousTransactionException;
+import com.lum1nar.junior_card.repository.CardRepository;
+import com.lum1nar.junior_card.repository.CardTransactionRepository;
+import com.lum1nar.junior_card.service.FraudScoringStage;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit-тесты проверки списаний на подозрительность.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class FraudScoringStageTest {
+
+    private static final long CARD_ID = 5L;
+    private static final long NOW = 1_700_000_000_000L;
+    /** ID карт, попадающих в тот же набор слотов, что и CARD_ID (емкость 1024, 2 слота в наборе) */
+    private static final long COLLIDING_CARD_ID = 753L;
+    private static final long THIRD_COLLIDING_CARD_ID = 1501L;
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardTransactionRepository cardTransactionRepository;
+
+    private FraudScoringStage fraudScoringStage;
+
+    @BeforeEach
+    void setUp() {
+        FraudProperties properties = new FraudProperties();
+        properties.setCapacity(1024);
+        fraudScoringStage = new FraudScoringStage(properties, cardRepository, cardTransactionRepository);
+        when(cardRepository.findChildAgeById(CARD_ID)).thenReturn(Optional.of(8));
+    }
+
+    /**
+     * Тест: Частые списания с одной карты
+     * Ожидается: 11-я попытка за минуту отклоняется, после окна списания снова разрешены,
+     * возраст загружается из БД один раз
+     */
+    @Test
+    void score_TooManyAttemptsInWindow_ThrowsException() {
+        log.info("Тест: ограничение частоты списаний");
+
+        // ARRANGE
+        for (int i = 0; i < 10; i++) {
+            fraudScoringStage.score(CARD_ID, 10_00, NOW + i * 1000L);
+        }
+
+        // ACT & ASSERT
+        SuspiciousTransactionException exception = assertThrows(SuspiciousTransactionException.class,
+                () -> fraudScoringStage.score(CARD_ID, 10_00, NOW + 10_000L));
+        assertEquals("SUSPICIOUS_TRANSACTION", exception.getErrorCode());
+        assertEquals(0, exception.getStackTrace().length);
+        assertDoesNotThrow(() -> fraudScoringStage.score(CARD_ID, 10_00, NOW + 120_000L));
+        verify(cardRepository, times(1)).findChildAgeById(CARD_ID);
+        log.info("Тест пройден: частые списания отклонены");
+    }
+
+    /**
+     * Тест: Возрастные лимиты (8 лет: до 1000 за операцию и 3000 за день)
+     * Ожидается: превышение лимита операции и дневного лимита отклоняется
+     */
+    @Test
+    void score_AgeLimitsExceeded_ThrowsException() {
+        log.info("Тест: возрастные лимиты списаний");
+
+        // ACT & ASSERT
+        assertThrows(SuspiciousTransactionException.class,
+                () -> fraudScoringStage.score(CARD_ID, 1000_01, NOW));
+
+        for (int i = 0; i < 3; i++) {
+            long now = NOW + i * 60_000L;
+            fraudScoringStage.score(CARD_ID, 1000_00, now);
+            fraudScoringStage.recordApproved(CARD_ID, 1000_00, now);
+        }
+        assertThrows(SuspiciousTransactionException.class,
+                () -> fraudScoringStage.score(CARD_ID, 1_00, NOW + 240_000L));
+        log.info("Тест пройден: возрастные лимиты соблюдаются");
+    }
+
+    /**
+     * Тест: Сумма намного больше обычных для карты
+     * Ожидается: после накопления истории нетипичная сумма отклоняется, обычная - нет
+     */
+    @Test
+    void score_AmountOutlier_ThrowsException() {
+        log.info("Тест: нетипичная сумма списания");
+
+        // ARRANGE: 20 списаний по 50 рублей, по одному в минуту
+        for (int i = 0; i < 20; i++) {
+            long now = NOW + i * 60_000L;
+            fraudScoringStage.score(CARD_ID, 50_00, now);
+            fraudScoringStage.recordApproved(CARD_ID, 50_00, now);
+        }
+        long now = NOW + 20 * 60_000L;
+
+        // ACT & ASSERT
+        assertThrows(SuspiciousTransactionException.class,
+                () -> fraudScoringStage.score(CARD_ID, 900_00, now));
+        assertDoesNotThrow(() -> fraudScoringStage.score(CARD_ID, 60_00, now));
+        log.info("Тест пройден: нетипичная сумма отклонена");
+    }
+
+    /**
+     * Тест: Чередование списаний двух карт с одинаковым хэшем
+     * Ожидается: карты занимают разные слоты набора и не вытесняют друг друга -
+     * журнал операций и возраст читаются из БД один раз на карту
+     */
+    @Test
+    void score_TwoCollidingCards_NoRepeatedDatabaseQueries() {
+        log.info("Тест: две карты с одинаковым хэшем");
+
+        // ARRANGE
+        when(cardRepository.findChildAgeById(COLLIDING_CARD_ID)).thenReturn(Optional.of(8));
+
+        // ACT
+        for (int i = 0; i < 5; i++) {
+            long now = NOW + i * 60_000L;
+            fraudScoringStage.score(CARD_ID, 10_00, now);
+            fraudScoringStage.recordApproved(CARD_ID, 10_00, now);
+            fraudScoringStage.score(COLLIDING_CARD_ID, 10_00, now + 1000L);
+            fraudScoringStage.recordApproved(COLLIDING_CARD_ID, 10_00, now + 1000L);
+        }
+
+        // ASSERT
+        verify(cardTransactionRepository, times(1)).findRecentJuniorCardDebits(eq(CARD_ID), any());
+        verify(cardTransactionRepository, times(1)).findRecentJuniorCardDebits(eq(COLLIDING_CARD_ID), any());
+        verify(cardRepository, times(1)).findChildAgeById(CARD_ID);
+        verify(cardRepository, times(1)).findChildAgeById(COLLIDING_CARD_ID);
+        verify(cardTransactionRepository, never()).sumJuniorCardDebitsSince(anyLong(), any());
+        log.info("Тест пройден: карты с одинаковым хэшем не вытесняют друг друга");
+    }
+
+    /**
+     * Тест: Дневной лимит карты, вытесненной из набора двумя другими картами с тем же хэшем
+     * Ожидается: вытесняется карта, дольше всех не выполнявшая операций; ее состояние восстанавливается
+     * из журнала, превышение дневного лимита отклоняется
+     */
+    @Test
+    void score_EvictedByCollidingCards_DailyLimitHolds() {
+        log.info("Тест: дневной лимит после вытеснения карты из набора");
+
+        // ARRANGE: 3 списания по 1000 (дневной лимит 8 лет - 3000), затем набор занимают две другие карты
+        List<CardTransactionRepository.Debit> ledger = List.of(
+                debit(1000_00, NOW + 120_000L), debit(1000_00, NOW + 60_000L), debit(1000_00, NOW));
+        when(cardTransactionRepository.findRecentJuniorCardDebits(eq(CARD_ID), any()))
+                .thenReturn(List.of(), ledger);
+        when(cardTransactionRepository.findRecentJuniorCardDebits(eq(COLLIDING_CARD_ID), any()))
+                .thenReturn(List.of());
+        when(cardTransactionRepository.findRecentJuniorCardDebits(eq(THIRD_COLLIDING_CARD_ID), any()))
+                .thenReturn(List.of());
+        when(cardRepository.findChildAgeById(COLLIDING_CARD_ID)).thenReturn(Optional.of(8));
+        when(cardRepository.findChildAgeById(THIRD_COLLIDING_CARD_ID)).thenReturn(Optional.of(8));
+        for (int i = 0; i < 3; i++) {
+            long now = NOW + i * 60_000L;
+            fraudScoringStage.score(CARD_ID, 1000_00, now);
+            fraudScoringStage.recordApproved(CARD_ID, 1000_00, now);
+        }
+        fraudScoringStage.score(COLLIDING_CARD_ID, 10_00, NOW + 180_000L);
+        fraudScoringStage.recordApproved(COLLIDING_CARD_ID, 10_00, NOW + 180_000L);
+        fraudScoringStage.score(THIRD_COLLIDING_CARD_ID, 10_00, NOW + 200_000L);
+        fraudScoringStage.recordApproved(THIRD_COLLIDING_CARD_ID, 10_00, NOW + 200_000L);
+
+        // ACT & ASSERT
+        assertThrows(SuspiciousTransactionException.class,
+                () -> fraudScoringStage.score(CARD_ID, 1_00, NOW + 240_000L));
+        verify(cardTransactionRepository, times(2)).findRecentJuniorCardDebits(eq(CARD_ID), any());
+        verify(cardTransactionRepository, times(1)).findRecentJuniorCardDebits(eq(COLLIDING_CARD_ID), any());
+        log.info("Тест пройден: вытеснение из набора не обнулило дневной лимит");
+    }
+
+    private static CardTransactionRepository.Debit debit(long amountCents, long createdAtMillis) {
+        BigDecimal amount = BigDecimal.valueOf(amountCents, 2);
+        LocalDateTime createdAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtMillis), ZoneId.systemDefault());
+        return new CardTransactionRepository.Debit() {
+            @Override
+            public BigDecimal getAmount() {
+                return amount;
+            }
+
+            @Override
+            public LocalDateTime getCreatedAt() {
+                return createdAt;
+            }
+        };
+    }
+}
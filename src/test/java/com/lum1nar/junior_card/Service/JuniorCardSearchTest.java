@@ -0,0 +1,144 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.dto.ChangeStatusDto;
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardSearchDto;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.service.CardService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест поиска детских карт по фильтрам: сочетания фильтров, экранирование
+ * начала имени и keyset-пагинация результатов.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-search;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "card.expiry.enabled=false"
+})
+class JuniorCardSearchTest {
+
+    @Autowired
+    private CardService cardService;
+
+    /** Родитель в статусе ACTIVE; каждый тест создает своего, чтобы выборки не пересекались */
+    private Long activeParentId;
+
+    /** Родитель в статусе PENDING */
+    private Long pendingParentId;
+
+    @BeforeEach
+    void setUp() {
+        activeParentId = cardService.createParentCard(new CreateParentCardDto("Родитель", 35)).getId();
+        cardService.changeParentStatus(activeParentId, new ChangeStatusDto(CardStatus.ACTIVE), null);
+        pendingParentId = cardService.createParentCard(new CreateParentCardDto("Родитель", 40)).getId();
+    }
+
+    /**
+     * Тест: Приостановленные карты родителей в статусе ACTIVE
+     * Ожидается: найдены только SUSPENDED-карты активного родителя
+     */
+    @Test
+    void searchBySuspendedStatusAndActiveParent() {
+        log.info("Тест: поиск приостановленных карт активных родителей");
+
+        // ARRANGE
+        Long suspended = createCard("Вася", 10, activeParentId, CardStatus.SUSPENDED);
+        createCard("Петя", 11, activeParentId, CardStatus.ACTIVE);
+        createCard("Маша", 12, pendingParentId, CardStatus.SUSPENDED);
+
+        // ACT
+        List<JuniorCardDto> found = cardService.searchJuniorCards(
+                new JuniorCardSearchDto(Set.of(CardStatus.SUSPENDED), null, null, null, null, Set.of(CardStatus.ACTIVE)),
+                0L, 100);
+
+        // ASSERT
+        List<Long> ids = found.stream().map(JuniorCardDto::id).toList();
+        assertTrue(ids.contains(suspended));
+        assertTrue(found.stream().allMatch(card -> card.status() == CardStatus.SUSPENDED));
+        assertTrue(found.stream().noneMatch(card -> card.parentCardId().equals(pendingParentId)));
+        log.info("Тест пройден: найдено карт: {}", found.size());
+    }
+
+    /**
+     * Тест: Поиск по родителю, диапазону возраста и началу имени
+     * Ожидается: найдены только подходящие карты; '%' и '_' в начале имени сравниваются буквально
+     */
+    @Test
+    void searchByParentAgeRangeAndNamePrefix() {
+        log.info("Тест: поиск по родителю, возрасту и началу имени");
+
+        // ARRANGE (у родителя не больше 3 карт)
+        Long vasya = createCard("Вася", 15, activeParentId, null);
+        createCard("Вася", 10, activeParentId, null);
+        createCard("Петя", 16, activeParentId, null);
+        Long otherParentId = cardService.createParentCard(new CreateParentCardDto("Родитель", 45)).getId();
+        Long valya = createCard("Валя", 17, otherParentId, null);
+
+        // ACT
+        List<JuniorCardDto> found = cardService.searchJuniorCards(
+                new JuniorCardSearchDto(null, 15, 17, activeParentId, "Ва", null), 0L, 100);
+        List<JuniorCardDto> otherParent = cardService.searchJuniorCards(
+                new JuniorCardSearchDto(null, 15, 17, otherParentId, "Ва", null), 0L, 100);
+        List<JuniorCardDto> wildcard = cardService.searchJuniorCards(
+                new JuniorCardSearchDto(null, null, null, activeParentId, "%", null), 0L, 100);
+
+        // ASSERT
+        assertEquals(List.of(vasya), found.stream().map(JuniorCardDto::id).toList());
+        assertEquals(List.of(valya), otherParent.stream().map(JuniorCardDto::id).toList());
+        assertTrue(wildcard.isEmpty());
+        log.info("Тест пройден: фильтры применяются вместе");
+    }
+
+    /**
+     * Тест: Постраничный поиск по фильтру
+     * Ожидается: страницы идут по возрастанию ID без пропусков и повторов
+     */
+    @Test
+    void searchPages_FollowCursor() {
+        log.info("Тест: постраничный поиск по фильтру");
+
+        // ARRANGE
+        List<Long> created = List.of(
+                createCard("Аня", 8, pendingParentId, null),
+                createCard("Аня", 9, pendingParentId, null),
+                createCard("Аня", 10, pendingParentId, null));
+        JuniorCardSearchDto filter = new JuniorCardSearchDto(Set.of(CardStatus.PENDING), null, null, pendingParentId,
+                null, null);
+
+        // ACT
+        List<JuniorCardDto> first = cardService.searchJuniorCards(filter, 0L, 2);
+        List<JuniorCardDto> second = cardService.searchJuniorCards(filter, first.get(first.size() - 1).id(), 2);
+
+        // ASSERT
+        assertEquals(created.subList(0, 2), first.stream().map(JuniorCardDto::id).toList());
+        assertEquals(created.subList(2, 3), second.stream().map(JuniorCardDto::id).toList());
+        log.info("Тест пройден: курсор переходит между страницами");
+    }
+
+    private Long createCard(String name, int age, Long parentId, CardStatus status) {
+        Long cardId = cardService.createJuniorCard(new CreateCardDto(name, age, parentId)).getId();
+        if (status == CardStatus.SUSPENDED) {
+            // Из PENDING карта приостанавливается только после активации
+            cardService.changeJuniorStatus(cardId, new ChangeStatusDto(CardStatus.ACTIVE), null);
+        }
+        if (status != null) {
+            cardService.changeJuniorStatus(cardId, new ChangeStatusDto(status), null);
+        }
+        return cardId;
+    }
+}
@@ -0,0 +1,130 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.ParentCardDto;
+import com.lum1nar.junior_card.exception.AccountLimitCards;
+import com.lum1nar.junior_card.service.CardService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест перехода на Flyway для БД, созданной до него через ddl-auto=update.
+ * До миграций в пустой H2 создается исходная схема (IDENTITY-ключи, без последовательностей,
+ * счетчика карт, версий, баланса и сроков действия) с картами; Flyway принимает ее за версию 1
+ * и применяет остальные миграции, после чего приложение должно запуститься (ddl-auto=validate).
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-legacy-schema;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "card.expiry.enabled=false",
+        "card.changes.relay.enabled=false"
+})
+class LegacySchemaUpgradeTest {
+
+    /** ID родителя с тремя картами в исходной схеме */
+    private static final long FULL_PARENT_ID = 1;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class LegacySchemaConfig {
+
+        /**
+         * Создает исходную схему с данными до того, как Flyway применит миграции.
+         */
+        @Bean
+        FlywayMigrationStrategy legacySchemaMigrationStrategy() {
+            return flyway -> {
+                JdbcTemplate legacy = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+                legacy.execute("CREATE TABLE parent_cards (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                        + "name VARCHAR(15) NOT NULL, status VARCHAR(255) NOT NULL, age INTEGER NOT NULL, "
+                        + "card_status VARCHAR(255) NOT NULL)");
+                legacy.execute("CREATE TABLE junior_cards (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                        + "name VARCHAR(15) NOT NULL, child_age INTEGER NOT NULL, status VARCHAR(255) NOT NULL, "
+                        + "parent_card_id BIGINT NOT NULL REFERENCES parent_cards (id))");
+                legacy.update("INSERT INTO parent_cards (id, name, status, age, card_status) "
+                        + "VALUES (?, 'Родитель', 'PARENT', 35, 'ACTIVE')", FULL_PARENT_ID);
+                for (long cardId = 1; cardId <= 3; cardId++) {
+                    legacy.update("INSERT INTO junior_cards (id, name, child_age, status, parent_card_id) "
+                            + "VALUES (?, 'Ребенок', 10, 'ACTIVE', ?)", cardId, FULL_PARENT_ID);
+                }
+                flyway.migrate();
+            };
+        }
+    }
+
+    /**
+     * Тест: Чтение карт из исходной схемы после миграций
+     * Ожидается: приложение запущено, новые колонки заполнены значениями по умолчанию
+     */
+    @Test
+    void legacyCards_ReadableAfterUpgrade() {
+        log.info("Тест: чтение карт исходной схемы после миграций");
+
+        // ACT
+        ParentCardDto parent = cardService.getParentCardById(FULL_PARENT_ID);
+
+        // ASSERT
+        assertEquals(0, parent.version());
+        assertEquals(List.of(1L, 2L, 3L), parent.juniorCards().stream().map(JuniorCardDto::id).toList());
+        assertEquals(0, BigDecimal.ZERO.compareTo(jdbcTemplate.queryForObject(
+                "SELECT balance FROM parent_cards WHERE id = ?", BigDecimal.class, FULL_PARENT_ID)));
+        log.info("Тест пройден: исходная схема доведена до актуальной");
+    }
+
+    /**
+     * Тест: Создание карты родителю, у которого в исходной схеме уже 3 карты (счетчика карт не было)
+     * Ожидается: счетчик заполнен миграцией, лимит соблюдается - AccountLimitCards, новых карт нет
+     */
+    @Test
+    void legacyParentWithThreeCards_LimitHolds() {
+        log.info("Тест: лимит карт для родителя из исходной схемы");
+
+        // ACT & ASSERT
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT junior_card_count FROM parent_cards WHERE id = ?", Integer.class, FULL_PARENT_ID));
+        assertThrows(AccountLimitCards.class,
+                () -> cardService.createJuniorCard(new CreateCardDto("Вася", 10, FULL_PARENT_ID)));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM junior_cards WHERE parent_card_id = ?", Integer.class, FULL_PARENT_ID));
+        log.info("Тест пройден: лимит карт соблюдается после миграций");
+    }
+
+    /**
+     * Тест: Создание родителя и карты после миграций (ID в исходной схеме выдавались через IDENTITY)
+     * Ожидается: новые ID выше существующих, нарушения первичного ключа нет
+     */
+    @Test
+    void newCards_GetIdsAboveLegacyIds() {
+        log.info("Тест: ID новых карт после миграций");
+
+        // ACT
+        long parentId = cardService.createParentCard(new CreateParentCardDto("Новый", 40)).getId();
+        long cardId = cardService.createJuniorCard(new CreateCardDto("Петя", 12, parentId)).getId();
+
+        // ASSERT
+        assertTrue(parentId > FULL_PARENT_ID);
+        assertTrue(cardId > 3);
+        log.info("Тест пройден: родитель {}, карта {}", parentId, cardId);
+    }
+}
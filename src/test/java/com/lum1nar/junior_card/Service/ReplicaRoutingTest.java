@@ -0,0 +1,157 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.datasource.ReadYourWrites;
+import com.lum1nar.junior_card.datasource.ReplicaLagMonitor;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.dto.ParentCardDto;
+import com.lum1nar.junior_card.service.CardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест чтения с реплики на двух встроенных H2: primary (схема - миграциями при запуске)
+ * и реплика (схема - теми же миграциями из теста). Репликации между ними нет: строка, вставленная
+ * только в реплику, показывает, откуда прочитаны данные. Отставание реплики задается в таблице
+ * replication_status, проверка отставания вызывается из теста.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "card.expiry.enabled=false",
+        "card.changes.relay.enabled=false",
+        "card.datasource.routing.enabled=true",
+        "card.datasource.routing.replicas[0].url=" + ReplicaRoutingTest.REPLICA_URL,
+        "card.datasource.routing.lag-query=SELECT lag_seconds FROM replication_status",
+        "card.datasource.routing.lag-check-interval=PT1H",
+        "card.datasource.routing.max-lag=PT1S"
+})
+class ReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:card-routing-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration", "classpath:db/vendor/h2")
+                .load()
+                .migrate();
+        replica.execute("CREATE TABLE IF NOT EXISTS replication_status (lag_seconds DOUBLE PRECISION)");
+        replica.update("DELETE FROM replication_status");
+        replica.update("INSERT INTO replication_status VALUES (0)");
+        replicaLagMonitor.checkLag();
+        ReadYourWrites.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    /**
+     * Тест: Создание карты и чтение в транзакции только для чтения
+     * Ожидается: карта записана только в primary, чтение выполняется на реплике
+     */
+    @Test
+    void readOnlyTransactions_ReadFromReplica() {
+        log.info("Тест: запись на primary, чтение с реплики");
+
+        // ARRANGE
+        Long parentId = cardService.createParentCard(new CreateParentCardDto("Основной", 35)).getId();
+        assertEquals(0, replica.queryForObject("SELECT COUNT(*) FROM parent_cards WHERE id = ?", Integer.class, parentId));
+        copyToReplica(parentId, "Реплика");
+        ReadYourWrites.clear();
+
+        // ACT
+        List<ParentCardDto> page = cardService.getParentCardsPage(parentId - 1, 1);
+
+        // ASSERT
+        assertEquals("Реплика", page.get(0).name());
+        log.info("Тест пройден: запись - на primary, чтение - с реплики");
+    }
+
+    /**
+     * Тест: Чтение сразу после изменения
+     * Ожидается: в окне read-your-writes чтение идет на primary, после окна - на реплику
+     */
+    @Test
+    void readAfterWrite_ReadsFromPrimary() {
+        log.info("Тест: чтение своих изменений сразу после записи");
+
+        // ARRANGE
+        Long parentId = cardService.createParentCard(new CreateParentCardDto("Основной", 35)).getId();
+        copyToReplica(parentId, "Реплика");
+
+        // ACT
+        String afterWrite = cardService.getParentCardsPage(parentId - 1, 1).get(0).name();
+        ReadYourWrites.clear();
+        String afterWindow = cardService.getParentCardsPage(parentId - 1, 1).get(0).name();
+
+        // ASSERT
+        assertEquals("Основной", afterWrite);
+        assertEquals("Реплика", afterWindow);
+        log.info("Тест пройден: после записи клиент видит свои изменения");
+    }
+
+    /**
+     * Тест: Отставание реплики больше допустимого
+     * Ожидается: чтение идет на primary, отставание видно в метрике; после догона - снова на реплику
+     */
+    @Test
+    void laggingReplica_FallsBackToPrimary() {
+        log.info("Тест: отстающая реплика исключается из чтения");
+
+        // ARRANGE
+        Long parentId = cardService.createParentCard(new CreateParentCardDto("Основной", 35)).getId();
+        copyToReplica(parentId, "Реплика");
+        ReadYourWrites.clear();
+        replica.update("UPDATE replication_status SET lag_seconds = 60");
+
+        // ACT
+        replicaLagMonitor.checkLag();
+        String whileLagging = cardService.getParentCardsPage(parentId - 1, 1).get(0).name();
+        replica.update("UPDATE replication_status SET lag_seconds = 0.2");
+        replicaLagMonitor.checkLag();
+        String afterCatchUp = cardService.getParentCardsPage(parentId - 1, 1).get(0).name();
+
+        // ASSERT
+        assertEquals("Основной", whileLagging);
+        assertEquals("Реплика", afterCatchUp);
+        assertEquals(0.2, meterRegistry.get(ReplicaLagMonitor.LAG_METRIC).tag("replica", "replica-0").gauge().value());
+        log.info("Тест пройден: при отставании чтение идет на primary");
+    }
+
+    /**
+     * Имитирует реплику, на которой карта выглядит иначе, чем на primary.
+     */
+    private void copyToReplica(Long parentId, String name) {
+        replica.update("INSERT INTO parent_cards (id, name, status, age, card_status) VALUES (?, ?, 'PARENT', 35, 'PENDING')",
+                parentId, name);
+    }
+}
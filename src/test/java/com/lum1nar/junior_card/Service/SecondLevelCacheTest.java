@@ -0,0 +1,166 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.dto.AmountDto;
+import com.lum1nar.junior_card.dto.ChangeStatusDto;
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.model.CardStatus;
+import com.lum1nar.junior_card.model.ParentCard;
+import com.lum1nar.junior_card.repository.CardRepository;
+import com.lum1nar.junior_card.repository.ParentCardRepository;
+import com.lum1nar.junior_card.service.CardLedgerService;
+import com.lum1nar.junior_card.service.CardService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест кэша второго уровня Hibernate: чтение родительской карты и ее детских карт
+ * без обращений к БД, инвалидация при изменениях карт и метрики попаданий в кэш.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-l2-cache;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "card.expiry.enabled=false",
+        "card.fraud.enabled=false",
+        "card.changes.relay.enabled=false"
+})
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardLedgerService cardLedgerService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private ParentCardRepository parentCardRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Тест: Повторное чтение родительской карты вместе с коллекцией детских карт
+     * Ожидается: второе чтение не выполняет ни одного SQL-запроса, попадания видны в метриках
+     */
+    @Test
+    void parentCardWithJuniorCards_IsReadFromCache() {
+        log.info("Тест: повторное чтение родительской карты из кэша второго уровня");
+
+        // ARRANGE
+        Long parentId = createParentWithCards(2);
+        assertEquals(2, loadJuniorCardCount(parentId));
+        statistics.clear();
+
+        // ACT
+        int juniorCards = loadJuniorCardCount(parentId);
+
+        // ASSERT
+        assertEquals(2, juniorCards);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getCollectionStatistics(ParentCard.class.getName() + ".juniorCards").getCacheHitCount());
+        assertTrue(meterRegistry.get("hibernate.second.level.cache.requests")
+                .tags("region", "parent-card", "result", "hit")
+                .functionCounter().count() > 0);
+        log.info("Тест пройден: родитель и его карты читаются из кэша");
+    }
+
+    /**
+     * Тест: Изменения родителя и его карт после того, как они попали в кэш
+     * Ожидается: следующее чтение видит новую коллекцию, счетчик карт, баланс и статус
+     */
+    @Test
+    void parentAndChildMutations_InvalidateCache() {
+        log.info("Тест: инвалидация кэша второго уровня при изменениях карт");
+
+        // ARRANGE
+        Long parentId = createParentWithCards(1);
+        assertEquals(1, loadJuniorCardCount(parentId));
+
+        // ACT
+        Long cardId = cardService.createJuniorCard(new CreateCardDto("Петя", 9, parentId)).getId();
+        cardService.changeParentStatus(parentId, new ChangeStatusDto(CardStatus.ACTIVE), null);
+        cardLedgerService.depositParentCard(parentId, new AmountDto(new BigDecimal("100.00")));
+
+        // ASSERT
+        assertEquals(2, loadJuniorCardCount(parentId));
+        ParentCard parent = parentCardRepository.findById(parentId).orElseThrow();
+        assertEquals(2, parent.getJuniorCardCount());
+        assertEquals(CardStatus.ACTIVE, parent.getCardStatus());
+        assertEquals(0, new BigDecimal("100.00").compareTo(parent.getBalance()));
+
+        cardService.deleteJuniorCard(cardId);
+        assertEquals(1, loadJuniorCardCount(parentId));
+        assertEquals(1, parentCardRepository.findById(parentId).orElseThrow().getJuniorCardCount());
+        log.info("Тест пройден: кэш не возвращает устаревшие данные");
+    }
+
+    /**
+     * Тест: Повторный подсчет детских карт родителя
+     * Ожидается: второй подсчет берется из кэша запросов, после создания карты - пересчитывается
+     */
+    @Test
+    void countByParentCard_IsCachedUntilCardsChange() {
+        log.info("Тест: кэш результата подсчета детских карт");
+
+        // ARRANGE
+        Long parentId = createParentWithCards(2);
+        assertEquals(2, cardRepository.countByParentCard_Id(parentId));
+        statistics.clear();
+
+        // ACT
+        long cachedCount = cardRepository.countByParentCard_Id(parentId);
+
+        // ASSERT
+        assertEquals(2, cachedCount);
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        cardService.createJuniorCard(new CreateCardDto("Петя", 9, parentId));
+        assertEquals(3, cardRepository.countByParentCard_Id(parentId));
+        log.info("Тест пройден: подсчет кэшируется и сбрасывается при изменениях");
+    }
+
+    private Long createParentWithCards(int cards) {
+        Long parentId = cardService.createParentCard(new CreateParentCardDto("Родитель", 35)).getId();
+        for (int i = 0; i < cards; i++) {
+            cardService.createJuniorCard(new CreateCardDto("Вася", 10, parentId));
+        }
+        return parentId;
+    }
+
+    private int loadJuniorCardCount(Long parentId) {
+        return transactionTemplate.execute(status ->
+                parentCardRepository.findById(parentId).orElseThrow().getJuniorCards().size());
+    }
+}
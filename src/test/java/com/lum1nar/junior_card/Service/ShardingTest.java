@@ -0,0 +1,147 @@
+package com.lum1nar.junior_card.Service;
+
+import com.lum1nar.junior_card.dto.CardChangeEventDto;
+import com.lum1nar.junior_card.dto.CreateCardDto;
+import com.lum1nar.junior_card.dto.CreateParentCardDto;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.ParentCardDto;
+import com.lum1nar.junior_card.exception.ApplicationException;
+import com.lum1nar.junior_card.service.CardChangeFeedService;
+import com.lum1nar.junior_card.service.CardService;
+import com.lum1nar.junior_card.sharding.CardShards;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест шардирования на двух встроенных H2: шард 0 ({@code spring.datasource}) и шард 1.
+ * Схема обоих шардов создается миграциями при запуске; по прямым запросам к шарду 1 видно,
+ * где хранятся карты. Релей отключен: перенос и публикация событий вызываются из теста.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:card-shard-0;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.show-sql=false",
+        "card.expiry.enabled=false",
+        "card.changes.relay.enabled=false",
+        "card.sharding.enabled=true",
+        "card.sharding.shards[0].url=" + ShardingTest.SHARD_1_URL
+})
+class ShardingTest {
+
+    static final String SHARD_1_URL = "jdbc:h2:mem:card-shard-1;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardChangeFeedService cardChangeFeedService;
+
+    private final JdbcTemplate shard1 = new JdbcTemplate(new DriverManagerDataSource(SHARD_1_URL, "sa", ""));
+
+    private Long shard0Parent;
+    private Long shard1Parent;
+
+    @BeforeEach
+    void setUp() {
+        // Родители распределяются по шардам по очереди: из двух подряд один попадает в каждый шард
+        Long first = cardService.createParentCard(new CreateParentCardDto("Первый", 35)).getId();
+        Long second = cardService.createParentCard(new CreateParentCardDto("Второй", 40)).getId();
+        shard0Parent = CardShards.shardOf(first) == 0 ? first : second;
+        shard1Parent = CardShards.shardOf(first) == 0 ? second : first;
+    }
+
+    /**
+     * Тест: Создание родителей и детской карты
+     * Ожидается: ID несут номер шарда, детская карта хранится в шарде родителя и читается вместе с ним
+     */
+    @Test
+    void childCards_StayInParentShard() {
+        log.info("Тест: детская карта в шарде родителя");
+
+        // ACT
+        Long cardId = cardService.createJuniorCard(new CreateCardDto("Вася", 10, shard1Parent)).getId();
+        ParentCardDto parent = cardService.getParentCardById(shard1Parent);
+
+        // ASSERT
+        assertEquals(0, CardShards.shardOf(shard0Parent));
+        assertEquals(1, CardShards.shardOf(shard1Parent));
+        assertEquals(1, CardShards.shardOf(cardId));
+        assertEquals(1, shard1.queryForObject("SELECT COUNT(*) FROM junior_cards WHERE id = ?", Integer.class, cardId));
+        assertEquals(List.of(cardId), parent.juniorCards().stream().map(JuniorCardDto::id).toList());
+        assertEquals(cardId, cardService.getJuniorCardById(cardId).id());
+        log.info("Тест пройден: родитель и дети в одном шарде");
+    }
+
+    /**
+     * Тест: Страницы родительских карт
+     * Ожидается: страница собирается из обоих шардов по возрастанию ID и продолжается со следующего шарда
+     */
+    @Test
+    void pages_GatherAllShards() {
+        log.info("Тест: страница из всех шардов");
+
+        // ACT
+        List<Long> allIds = cardService.getParentCardsPage(0L, CardService.MAX_PAGE_SIZE).stream()
+                .map(ParentCardDto::id).toList();
+        List<Long> nextPage = cardService.getParentCardsPage(shard0Parent, 1).stream()
+                .map(ParentCardDto::id).toList();
+
+        // ASSERT
+        assertTrue(allIds.containsAll(List.of(shard0Parent, shard1Parent)));
+        assertEquals(allIds.stream().sorted().toList(), allIds);
+        assertEquals(1, nextPage.size());
+        assertTrue(nextPage.get(0) > shard0Parent);
+        log.info("Тест пройден: страница собрана из {} карт", allIds.size());
+    }
+
+    /**
+     * Тест: Пакетное создание карт для родителей из разных шардов
+     * Ожидается: 400 CROSS_SHARD_REQUEST, ни одна карта не создана
+     */
+    @Test
+    void crossShardBatch_Rejected() {
+        log.info("Тест: пакет карт из разных шардов");
+
+        // ACT & ASSERT
+        ApplicationException exception = assertThrows(ApplicationException.class, () ->
+                cardService.createJuniorCards(List.of(
+                        new CreateCardDto("Вася", 10, shard0Parent),
+                        new CreateCardDto("Петя", 11, shard1Parent))));
+        assertEquals("CROSS_SHARD_REQUEST", exception.getErrorCode());
+        assertTrue(cardService.getParentCardById(shard0Parent).juniorCards().isEmpty());
+        assertTrue(cardService.getParentCardById(shard1Parent).juniorCards().isEmpty());
+        log.info("Тест пройден: пакет из разных шардов отклонен");
+    }
+
+    /**
+     * Тест: Событие изменения карты из шарда 1
+     * Ожидается: событие переносится в ленту шарда 0 один раз и удаляется из шарда 1
+     */
+    @Test
+    void shardEvents_ForwardedToFeed() {
+        log.info("Тест: перенос событий шарда в ленту");
+
+        // ACT
+        int forwarded = cardChangeFeedService.forwardPending(1, 500);
+        int forwardedAgain = cardChangeFeedService.forwardPending(1, 500);
+        List<CardChangeEventDto> published = cardChangeFeedService.publishPending(500);
+
+        // ASSERT
+        assertTrue(forwarded > 0);
+        assertEquals(0, forwardedAgain);
+        assertEquals(0, shard1.queryForObject("SELECT COUNT(*) FROM card_change_events", Integer.class));
+        assertEquals(1, published.stream().filter(event -> event.cardId().equals(shard1Parent)).count());
+        log.info("Тест пройден: перенесено {} событий", forwarded);
+    }
+}
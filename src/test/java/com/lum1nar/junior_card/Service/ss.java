@@ -4,20 +4,35 @@ import com.lum1nar.junior_card.dto.*;
 import com.lum1nar.junior_card.exception.*;
 import com.lum1nar.junior_card.model.*;
 import com.lum1nar.junior_card.repository.*;
+import com.lum1nar.junior_card.config.StatusTransitionProperties;
+import com.lum1nar.junior_card.service.CardChangeOutbox;
 import com.lum1nar.junior_card.service.CardService;
+import com.lum1nar.junior_card.service.CardStatusTransitions;
+import com.lum1nar.junior_card.service.SecondLevelCacheInvalidator;
+import com.lum1nar.junior_card.sharding.CardShards;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @Slf4j
@@ -30,6 +45,24 @@ class CardServiceTest {
     @Mock
     private ParentCardRepository parentCardRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private SecondLevelCacheInvalidator secondLevelCacheInvalidator;
+
+    @Mock
+    private CardChangeOutbox cardChangeOutbox;
+
+    @Spy
+    private CardStatusTransitions statusTransitions = CardStatusTransitions.withDefaultRules();
+
+    @Spy
+    private CardShards cardShards = CardShards.single();
+
     @InjectMocks
     private CardService cardService;
 
@@ -60,8 +93,8 @@ class CardServiceTest {
     void createJuniorCard_ValidRequest_Success() {
         log.info("Тест: создание карты (успех)");
 
-        when(parentCardRepository.findById(1L)).thenReturn(Optional.of(testParent));
-        when(cardRepository.countByParentCard_Id(1L)).thenReturn(0L);
+        when(parentCardRepository.incrementJuniorCardCount(1L, 1, 3)).thenReturn(1);
+        when(parentCardRepository.getReferenceById(1L)).thenReturn(testParent);
         when(cardRepository.save(any(JuniorCard.class))).thenReturn(testCard);
 
         JuniorCard result = cardService.createJuniorCard(validRequest);
@@ -71,8 +104,10 @@ class CardServiceTest {
         assertEquals(10, result.getChildAge());
         assertEquals(CardStatus.PENDING, result.getStatus());
 
-        verify(parentCardRepository, times(1)).findById(1L);
-        verify(cardRepository, times(1)).countByParentCard_Id(1L);
+        verify(parentCardRepository, times(1)).incrementJuniorCardCount(1L, 1, 3);
+        verify(parentCardRepository, never()).findById(any());
+        verify(cardRepository, never()).countByParentCard_Id(any());
+        verify(cardRepository, never()).findSummariesByParentCardId(any());
         verify(cardRepository, times(1)).save(any(JuniorCard.class));
     }
 
@@ -81,7 +116,9 @@ class CardServiceTest {
         log.info("Тест: родитель не найден");
 
         CreateCardDto request = new CreateCardDto("Вася", 10, 999L);
-        when(parentCardRepository.findById(999L)).thenReturn(Optional.empty());
+        when(parentCardRepository.incrementJuniorCardCount(999L, 1, 3)).thenReturn(0);
+        when(cardRepository.findSummariesByParentCardId(999L)).thenReturn(List.of());
+        when(parentCardRepository.existsById(999L)).thenReturn(false);
 
         assertThrows(CardNotFoundException.class,
                 () -> cardService.createJuniorCard(request));
@@ -93,50 +130,135 @@ class CardServiceTest {
     void createJuniorCard_LimitExceeded_ThrowsException() {
         log.info("Тест: превышен лимит карт");
 
-        List<JuniorCard> existingCards = List.of(
-                JuniorCard.builder().id(1L).name("Карта1").build(),
-                JuniorCard.builder().id(2L).name("Карта2").build(),
-                JuniorCard.builder().id(3L).name("Карта3").build()
+        List<JuniorCardSummaryDto> existingCards = List.of(
+                new JuniorCardSummaryDto(1L, "Карта1", CardStatus.ACTIVE),
+                new JuniorCardSummaryDto(2L, "Карта2", CardStatus.ACTIVE),
+                new JuniorCardSummaryDto(3L, "Карта3", CardStatus.PENDING)
         );
 
-        when(parentCardRepository.findById(1L)).thenReturn(Optional.of(testParent));
-        when(cardRepository.countByParentCard_Id(1L)).thenReturn(3L);
-        when(cardRepository.findByParentCard_Id(1L)).thenReturn(existingCards);
+        when(parentCardRepository.incrementJuniorCardCount(1L, 1, 3)).thenReturn(0);
+        when(cardRepository.findSummariesByParentCardId(1L)).thenReturn(existingCards);
 
         AccountLimitCards exception = assertThrows(AccountLimitCards.class,
                 () -> cardService.createJuniorCard(validRequest));
 
         assertEquals("ACCOUNT_LIMIT_EXCEEDED", exception.getErrorCode());
+        assertEquals(existingCards, exception.getExistingCards());
+        verify(parentCardRepository, never()).existsById(any());
+        verify(cardRepository, never()).findByParentCard_Id(any());
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    void createJuniorCard_LimitExceeded_UsesCachedParent() {
+        log.info("Тест: превышен лимит карт, родитель в кэше");
+
+        ConcurrentMapCache parentCardsCache = new ConcurrentMapCache("parentCards");
+        parentCardsCache.put(1L, new ParentCardDto(1L, "Родитель", UserStatus.PARENT, 35, CardStatus.ACTIVE, null, 0L)
+                .withJuniorCards(List.of(
+                        new JuniorCardDto(1L, "Карта1", CardStatus.ACTIVE, 10, 1L, null, 0L),
+                        new JuniorCardDto(2L, "Карта2", CardStatus.ACTIVE, 12, 1L, null, 0L),
+                        new JuniorCardDto(3L, "Карта3", CardStatus.PENDING, 8, 1L, null, 0L))));
+
+        when(cacheManager.getCache("parentCards")).thenReturn(parentCardsCache);
+        when(parentCardRepository.incrementJuniorCardCount(1L, 1, 3)).thenReturn(0);
+
+        AccountLimitCards exception = assertThrows(AccountLimitCards.class,
+                () -> cardService.createJuniorCard(validRequest));
+
+        assertEquals(List.of(
+                new JuniorCardSummaryDto(1L, "Карта1", CardStatus.ACTIVE),
+                new JuniorCardSummaryDto(2L, "Карта2", CardStatus.ACTIVE),
+                new JuniorCardSummaryDto(3L, "Карта3", CardStatus.PENDING)), exception.getExistingCards());
+        verify(cardRepository, never()).findSummariesByParentCardId(any());
+        verify(parentCardRepository, never()).existsById(any());
+    }
+
+    @Test
+    void createJuniorCards_ValidBatch_SavesAllCards() {
+        log.info("Тест: пакетное создание карт (успех)");
+
+        List<CreateCardDto> batch = List.of(
+                new CreateCardDto("Вася", 10, 1L),
+                new CreateCardDto("Петя", 12, 1L)
+        );
+
+        when(parentCardRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(testParent));
+
+        List<Long> result = cardService.createJuniorCards(batch);
+
+        assertEquals(2, result.size());
+        verify(parentCardRepository, times(1)).addJuniorCardCount(List.of(1L), 2);
+        verify(cardRepository, times(1)).saveAll(anyList());
         verify(cardRepository, never()).save(any());
     }
 
+    @Test
+    void createJuniorCards_LimitExceededInsideBatch_ThrowsException() {
+        log.info("Тест: превышение лимита внутри пакета");
+
+        List<CreateCardDto> batch = List.of(
+                new CreateCardDto("Вася", 10, 1L),
+                new CreateCardDto("Петя", 12, 1L)
+        );
+        testParent.setJuniorCardCount(2);
+        List<JuniorCardSummaryDto> existingCards = List.of(
+                new JuniorCardSummaryDto(1L, "Карта1", CardStatus.ACTIVE),
+                new JuniorCardSummaryDto(2L, "Карта2", CardStatus.ACTIVE)
+        );
+
+        when(parentCardRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(testParent));
+        when(cardRepository.findSummariesByParentCardId(1L)).thenReturn(existingCards);
+
+        AccountLimitCards exception = assertThrows(AccountLimitCards.class,
+                () -> cardService.createJuniorCards(batch));
+
+        assertEquals("ACCOUNT_LIMIT_EXCEEDED", exception.getErrorCode());
+        verify(parentCardRepository, never()).addJuniorCardCount(any(), anyInt());
+        verify(cardRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void createJuniorCards_ParentNotFound_ThrowsException() {
+        log.info("Тест: родитель из пакета не найден");
+
+        List<CreateCardDto> batch = List.of(new CreateCardDto("Вася", 10, 999L));
+        when(parentCardRepository.findAllByIdForUpdate(List.of(999L))).thenReturn(List.of());
+
+        assertThrows(CardNotFoundException.class, () -> cardService.createJuniorCards(batch));
+
+        verify(cardRepository, never()).saveAll(anyList());
+    }
+
     // ========== ПОЛУЧЕНИЕ КАРТЫ ==========
 
     @Test
     void getJuniorCardById_CardExists_Success() {
         log.info("Тест: получение карты по ID");
 
-        when(cardRepository.findById(5L)).thenReturn(Optional.of(testCard));
+        when(cardRepository.findDtoById(5L)).thenReturn(Optional.of(
+                new JuniorCardDto(5L, "Вася", CardStatus.PENDING, 10, 1L, null, 0L)));
 
-        JuniorCard result = cardService.getJuniorCardById(5L);
+        JuniorCardDto result = cardService.getJuniorCardById(5L);
 
         assertNotNull(result);
-        assertEquals(5L, result.getId());
-        assertEquals("Вася", result.getName());
+        assertEquals(5L, result.id());
+        assertEquals("Вася", result.name());
 
-        verify(cardRepository, times(1)).findById(5L);
+        verify(cardRepository, times(1)).findDtoById(5L);
+        verify(cardRepository, never()).findById(any());
     }
 
     @Test
     void getJuniorCardById_CardNotFound_ThrowsException() {
         log.info("Тест: карта не найдена");
 
-        when(cardRepository.findById(999L)).thenReturn(Optional.empty());
+        when(cardRepository.findDtoById(999L)).thenReturn(Optional.empty());
 
         assertThrows(CardNotFoundException.class,
                 () -> cardService.getJuniorCardById(999L));
 
-        verify(cardRepository, times(1)).findById(999L);
+        verify(cardRepository, times(1)).findDtoById(999L);
     }
 
     // ========== ОБНОВЛЕНИЕ КАРТЫ ==========
@@ -147,19 +269,32 @@ class CardServiceTest {
 
         UpdateCardDto updateRequest = new UpdateCardDto(12, "Новое Имя");
 
-        JuniorCard updatedCard = JuniorCard.builder()
-                .id(5L).name("Новое Имя").childAge(12)
-                .status(CardStatus.PENDING).build();
-
         when(cardRepository.findById(5L)).thenReturn(Optional.of(testCard));
-        when(cardRepository.save(any(JuniorCard.class))).thenReturn(updatedCard);
 
-        JuniorCard result = cardService.updateJuniorCard(5L, updateRequest);
+        CardUpdateResultDto<JuniorCard> result = cardService.updateJuniorCard(5L, updateRequest, null);
 
-        assertEquals("Новое Имя", result.getName());
-        assertEquals(12, result.getChildAge());
+        assertTrue(result.modified());
+        assertEquals("Новое Имя", result.card().getName());
+        assertEquals(12, result.card().getChildAge());
 
-        verify(cardRepository, times(1)).save(any(JuniorCard.class));
+        // Изменения записывает dirty checking при коммите - явный save не нужен
+        verify(cardRepository, never()).save(any(JuniorCard.class));
+    }
+
+    @Test
+    void updateJuniorCard_SameData_NotModified() {
+        log.info("Тест: обновление карты теми же данными");
+
+        // ARRANGE
+        when(cardRepository.findById(5L)).thenReturn(Optional.of(testCard));
+
+        // ACT
+        CardUpdateResultDto<JuniorCard> result = cardService.updateJuniorCard(5L, new UpdateCardDto(10, "Вася"), null);
+
+        // ASSERT
+        assertFalse(result.modified());
+        assertSame(testCard, result.card());
+        verify(cacheManager, never()).getCache(any());
     }
 
     // ========== ИЗМЕНЕНИЕ СТАТУСА ==========
@@ -171,34 +306,161 @@ class CardServiceTest {
         ChangeStatusDto statusRequest = new ChangeStatusDto(CardStatus.ACTIVE);
 
         JuniorCard activatedCard = JuniorCard.builder()
-                .id(5L).name("Вася").status(CardStatus.ACTIVE).build();
+                .id(5L).name("Вася").status(CardStatus.ACTIVE).version(1L).build();
 
-        when(cardRepository.findById(5L)).thenReturn(Optional.of(testCard));
-        when(cardRepository.save(any(JuniorCard.class))).thenReturn(activatedCard);
+        when(cardRepository.findStatusDtoById(5L))
+                .thenReturn(Optional.of(new JuniorCardStatusDto(5L, CardStatus.PENDING, 1L, 0L)));
+        when(cardRepository.updateStatusIfVersion(5L, 0L, CardStatus.ACTIVE)).thenReturn(1);
+        when(cardRepository.findById(5L)).thenReturn(Optional.of(activatedCard));
 
-        JuniorCard result = cardService.changeJuniorStatus(5L, statusRequest);
+        JuniorCard result = cardService.changeJuniorStatus(5L, statusRequest, null);
 
         assertEquals(CardStatus.ACTIVE, result.getStatus());
-        verify(cardRepository, times(1)).save(any(JuniorCard.class));
+        verify(cardRepository, times(1)).updateStatusIfVersion(5L, 0L, CardStatus.ACTIVE);
+        verify(secondLevelCacheInvalidator).invalidate(JuniorCard.class, 5L);
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    void changeJuniorStatus_ConcurrentChange_RetriesWithFreshVersion() {
+        log.info("Тест: повтор смены статуса после параллельного изменения карты");
+
+        // ARRANGE: между чтением и UPDATE карту изменили (версия 0 -> 1), вторая попытка успешна
+        when(cardRepository.findStatusDtoById(5L)).thenReturn(
+                Optional.of(new JuniorCardStatusDto(5L, CardStatus.ACTIVE, 1L, 0L)),
+                Optional.of(new JuniorCardStatusDto(5L, CardStatus.ACTIVE, 1L, 1L)));
+        when(cardRepository.updateStatusIfVersion(5L, 0L, CardStatus.SUSPENDED)).thenReturn(0);
+        when(cardRepository.updateStatusIfVersion(5L, 1L, CardStatus.SUSPENDED)).thenReturn(1);
+        when(cardRepository.findById(5L)).thenReturn(Optional.of(JuniorCard.builder()
+                .id(5L).status(CardStatus.SUSPENDED).version(2L).build()));
+
+        // ACT
+        JuniorCard result = cardService.changeJuniorStatus(5L, new ChangeStatusDto(CardStatus.SUSPENDED), null);
+
+        // ASSERT
+        assertEquals(CardStatus.SUSPENDED, result.getStatus());
+        verify(cardRepository, times(2)).findStatusDtoById(5L);
+    }
+
+    @Test
+    void changeJuniorStatus_StaleExpectedVersion_ThrowsPreconditionFailed() {
+        log.info("Тест: смена статуса по устаревшей версии");
+
+        // ARRANGE
+        when(cardRepository.findStatusDtoById(5L))
+                .thenReturn(Optional.of(new JuniorCardStatusDto(5L, CardStatus.ACTIVE, 1L, 7L)));
+
+        // ACT
+        PreconditionFailedException exception = assertThrows(PreconditionFailedException.class,
+                () -> cardService.changeJuniorStatus(5L, new ChangeStatusDto(CardStatus.SUSPENDED), 6L));
+
+        // ASSERT
+        assertEquals("PRECONDITION_FAILED", exception.getErrorCode());
+        verify(cardRepository, never()).updateStatusIfVersion(anyLong(), anyLong(), any());
     }
 
     @Test
     void changeJuniorStatus_InvalidTransition_ThrowsException() {
         log.info("Тест: невалидный переход статуса");
 
-        JuniorCard cancelledCard = JuniorCard.builder()
-                .id(5L).status(CardStatus.CANCELLED).build();
-
         ChangeStatusDto statusRequest = new ChangeStatusDto(CardStatus.ACTIVE);
-        when(cardRepository.findById(5L)).thenReturn(Optional.of(cancelledCard));
+        when(cardRepository.findStatusDtoById(5L))
+                .thenReturn(Optional.of(new JuniorCardStatusDto(5L, CardStatus.CANCELLED, 1L, 0L)));
 
         ApplicationException exception = assertThrows(ApplicationException.class,
-                () -> cardService.changeJuniorStatus(5L, statusRequest));
+                () -> cardService.changeJuniorStatus(5L, statusRequest, null));
 
         assertEquals("INVALID_STATUS_TRANSITION", exception.getErrorCode());
+        verify(cardRepository, never()).updateStatusIfVersion(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void changeJuniorStatus_InvalidTransition_ReusesStacklessException() {
+        log.info("Тест: отказ в переходе статуса не создает новое исключение");
+
+        // ARRANGE
+        when(cardRepository.findStatusDtoById(5L))
+                .thenReturn(Optional.of(new JuniorCardStatusDto(5L, CardStatus.CANCELLED, 1L, 0L)));
+        ChangeStatusDto statusRequest = new ChangeStatusDto(CardStatus.ACTIVE);
+
+        // ACT
+        InvalidStatusTransitionException first = assertThrows(InvalidStatusTransitionException.class,
+                () -> cardService.changeJuniorStatus(5L, statusRequest, null));
+        InvalidStatusTransitionException second = assertThrows(InvalidStatusTransitionException.class,
+                () -> cardService.changeJuniorStatus(5L, statusRequest, null));
+
+        // ASSERT
+        assertSame(first, second);
+        assertEquals(0, first.getStackTrace().length);
+        assertEquals("Невозможно изменить статус с CANCELLED на ACTIVE", first.getMessage());
+    }
+
+    @Test
+    void statusTransitions_ConfiguredPerCardType() {
+        log.info("Тест: правила переходов настраиваются для типа карты");
+
+        // ARRANGE: родителю разрешено только ACTIVE -> CANCELLED
+        StatusTransitionProperties properties = new StatusTransitionProperties();
+        properties.getParent().put(CardStatus.ACTIVE, Set.of(CardStatus.CANCELLED));
+
+        // ACT
+        CardStatusTransitions transitions = new CardStatusTransitions(properties);
+
+        // ASSERT
+        assertTrue(transitions.isAllowed(CardType.PARENT, CardStatus.ACTIVE, CardStatus.CANCELLED));
+        assertFalse(transitions.isAllowed(CardType.PARENT, CardStatus.ACTIVE, CardStatus.SUSPENDED));
+        assertTrue(transitions.isAllowed(CardType.JUNIOR, CardStatus.ACTIVE, CardStatus.SUSPENDED),
+                "Для детских карт должны остаться правила по умолчанию");
+    }
+
+    @Test
+    void changeJuniorStatuses_ClassifiesEveryId() {
+        log.info("Тест: массовое изменение статуса");
+
+        // ARRANGE: 1 и 2 активны, 3 отменена, 4 не существует
+        when(cardRepository.findStatusesByIdIn(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(
+                new JuniorCardStatusDto(1L, CardStatus.ACTIVE, 10L, 0L),
+                new JuniorCardStatusDto(2L, CardStatus.ACTIVE, 20L, 0L),
+                new JuniorCardStatusDto(3L, CardStatus.CANCELLED, 10L, 0L)
+        ));
+        when(cardRepository.updateStatusWhereStatusIn(List.of(1L, 2L),
+                Set.of(CardStatus.ACTIVE), CardStatus.SUSPENDED)).thenReturn(2);
+
+        // ACT
+        BulkChangeStatusResultDto result = cardService.changeJuniorStatuses(
+                new BulkChangeStatusDto(List.of(1L, 2L, 3L, 4L, 1L), CardStatus.SUSPENDED));
+
+        // ASSERT
+        assertEquals(2, result.getUpdatedCount());
+        assertEquals(List.of(1L, 2L), result.getUpdated());
+        assertEquals(List.of(4L), result.getNotFound());
+        assertEquals(List.of(3L), result.getInvalidTransition());
+        verify(cardRepository, never()).findById(any());
         verify(cardRepository, never()).save(any());
     }
 
+    @Test
+    void changeJuniorStatuses_ConcurrentChange_RereadsStatuses() {
+        log.info("Тест: массовое изменение статуса при параллельном изменении карты");
+
+        // ARRANGE: карту 2 отменили между чтением статусов и UPDATE
+        when(cardRepository.findStatusesByIdIn(List.of(1L, 2L))).thenReturn(
+                List.of(new JuniorCardStatusDto(1L, CardStatus.ACTIVE, 10L, 0L),
+                        new JuniorCardStatusDto(2L, CardStatus.ACTIVE, 10L, 0L)),
+                List.of(new JuniorCardStatusDto(1L, CardStatus.SUSPENDED, 10L, 0L),
+                        new JuniorCardStatusDto(2L, CardStatus.CANCELLED, 10L, 0L)));
+        when(cardRepository.updateStatusWhereStatusIn(List.of(1L, 2L),
+                Set.of(CardStatus.ACTIVE), CardStatus.SUSPENDED)).thenReturn(1);
+
+        // ACT
+        BulkChangeStatusResultDto result = cardService.changeJuniorStatuses(
+                new BulkChangeStatusDto(List.of(1L, 2L), CardStatus.SUSPENDED));
+
+        // ASSERT
+        assertEquals(List.of(1L), result.getUpdated());
+        assertEquals(List.of(2L), result.getInvalidTransition());
+    }
+
     // ========== УДАЛЕНИЕ КАРТЫ ==========
 
     @Test
@@ -212,22 +474,133 @@ class CardServiceTest {
 
         verify(cardRepository, times(1)).findById(5L);
         verify(cardRepository, times(1)).delete(testCard);
+        verify(parentCardRepository, times(1)).decrementJuniorCardCount(1L, 1);
     }
 
     @Test
-    void getAllJuniorCards_ReturnsAllCards() {
-        log.info("Тест: получение всех карт");
+    void deleteJuniorCard_EvictsCachedParent() {
+        log.info("Тест: удаление карты сбрасывает кэш родителя");
+
+        ConcurrentMapCache parentCardsCache = new ConcurrentMapCache("parentCards");
+        parentCardsCache.put(1L, testParent);
+
+        when(cacheManager.getCache("parentCards")).thenReturn(parentCardsCache);
+        when(cardRepository.findById(5L)).thenReturn(Optional.of(testCard));
+
+        cardService.deleteJuniorCard(5L);
+
+        assertNull(parentCardsCache.get(1L), "Родитель с удаленной картой должен быть вытеснен из кэша");
+    }
 
-        List<JuniorCard> allCards = List.of(
-                JuniorCard.builder().id(1L).name("Карта1").build(),
-                JuniorCard.builder().id(2L).name("Карта2").build()
+    @Test
+    void getJuniorCardsPage_ReturnsPageAfterCursor() {
+        log.info("Тест: получение страницы карт после курсора");
+
+        List<JuniorCardDto> page = List.of(
+                new JuniorCardDto(11L, "Карта1", CardStatus.PENDING, 10, 1L, null, 0L),
+                new JuniorCardDto(12L, "Карта2", CardStatus.ACTIVE, 12, 1L, null, 0L)
         );
 
-        when(cardRepository.findAll()).thenReturn(allCards);
+        when(cardRepository.findDtoPageAfter(10L, Limit.of(2))).thenReturn(page);
 
-        List<JuniorCard> result = cardService.getAllJuniorCards();
+        List<JuniorCardDto> result = cardService.getJuniorCardsPage(10L, 2);
 
         assertEquals(2, result.size());
-        verify(cardRepository, times(1)).findAll();
+        verify(cardRepository, never()).findAll();
+    }
+
+    @Test
+    void getJuniorCardsPage_ClampsPageSize() {
+        log.info("Тест: размер страницы ограничивается сверху");
+
+        when(cardRepository.findDtoPageAfter(0L, Limit.of(CardService.MAX_PAGE_SIZE)))
+                .thenReturn(List.of());
+
+        List<JuniorCardDto> result = cardService.getJuniorCardsPage(null, 1_000_000);
+
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getParentCardsPage_LoadsJuniorCardsInOneQuery() {
+        log.info("Тест: детские карты страницы родителей загружаются одним запросом");
+
+        // ARRANGE
+        when(parentCardRepository.findDtoPageAfter(0L, Limit.of(2))).thenReturn(List.of(
+                new ParentCardDto(1L, "Родитель1", UserStatus.PARENT, 35, CardStatus.ACTIVE, null, 0L),
+                new ParentCardDto(2L, "Родитель2", UserStatus.PARENT, 40, CardStatus.ACTIVE, null, 0L)
+        ));
+        when(cardRepository.findDtosByParentCardIds(List.of(1L, 2L))).thenReturn(List.of(
+                new JuniorCardDto(11L, "Карта1", CardStatus.PENDING, 10, 1L, null, 0L),
+                new JuniorCardDto(12L, "Карта2", CardStatus.PENDING, 12, 1L, null, 0L)
+        ));
+
+        // ACT
+        List<ParentCardDto> result = cardService.getParentCardsPage(null, 2);
+
+        // ASSERT
+        assertEquals(2, result.size());
+        assertEquals(2, result.get(0).juniorCards().size());
+        assertTrue(result.get(1).juniorCards().isEmpty());
+        verify(cardRepository, times(1)).findDtosByParentCardIds(anyList());
+    }
+
+    // ========== ИСТЕЧЕНИЕ СРОКА ДЕЙСТВИЯ ==========
+
+    @Test
+    void expireDueJuniorCards_RecordsEventsOnlyForUpdatedCards() {
+        log.info("Тест: события истечения только для карт, измененных UPDATE");
+
+        // ARRANGE
+        when(cardRepository.claimExpiredActiveCards(any(), eq(100)))
+                .thenReturn(List.of(expiredCard(11L, 1L), expiredCard(12L, 1L)));
+        when(cardRepository.updateStatusWhereStatusIn(List.of(11L, 12L), List.of(CardStatus.ACTIVE), CardStatus.EXPIRED))
+                .thenReturn(1);
+        when(cardRepository.findStatusesByIdIn(List.of(11L, 12L))).thenReturn(List.of(
+                new JuniorCardStatusDto(11L, CardStatus.EXPIRED, 1L, 1L),
+                new JuniorCardStatusDto(12L, CardStatus.SUSPENDED, 1L, 1L)
+        ));
+
+        // ACT
+        int expired = cardService.expireDueJuniorCards(100);
+
+        // ASSERT
+        assertEquals(1, expired);
+        verify(cardChangeOutbox).recordAll(CardType.JUNIOR, Map.of(11L, 1L),
+                CardChangeType.STATUS_CHANGED, CardStatus.EXPIRED);
+    }
+
+    @Test
+    void expireDueParentCards_RecordsEventsOnlyForUpdatedCards() {
+        log.info("Тест: события истечения только для родителей, измененных UPDATE");
+
+        // ARRANGE
+        when(parentCardRepository.claimExpiredActiveCardIds(any(), eq(100))).thenReturn(List.of(1L, 2L));
+        when(parentCardRepository.updateCardStatus(List.of(1L, 2L), CardStatus.ACTIVE, CardStatus.EXPIRED))
+                .thenReturn(1);
+        when(parentCardRepository.findIdsByIdInAndCardStatus(List.of(1L, 2L), CardStatus.EXPIRED))
+                .thenReturn(List.of(2L));
+
+        // ACT
+        int expired = cardService.expireDueParentCards(100);
+
+        // ASSERT
+        assertEquals(1, expired);
+        verify(cardChangeOutbox).recordAll(eq(CardType.PARENT), argThat(cards -> cards.keySet().equals(Set.of(2L))),
+                eq(CardChangeType.STATUS_CHANGED), eq(CardStatus.EXPIRED));
+    }
+
+    private static CardRepository.ExpiredCard expiredCard(Long id, Long parentCardId) {
+        return new CardRepository.ExpiredCard() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getParentCardId() {
+                return parentCardId;
+            }
+        };
     }
-}
\ No newline at end of file
+}
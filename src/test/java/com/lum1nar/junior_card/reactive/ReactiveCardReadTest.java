@@ -0,0 +1,148 @@
+package com.lum1nar.junior_card.reactive;
+
+import com.lum1nar.junior_card.controller.CardController;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
+import com.lum1nar.junior_card.dto.ParentCardDto;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Интеграционный тест реактивного API чтения на встроенной H2 (R2DBC).
+ * Схема создается исходной миграцией Flyway, данные вставляются напрямую.
+ */
+@Slf4j
+@SpringBootTest(classes = ReactiveCardReadApplication.class, properties = {
+        "spring.main.web-application-type=reactive",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-read;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password=",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:db/migration/V1__initial_schema.sql"
+})
+@ActiveProfiles(ReactiveCardReadApplication.PROFILE)
+@AutoConfigureWebTestClient
+class ReactiveCardReadTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveCardReadService reactiveCardReadService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        Flux.concat(
+                databaseClient.sql("DELETE FROM junior_cards").then(),
+                databaseClient.sql("DELETE FROM parent_cards").then(),
+                databaseClient.sql("INSERT INTO parent_cards (id, name, status, age, card_status, version) " +
+                        "VALUES (1, 'Родитель', 'PARENT', 35, 'ACTIVE', 2)").then(),
+                databaseClient.sql("INSERT INTO parent_cards (id, name, status, age, card_status, version) " +
+                        "VALUES (2, 'Без детей', 'PARENT', 40, 'PENDING', 0)").then(),
+                databaseClient.sql("INSERT INTO junior_cards (id, name, child_age, status, parent_card_id, version) " +
+                        "VALUES (10, 'Вася', 10, 'ACTIVE', 1, 1), (11, 'Петя', 12, 'PENDING', 1, 0), " +
+                        "(12, 'Коля', 9, 'SUSPENDED', 1, 3)").then()
+        ).blockLast();
+    }
+
+    /**
+     * Тест: Получение полной страницы детских карт
+     * Ожидается: HTTP 200 OK, карты после afterId и курсор следующей страницы в заголовке
+     */
+    @Test
+    void juniorCardsPage_ReturnsNextCursor() {
+        log.info("Тест: страница детских карт через реактивный API");
+
+        List<JuniorCardDto> page = webTestClient.get().uri("/api/cards/junior?afterId=10&limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(CardController.NEXT_CURSOR_HEADER, "12")
+                .expectBodyList(JuniorCardDto.class).returnResult().getResponseBody();
+
+        assertNotNull(page);
+        assertEquals(List.of(11L, 12L), page.stream().map(JuniorCardDto::id).toList());
+        log.info("Тест пройден: страница и курсор совпадают с сервлетным API");
+    }
+
+    /**
+     * Тест: Получение родительской карты и повторный запрос с If-None-Match
+     * Ожидается: родитель с детскими картами и ETag, повторный запрос - HTTP 304
+     */
+    @Test
+    void parentCardById_ReturnsJuniorCardsAndETag() {
+        log.info("Тест: родительская карта через реактивный API");
+
+        ParentCardDto parentCard = webTestClient.get().uri("/api/cards/parent/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ParentCardDto.class).returnResult().getResponseBody();
+
+        assertNotNull(parentCard);
+        assertEquals(3, parentCard.juniorCards().size());
+        webTestClient.get().uri("/api/cards/parent/1")
+                .ifNoneMatch(parentCard.entityTag())
+                .exchange()
+                .expectStatus().isNotModified();
+        log.info("Тест пройден: родитель возвращается с детскими картами и ETag");
+    }
+
+    /**
+     * Тест: Запрос несуществующей карты
+     * Ожидается: HTTP 404 с кодом ошибки CARD_NOT_FOUND
+     */
+    @Test
+    void missingCard_Returns404() {
+        log.info("Тест: несуществующая карта через реактивный API");
+
+        webTestClient.get().uri("/api/cards/junior/999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody().jsonPath("$.errorCode").isEqualTo("CARD_NOT_FOUND");
+        log.info("Тест пройден: ответ об ошибке в формате основного API");
+    }
+
+    /**
+     * Тест: Потоковая выгрузка карт
+     * Ожидается: NDJSON со всеми картами; из БД читается не больше, чем запросил подписчик
+     */
+    @Test
+    void streams_AreNdjsonAndHonorDemand() {
+        log.info("Тест: потоковая выгрузка через реактивный API");
+
+        List<ParentCardDto> parents = webTestClient.get().uri("/api/cards/parent/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ParentCardDto.class).returnResult().getResponseBody();
+        assertNotNull(parents);
+        assertEquals(List.of(3, 0), parents.stream().map(parent -> parent.juniorCards().size()).toList());
+
+        StepVerifier.create(reactiveCardReadService.streamAllJuniorCards(), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(1)
+                .assertNext(card -> assertEquals(10L, card.id()))
+                .thenRequest(2)
+                .expectNextCount(2)
+                .verifyComplete();
+        log.info("Тест пройден: выгрузка потоковая и учитывает спрос клиента");
+    }
+}
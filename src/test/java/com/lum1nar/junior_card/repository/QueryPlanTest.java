@@ -0,0 +1,128 @@
+package com.lum1nar.junior_card.repository;
+
+import com.lum1nar.junior_card.config.CacheConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Регрессионный тест планов запросов на схеме из миграций Flyway (H2).
+ * Для горячих запросов проверяется, что БД выбирает нужный индекс, а не полный просмотр таблицы.
+ */
+@Slf4j
+@DataJpaTest
+@Import(CacheConfig.class) // менеджер кэшей второго уровня Hibernate
+class QueryPlanTest {
+
+    /** Так H2 помечает в плане полный просмотр таблицы */
+    private static final String TABLE_SCAN = "tablescan";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Тест: Запросы детских карт родителя (подсчет, список, фильтр по статусу, несколько родителей)
+     * Ожидается: запросы идут по индексу, индекс (parent_card_id, status) создан миграцией
+     * (H2 сам индексирует внешние ключи и может выбрать этот индекс, PostgreSQL - нет)
+     */
+    @Test
+    void juniorCardsOfParent_UseParentCardIndex() {
+        log.info("Тест: план запросов детских карт родителя");
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE LOWER(INDEX_NAME) = ?",
+                Integer.class, "idx_junior_cards_parent_card_id_status"));
+        assertNoTableScan("SELECT COUNT(*) FROM junior_cards WHERE parent_card_id = 1");
+        assertNoTableScan("SELECT id, name, status FROM junior_cards WHERE parent_card_id = 1");
+        assertUsesIndex("SELECT id FROM junior_cards WHERE parent_card_id = 1 AND status = 'ACTIVE'",
+                "idx_junior_cards_parent_card_id_status");
+        assertNoTableScan("SELECT id, name FROM junior_cards WHERE parent_card_id IN (1, 2, 3) ORDER BY id");
+        log.info("Тест пройден: запросы карт родителя идут по индексу");
+    }
+
+    /**
+     * Тест: Поиск истекших активных карт планировщиком
+     * Ожидается: используются индексы по (статус, срок действия)
+     */
+    @Test
+    void expiredCardsScan_UsesStatusExpiresAtIndexes() {
+        log.info("Тест: план поиска истекших карт");
+
+        assertUsesIndex("SELECT id FROM junior_cards WHERE status = 'ACTIVE' " +
+                        "AND expires_at <= TIMESTAMP '2030-01-01 00:00:00' ORDER BY expires_at",
+                "idx_junior_cards_status_expires_at");
+        assertUsesIndex("SELECT id FROM parent_cards WHERE card_status = 'ACTIVE' " +
+                        "AND expires_at <= TIMESTAMP '2030-01-01 00:00:00' ORDER BY expires_at",
+                "idx_parent_cards_card_status_expires_at");
+        log.info("Тест пройден: поиск истекших карт идет по индексам");
+    }
+
+    /**
+     * Тест: История операций карты и keyset-пагинация карт
+     * Ожидается: используются индексы журнала операций и первичные ключи
+     */
+    @Test
+    void historyAndPages_UseIndexes() {
+        log.info("Тест: план истории операций и постраничного чтения");
+
+        assertUsesIndex("SELECT id, amount FROM card_transactions WHERE junior_card_id = 1 AND id < 100 ORDER BY id DESC",
+                "idx_card_transactions_junior_card_id_id");
+        assertUsesIndex("SELECT id, amount FROM card_transactions WHERE parent_card_id = 1 AND id < 100 ORDER BY id DESC",
+                "idx_card_transactions_parent_card_id_id");
+        assertUsesIndex("SELECT id, name FROM junior_cards WHERE id > 100 ORDER BY id", "primary_key");
+        assertUsesIndex("SELECT id, name FROM parent_cards WHERE id > 100 ORDER BY id", "primary_key");
+        log.info("Тест пройден: история и страницы читаются по индексам");
+    }
+
+    /**
+     * Тест: Поиск детских карт по фильтрам (GET /api/cards/junior/search)
+     * Ожидается: начало имени ищется по индексу имени, статусы - по индексу (status, expires_at),
+     * статус родителя проверяется соединением по первичному ключу
+     */
+    @Test
+    void juniorCardSearch_UsesIndexes() {
+        log.info("Тест: план запросов поиска детских карт");
+
+        assertUsesIndex("SELECT id, name FROM junior_cards WHERE name LIKE 'Ва%' AND id > 0 ORDER BY id",
+                "idx_junior_cards_name");
+        assertUsesIndex("SELECT id, name FROM junior_cards WHERE status IN ('SUSPENDED') AND id > 0 ORDER BY id",
+                "idx_junior_cards_status_expires_at");
+        assertNoTableScan("SELECT c.id, c.name FROM junior_cards c JOIN parent_cards p ON p.id = c.parent_card_id " +
+                "WHERE c.status IN ('SUSPENDED') AND p.card_status IN ('ACTIVE') AND c.id > 0 ORDER BY c.id");
+        log.info("Тест пройден: поиск идет по индексам");
+    }
+
+    /**
+     * Тест: Чтение ленты изменений карт потребителем (GET /api/cards/changes?since=)
+     * Ожидается: события после смещения читаются по индексу смещений, а не просмотром outbox
+     */
+    @Test
+    void cardChangeFeed_UsesFeedOffsetIndex() {
+        log.info("Тест: план чтения ленты изменений карт");
+
+        assertUsesIndex("SELECT feed_offset, card_id FROM card_change_events WHERE feed_offset > 100 ORDER BY feed_offset",
+                "idx_card_change_events_feed_offset");
+        log.info("Тест пройден: лента изменений читается по индексу");
+    }
+
+    private void assertUsesIndex(String sql, String indexName) {
+        String plan = assertNoTableScan(sql);
+        assertTrue(plan.toLowerCase(Locale.ROOT).contains(indexName),
+                () -> "Индекс " + indexName + " не используется: " + plan);
+    }
+
+    private String assertNoTableScan(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertNotNull(plan);
+        log.debug("План запроса {}: {}", sql, plan);
+        assertFalse(plan.toLowerCase(Locale.ROOT).contains(TABLE_SCAN), () -> "Полный просмотр таблицы: " + plan);
+        return plan;
+    }
+}
@@ -1,13 +1,19 @@
 package com.lum1nar.junior_card.repository;
 
+import com.lum1nar.junior_card.config.CacheConfig;
+import com.lum1nar.junior_card.dto.JuniorCardDto;
 import com.lum1nar.junior_card.model.*;
+import jakarta.persistence.EntityManager;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -17,6 +23,7 @@ import static org.junit.jupiter.api.Assertions.*;
  */
 @Slf4j
 @DataJpaTest
+@Import(CacheConfig.class) // менеджер кэшей второго уровня Hibernate
 class CardRepositoryTest {
 
     @Autowired
@@ -25,6 +32,9 @@ class CardRepositoryTest {
     @Autowired
     private ParentCardRepository parentCardRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     /**
      * Тест: Подсчет карт когда их нет
      * Ожидается: возвращает 0
@@ -87,6 +97,89 @@ class CardRepositoryTest {
         log.info("Тест пройден: подсчитано {} карт", cardCount);
     }
 
+    /**
+     * Тест: Атомарное резервирование места под карты
+     * Ожидается: счетчик растет до лимита, сверх лимита UPDATE не срабатывает
+     */
+    @Test
+    void testIncrementJuniorCardCount_StopsAtLimit() {
+        log.info("Выполняется тест: атомарное увеличение счетчика карт");
+
+        // ARRANGE
+        ParentCard parentCard = parentCardRepository.save(ParentCard.builder()
+                .name("Родитель").age(35).status(UserStatus.PARENT).cardStatus(CardStatus.ACTIVE).build());
+        parentCardRepository.flush();
+
+        // ACT
+        int first = parentCardRepository.incrementJuniorCardCount(parentCard.getId(), 2, 3);
+        int overLimit = parentCardRepository.incrementJuniorCardCount(parentCard.getId(), 2, 3);
+        int last = parentCardRepository.incrementJuniorCardCount(parentCard.getId(), 1, 3);
+        int decremented = parentCardRepository.decrementJuniorCardCount(parentCard.getId(), 1);
+        entityManager.clear();
+
+        // ASSERT
+        assertEquals(1, first);
+        assertEquals(0, overLimit, "UPDATE сверх лимита не должен срабатывать");
+        assertEquals(1, last);
+        assertEquals(1, decremented);
+        assertEquals(2, parentCardRepository.findById(parentCard.getId()).orElseThrow().getJuniorCardCount());
+        log.info("Тест пройден: счетчик не превысил лимит");
+    }
+
+    /**
+     * Тест: Массовый UPDATE статуса учитывает исходный статус карты
+     * Ожидается: обновляются только карты в допустимых исходных статусах
+     */
+    @Test
+    void testUpdateStatusWhereStatusIn_SkipsDisallowedSources() {
+        log.info("Выполняется тест: массовое изменение статуса одним UPDATE");
+
+        // ARRANGE
+        ParentCard parentCard = parentCardRepository.save(ParentCard.builder()
+                .name("Родитель").age(35).status(UserStatus.PARENT).cardStatus(CardStatus.ACTIVE).build());
+        JuniorCard active = cardRepository.save(JuniorCard.builder()
+                .name("Вася").childAge(10).parentCard(parentCard).status(CardStatus.ACTIVE).build());
+        JuniorCard cancelled = cardRepository.save(JuniorCard.builder()
+                .name("Петя").childAge(12).parentCard(parentCard).status(CardStatus.CANCELLED).build());
+        cardRepository.flush();
+
+        // ACT
+        int updated = cardRepository.updateStatusWhereStatusIn(List.of(active.getId(), cancelled.getId()),
+                List.of(CardStatus.ACTIVE), CardStatus.SUSPENDED);
+        entityManager.clear();
+
+        // ASSERT
+        assertEquals(1, updated);
+        assertEquals(CardStatus.SUSPENDED, cardRepository.findById(active.getId()).orElseThrow().getStatus());
+        assertEquals(CardStatus.CANCELLED, cardRepository.findById(cancelled.getId()).orElseThrow().getStatus());
+        log.info("Тест пройден: запрещенный переход не выполнен");
+    }
+
+    /**
+     * Тест: Сохранение сущности родителя не перезаписывает счетчик карт
+     * Ожидается: счетчик изменяется только атомарными UPDATE
+     */
+    @Test
+    void testSaveParentCard_DoesNotOverwriteJuniorCardCount() {
+        log.info("Выполняется тест: сохранение родителя не трогает счетчик");
+
+        // ARRANGE
+        ParentCard parentCard = parentCardRepository.saveAndFlush(ParentCard.builder()
+                .name("Родитель").age(35).status(UserStatus.PARENT).cardStatus(CardStatus.ACTIVE).build());
+        parentCardRepository.incrementJuniorCardCount(parentCard.getId(), 1, 3);
+
+        // ACT: сущность в контексте хранит устаревшее значение счетчика
+        parentCard.setName("Новое имя");
+        parentCardRepository.saveAndFlush(parentCard);
+        entityManager.clear();
+
+        // ASSERT
+        ParentCard reloaded = parentCardRepository.findById(parentCard.getId()).orElseThrow();
+        assertEquals("Новое имя", reloaded.getName());
+        assertEquals(1, reloaded.getJuniorCardCount());
+        log.info("Тест пройден: счетчик сохранен");
+    }
+
     /**
      * Тест: Получение всех детских карт родителя
      * Ожидается: возвращает все три карты
@@ -168,4 +261,41 @@ class CardRepositoryTest {
                 "Ошибка должна содержать упоминание 'parentCard'");
         log.info("Тест пройден: выброшено исключение как ожидается");
     }
-}
\ No newline at end of file
+
+    /**
+     * Тест: Keyset-пагинация и потоковое чтение детских карт
+     * Ожидается: страница начинается после курсора, поток отдает все карты по возрастанию ID
+     */
+    @Test
+    void testKeysetPageAndStream_ReturnCardsOrderedById() {
+        log.info("Выполняется тест: keyset-пагинация детских карт");
+
+        // ARRANGE
+        ParentCard parentCard = parentCardRepository.save(ParentCard.builder()
+                .name("Родитель")
+                .age(35)
+                .status(UserStatus.PARENT)
+                .cardStatus(CardStatus.ACTIVE)
+                .build());
+
+        JuniorCard first = cardRepository.save(JuniorCard.builder()
+                .name("Вася").childAge(10).parentCard(parentCard).status(CardStatus.PENDING).build());
+        JuniorCard second = cardRepository.save(JuniorCard.builder()
+                .name("Петя").childAge(12).parentCard(parentCard).status(CardStatus.ACTIVE).build());
+        JuniorCard third = cardRepository.save(JuniorCard.builder()
+                .name("Маша").childAge(8).parentCard(parentCard).status(CardStatus.PENDING).build());
+
+        // ACT
+        List<JuniorCardDto> page = cardRepository.findDtoPageAfter(first.getId(), Limit.of(1));
+        List<Long> streamedIds;
+        try (Stream<JuniorCardDto> cards = cardRepository.streamAllDtos()) {
+            streamedIds = cards.map(JuniorCardDto::id).toList();
+        }
+
+        // ASSERT
+        assertEquals(List.of(second.getId()), page.stream().map(JuniorCardDto::id).toList());
+        assertEquals(parentCard.getId(), page.get(0).parentCardId());
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), streamedIds);
+        log.info("Тест пройден: страница и поток отсортированы по ID");
+    }
+}